@@ -16,4 +16,87 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Sources hold UI symbols and emoji; compile them the same way whatever the platform's default charset.
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+val jmhVersion = "1.37"
+
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+// Usage: gradle jmh [-Pjmh.includes=SessionBenchmark]; results go to build/reports/jmh/results.json
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes JSON results."
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(resultFile)
+    doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+    args(listOfNotNull(
+        project.findProperty("jmh.includes")?.toString(),
+        "-rf", "json",
+        "-rff", resultFile.get().asFile.absolutePath,
+    ))
+    jvmArgs("-Djava.awt.headless=true")
+}
+
+// Usage: gradle batchImport --args="--portfolio portfolio.ckp ~/recipes"
+tasks.register<JavaExec>("batchImport") {
+    group = "application"
+    description = "Builds or extends a portfolio from a folder of PDFs without a display."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("portfolio.cli.BatchImport")
+    jvmArgs("-Djava.awt.headless=true")
+    workingDir = projectDir
+}
+
+// AppCDS: the archive only covers classes loaded from JARs, so both tasks run from the built jar.
+// Usage: gradle cdsArchive, then gradle client (uses the archive when present; -Dportfolio.fastStart=false to compare)
+val cdsArchiveFile = layout.buildDirectory.file("cds/portfolio.jsa")
+
+tasks.register<JavaExec>("cdsArchive") {
+    group = "application"
+    description = "Records the classes loaded during startup into an AppCDS archive."
+    dependsOn(tasks.jar)
+    classpath = files(tasks.jar.flatMap { it.archiveFile })
+    mainClass.set("portfolio.cli.CdsTraining")
+    workingDir = projectDir
+    outputs.file(cdsArchiveFile)
+    doFirst {
+        val archive = cdsArchiveFile.get().asFile
+        archive.parentFile.mkdirs()
+        jvmArgs("-XX:ArchiveClassesAtExit=" + archive.absolutePath)
+    }
+}
+
+tasks.register<JavaExec>("client") {
+    group = "application"
+    description = "Starts the app, sharing class data from the AppCDS archive once it has been built."
+    dependsOn(tasks.jar)
+    classpath = files(tasks.jar.flatMap { it.archiveFile })
+    mainClass.set("portfolio.Client")
+    workingDir = projectDir
+    systemProperties(System.getProperties().filterKeys { it.toString().startsWith("portfolio.") }
+        .mapKeys { it.key.toString() })
+    doFirst {
+        val archive = cdsArchiveFile.get().asFile
+        if (archive.exists()) {
+            jvmArgs("-XX:SharedArchiveFile=" + archive.absolutePath, "-Xshare:auto")
+        }
+    }
+}
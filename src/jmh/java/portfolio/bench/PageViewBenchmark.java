@@ -0,0 +1,74 @@
+package portfolio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.PageViewFactory;
+import portfolio.input.PdfStore;
+import portfolio.pdf.PdfDocumentRegistry;
+import portfolio.pdf.PdfTextCache;
+import portfolio.thumbnail.ThumbnailCache;
+import portfolio.viewer.TileCache;
+
+import javax.swing.JPanel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds page views without a window; run with -Djava.awt.headless=true (the jmh task sets it).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageViewBenchmark {
+
+    private Path folder;
+    private ThumbnailCache thumbnails;
+    private TileCache tiles;
+    private PageViewFactory factory;
+    private int pageNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("bench-views");
+        thumbnails = new ThumbnailCache(folder.resolve("thumbs"), ThumbnailCache.DEFAULT_MEMORY_BYTES, Runnable::run);
+        tiles = new TileCache(TileCache.DEFAULT_MEMORY_BYTES, 1, Runnable::run);
+        factory = new PageViewFactory(new PdfStore(folder.resolve("pdfs")), new PdfDocumentRegistry(), thumbnails,
+                tiles, new PdfTextCache(), Runnable::run, () -> 500);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        thumbnails.shutdown();
+        tiles.shutdown();
+        BenchFiles.deleteRecursively(folder);
+    }
+
+    @Benchmark
+    public JPanel createPageContent() {
+        pageNumber = pageNumber % 500 + 1;
+        return factory.createPageContent(pageNumber, "Page " + pageNumber, null);
+    }
+
+    @Benchmark
+    public JPanel createPdfPageContent() {
+        pageNumber = pageNumber % 500 + 1;
+        return factory.createPdfPageContent(pageNumber, "PDF: recipe " + pageNumber, "missing.pdf", "",
+                () -> {
+                });
+    }
+}
@@ -0,0 +1,104 @@
+package portfolio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.input.PdfImportPipeline;
+import portfolio.input.PdfStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfImportBenchmark {
+
+    @Param({"64", "1024", "8192"})
+    public int fileSizeKb;
+
+    @Param({"1", "16"})
+    public int fileCount;
+
+    private Path sourceFolder;
+    private Path storeFolder;
+    private List<File> files;
+    private PdfImportPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void createSources() throws IOException {
+        sourceFolder = Files.createTempDirectory("bench-import-src");
+        files = new ArrayList<>(fileCount);
+        Random random = new Random(fileSizeKb * 31L + fileCount);
+        byte[] content = new byte[fileSizeKb * 1024];
+        for (int i = 0; i < fileCount; i++) {
+            random.nextBytes(content);
+            Path file = sourceFolder.resolve("recipe-" + i + ".pdf");
+            Files.write(file, content);
+            files.add(file.toFile());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createStore() throws IOException {
+        storeFolder = Files.createTempDirectory("bench-import-store");
+        pipeline = new PdfImportPipeline(new PdfStore(storeFolder), Runnable::run);
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteStore() throws IOException {
+        pipeline.shutdown();
+        BenchFiles.deleteRecursively(storeFolder);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSources() throws IOException {
+        BenchFiles.deleteRecursively(sourceFolder);
+    }
+
+    @Benchmark
+    public List<PdfImportPipeline.ImportResult> importFiles() throws Exception {
+        CompletableFuture<List<PdfImportPipeline.ImportResult>> done = new CompletableFuture<>();
+        pipeline.submit(files, new PdfImportPipeline.ImportListener() {
+            @Override
+            public void onProgress(int filesDone, int fileCount, long bytesDone, long totalBytes) {
+            }
+
+            @Override
+            public void onComplete(List<PdfImportPipeline.ImportResult> results) {
+                done.complete(results);
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                done.completeExceptionally(error);
+            }
+
+            @Override
+            public void onCancelled(List<PdfImportPipeline.ImportResult> results) {
+                done.complete(results);
+            }
+        });
+        return done.get();
+    }
+}
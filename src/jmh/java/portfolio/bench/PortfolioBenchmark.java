@@ -0,0 +1,91 @@
+package portfolio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.input.Constants;
+import portfolio.page.Page;
+import portfolio.page.Portfolio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+
+    @Param({"1000", "10000"})
+    public int pageCount;
+
+    private Path folder;
+    private Path snapshotPath;
+    private Path journalPath;
+    private Portfolio journaled;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("bench-portfolio");
+        snapshotPath = folder.resolve("snapshot" + Constants.DEFAULT_SAVE_EXTENSION);
+        journalPath = folder.resolve("journal" + Constants.DEFAULT_SAVE_EXTENSION);
+
+        Portfolio portfolio = build(pageCount);
+        portfolio.save(snapshotPath);
+        portfolio.save(journalPath);
+        journaled = Portfolio.open(journalPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchFiles.deleteRecursively(folder);
+    }
+
+    private static Portfolio build(int pages) {
+        Portfolio portfolio = new Portfolio();
+        for (int i = 0; i < pages; i++) {
+            if (i % 10 == 0) {
+                portfolio.addPage(Constants.PAGE_TYPE_PDF, "PDF: recipe " + i, "recipe-" + i + Constants.PDF_EXTENSION);
+            } else {
+                Page page = portfolio.addPage(Constants.PAGE_TYPE_RECIPE, "Recipe " + i, "");
+                portfolio.updatePage(page.withNotes("Notes for recipe " + i + ": flour, water, salt, yeast."));
+            }
+        }
+        return portfolio;
+    }
+
+    @Benchmark
+    public Portfolio load() throws IOException {
+        return Portfolio.open(snapshotPath);
+    }
+
+    @Benchmark
+    public Portfolio buildAndSaveSnapshot() throws IOException {
+        Portfolio portfolio = build(pageCount);
+        portfolio.save(folder.resolve("fresh" + Constants.DEFAULT_SAVE_EXTENSION));
+        return portfolio;
+    }
+
+    @Benchmark
+    public Portfolio saveOneEdit() throws IOException {
+        int id = journaled.idAt(edits++ % journaled.size());
+        journaled.updatePage(journaled.getPage(id).withTitle("Edited " + edits));
+        journaled.save(journalPath);
+        return journaled;
+    }
+}
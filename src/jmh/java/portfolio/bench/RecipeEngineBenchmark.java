@@ -0,0 +1,86 @@
+package portfolio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.recipe.Ingredient;
+import portfolio.recipe.IngredientCatalog;
+import portfolio.recipe.Recipe;
+import portfolio.recipe.RecipeEngine;
+import portfolio.recipe.ShoppingList;
+import portfolio.recipe.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates shopping lists over a book of synthetic recipes; {@code menuSize} 21 is three meals a day for a week.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeEngineBenchmark {
+
+    private static final String[] STAPLES = {
+            "flour", "water", "salt", "yeast", "sugar", "butter", "egg", "milk", "olive oil", "honey",
+            "tomato", "onion", "garlic", "rice", "pasta", "chicken", "ground beef", "carrot", "potato", "lemon"};
+    private static final Unit[] UNITS = {Unit.GRAM, Unit.CUP, Unit.TABLESPOON, Unit.PIECE, Unit.OUNCE};
+
+    @Param({"5000"})
+    public int recipeCount;
+
+    @Param({"21", "1000"})
+    public int menuSize;
+
+    private RecipeEngine engine;
+    private int[] menu;
+    private double[] factors;
+    private ShoppingList shoppingList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        engine = new RecipeEngine(IngredientCatalog.withDefaults());
+        for (int r = 0; r < recipeCount; r++) {
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String name = i < 10 ? STAPLES[random.nextInt(STAPLES.length)] : "spice " + random.nextInt(400);
+                ingredients.add(new Ingredient(0.5 + random.nextInt(40) / 4.0, UNITS[random.nextInt(UNITS.length)],
+                        name, ""));
+            }
+            engine.add(new Recipe("Recipe " + r, 2 + random.nextInt(6), "", ingredients, List.of()));
+        }
+        menu = new int[menuSize];
+        factors = new double[menuSize];
+        for (int i = 0; i < menuSize; i++) {
+            menu[i] = random.nextInt(recipeCount);
+            factors[i] = engine.factorFor(menu[i], 4);
+        }
+        shoppingList = new ShoppingList();
+    }
+
+    @Benchmark
+    public ShoppingList aggregateMenu() {
+        return engine.aggregate(menu, factors, menuSize, shoppingList);
+    }
+
+    @Benchmark
+    public double nutritionPerServing() {
+        engine.aggregate(menu, factors, menuSize, shoppingList);
+        return shoppingList.getNutrient(IngredientCatalog.KCAL) / (4.0 * menuSize);
+    }
+}
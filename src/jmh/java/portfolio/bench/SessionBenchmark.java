@@ -0,0 +1,68 @@
+package portfolio.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.input.Constants;
+import portfolio.input.Session;
+import portfolio.input.SessionState;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+    private Session session;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        session = new Session(SessionState.INITIAL.withTotalPages(Constants.MAX_PAGES / 2));
+        session.addListener((previous, current) -> {
+        });
+    }
+
+    @Benchmark
+    public SessionState snapshot() {
+        return session.snapshot();
+    }
+
+    @Benchmark
+    public boolean navigate() {
+        int page = session.snapshot().getCurrentPageNumber() % 1000 + 1;
+        return session.transition(state -> state.navigateToPage(page));
+    }
+
+    @Benchmark
+    public boolean uploadCycle() {
+        session.transition(SessionState::startPdfUpload);
+        session.transition(state -> state.registerPdfUpload("recipe.pdf"));
+        return session.transition(SessionState::endPdfUpload);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contendedMarkSaved() {
+        session.transition(SessionState::markUnsaved);
+        return session.transition(state -> state.markSaved(null));
+    }
+
+    @Benchmark
+    public int constantsFacade() {
+        Constants.navigateToPage(1);
+        return Constants.getTotalPages();
+    }
+}
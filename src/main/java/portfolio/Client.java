@@ -1,39 +1,248 @@
 package portfolio;
 
+import portfolio.backup.BackupManager;
+import portfolio.export.PortfolioExporter;
 import portfolio.input.Constants;
+import portfolio.input.PdfImportPipeline;
+import portfolio.input.PdfStore;
 import portfolio.input.PdfUploader;
+import portfolio.input.Session;
+import portfolio.input.SessionListener;
+import portfolio.input.SessionState;
+import portfolio.metrics.Metrics;
+import portfolio.metrics.Startup;
+import portfolio.page.Autosaver;
+import portfolio.page.History;
+import portfolio.page.Page;
+import portfolio.page.Portfolio;
+import portfolio.pdf.PdfTextCache;
+import portfolio.recipe.MenuPlanner;
+import portfolio.recipe.Recipe;
+import portfolio.recipe.RecipeExtractor;
+import portfolio.recipe.RecipeText;
+import portfolio.search.SearchIndex;
+import portfolio.search.SimilarityIndex;
+import portfolio.sync.FolderSync;
+import portfolio.thumbnail.ThumbnailCache;
+import portfolio.viewer.PdfViewerPanel;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
+import java.awt.event.AWTEventListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 public class Client {
 
     private JFrame mainFrame;
-    private JTabbedPane tabbedPane;
+    private JList<Integer> pageList;
+    private PageListModel pageListModel;
+    private JPanel pageContainer;
+    private JTextField jumpField;
+    private JTextField searchField;
     private JPanel headerPanel;
     private JPanel footerPanel;
     private JLabel statusLabel;
+    private JLabel pagesLabel;
+    private JLabel metricsLabel;
+    private long importStartedAt;
+    private String statusMessage = "Ready";
+    private final AtomicBoolean sessionRefreshPending = new AtomicBoolean();
     private JButton newPageButton;
     private JButton saveButton;
     private JButton settingsButton;
+    private JButton portfoliosButton;
+    private JButton exportButton;
     private JButton uploadPdfButton;
     private JButton viewPdfButton;
-
-    public Client() {
+    private JButton menuPlanButton;
+    private final Workspace workspace;
+    private final Path portfolioPath;
+    private final Session session = new Session();
+    private final PdfStore pdfStore;
+    private final PdfImportPipeline importPipeline;
+    private final Set<String> pdfPagesShown;
+    private final Set<String> photoPagesShown = new HashSet<>();
+    private final FolderSync folderSync = new FolderSync(SwingUtilities::invokeLater, this::applyFolderChanges);
+    private boolean folderSyncRunning;
+    private boolean servicesStarted;
+    private final List<Timer> timers = new ArrayList<>();
+    private AWTEventListener typingListener;
+    private PdfImportPipeline.ImportTask activeImport;
+    private Portfolio portfolio = new Portfolio();
+    private History history = new History(portfolio);
+    private final Autosaver autosaver;
+    /** Set while an unreadable portfolio file could not be moved aside; only an explicit save writes over it. */
+    private boolean autosaveHeld;
+    private final Map<Integer, JComponent> pageViews = new LinkedHashMap<>(16, 0.75f, true);
+    private final ExecutorService previewExecutor = daemonExecutor("pdf-preview");
+    private final ExecutorService indexExecutor = daemonExecutor("search-index");
+    private final ExecutorService exportExecutor = daemonExecutor("export");
+    private final AtomicBoolean exportProgressPending = new AtomicBoolean();
+    private volatile boolean exportRunning;
+    private SearchIndex searchIndex = new SearchIndex();
+    private SimilarityIndex similarityIndex = new SimilarityIndex();
+
+    private final ThumbnailCache thumbnails;
+    private final PdfTextCache pdfTexts;
+    private final PageViewFactory pageViewFactory;
+    private final RecipeExtractor recipeExtractor;
+    private final MenuPlanner menuPlanner;
+    private final BackupManager backups;
+
+    private static final int MAX_SEARCH_RESULTS = 500;
+    private static final int LIST_THUMBNAIL_SIZE = 22;
+    private static final int METRICS_READOUT_MILLIS = 1_000;
+
+    /** Shows the frame before loading the search index, recipes and folder sync; -Dportfolio.fastStart=false to turn off. */
+    public static final String FAST_START_PROPERTY = "portfolio.fastStart";
+    /** Exits once startup has finished, for timing runs and the AppCDS training run. */
+    public static final String EXIT_AFTER_STARTUP_PROPERTY = "portfolio.exitAfterStartup";
+    private static final boolean FAST_START = Boolean.parseBoolean(System.getProperty(FAST_START_PROPERTY, "true"));
+    private static final int EXIT_AFTER_STARTUP_DELAY_MILLIS = 1_000;
+    private static final String[] PRELOADED_CLASSES = {
+            "portfolio.page.Portfolio", "portfolio.page.PageStore", "portfolio.storage.PortfolioFile",
+            "portfolio.PageViewFactory", "portfolio.viewer.PdfViewerPanel", "portfolio.pdf.PdfDocument",
+            "portfolio.pdf.PdfParser", "portfolio.pdf.PdfPageRenderer", "portfolio.search.SearchIndex",
+            "javax.swing.JSplitPane", "javax.swing.JTabbedPane", "javax.swing.JList", "javax.swing.JTextArea"};
+
+    private static final Metrics.Histogram IMPORT_TIMES = Metrics.global().histogram("import.batch");
+    private static final Metrics.Histogram PAGE_CREATE_TIMES = Metrics.global().histogram("page.create");
+    private static final Metrics.Counter PAGES_CREATED = Metrics.global().counter("page.created");
+    private static final Metrics.Histogram PAGE_SWITCH_TIMES = Metrics.global().histogram("page.switch");
+    private static final Metrics.Histogram PDF_OPEN_TIMES = Metrics.global().histogram("pdf.open");
+
+    /** A window for the portfolio at {@code portfolioPath}, using the workspace's shared store and caches. */
+    Client(Workspace workspace, Path portfolioPath) {
+        this.workspace = workspace;
+        this.portfolioPath = portfolioPath;
+        pdfStore = workspace.getPdfStore();
+        importPipeline = new PdfImportPipeline(pdfStore, session, SwingUtilities::invokeLater);
+        pdfPagesShown = pdfStore.references();
+        thumbnails = workspace.getThumbnails();
+        pdfTexts = workspace.getTexts();
+        pageViewFactory = new PageViewFactory(pdfStore, workspace.getDocuments(), thumbnails, workspace.getTiles(),
+                pdfTexts, previewExecutor, session::getTotalPages);
+        recipeExtractor = workspace.getRecipeExtractor();
+        menuPlanner = workspace.getMenuPlanner();
+        backups = BackupManager.openDefault(portfolioPath);
+        autosaver = new Autosaver(() -> portfolio, portfolioPath, SwingUtilities::invokeLater,
+                new Autosaver.Listener() {
+                    @Override
+                    public void saved(long savedAt, boolean explicit) {
+                        portfolioSaved(savedAt, explicit);
+                    }
+
+                    @Override
+                    public void failed(IOException error, boolean explicit) {
+                        portfolioSaveFailed(error, explicit);
+                    }
+                });
         initializeWindow();
         setupComponents();
-        createDefaultPages();
+        loadPortfolio();
+        if (!FAST_START) {
+            startServices();
+        }
+    }
+
+    /** Everything the first screen does not need. In fast-start mode this runs after the first paint. */
+    private void startServices() {
+        long started = System.nanoTime();
+        if (Files.exists(portfolioPath)) {
+            loadSearchIndex(portfolioPath);
+        }
+        extractMissingRecipes();
+        servicesStarted = true;
+        if (workspace.ownsFolderSync(this)) {
+            startFolderSync();
+        }
+        startTimer(METRICS_READOUT_MILLIS, e -> updateMetricsReadout());
+        startTimer((int) BackupManager.DEFAULT_INTERVAL_MILLIS, e -> backUp());
+        Startup.servicesStarted(started);
+    }
+
+    private void startTimer(int delayMillis, ActionListener action) {
+        Timer timer = new Timer(delayMillis, action);
+        timers.add(timer);
+        timer.start();
+    }
+
+    private static ExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     private void initializeWindow() {
 
-        mainFrame = new JFrame(Constants.APP_NAME + " v" + Constants.APP_VERSION);
+        mainFrame = new JFrame(Constants.APP_NAME + " v" + Constants.APP_VERSION + " - " + getPortfolioName());
         mainFrame.setSize(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
-        mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        mainFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         mainFrame.setLocationRelativeTo(null);
+        mainFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (autosaveHeld) {
+                    return;
+                }
+                try {
+                    autosaver.flush();
+                } catch (IOException error) {
+                    JOptionPane.showMessageDialog(mainFrame,
+                            "Error saving portfolio: " + error.getMessage(),
+                            "Save Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                close();
+            }
+        });
+        typingListener = new AWTEventListener() {
+            @Override
+            public void eventDispatched(AWTEvent event) {
+                Object source = event.getSource();
+                if (source instanceof Component && SwingUtilities.getWindowAncestor((Component) source) == mainFrame) {
+                    autosaver.typing();
+                }
+            }
+        };
+        Toolkit.getDefaultToolkit().addAWTEventListener(typingListener, AWTEvent.KEY_EVENT_MASK);
 
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -47,7 +256,7 @@ public class Client {
     private void setupComponents() {
 
         headerPanel = new JPanel(new BorderLayout());
-        headerPanel.setBackground(Color.decode(Constants.PRIMARY_COLOR));
+        headerPanel.setBackground(Theme.color(Constants.PRIMARY_COLOR));
         headerPanel.setPreferredSize(new Dimension(0, 60));
         headerPanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
 
@@ -55,11 +264,11 @@ public class Client {
         titlePanel.setOpaque(false);
 
         JLabel titleLabel = new JLabel(Constants.APP_NAME);
-        titleLabel.setFont(new Font(Constants.FONT_FAMILY, Font.BOLD, 18));
+        titleLabel.setFont(Theme.font(Font.BOLD, 18));
         titleLabel.setForeground(Color.WHITE);
 
         JLabel authorLabel = new JLabel("by " + Constants.AUTHOR);
-        authorLabel.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 12));
+        authorLabel.setFont(Theme.font(Font.PLAIN, 12));
         authorLabel.setForeground(Color.LIGHT_GRAY);
 
         titlePanel.add(titleLabel);
@@ -72,7 +281,10 @@ public class Client {
         newPageButton = createHeaderButton("+ New Page", Constants.SECONDARY_COLOR);
         uploadPdfButton = createHeaderButton("Upload PDF", "#9B59B6");
         viewPdfButton = createHeaderButton("View PDF", "#3498DB");
+        menuPlanButton = createHeaderButton("Plan Menu", "#16A085");
         saveButton = createHeaderButton("Save", "#27AE60");
+        exportButton = createHeaderButton("Export", "#E67E22");
+        portfoliosButton = createHeaderButton("Portfolios", "#34495E");
         settingsButton = createHeaderButton("Settings", "#95A5A6");
 
         buttonPanel.add(newPageButton);
@@ -81,49 +293,163 @@ public class Client {
         buttonPanel.add(Box.createHorizontalStrut(5));
         buttonPanel.add(viewPdfButton);
         buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(menuPlanButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
         buttonPanel.add(saveButton);
         buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(exportButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
+        buttonPanel.add(portfoliosButton);
+        buttonPanel.add(Box.createHorizontalStrut(5));
         buttonPanel.add(settingsButton);
 
         headerPanel.add(titlePanel, BorderLayout.WEST);
         headerPanel.add(buttonPanel, BorderLayout.EAST);
 
-        tabbedPane = new JTabbedPane();
-        tabbedPane.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, Constants.DEFAULT_FONT_SIZE));
-        tabbedPane.setBackground(Color.decode(Constants.BACKGROUND_COLOR));
+        pageListModel = new PageListModel(portfolio);
+        pageList = new JList<>(pageListModel);
+        pageList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        pageList.setFixedCellHeight(26);
+        pageList.setFont(Theme.font(Font.PLAIN, Constants.DEFAULT_FONT_SIZE));
+        pageList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                int id = (Integer) value;
+                Path source = thumbnailSource(id);
+                BufferedImage thumbnail = null;
+                if (source != null) {
+                    thumbnail = thumbnails.getIfPresent(ThumbnailCache.keyFor(source), LIST_THUMBNAIL_SIZE);
+                    if (thumbnail == null) {
+                        thumbnails.request(source, LIST_THUMBNAIL_SIZE, image -> pageList.repaint());
+                    }
+                }
+                String marker = thumbnail == null && Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id)) ? "📄 " : "";
+                super.getListCellRendererComponent(list,
+                        (portfolio.positionOf(id) + 1) + ". " + marker + portfolio.getTitle(id), index, isSelected, cellHasFocus);
+                setIcon(thumbnail == null ? null : new ImageIcon(thumbnail));
+                return this;
+            }
+        });
+        pageList.addListSelectionListener(new ListSelectionListener() {
+            @Override
+            public void valueChanged(ListSelectionEvent e) {
+                if (!e.getValueIsAdjusting()) {
+                    showSelectedPage();
+                }
+            }
+        });
+
+        jumpField = new JTextField();
+        jumpField.setFont(Theme.font(Font.PLAIN, 11));
+        jumpField.setToolTipText("Jump to a page number or the next title containing the text");
+        jumpField.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                jumpTo(jumpField.getText().trim());
+            }
+        });
+
+        JPanel jumpBar = new JPanel(new BorderLayout(5, 0));
+        jumpBar.setBorder(BorderFactory.createEmptyBorder(5, 5, 0, 5));
+        jumpBar.add(new JLabel("Go to:"), BorderLayout.WEST);
+        jumpBar.add(jumpField, BorderLayout.CENTER);
+
+        searchField = new JTextField();
+        searchField.setFont(Theme.font(Font.PLAIN, 11));
+        searchField.setToolTipText("Search titles, notes and PDF text; prefix a word with ingredient: to match ingredients");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                runSearch(searchField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                runSearch(searchField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
+        JPanel searchBar = new JPanel(new BorderLayout(5, 0));
+        searchBar.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        searchBar.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchBar.add(searchField, BorderLayout.CENTER);
+
+        JPanel navigationBars = new JPanel(new GridLayout(2, 1));
+        navigationBars.add(jumpBar);
+        navigationBars.add(searchBar);
+
+        JPanel navigationPanel = new JPanel(new BorderLayout());
+        navigationPanel.setBackground(Theme.color(Constants.BACKGROUND_COLOR));
+        navigationPanel.setPreferredSize(new Dimension(240, 0));
+        navigationPanel.add(navigationBars, BorderLayout.NORTH);
+        navigationPanel.add(new JScrollPane(pageList), BorderLayout.CENTER);
+
+        pageContainer = new JPanel(new BorderLayout());
+        pageContainer.setBackground(Theme.color(Constants.BACKGROUND_COLOR));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, navigationPanel, pageContainer);
+        splitPane.setBorder(null);
+        splitPane.setDividerSize(4);
 
         footerPanel = new JPanel(new BorderLayout());
-        footerPanel.setBackground(Color.decode(Constants.PRIMARY_COLOR));
+        footerPanel.setBackground(Theme.color(Constants.PRIMARY_COLOR));
         footerPanel.setPreferredSize(new Dimension(0, 30));
         footerPanel.setBorder(BorderFactory.createEmptyBorder(5, 15, 5, 15));
 
-        statusLabel = new JLabel("Ready - " + Constants.getLastSavedTime());
-        statusLabel.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 11));
+        statusLabel = new JLabel(statusMessage + " - " + session.getLastSavedTime());
+        statusLabel.setFont(Theme.font(Font.PLAIN, 11));
         statusLabel.setForeground(Color.WHITE);
 
-        JLabel pagesLabel = new JLabel("Pages: " + Constants.getTotalPages() + "/" + Constants.MAX_PAGES);
-        pagesLabel.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 11));
+        pagesLabel = new JLabel("Pages: " + session.getTotalPages() + "/" + Constants.MAX_PAGES);
+        pagesLabel.setFont(Theme.font(Font.PLAIN, 11));
         pagesLabel.setForeground(Color.LIGHT_GRAY);
 
+        metricsLabel = new JLabel("", SwingConstants.RIGHT);
+        metricsLabel.setFont(Theme.font(Font.PLAIN, 11));
+        metricsLabel.setForeground(Color.LIGHT_GRAY);
+        metricsLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 20));
+        metricsLabel.setToolTipText("EDT latency, stalls and save time; full report under Settings");
+
         footerPanel.add(statusLabel, BorderLayout.WEST);
+        footerPanel.add(metricsLabel, BorderLayout.CENTER);
         footerPanel.add(pagesLabel, BorderLayout.EAST);
 
         mainFrame.add(headerPanel, BorderLayout.NORTH);
-        mainFrame.add(tabbedPane, BorderLayout.CENTER);
+        mainFrame.add(splitPane, BorderLayout.CENTER);
         mainFrame.add(footerPanel, BorderLayout.SOUTH);
 
         setupButtonActions();
+        setupKeyBindings();
+        session.addListener(new SessionListener() {
+            @Override
+            public void sessionChanged(SessionState previous, SessionState current) {
+                if (current.hasUnsavedChanges() && !autosaveHeld) {
+                    autosaver.changed();
+                }
+                if (sessionRefreshPending.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(() -> {
+                        sessionRefreshPending.set(false);
+                        updateFooter();
+                    });
+                }
+            }
+        });
     }
 
     private JButton createHeaderButton(String text, String colorHex) {
         JButton button = new JButton(text);
-        button.setFont(new Font(Constants.FONT_FAMILY, Font.BOLD, 11));
-        button.setBackground(Color.decode(colorHex));
+        button.setFont(Theme.font(Font.BOLD, 11));
+        button.setBackground(Theme.color(colorHex));
         button.setForeground(Color.WHITE);
         button.setFocusPainted(false);
         button.setBorderPainted(false);
         button.setPreferredSize(new Dimension(85, 30));
-        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setCursor(Theme.HAND_CURSOR);
         return button;
     }
 
@@ -131,8 +457,8 @@ public class Client {
         newPageButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (Constants.canAddPage()) {
-                    Constants.registerNewPageClick();
+                if (session.canAddPage()) {
+                    session.registerNewPageClick();
                     createNewPage();
                     updateStatus("New page created");
                 } else {
@@ -146,13 +472,46 @@ public class Client {
         uploadPdfButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                if (session.isPdfUploadInProgress()) {
+                    confirmCancelUpload();
+                    return;
+                }
                 updateStatus("Uploading PDF...");
-                if (PdfUploader.uploadPdf(mainFrame)) {
-                    updateStatus("PDF uploaded: " + Constants.getLastUploadedPdf());
-
-                    createPdfPage();
-                } else {
-                    updateStatus("PDF upload cancelled or failed");
+                importStartedAt = System.nanoTime();
+                activeImport = PdfUploader.uploadPdf(mainFrame, importPipeline, new PdfImportPipeline.ImportListener() {
+                    @Override
+                    public void onProgress(int filesDone, int fileCount, long bytesDone, long totalBytes) {
+                        long percent = totalBytes == 0 ? 100 : bytesDone * 100 / totalBytes;
+                        updateStatus("Uploading " + (fileCount == 1 ? "PDF" : filesDone + "/" + fileCount + " PDFs")
+                                + " (" + percent + "%)");
+                    }
+
+                    @Override
+                    public void onComplete(List<PdfImportPipeline.ImportResult> results) {
+                        activeImport = null;
+                        IMPORT_TIMES.recordSince(importStartedAt);
+                        updateStatus("PDF uploaded: " + pdfStore.displayName(session.getLastUploadedPdf()));
+
+                        createPdfPages(results);
+                    }
+
+                    @Override
+                    public void onFailure(Exception error) {
+                        activeImport = null;
+                        updateStatus("PDF upload failed");
+                    }
+
+                    @Override
+                    public void onCancelled(List<PdfImportPipeline.ImportResult> results) {
+                        activeImport = null;
+                        createPdfPages(results);
+                        updateStatus("PDF upload cancelled");
+                    }
+                });
+                if (activeImport == null) {
+                    updateStatus("PDF upload cancelled");
+                } else if (!session.isPdfUploadInProgress()) {
+                    activeImport = null;
                 }
             }
         });
@@ -160,8 +519,11 @@ public class Client {
         viewPdfButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (!Constants.getLastUploadedPdf().isEmpty()) {
-                    openPdfInSystem();
+                String pdfFileName = selectedPdfFile();
+                if (!pdfFileName.isEmpty()) {
+                    updateStatus("Viewing PDF: " + pdfStore.displayName(pdfFileName));
+                } else if (!session.getLastUploadedPdf().isEmpty()) {
+                    showPdfPage(session.getLastUploadedPdf());
                 } else {
                     JOptionPane.showMessageDialog(mainFrame,
                             "No PDF uploaded yet!\nClick 'Upload PDF' first.",
@@ -170,12 +532,38 @@ public class Client {
             }
         });
 
+        menuPlanButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (session.canAddPage()) {
+                    createMenuPlanningPage();
+                    updateStatus("Menu plan page created");
+                } else {
+                    JOptionPane.showMessageDialog(mainFrame,
+                            "Maximum pages (" + Constants.MAX_PAGES + ") reached!",
+                            "Cannot Add Page", JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        });
+
         saveButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                Constants.markSaved();
-                updateStatus("Portfolio saved successfully");
-                updateFooter();
+                savePortfolio();
+            }
+        });
+
+        exportButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                exportPortfolio();
+            }
+        });
+
+        portfoliosButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showPortfoliosMenu();
             }
         });
 
@@ -187,188 +575,998 @@ public class Client {
         });
     }
 
+    /** Lists the open portfolios to switch between, and opens or starts another one. */
+    private void showPortfoliosMenu() {
+        JPopupMenu menu = new JPopupMenu();
+        for (Client client : workspace.getClients()) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(client.getPortfolioName(), client == this);
+            item.setToolTipText(client.getPortfolioPath().toString());
+            item.addActionListener(e -> client.activate());
+            menu.add(item);
+        }
+        menu.addSeparator();
+        JMenuItem open = new JMenuItem("Open Portfolio...");
+        open.addActionListener(e -> openPortfolio());
+        menu.add(open);
+        menu.show(portfoliosButton, 0, portfoliosButton.getHeight());
+    }
+
+    private void openPortfolio() {
+        JFileChooser chooser = new JFileChooser(portfolioPath.toAbsolutePath().getParent().toFile());
+        chooser.setDialogTitle("Open or Start a Portfolio");
+        chooser.setFileFilter(new FileNameExtensionFilter("Portfolios (*" + Constants.DEFAULT_SAVE_EXTENSION + ")",
+                Constants.DEFAULT_SAVE_EXTENSION.substring(1)));
+        if (chooser.showDialog(mainFrame, "Open") != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+        if (!path.getFileName().toString().toLowerCase().endsWith(Constants.DEFAULT_SAVE_EXTENSION)) {
+            path = path.resolveSibling(path.getFileName() + Constants.DEFAULT_SAVE_EXTENSION);
+        }
+        workspace.open(path);
+    }
+
+    private void setupKeyBindings() {
+        JRootPane root = mainFrame.getRootPane();
+        bindKey(root, JComponent.WHEN_IN_FOCUSED_WINDOW, "ctrl Z", "undo", this::undo);
+        bindKey(root, JComponent.WHEN_IN_FOCUSED_WINDOW, "ctrl Y", "redo", this::redo);
+        bindKey(root, JComponent.WHEN_IN_FOCUSED_WINDOW, "ctrl shift Z", "redo", this::redo);
+        bindKey(pageList, JComponent.WHEN_FOCUSED, "DELETE", "deletePage", this::deleteSelectedPage);
+        bindKey(pageList, JComponent.WHEN_FOCUSED, "F2", "renamePage", this::renameSelectedPage);
+        pageList.setToolTipText("Delete removes the page, F2 renames it; Ctrl+Z undoes, Ctrl+Y redoes");
+    }
+
+    private static void bindKey(JComponent component, int condition, String keyStroke, String name, Runnable action) {
+        component.getInputMap(condition).put(KeyStroke.getKeyStroke(keyStroke), name);
+        component.getActionMap().put(name, new AbstractAction(name) {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    private void loadPortfolio() {
+        Path path = portfolioPath;
+        if (!Files.exists(path)) {
+            createDefaultPages();
+            return;
+        }
+
+        IOException openError = null;
+        try {
+            portfolio = Portfolio.open(path);
+        } catch (IOException e) {
+            openError = e;
+            portfolio = restoreFromBackup(path, e);
+        }
+        if (portfolio == null) {
+            setAsideUnreadable(path, openError);
+            portfolio = new Portfolio();
+            history = new History(portfolio);
+            pageListModel.setPortfolio(portfolio);
+            createDefaultPages();
+            return;
+        }
+        history = new History(portfolio);
+
+        session.setTotalPages(portfolio.size());
+        for (int i = 0; i < portfolio.size(); i++) {
+            int id = portfolio.idAt(i);
+            if (Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id))) {
+                pdfPagesShown.add(portfolio.getFile(id));
+            } else if (Constants.PAGE_TYPE_PHOTO.equals(portfolio.getType(id))) {
+                photoPagesShown.add(portfolio.getFile(id));
+            }
+        }
+        pageListModel.setPortfolio(portfolio);
+        if (portfolio.size() > 0) {
+            selectPage(0);
+        }
+        session.restoreSaved(portfolio.getSavedAt());
+    }
+
+    /** Offers the newest good backup when the portfolio cannot be opened; null if there is none or the user declines. */
+    private Portfolio restoreFromBackup(Path path, IOException error) {
+        BackupManager.Snapshot snapshot = null;
+        try {
+            snapshot = backups.newestGood();
+        } catch (IOException e) {
+            // Treated as no backup.
+        }
+        if (snapshot == null) {
+            return null;
+        }
+        int choice = JOptionPane.showConfirmDialog(mainFrame,
+                "Error opening portfolio: " + error.getMessage() + "\n\nRestore the backup from "
+                        + Constants.formatSavedTime(LocalDateTime.ofInstant(snapshot.getCreatedInstant(),
+                        ZoneId.systemDefault())) + "?\nChoosing No starts a new portfolio.",
+                "Open Error", JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
+        if (choice != JOptionPane.YES_OPTION) {
+            return null;
+        }
+        try {
+            BackupManager.RestoreResult result = backups.restore(snapshot, path);
+            Portfolio restored = Portfolio.open(path);
+            updateStatus("Restored backup " + snapshot.getName()
+                    + (result.getFilesRestored() == 0 ? "" : ", " + result.getFilesRestored() + " files relinked"));
+            return restored;
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(mainFrame,
+                    "Error restoring backup: " + e.getMessage(),
+                    "Restore Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+
+    /**
+     * Moves a portfolio file that could not be opened out of the way before a new one is started in its
+     * place, so autosave never writes over it; it may be newer than any backup, or only briefly unreadable.
+     * If it cannot be moved, autosave stays off until the user saves.
+     */
+    private void setAsideUnreadable(Path path, IOException error) {
+        Path aside = path.resolveSibling(path.getFileName() + ".unreadable-" + System.currentTimeMillis());
+        String kept;
+        try {
+            Files.move(path, aside);
+            kept = "The unreadable file was kept as " + aside.getFileName() + ".";
+        } catch (IOException e) {
+            autosaveHeld = true;
+            kept = "The unreadable file could not be moved aside (" + e.getMessage()
+                    + "), so nothing is saved over it until you click Save.";
+        }
+        JOptionPane.showMessageDialog(mainFrame,
+                "Error opening portfolio: " + error.getMessage() + "\n" + kept + "\nStarting with a new portfolio.",
+                "Open Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void extractMissingRecipes() {
+        for (int i = 0; i < portfolio.size(); i++) {
+            int id = portfolio.idAt(i);
+            if (Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id)) && portfolio.getNotes(id).isEmpty()) {
+                extractRecipe(id);
+            }
+        }
+    }
+
+    /** Reads the indexes off the EDT; pages changed meanwhile are caught up when they are installed. */
+    private void loadSearchIndex(Path portfolioPath) {
+        Path indexPath = SearchIndex.pathFor(portfolioPath);
+        Path similarityPath = SimilarityIndex.pathFor(portfolioPath);
+        indexExecutor.execute(() -> {
+            SearchIndex loaded = null;
+            if (Files.exists(indexPath)) {
+                try {
+                    loaded = SearchIndex.load(indexPath);
+                } catch (IOException e) {
+                    loaded = null;
+                }
+            }
+            SimilarityIndex loadedSimilarity = null;
+            if (Files.exists(similarityPath)) {
+                try {
+                    loadedSimilarity = SimilarityIndex.load(similarityPath);
+                } catch (IOException e) {
+                    loadedSimilarity = null;
+                }
+            }
+            SearchIndex result = loaded;
+            SimilarityIndex similarity = loadedSimilarity;
+            SwingUtilities.invokeLater(() -> installSearchIndex(result, similarity));
+        });
+    }
+
+    private void installSearchIndex(SearchIndex loaded, SimilarityIndex loadedSimilarity) {
+        if (loaded != null) {
+            searchIndex = loaded;
+        }
+        if (loadedSimilarity != null) {
+            similarityIndex = loadedSimilarity;
+        }
+        if (pageListModel.isFiltered()) {
+            runSearch(searchField.getText());
+        }
+        long savedAt = portfolio.getSavedAtMillis();
+        if (searchIndex.getSavedAt() != 0 && searchIndex.getSavedAt() == savedAt
+                && similarityIndex.getSavedAt() == savedAt && !portfolio.hasChanges()) {
+            return;
+        }
+
+        for (int indexed : searchIndex.documentIds()) {
+            if (!portfolio.contains(indexed)) {
+                searchIndex.removePage(indexed);
+            }
+        }
+        for (int indexed : similarityIndex.documentIds()) {
+            if (!portfolio.contains(indexed)) {
+                similarityIndex.removePage(indexed);
+            }
+        }
+        for (int i = 0; i < portfolio.size(); i++) {
+            int id = portfolio.idAt(i);
+            long stamp = SearchIndex.stamp(portfolio.getType(id), portfolio.getTitle(id), portfolio.getFile(id),
+                    portfolio.getNotes(id));
+            if (!searchIndex.isCurrent(id, stamp) || !similarityIndex.isCurrent(id, stamp)) {
+                indexPage(id);
+            }
+        }
+    }
+
+    private void indexPage(int id) {
+        String type = portfolio.getType(id);
+        String title = portfolio.getTitle(id);
+        String file = portfolio.getFile(id);
+        String notes = portfolio.getNotes(id);
+        SearchIndex index = searchIndex;
+        SimilarityIndex similarity = similarityIndex;
+
+        indexExecutor.execute(() -> {
+            String pdfText = "";
+            if (Constants.PAGE_TYPE_PDF.equals(type) && !file.isEmpty()) {
+                try {
+                    pdfText = pdfTexts.text(pdfStore.resolve(file));
+                } catch (IOException | RuntimeException e) {
+                    pdfText = "";
+                }
+            }
+            index.indexPage(id, type, title, file, notes, pdfText);
+            // Menu plans repeat recipe names rather than recipes, so they are never duplicates.
+            boolean plan = Constants.PAGE_TYPE_MENU_PLANNING.equals(type);
+            similarity.indexPage(id, SearchIndex.stamp(type, title, file, notes),
+                    plan ? "" : pdfText.isBlank() ? notes : pdfText);
+        });
+    }
+
+    /**
+     * Parses the page's PDF into a recipe off the EDT and, if the page still has
+     * no notes of its own, fills them with the structured recipe.
+     */
+    private void extractRecipe(int id) {
+        String file = portfolio.getFile(id);
+        if (file.isEmpty()) {
+            return;
+        }
+        recipeExtractor.extract(pdfStore.resolve(file)).thenAcceptAsync(
+                recipe -> fillRecipe(id, file, recipe), SwingUtilities::invokeLater);
+    }
+
+    private void fillRecipe(int id, String file, Recipe recipe) {
+        Page page = portfolio.getPage(id);
+        if (page == null || !page.getFile().equals(file)) {
+            return;
+        }
+        Page filled = RecipeExtractor.fill(page, Portfolio.pdfPageTitle(pdfStore.displayName(file)), recipe);
+        if (filled == null) {
+            return;
+        }
+        portfolio.updatePage(filled);
+        // Not an undoable edit of its own: the page is recorded as it was created, already filled.
+        history.amended(page, filled);
+        session.markUnsaved();
+        pageViews.remove(id);
+        indexPage(id);
+        int position = portfolio.positionOf(id);
+        pageListModel.pagesChanged(position, position);
+        int selected = pageList.getSelectedIndex();
+        if (selected >= 0 && pageListModel.getElementAt(selected) == id) {
+            showSelectedPage();
+        }
+    }
+
+    private void unindexPage(int id) {
+        SearchIndex index = searchIndex;
+        SimilarityIndex similarity = similarityIndex;
+        indexExecutor.execute(() -> {
+            index.removePage(id);
+            similarity.removePage(id);
+        });
+    }
+
+    private void runSearch(String query) {
+        if (query.isBlank()) {
+            pageListModel.clearFilter();
+            return;
+        }
+        int[] results = searchIndex.search(query, MAX_SEARCH_RESULTS);
+        int count = 0;
+        for (int id : results) {
+            if (portfolio.contains(id)) {
+                results[count++] = id;
+            }
+        }
+        pageListModel.setFilter(Arrays.copyOf(results, count));
+        updateStatus(count == 0 ? "No pages match \"" + query.trim() + "\""
+                : count + (count == 1 ? " page matches" : " pages match"));
+    }
+
+    private void savePortfolio() {
+        updateStatus("Saving...");
+        autosaveHeld = false;
+        autosaver.saveNow();
+    }
+
+    private void portfolioSaved(long savedAt, boolean explicit) {
+        session.markSaved(LocalDateTime.ofInstant(Instant.ofEpochMilli(savedAt), ZoneId.systemDefault()),
+                portfolio.hasChanges());
+        if (explicit) {
+            saveSearchIndex(portfolioPath, savedAt);
+            backUp();
+            updateStatus("Portfolio saved successfully");
+        } else {
+            updateStatus("Autosaved");
+        }
+    }
+
+    /** Snapshots the saved portfolio on the backup thread; skipped when nothing was saved since the last one. */
+    private void backUp() {
+        if (portfolio.getSavedAtMillis() == 0) {
+            return;
+        }
+        backups.backupAsync(portfolio).whenCompleteAsync((snapshot, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                updateStatus("Backup failed: " + cause.getMessage());
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    private void portfolioSaveFailed(IOException error, boolean explicit) {
+        if (explicit) {
+            JOptionPane.showMessageDialog(mainFrame,
+                    "Error saving portfolio: " + error.getMessage(),
+                    "Save Error", JOptionPane.ERROR_MESSAGE);
+            updateStatus("Portfolio save failed");
+        } else {
+            updateStatus("Autosave failed, retrying");
+        }
+    }
+
+    private void saveSearchIndex(Path portfolioPath, long savedAt) {
+        SearchIndex index = searchIndex;
+        SimilarityIndex similarity = similarityIndex;
+        indexExecutor.execute(() -> {
+            try {
+                index.save(SearchIndex.pathFor(portfolioPath), savedAt);
+                similarity.save(SimilarityIndex.pathFor(portfolioPath), savedAt);
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> updateStatus("Search index could not be saved"));
+            }
+        });
+    }
+
     private void createDefaultPages() {
 
-        if (Constants.hasNoPages()) {
-            Constants.setTotalPages(Constants.DEFAULT_START_PAGES);
+        if (session.hasNoPages()) {
+            session.setTotalPages(Constants.DEFAULT_START_PAGES);
+            session.markUnsaved();
 
-            for (int i = 1; i <= Constants.getTotalPages(); i++) {
-                addPageTab(i, Constants.getPageName(i));
+            for (int i = 1; i <= session.getTotalPages(); i++) {
+                indexPage(portfolio.addPage(Constants.PAGE_TYPE_GENERAL, session.getPageName(i), "").getId());
             }
-            updateFooter();
+            pageListModel.pagesAdded(0, portfolio.size() - 1);
+            selectPage(portfolio.size() - 1);
         }
     }
 
     private void createNewPage() {
-        Constants.confirmPageCreation();
-        int pageNum = Constants.getTotalPages();
-        addPageTab(pageNum, "Page " + pageNum);
-        updateFooter();
+        long started = System.nanoTime();
+        session.confirmPageCreation();
+        int pageNum = session.getTotalPages();
+        Page page = portfolio.addPage(Constants.PAGE_TYPE_GENERAL, "Page " + pageNum, "");
+        history.added(page);
+        indexPage(page.getId());
+        pageListModel.pagesAdded(portfolio.size() - 1, portfolio.size() - 1);
+        selectPage(portfolio.size() - 1);
+        PAGES_CREATED.increment();
+        PAGE_CREATE_TIMES.recordSince(started);
     }
 
-    private void createPdfPage() {
-        if (Constants.canAddPage()) {
-            Constants.confirmPageCreation();
-            int pageNum = Constants.getTotalPages();
-            String pdfName = Constants.getLastUploadedPdf();
-            String pageName = "PDF: " + pdfName.substring(0, Math.min(pdfName.length(), 15));
+    private void createMenuPlanningPage() {
+        if (!session.addPage()) {
+            return;
+        }
+        Page page = portfolio.addPage(Constants.PAGE_TYPE_MENU_PLANNING, "Menu Plan " + session.getTotalPages(), "");
+        history.added(page);
+        indexPage(page.getId());
+        pageListModel.pagesAdded(portfolio.size() - 1, portfolio.size() - 1);
+        selectPage(portfolio.size() - 1);
+        PAGES_CREATED.increment();
+    }
 
-            addPdfTab(pageNum, pageName, pdfName);
-            updateFooter();
-            updateStatus("PDF page created: " + pageName);
+    /**
+     * Reads every page's notes as a recipe for the menu planner. The notes are gathered here on the EDT,
+     * which owns the portfolio, and parsed in parallel off it; pages without ingredients drop out later.
+     */
+    private CompletableFuture<List<Recipe>> collectRecipes() {
+        List<String[]> sources = new ArrayList<>();
+        for (int i = 0; i < portfolio.size(); i++) {
+            int id = portfolio.idAt(i);
+            if (Constants.PAGE_TYPE_MENU_PLANNING.equals(portfolio.getType(id))) {
+                continue;
+            }
+            String notes = portfolio.getNotes(id);
+            if (!notes.isBlank()) {
+                sources.add(new String[]{portfolio.getTitle(id), notes});
+            }
         }
+        return CompletableFuture.supplyAsync(() -> sources.parallelStream()
+                .map(source -> RecipeText.parse(source[0], source[1]))
+                .collect(Collectors.toList()));
     }
 
-    private void addPageTab(int pageNumber, String pageName) {
-        JPanel pagePanel = createPageContent(pageNumber, pageName);
-        tabbedPane.addTab(pageName, pagePanel);
+    private void saveMenuPlan(int id, String text) {
+        Page page = portfolio.getPage(id);
+        if (page == null) {
+            return;
+        }
+        Page planned = page.withNotes(text);
+        portfolio.updatePage(planned);
+        history.updated(page, planned);
+        session.markUnsaved();
+        indexPage(id);
+        pageViews.remove(id);
+        int selected = pageList.getSelectedIndex();
+        if (selected >= 0 && pageListModel.getElementAt(selected) == id) {
+            showSelectedPage();
+        }
+        updateStatus("Menu plan saved to " + page.getTitle());
+    }
 
-        tabbedPane.setSelectedIndex(tabbedPane.getTabCount() - 1);
+    private void createPdfPages(List<PdfImportPipeline.ImportResult> results) {
+        long started = System.nanoTime();
+        int created = 0;
+        int firstPosition = portfolio.size();
+        String lastPageName = null;
+
+        int failed = 0;
+        Exception firstError = null;
+
+        history.beginBatch("PDF upload");
+        for (PdfImportPipeline.ImportResult result : results) {
+            if (result.isFailed()) {
+                if (failed++ == 0) {
+                    firstError = result.getError();
+                }
+                continue;
+            }
+            if (pdfPagesShown.contains(result.getStoredName())) {
+                continue;
+            }
+            Page page = addPdfPage(result.getOriginalName(), result.getStoredName());
+            if (page == null) {
+                break;
+            }
+            pdfPagesShown.add(result.getStoredName());
+            history.added(page);
+            indexPage(page.getId());
+            extractRecipe(page.getId());
+            lastPageName = page.getTitle();
+            created++;
+        }
+        history.endBatch();
+
+        if (created > 0) {
+            pageListModel.pagesAdded(firstPosition, portfolio.size() - 1);
+            selectPage(portfolio.size() - 1);
+            updateStatus(created == 1 ? "PDF page created: " + lastPageName : created + " PDF pages created");
+            PAGES_CREATED.add(created);
+            PAGE_CREATE_TIMES.recordSince(started);
+            flagDuplicates(firstPosition, portfolio.size() - 1);
+        }
+        if (failed > 0) {
+            updateStatus((failed == 1 ? "Upload problem: " : failed + " upload problems, first: ")
+                    + firstError.getMessage());
+        }
     }
 
-    private void addPdfTab(int pageNumber, String pageName, String pdfFileName) {
-        JPanel pdfPanel = createPdfPageContent(pageNumber, pageName, pdfFileName);
-        tabbedPane.addTab(pageName, pdfPanel);
+    /**
+     * Once the index thread has signed the new pages, says in the status bar how many of them look
+     * like a page already in the portfolio, or like each other.
+     */
+    private void flagDuplicates(int firstPosition, int lastPosition) {
+        int[] ids = new int[lastPosition - firstPosition + 1];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = portfolio.idAt(firstPosition + i);
+        }
+        SimilarityIndex similarity = similarityIndex;
+        indexExecutor.execute(() -> {
+            int duplicates = 0;
+            for (int id : ids) {
+                if (!similarity.similarTo(id, SimilarityIndex.DEFAULT_THRESHOLD).isEmpty()) {
+                    duplicates++;
+                }
+            }
+            if (duplicates > 0) {
+                String message = (duplicates == 1 ? "1 new page looks" : duplicates + " new pages look")
+                        + " like a duplicate - Settings > Review Duplicates";
+                SwingUtilities.invokeLater(() -> updateStatus(message));
+            }
+        });
+    }
 
-        tabbedPane.setSelectedIndex(tabbedPane.getTabCount() - 1);
+    private void reviewDuplicates() {
+        SimilarityIndex similarity = similarityIndex;
+        updateStatus("Looking for duplicate pages...");
+        // Queued behind any pending indexing, so the newest pages are included.
+        indexExecutor.execute(() -> {
+            List<SimilarityIndex.Cluster> clusters = similarity.clusters(SimilarityIndex.DEFAULT_THRESHOLD);
+            SwingUtilities.invokeLater(() -> showDuplicateReview(clusters));
+        });
     }
 
-    private JPanel createPageContent(int pageNumber, String pageName) {
-        JPanel pagePanel = new JPanel(new BorderLayout());
-        pagePanel.setBackground(Color.WHITE);
-        pagePanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+    private void showDuplicateReview(List<SimilarityIndex.Cluster> clusters) {
+        List<DuplicateReviewPanel.Group> groups = new ArrayList<>();
+        for (SimilarityIndex.Cluster cluster : clusters) {
+            int[] ids = Arrays.stream(cluster.getIds()).filter(portfolio::contains).toArray();
+            if (ids.length > 1) {
+                groups.add(new DuplicateReviewPanel.Group(ids, cluster.getSimilarity()));
+            }
+        }
+        if (groups.isEmpty()) {
+            updateStatus("No duplicate pages found");
+            JOptionPane.showMessageDialog(mainFrame, "No near-duplicate pages found.",
+                    "Review Duplicates", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        updateStatus(groups.size() + (groups.size() == 1 ? " group" : " groups") + " of possible duplicates");
+        JDialog dialog = new JDialog(mainFrame, "Review Duplicates", false);
+        dialog.setContentPane(new DuplicateReviewPanel(groups, new DuplicateReviewPanel.Host() {
+            @Override
+            public String describe(int id) {
+                if (!portfolio.contains(id)) {
+                    return "(deleted)";
+                }
+                String file = portfolio.getFile(id);
+                return portfolio.getTitle(id) + (file.isEmpty() ? "" : "  -  " + pdfStore.displayName(file));
+            }
 
-        JPanel pageHeader = new JPanel(new BorderLayout());
-        pageHeader.setOpaque(false);
+            @Override
+            public void open(int id) {
+                if (portfolio.contains(id)) {
+                    selectPage(portfolio.positionOf(id));
+                }
+            }
 
-        JLabel pageTitle = new JLabel(pageName);
-        pageTitle.setFont(new Font(Constants.FONT_FAMILY, Font.BOLD, 16));
-        pageTitle.setForeground(Color.decode(Constants.PRIMARY_COLOR));
+            @Override
+            public void merge(int keepId, int[] duplicateIds) {
+                mergeDuplicates(keepId, duplicateIds);
+            }
+        }));
+        dialog.setSize(720, 480);
+        dialog.setLocationRelativeTo(mainFrame);
+        dialog.setVisible(true);
+    }
 
-        JLabel pageInfo = new JLabel("Page " + pageNumber + " of " + Constants.getTotalPages());
-        pageInfo.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 11));
-        pageInfo.setForeground(Color.GRAY);
+    /** Deletes {@code duplicateIds} as one undoable step, keeping {@code keepId}. */
+    private void mergeDuplicates(int keepId, int[] duplicateIds) {
+        if (!portfolio.contains(keepId)) {
+            return;
+        }
+        int oldSize = portfolio.size();
+        List<Page> removed = new ArrayList<>();
+        history.beginBatch("Merge duplicates of " + portfolio.getTitle(keepId));
+        for (int id : duplicateIds) {
+            Page page = portfolio.getPage(id);
+            if (page == null || id == keepId) {
+                continue;
+            }
+            int position = portfolio.positionOf(id);
+            portfolio.removePage(id);
+            history.removed(position, page);
+            removed.add(page);
+        }
+        history.endBatch();
+        if (removed.isEmpty()) {
+            return;
+        }
+        pagesReplaced(removed.toArray(new Page[0]), oldSize);
+        selectPage(portfolio.positionOf(keepId));
+        updateStatus("Deleted " + removed.size() + (removed.size() == 1 ? " duplicate" : " duplicates")
+                + " of " + portfolio.getTitle(keepId) + " - Ctrl+Z to undo");
+    }
 
-        pageHeader.add(pageTitle, BorderLayout.WEST);
-        pageHeader.add(pageInfo, BorderLayout.EAST);
+    private void startFolderSync() {
+        Path syncFolder = Paths.get(Constants.SYNC_FOLDER);
+        folderSync.addFolder(pdfStore.getFolder(), syncFolder.resolve("pdfs.manifest"),
+                name -> name.toLowerCase().endsWith(Constants.PDF_EXTENSION));
+        folderSync.addFolder(Paths.get(Constants.IMAGES_FOLDER), syncFolder.resolve("images.manifest"),
+                Client::isImageName);
+        folderSync.start();
+        folderSyncRunning = true;
+    }
 
-        JPanel contentArea = new JPanel();
-        contentArea.setBackground(Color.decode(Constants.BACKGROUND_COLOR));
-        contentArea.setBorder(BorderFactory.createLoweredBevelBorder());
+    /** Takes over the shared folders from a window that closed; waits for startup if it is still pending. */
+    void folderSyncHandedOver() {
+        if (servicesStarted && !folderSyncRunning) {
+            startFolderSync();
+        }
+    }
 
-        JLabel contentLabel = new JLabel("<html><center>Click to add content...<br><br>" +
-                "This page can contain:<br>" +
-                "• Recipes<br>" +
-                "• Photos<br>" +
-                "• Cooking notes<br>" +
-                "• Techniques<br>" +
-                "• PDFs</center></html>");
-        contentLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        contentLabel.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 12));
-        contentLabel.setForeground(Color.GRAY);
+    private static boolean isImageName(String name) {
+        String lower = name.toLowerCase();
+        if (lower.startsWith(".")) {
+            return false;
+        }
+        for (String extension : Constants.IMAGE_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        contentArea.add(contentLabel);
+    /** Returns the changes it applied; a file that found no room under the page limit is offered again later. */
+    private List<FolderSync.Change> applyFolderChanges(List<FolderSync.Change> changes) {
+        List<FolderSync.Change> applied = new ArrayList<>(changes.size());
+        int firstPosition = portfolio.size();
+        int created = 0;
+        int retired = 0;
+        Path pdfFolder = pdfStore.getFolder().toAbsolutePath().normalize();
+
+        for (FolderSync.Change change : changes) {
+            boolean pdf = change.getFolder().equals(pdfFolder);
+            String type = pdf ? Constants.PAGE_TYPE_PDF : Constants.PAGE_TYPE_PHOTO;
+            Set<String> shown = pdf ? pdfPagesShown : photoPagesShown;
+            String name = change.getName();
+            thumbnails.forget(change.getFolder().resolve(name));
+            if (pdf) {
+                workspace.getTiles().forget(PdfViewerPanel.keyPrefix(change.getFolder().resolve(name)));
+            }
 
-        pagePanel.add(pageHeader, BorderLayout.NORTH);
-        pagePanel.add(Box.createVerticalStrut(15), BorderLayout.WEST);
-        pagePanel.add(contentArea, BorderLayout.CENTER);
+            switch (change.getKind()) {
+                case CREATED:
+                    if (shown.contains(name) || (pdf && pdfStore.isManaged(name))) {
+                        refreshPages(type, name);
+                        break;
+                    }
+                    Page page = pdf ? addPdfPage(name, name) : addPhotoPage(name);
+                    if (page == null) {
+                        continue;
+                    }
+                    shown.add(name);
+                    indexPage(page.getId());
+                    if (pdf) {
+                        extractRecipe(page.getId());
+                    }
+                    created++;
+                    break;
+                case CHANGED:
+                    refreshPages(type, name);
+                    break;
+                case DELETED:
+                    retired += retirePages(type, name);
+                    shown.remove(name);
+                    break;
+                default:
+                    break;
+            }
+            applied.add(change);
+        }
 
-        return pagePanel;
+        if (created > 0) {
+            pageListModel.pagesAdded(firstPosition, portfolio.size() - 1);
+        }
+        if (pageListModel.isFiltered()) {
+            runSearch(searchField.getText());
+        }
+        if (created > 0 || retired > 0) {
+            session.setTotalPages(portfolio.size());
+            session.markUnsaved();
+            if (pageList.getSelectedIndex() < 0 && portfolio.size() > 0) {
+                selectPage(Math.min(firstPosition, portfolio.size() - 1));
+            }
+            updateStatus("Folder sync: " + created + " added, " + retired + " removed");
+        }
+        return applied;
     }
 
-    private JPanel createPdfPageContent(int pageNumber, String pageName, String pdfFileName) {
-        JPanel pdfPanel = new JPanel(new BorderLayout());
-        pdfPanel.setBackground(Color.WHITE);
-        pdfPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+    private Page addPdfPage(String originalName, String storedName) {
+        if (!session.addPage()) {
+            return null;
+        }
+        return portfolio.addPage(Constants.PAGE_TYPE_PDF, Portfolio.pdfPageTitle(originalName), storedName);
+    }
 
-        JPanel pageHeader = new JPanel(new BorderLayout());
-        pageHeader.setOpaque(false);
+    private Page addPhotoPage(String fileName) {
+        if (!session.addPage()) {
+            return null;
+        }
+        return portfolio.addPage(Constants.PAGE_TYPE_PHOTO,
+                "Photo: " + fileName.substring(0, Math.min(fileName.length(), 15)), fileName);
+    }
 
-        JLabel pageTitle = new JLabel(pageName);
-        pageTitle.setFont(new Font(Constants.FONT_FAMILY, Font.BOLD, 16));
-        pageTitle.setForeground(Color.decode(Constants.PRIMARY_COLOR));
+    private void refreshPages(String type, String fileName) {
+        for (int id : pageIdsFor(type, fileName)) {
+            pageViews.remove(id);
+            indexPage(id);
+            int position = portfolio.positionOf(id);
+            pageListModel.pagesChanged(position, position);
+        }
+    }
 
-        JLabel pageInfo = new JLabel("Page " + pageNumber + " of " + Constants.getTotalPages());
-        pageInfo.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 11));
-        pageInfo.setForeground(Color.GRAY);
+    private int retirePages(String type, String fileName) {
+        int[] ids = pageIdsFor(type, fileName);
+        for (int id : ids) {
+            int position = portfolio.positionOf(id);
+            portfolio.removePage(id);
+            pageViews.remove(id);
+            unindexPage(id);
+            pageListModel.pageRemoved(position);
+        }
+        return ids.length;
+    }
+
+    private int[] pageIdsFor(String type, String fileName) {
+        int[] ids = new int[4];
+        int count = 0;
+        for (int position = 0; position < portfolio.size(); position++) {
+            int id = portfolio.idAt(position);
+            if (fileName.equals(portfolio.getFile(id)) && type.equals(portfolio.getType(id))) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
 
-        pageHeader.add(pageTitle, BorderLayout.WEST);
-        pageHeader.add(pageInfo, BorderLayout.EAST);
+    private void deleteSelectedPage() {
+        int index = pageList.getSelectedIndex();
+        if (index < 0) {
+            return;
+        }
+        int id = pageListModel.getElementAt(index);
+        int position = portfolio.positionOf(id);
+        Page page = portfolio.getPage(id);
+        portfolio.removePage(id);
+        history.removed(position, page);
+        pageViews.remove(id);
+        unindexPage(id);
+        if (pageIdsFor(page.getType(), page.getFile()).length == 0) {
+            shownFiles(page.getType()).remove(page.getFile());
+        }
+        pageListModel.pageRemoved(position);
+        if (pageListModel.isFiltered()) {
+            runSearch(searchField.getText());
+        }
+        session.setTotalPages(portfolio.size());
+        session.markUnsaved();
+        if (pageListModel.getSize() > 0) {
+            pageList.setSelectedIndex(Math.min(index, pageListModel.getSize() - 1));
+        } else {
+            pageContainer.removeAll();
+            pageContainer.repaint();
+        }
+        updateStatus("Deleted " + page.getTitle() + " - Ctrl+Z to undo");
+    }
 
-        JPanel pdfInfoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        pdfInfoPanel.setOpaque(false);
+    private void renameSelectedPage() {
+        int index = pageList.getSelectedIndex();
+        if (index < 0) {
+            return;
+        }
+        int id = pageListModel.getElementAt(index);
+        Page page = portfolio.getPage(id);
+        Object title = JOptionPane.showInputDialog(mainFrame, "Page title:", "Rename Page",
+                JOptionPane.PLAIN_MESSAGE, null, null, page.getTitle());
+        if (title == null || title.toString().isBlank() || title.toString().trim().equals(page.getTitle())) {
+            return;
+        }
+        Page renamed = page.withTitle(title.toString().trim());
+        portfolio.updatePage(renamed);
+        history.updated(page, renamed);
+        pageViews.remove(id);
+        indexPage(id);
+        session.markUnsaved();
+        int position = portfolio.positionOf(id);
+        pageListModel.pagesChanged(position, position);
+        showSelectedPage();
+    }
 
-        JLabel fileLabel = new JLabel("📄 " + pdfFileName);
-        fileLabel.setFont(new Font(Constants.FONT_FAMILY, Font.BOLD, 12));
-        fileLabel.setForeground(Color.decode(Constants.SECONDARY_COLOR));
+    private void undo() {
+        int oldSize = portfolio.size();
+        History.Step step = history.undo();
+        if (step == null) {
+            updateStatus("Nothing to undo");
+            return;
+        }
+        pagesReplaced(step.pages(), oldSize);
+        updateStatus("Undid " + step.getLabel());
+    }
 
-        JButton openPdfButton = new JButton("Open PDF");
-        openPdfButton.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 11));
-        openPdfButton.setBackground(Color.decode("#3498DB"));
-        openPdfButton.setForeground(Color.WHITE);
-        openPdfButton.setFocusPainted(false);
-        openPdfButton.setBorderPainted(false);
-        openPdfButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+    private void redo() {
+        int oldSize = portfolio.size();
+        History.Step step = history.redo();
+        if (step == null) {
+            updateStatus("Nothing to redo");
+            return;
+        }
+        pagesReplaced(step.pages(), oldSize);
+        updateStatus("Redid " + step.getLabel());
+    }
 
-        openPdfButton.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                openPdfInSystem();
+    /** Brings the list, views, search index and file bookkeeping in line with pages added, removed or edited. */
+    private void pagesReplaced(Page[] pages, int oldSize) {
+        int selected = -1;
+        for (Page page : pages) {
+            int id = page.getId();
+            pageViews.remove(id);
+            if (portfolio.contains(id)) {
+                indexPage(id);
+                shownFiles(page.getType()).add(page.getFile());
+                selected = portfolio.positionOf(id);
+            } else {
+                unindexPage(id);
+                if (pageIdsFor(page.getType(), page.getFile()).length == 0) {
+                    shownFiles(page.getType()).remove(page.getFile());
+                }
             }
-        });
+        }
+        pageListModel.pagesReplaced(oldSize);
+        if (pageListModel.isFiltered()) {
+            runSearch(searchField.getText());
+        }
+        session.setTotalPages(portfolio.size());
+        session.markUnsaved();
+        if (selected >= 0) {
+            selectPage(selected);
+            showSelectedPage();
+        } else if (portfolio.size() > 0) {
+            selectPage(Math.max(0, Math.min(pageList.getSelectedIndex(), portfolio.size() - 1)));
+            showSelectedPage();
+        } else {
+            pageContainer.removeAll();
+            pageContainer.repaint();
+        }
+    }
 
-        pdfInfoPanel.add(fileLabel);
-        pdfInfoPanel.add(Box.createHorizontalStrut(20));
-        pdfInfoPanel.add(openPdfButton);
+    /** Files that have a page, so imports and folder sync do not add a second one; a throwaway set otherwise. */
+    private Set<String> shownFiles(String type) {
+        if (Constants.PAGE_TYPE_PDF.equals(type)) {
+            return pdfPagesShown;
+        }
+        return Constants.PAGE_TYPE_PHOTO.equals(type) ? photoPagesShown : new HashSet<>();
+    }
 
-        JPanel pdfContentArea = new JPanel(new BorderLayout());
-        pdfContentArea.setBackground(Color.decode(Constants.BACKGROUND_COLOR));
-        pdfContentArea.setBorder(BorderFactory.createLoweredBevelBorder());
+    private void selectPage(int position) {
+        if (pageListModel.isFiltered()) {
+            searchField.setText("");
+        }
+        pageList.setSelectedIndex(position);
+        pageList.ensureIndexIsVisible(position);
+    }
 
-        JTextArea pdfPreview = new JTextArea();
-        pdfPreview.setEditable(false);
-        pdfPreview.setBackground(Color.WHITE);
-        pdfPreview.setFont(new Font(Constants.FONT_FAMILY, Font.PLAIN, 11));
-        pdfPreview.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-        pdfPreview.setLineWrap(true);
-        pdfPreview.setWrapStyleWord(true);
+    private void showSelectedPage() {
+        int index = pageList.getSelectedIndex();
+        if (index < 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        int id = pageListModel.getElementAt(index);
+        int position = portfolio.positionOf(id);
+        JComponent view = pageViews.get(id);
+        if (view == null) {
+            view = buildPageView(id, position + 1);
+            pageViews.put(id, view);
+
+            Iterator<Integer> eldest = pageViews.keySet().iterator();
+            while (pageViews.size() > Constants.MAX_MATERIALIZED_PAGES && eldest.hasNext()) {
+                if (eldest.next() != id) {
+                    eldest.remove();
+                }
+            }
+        }
+
+        pageContainer.removeAll();
+        pageContainer.add(view, BorderLayout.CENTER);
+        pageContainer.revalidate();
+        pageContainer.repaint();
+        session.navigateToPage(position + 1);
+        PAGE_SWITCH_TIMES.recordSince(started);
+    }
 
-        pdfPreview.setText("📄 PDF File: " + pdfFileName + "\n\n" +
-                "Location: " + Constants.PDFS_FOLDER + pdfFileName + "\n\n" +
-                "Click 'Open PDF' button above to view the full document in your default PDF viewer.\n\n" +
-                "This is a PDF page in your cooking portfolio. You can:\n" +
-                "• View the PDF externally\n" +
-                "• Add notes about this recipe\n" +
-                "• Reference it in other pages\n" +
-                "• Save it as part of your portfolio\n\n" +
-                "PDF files are automatically organized in your pdfs/ folder for easy access.");
+    private JComponent buildPageView(int id, int pageNumber) {
+        String title = portfolio.getTitle(id);
+        if (Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id))) {
+            String pdfFileName = portfolio.getFile(id);
+            return pageViewFactory.createPdfPageContent(pageNumber, title, pdfFileName, portfolio.getNotes(id),
+                    () -> openPdfInSystem(pdfFileName));
+        }
+        if (Constants.PAGE_TYPE_MENU_PLANNING.equals(portfolio.getType(id))) {
+            return pageViewFactory.createMenuPlanningContent(pageNumber, title, portfolio.getNotes(id), menuPlanner,
+                    new MenuPlanningPanel.Host() {
+                        @Override
+                        public CompletableFuture<List<Recipe>> recipes() {
+                            return collectRecipes();
+                        }
+
+                        @Override
+                        public void savePlan(String text) {
+                            saveMenuPlan(id, text);
+                        }
+                    });
+        }
+        return pageViewFactory.createPageContent(pageNumber, title, thumbnailSource(id));
+    }
+
+    private Path thumbnailSource(int id) {
+        String file = portfolio.getFile(id);
+        if (file.isEmpty()) {
+            return null;
+        }
+        String type = portfolio.getType(id);
+        if (Constants.PAGE_TYPE_PDF.equals(type)) {
+            return pdfStore.resolve(file);
+        }
+        if (Constants.PAGE_TYPE_PHOTO.equals(type)) {
+            return Paths.get(Constants.IMAGES_FOLDER, file);
+        }
+        return null;
+    }
 
-        JScrollPane scrollPane = new JScrollPane(pdfPreview);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+    private void jumpTo(String query) {
+        if (query.isEmpty() || portfolio.size() == 0) {
+            return;
+        }
+        if (query.chars().allMatch(Character::isDigit)) {
+            int pageNumber = query.length() > 9 ? Integer.MAX_VALUE : Integer.parseInt(query);
+            if (pageNumber >= Constants.MIN_PAGES && pageNumber <= portfolio.size()) {
+                selectPage(pageNumber - 1);
+            } else {
+                updateStatus("No page " + query);
+            }
+            return;
+        }
 
-        pdfContentArea.add(scrollPane, BorderLayout.CENTER);
+        String needle = query.toLowerCase();
+        int selected = pageList.getSelectedIndex();
+        int start = selected < 0 ? 0 : portfolio.positionOf(pageListModel.getElementAt(selected));
+        for (int offset = 1; offset <= portfolio.size(); offset++) {
+            int position = (start + offset) % portfolio.size();
+            if (portfolio.getTitle(portfolio.idAt(position)).toLowerCase().contains(needle)) {
+                selectPage(position);
+                return;
+            }
+        }
+        updateStatus("No page title contains \"" + query + "\"");
+    }
 
-        pdfPanel.add(pageHeader, BorderLayout.NORTH);
-        pdfPanel.add(Box.createVerticalStrut(10));
-        pdfPanel.add(pdfInfoPanel, BorderLayout.CENTER);
-        pdfPanel.add(pdfContentArea, BorderLayout.SOUTH);
+    private String selectedPdfFile() {
+        int index = pageList.getSelectedIndex();
+        if (index < 0) {
+            return "";
+        }
+        int id = pageListModel.getElementAt(index);
+        return Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id)) ? portfolio.getFile(id) : "";
+    }
 
-        return pdfPanel;
+    private void showPdfPage(String pdfFileName) {
+        int[] ids = pageIdsFor(Constants.PAGE_TYPE_PDF, pdfFileName);
+        if (ids.length == 0) {
+            openPdfInSystem(pdfFileName);
+            return;
+        }
+        selectPage(portfolio.positionOf(ids[0]));
+        updateStatus("Viewing PDF: " + pdfStore.displayName(pdfFileName));
     }
 
-    private void openPdfInSystem() {
+    private void openPdfInSystem(String pdfFileName) {
+        long started = System.nanoTime();
         try {
-            String pdfPath = Constants.PDFS_FOLDER + Constants.getLastUploadedPdf();
-            File pdfFile = new File(pdfPath);
+            File pdfFile = pdfStore.resolve(pdfFileName).toFile();
 
-            if (pdfFile.exists()) {
+            if (!Desktop.isDesktopSupported() || !Desktop.getDesktop().isSupported(Desktop.Action.OPEN)) {
+                updateStatus("No system PDF viewer - use the Pages tab to read "
+                        + pdfStore.displayName(pdfFileName));
+            } else if (pdfFile.exists()) {
 
                 Desktop.getDesktop().open(pdfFile);
-                updateStatus("Opening PDF: " + Constants.getLastUploadedPdf());
+                PDF_OPEN_TIMES.recordSince(started);
+                updateStatus("Opening PDF: " + pdfStore.displayName(pdfFileName));
             } else {
                 JOptionPane.showMessageDialog(mainFrame,
-                        "PDF file not found: " + pdfPath,
+                        "PDF file not found: " + pdfFile.getPath(),
                         "File Not Found", JOptionPane.ERROR_MESSAGE);
             }
         } catch (IOException e) {
@@ -378,39 +1576,264 @@ public class Client {
         }
     }
 
+    private void confirmCancelUpload() {
+        if (activeImport == null) {
+            return;
+        }
+        int choice = JOptionPane.showConfirmDialog(mainFrame,
+                "A PDF upload is in progress:\n" + activeImport.getFileName() + "\n\nCancel it?",
+                "Upload In Progress", JOptionPane.YES_NO_OPTION);
+        if (choice == JOptionPane.YES_OPTION && activeImport != null) {
+            activeImport.cancel();
+        }
+    }
+
     private void updateStatus(String message) {
-        statusLabel.setText(message + " - " + Constants.getLastSavedTime());
+        statusMessage = message;
+        updateFooter();
     }
 
     private void updateFooter() {
-        JLabel pagesLabel = (JLabel) footerPanel.getComponent(1);
-        pagesLabel.setText("Pages: " + Constants.getTotalPages() + "/" + Constants.MAX_PAGES);
+        SessionState state = session.snapshot();
+        statusLabel.setText(statusMessage + " - " + Constants.formatSavedTime(state.getLastSaved()));
+        pagesLabel.setText("Pages: " + state.getTotalPages() + "/" + Constants.MAX_PAGES
+                + (state.hasUnsavedChanges() ? " •" : ""));
+    }
+
+    private void exportPortfolio() {
+        if (exportRunning) {
+            updateStatus("An export is already running");
+            return;
+        }
+        String[] formats = {"Merged PDF", "HTML site", "Cancel"};
+        int format = JOptionPane.showOptionDialog(mainFrame,
+                "Export all " + portfolio.size() + " pages as:", "Export Portfolio",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, formats, formats[0]);
+        if (format != 0 && format != 1) {
+            return;
+        }
+        boolean pdf = format == 0;
+        JFileChooser chooser = new JFileChooser();
+        if (pdf) {
+            chooser.setSelectedFile(new File("portfolio.pdf"));
+        } else {
+            chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+            chooser.setDialogTitle("Choose a folder for the site");
+        }
+        if (chooser.showSaveDialog(mainFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+
+        int[] ids = new int[portfolio.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = portfolio.idAt(i);
+        }
+        PortfolioExporter exporter = new PortfolioExporter(pdfStore, Paths.get(Constants.IMAGES_FOLDER),
+                PortfolioExporter.DEFAULT_THREADS);
+        PortfolioExporter.Listener progress = (done, total) -> {
+            if (exportProgressPending.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    exportProgressPending.set(false);
+                    updateStatus("Exporting page " + done + " of " + total + "...");
+                });
+            }
+        };
+        exportRunning = true;
+        updateStatus("Exporting...");
+        exportExecutor.execute(() -> {
+            try {
+                if (pdf) {
+                    exporter.exportPdf(ids, this::pageForExport, target, progress);
+                } else {
+                    exporter.exportSite(ids, this::pageForExport, target, progress);
+                }
+                SwingUtilities.invokeLater(() -> updateStatus("Exported " + ids.length + " pages to "
+                        + (pdf ? target.getFileName() : target.resolve("index.html"))));
+            } catch (IOException | RuntimeException e) {
+                SwingUtilities.invokeLater(() -> {
+                    updateStatus("Export failed");
+                    JOptionPane.showMessageDialog(mainFrame,
+                            "Error exporting portfolio: " + e.getMessage(),
+                            "Export Error", JOptionPane.ERROR_MESSAGE);
+                });
+            } finally {
+                exportRunning = false;
+            }
+        });
+    }
+
+    /** Called from export workers; the portfolio is only read on the EDT. */
+    private Page pageForExport(int id) {
+        Page[] page = new Page[1];
+        try {
+            SwingUtilities.invokeAndWait(() -> page[0] = portfolio.getPage(id));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            return null;
+        }
+        return page[0];
+    }
+
+    private void updateMetricsReadout() {
+        Metrics metrics = Metrics.global();
+        Metrics.Histogram edt = metrics.histogram("edt.event");
+        Metrics.Histogram save = metrics.histogram("save.write");
+        long stalls = metrics.counter("edt.stalls").get();
+        long heap = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        metricsLabel.setText(String.format(Locale.ROOT, "EDT p99 %.0f ms • %d stall%s • save %.0f ms • %d MB",
+                Metrics.millis(edt.percentile(99)), stalls, stalls == 1 ? "" : "s",
+                Metrics.millis(save.percentile(50)), heap >> 20));
     }
 
     private void showSettingsDialog() {
-        String lastPdf = Constants.getLastUploadedPdf().isEmpty() ? "None" : Constants.getLastUploadedPdf();
+        String lastPdf = session.getLastUploadedPdf().isEmpty() ? "None"
+                : pdfStore.displayName(session.getLastUploadedPdf());
+
+        JTextArea report = new JTextArea("Current Settings:\n" +
+                "• Max Pages: " + Constants.MAX_PAGES + "\n" +
+                "• Author: " + Constants.AUTHOR + "\n" +
+                "• Version: " + Constants.APP_VERSION + "\n" +
+                "• Last PDF: " + lastPdf + "\n\n" +
+                Metrics.global().formatReport());
+        report.setEditable(false);
+        report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        report.setCaretPosition(0);
+        JScrollPane reportPane = new JScrollPane(report);
+        reportPane.setPreferredSize(new Dimension(640, 420));
+
+        String[] options = {"Review Duplicates...", "Export JSON...", "Close"};
+        int choice = JOptionPane.showOptionDialog(mainFrame, reportPane, "Settings",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[2]);
+        if (choice == 0) {
+            reviewDuplicates();
+        } else if (choice == 1) {
+            exportMetrics();
+        }
+    }
 
-        JOptionPane.showMessageDialog(mainFrame,
-                "Settings panel coming soon!\n\n" +
-                        "Current Settings:\n" +
-                        "• Max Pages: " + Constants.MAX_PAGES + "\n" +
-                        "• Author: " + Constants.AUTHOR + "\n" +
-                        "• Version: " + Constants.APP_VERSION + "\n" +
-                        "• Last PDF: " + lastPdf,
-                "Settings", JOptionPane.INFORMATION_MESSAGE);
+    private void exportMetrics() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("metrics-" + System.currentTimeMillis() + ".json"));
+        if (chooser.showSaveDialog(mainFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Metrics.global().writeJson(chooser.getSelectedFile().toPath());
+            updateStatus("Metrics exported to " + chooser.getSelectedFile().getName());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(mainFrame,
+                    "Error exporting metrics: " + e.getMessage(),
+                    "Export Error", JOptionPane.ERROR_MESSAGE);
+        }
     }
 
     public void show() {
+        Startup.afterFirstPaint(mainFrame, this::firstPainted);
         mainFrame.setVisible(true);
         updateStatus("Welcome to your cooking portfolio!");
     }
 
+    /** Brings the window to the front, restoring it if it was minimized. */
+    public void activate() {
+        if (mainFrame.getExtendedState() == Frame.ICONIFIED) {
+            mainFrame.setExtendedState(Frame.NORMAL);
+        }
+        mainFrame.toFront();
+        mainFrame.requestFocus();
+    }
+
+    public Path getPortfolioPath() {
+        return portfolioPath;
+    }
+
+    public String getPortfolioName() {
+        String name = portfolioPath.getFileName().toString();
+        return name.toLowerCase().endsWith(Constants.DEFAULT_SAVE_EXTENSION)
+                ? name.substring(0, name.length() - Constants.DEFAULT_SAVE_EXTENSION.length()) : name;
+    }
+
+    /**
+     * Stops this window's timers and threads once it has been disposed, and lets go of its PDFs in the
+     * shared store. Queued preview tasks still run so their document handles are released.
+     */
+    private void close() {
+        for (Timer timer : timers) {
+            timer.stop();
+        }
+        timers.clear();
+        Toolkit.getDefaultToolkit().removeAWTEventListener(typingListener);
+        if (activeImport != null) {
+            activeImport.cancel();
+        }
+        autosaver.shutdown();
+        importPipeline.shutdown();
+        previewExecutor.shutdown();
+        indexExecutor.shutdown();
+        exportExecutor.shutdown();
+        if (folderSyncRunning) {
+            try {
+                folderSync.close();
+            } catch (IOException e) {
+                // The watcher threads are daemons; nothing is lost.
+            }
+        }
+        pdfPagesShown.clear();
+        workspace.closed(this);
+    }
+
+    private void firstPainted(long firstPaintMillis) {
+        if (FAST_START) {
+            startServices();
+        }
+        updateStatus("Welcome to your cooking portfolio! (ready in " + firstPaintMillis + " ms)");
+        if (Boolean.getBoolean(EXIT_AFTER_STARTUP_PROPERTY)) {
+            Timer exit = new Timer(EXIT_AFTER_STARTUP_DELAY_MILLIS, e -> {
+                System.out.printf(Locale.ROOT, "startup: first paint %d ms after main (JVM %d ms before main),"
+                                + " fast start %s, services %.1f ms%n", firstPaintMillis, Startup.getJvmStartMillis(),
+                        FAST_START, Metrics.millis(Metrics.global().histogram("startup.services").getMax()));
+                mainFrame.dispose();
+                System.exit(0);
+            });
+            exit.setRepeats(false);
+            exit.start();
+        }
+    }
+
+    /** Loads classes the first screen needs on the main thread while the EDT builds the window. */
+    private static void preloadClasses() {
+        ClassLoader loader = Client.class.getClassLoader();
+        for (String name : PRELOADED_CLASSES) {
+            try {
+                Class.forName(name, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Only a head start; the class loads normally when first used.
+            }
+        }
+        try {
+            Class.forName(UIManager.getSystemLookAndFeelClassName(), false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // As above.
+        }
+    }
+
+    /** Opens the portfolios named on the command line, or those open when the app last closed. */
     public static void main(String[] args) {
+        Startup.mainStarted();
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                new Client().show();
+                Workspace workspace = new Workspace(Paths.get(Workspace.WORKSPACE_FILE));
+                List<Path> paths = new ArrayList<>();
+                for (String arg : args) {
+                    paths.add(Paths.get(arg));
+                }
+                workspace.openAll(paths.isEmpty() ? workspace.remembered() : paths);
             }
         });
+        if (FAST_START) {
+            preloadClasses();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package portfolio;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lists groups of pages that look like the same recipe. Selecting a group shows its pages; one
+ * can be opened, or kept while the rest are deleted, or the group can be dismissed.
+ */
+public final class DuplicateReviewPanel extends JPanel {
+
+    /** What the panel needs from the portfolio. Called on the EDT. */
+    public interface Host {
+        String describe(int id);
+
+        void open(int id);
+
+        /** Keeps {@code keepId} and deletes the other pages, as one undoable step. */
+        void merge(int keepId, int[] duplicateIds);
+    }
+
+    /** Pages that are probably duplicates of each other, oldest first. */
+    public static final class Group {
+        private final int[] ids;
+        private final double similarity;
+
+        public Group(int[] ids, double similarity) {
+            this.ids = ids.clone();
+            this.similarity = similarity;
+        }
+    }
+
+    private final Host host;
+    private final DefaultListModel<Group> groups = new DefaultListModel<>();
+    private final DefaultListModel<Integer> pages = new DefaultListModel<>();
+    private final JList<Group> groupList = new JList<>(groups);
+    private final JList<Integer> pageList = new JList<>(pages);
+    private final JButton openButton = new JButton("Open Page");
+    private final JButton keepButton = new JButton("Keep Selected, Delete Others");
+    private final JButton dismissButton = new JButton("Not Duplicates");
+
+    public DuplicateReviewPanel(List<Group> found, Host host) {
+        super(new BorderLayout(0, 10));
+        this.host = host;
+        setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        for (Group group : found) {
+            groups.addElement(group);
+        }
+
+        groupList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        groupList.setFont(Theme.font(Font.PLAIN, 12));
+        groupList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean selected,
+                                                          boolean focused) {
+                Group group = (Group) value;
+                String text = String.format(Locale.ROOT, "%d pages, %.0f%% alike: %s", group.ids.length,
+                        group.similarity * 100, host.describe(group.ids[0]));
+                return super.getListCellRendererComponent(list, text, index, selected, focused);
+            }
+        });
+        groupList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showGroup();
+            }
+        });
+
+        pageList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        pageList.setFont(Theme.font(Font.PLAIN, 12));
+        pageList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean selected,
+                                                          boolean focused) {
+                return super.getListCellRendererComponent(list, host.describe((Integer) value), index, selected,
+                        focused);
+            }
+        });
+        pageList.addListSelectionListener(e -> updateButtons());
+
+        openButton.addActionListener(e -> host.open(pageList.getSelectedValue()));
+        keepButton.addActionListener(e -> keepSelected());
+        dismissButton.addActionListener(e -> removeGroup());
+
+        JLabel hint = new JLabel(found.size() + (found.size() == 1 ? " group" : " groups")
+                + " of pages with nearly the same text. Deleting can be undone with Ctrl+Z.");
+        hint.setFont(Theme.font(Font.PLAIN, 11));
+        hint.setForeground(Color.GRAY);
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(groupList),
+                new JScrollPane(pageList));
+        split.setResizeWeight(0.6);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(openButton);
+        buttons.add(keepButton);
+        buttons.add(dismissButton);
+
+        add(hint, BorderLayout.NORTH);
+        add(split, BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+
+        groupList.setSelectedIndex(0);
+        updateButtons();
+    }
+
+    private void showGroup() {
+        pages.clear();
+        Group group = groupList.getSelectedValue();
+        if (group != null) {
+            for (int id : group.ids) {
+                pages.addElement(id);
+            }
+            pageList.setSelectedIndex(0);
+        }
+        updateButtons();
+    }
+
+    private void keepSelected() {
+        Group group = groupList.getSelectedValue();
+        Integer keep = pageList.getSelectedValue();
+        if (group == null || keep == null) {
+            return;
+        }
+        host.merge(keep, group.ids);
+        removeGroup();
+    }
+
+    private void removeGroup() {
+        int index = groupList.getSelectedIndex();
+        if (index < 0) {
+            return;
+        }
+        groups.remove(index);
+        if (!groups.isEmpty()) {
+            groupList.setSelectedIndex(Math.min(index, groups.size() - 1));
+        }
+        showGroup();
+    }
+
+    private void updateButtons() {
+        boolean page = pageList.getSelectedValue() != null;
+        openButton.setEnabled(page);
+        keepButton.setEnabled(page);
+        dismissButton.setEnabled(groupList.getSelectedValue() != null);
+    }
+}
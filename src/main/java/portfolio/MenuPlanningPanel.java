@@ -0,0 +1,227 @@
+package portfolio;
+
+import portfolio.input.Constants;
+import portfolio.recipe.MenuPlanner;
+import portfolio.recipe.Recipe;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Body of a menu-planning page: constraint fields, a plan that updates as the search finds better ones,
+ * and a button that writes the plan and its shopping list into the page's notes. A search is cancelled
+ * when the page is hidden.
+ */
+public final class MenuPlanningPanel extends JPanel {
+
+    /** What the panel needs from the portfolio. Both are called on the EDT. */
+    public interface Host {
+        /** The portfolio's recipes, parsed off the EDT. */
+        CompletableFuture<List<Recipe>> recipes();
+
+        void savePlan(String text);
+    }
+
+    private final MenuPlanner planner;
+    private final Host host;
+    private final JSpinner days = spinner(MenuPlanner.Constraints.DEFAULT.getDays(), 1, 7, 1);
+    private final JSpinner mealsPerDay = spinner(MenuPlanner.Constraints.DEFAULT.getMealsPerDay(), 1, 3, 1);
+    private final JSpinner people = spinner(MenuPlanner.Constraints.DEFAULT.getPeople(), 1, 50, 1);
+    private final JSpinner minCalories = spinner(
+            (int) MenuPlanner.Constraints.DEFAULT.getMinCaloriesPerDay(), 0, 10_000, 50);
+    private final JSpinner maxCalories = spinner(
+            (int) MenuPlanner.Constraints.DEFAULT.getMaxCaloriesPerDay(), 0, 10_000, 50);
+    private final JSpinner maxMinutes = spinner(MenuPlanner.Constraints.DEFAULT.getMaxTotalMinutes(), 0, 10_000, 30);
+    private final JSpinner budgetMillis = spinner(
+            (int) MenuPlanner.Constraints.DEFAULT.getBudgetMillis(), 100, 60_000, 250);
+    private final JButton generateButton = new JButton("Generate");
+    private final JButton stopButton = new JButton("Stop");
+    private final JButton keepButton = new JButton("Keep Plan");
+    private final JTextArea planText = new JTextArea();
+    private final JLabel statusLabel = new JLabel(" ");
+    // The newest plan from the search threads, shown by at most one queued EDT task.
+    private final AtomicReference<MenuPlanner.Plan> shownPlan = new AtomicReference<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private MenuPlanner.Search search;
+    private MenuPlanner.Plan plan;
+
+    public MenuPlanningPanel(MenuPlanner planner, Host host, String savedPlan) {
+        super(new BorderLayout(0, 10));
+        this.planner = planner;
+        this.host = host;
+        setOpaque(false);
+
+        JPanel fields = new JPanel(new GridLayout(0, 4, 8, 4));
+        fields.setOpaque(false);
+        addField(fields, "Days", days);
+        addField(fields, "Meals a day", mealsPerDay);
+        addField(fields, "People", people);
+        addField(fields, "Cooking minutes (total)", maxMinutes);
+        addField(fields, "Min kcal per day", minCalories);
+        addField(fields, "Max kcal per day", maxCalories);
+        addField(fields, "Search time (ms)", budgetMillis);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.setOpaque(false);
+        styleButton(generateButton, "#16A085");
+        styleButton(stopButton, "#95A5A6");
+        styleButton(keepButton, "#27AE60");
+        stopButton.setEnabled(false);
+        keepButton.setEnabled(false);
+        generateButton.addActionListener(e -> generate());
+        stopButton.addActionListener(e -> stop());
+        keepButton.addActionListener(e -> keep());
+        buttons.add(generateButton);
+        buttons.add(stopButton);
+        buttons.add(keepButton);
+        statusLabel.setFont(Theme.font(Font.PLAIN, 11));
+        statusLabel.setForeground(Color.GRAY);
+        buttons.add(Box.createHorizontalStrut(10));
+        buttons.add(statusLabel);
+
+        JPanel controls = new JPanel(new BorderLayout());
+        controls.setOpaque(false);
+        controls.add(fields, BorderLayout.NORTH);
+        controls.add(buttons, BorderLayout.SOUTH);
+
+        planText.setEditable(false);
+        planText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        planText.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        planText.setText(savedPlan.isBlank()
+                ? "Press Generate to plan meals from the recipes in this portfolio." : savedPlan);
+        planText.setCaretPosition(0);
+
+        JScrollPane scrollPane = new JScrollPane(planText);
+        scrollPane.setBorder(BorderFactory.createLoweredBevelBorder());
+        scrollPane.getViewport().setBackground(Theme.color(Constants.BACKGROUND_COLOR));
+
+        add(controls, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && !isShowing()) {
+                stop();
+            }
+        });
+    }
+
+    private void generate() {
+        MenuPlanner.Constraints constraints;
+        try {
+            constraints = new MenuPlanner.Constraints(value(days), value(mealsPerDay), value(people),
+                    value(minCalories), value(maxCalories), value(maxMinutes), value(budgetMillis));
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+        stop();
+        generateButton.setEnabled(false);
+        stopButton.setEnabled(true);
+        keepButton.setEnabled(false);
+        plan = null;
+        statusLabel.setText("Reading recipes...");
+        host.recipes().thenAcceptAsync(recipes -> start(recipes, constraints), SwingUtilities::invokeLater);
+    }
+
+    private void start(List<Recipe> recipes, MenuPlanner.Constraints constraints) {
+        if (!stopButton.isEnabled()) {
+            return;
+        }
+        statusLabel.setText("Planning from " + recipes.size() + " recipes...");
+        MenuPlanner.Search started = planner.plan(recipes, constraints, this::improved);
+        search = started;
+        started.getResult().whenCompleteAsync((best, error) -> finished(started, best, error),
+                SwingUtilities::invokeLater);
+    }
+
+    private void improved(MenuPlanner.Plan better) {
+        shownPlan.set(better);
+        if (refreshPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                refreshPending.set(false);
+                MenuPlanner.Plan latest = shownPlan.get();
+                if (latest != null && search != null && latest == search.getBest()) {
+                    showPlan(latest, false);
+                }
+            });
+        }
+    }
+
+    private void finished(MenuPlanner.Search finished, MenuPlanner.Plan best, Throwable error) {
+        if (finished != search) {
+            return;
+        }
+        search = null;
+        generateButton.setEnabled(true);
+        stopButton.setEnabled(false);
+        if (error != null) {
+            statusLabel.setText("Planning failed: " + error.getMessage());
+        } else if (best == null) {
+            statusLabel.setText("No recipe pages with ingredients to plan from");
+        } else {
+            showPlan(best, true);
+        }
+    }
+
+    private void showPlan(MenuPlanner.Plan shown, boolean done) {
+        plan = shown;
+        planText.setText(shown.describe());
+        planText.setCaretPosition(0);
+        keepButton.setEnabled(true);
+        statusLabel.setText(String.format(Locale.ROOT, "%s %d recipes, %,d plans tried, best found after %d ms%s",
+                done ? "Done:" : "Searching:", shown.getLibrarySize(), shown.getEvaluations(),
+                shown.getFoundAfterNanos() / 1_000_000, shown.meetsConstraints() ? "" : " (constraints not all met)"));
+    }
+
+    private void stop() {
+        if (search != null) {
+            search.cancel();
+        } else if (stopButton.isEnabled()) {
+            // Still reading recipes; start() sees the cleared flag and does not search.
+            generateButton.setEnabled(true);
+            stopButton.setEnabled(false);
+            statusLabel.setText("Stopped");
+        }
+    }
+
+    private void keep() {
+        if (plan == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(plan.toMenuPlan().format()).append("\n# Shopping list\n");
+        for (String item : plan.shoppingList()) {
+            text.append("# ").append(item).append('\n');
+        }
+        host.savePlan(text.toString());
+    }
+
+    private static JSpinner spinner(int value, int min, int max, int step) {
+        return new JSpinner(new SpinnerNumberModel(value, min, max, step));
+    }
+
+    private static int value(JSpinner spinner) {
+        return ((Number) spinner.getValue()).intValue();
+    }
+
+    private static void addField(JPanel fields, String label, JSpinner spinner) {
+        JLabel name = new JLabel(label);
+        name.setFont(Theme.font(Font.PLAIN, 11));
+        fields.add(name);
+        fields.add(spinner);
+    }
+
+    private static void styleButton(JButton button, String colorHex) {
+        button.setFont(Theme.font(Font.PLAIN, 11));
+        button.setBackground(Theme.color(colorHex));
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setCursor(Theme.HAND_CURSOR);
+    }
+}
@@ -0,0 +1,94 @@
+package portfolio;
+
+import portfolio.page.Portfolio;
+
+import javax.swing.*;
+
+public class PageListModel extends AbstractListModel<Integer> {
+
+    private Portfolio portfolio;
+    private int[] filter;
+
+    public PageListModel(Portfolio portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    public void setPortfolio(Portfolio portfolio) {
+        int oldSize = getSize();
+        this.portfolio = portfolio;
+        this.filter = null;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (getSize() > 0) {
+            fireIntervalAdded(this, 0, getSize() - 1);
+        }
+    }
+
+    public void setFilter(int[] ids) {
+        int oldSize = getSize();
+        filter = ids;
+        refresh(oldSize);
+    }
+
+    public void clearFilter() {
+        if (filter != null) {
+            int oldSize = getSize();
+            filter = null;
+            refresh(oldSize);
+        }
+    }
+
+    public boolean isFiltered() {
+        return filter != null;
+    }
+
+    private void refresh(int oldSize) {
+        int newSize = getSize();
+        if (oldSize > newSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return filter != null ? filter.length : portfolio.size();
+    }
+
+    @Override
+    public Integer getElementAt(int index) {
+        return filter != null ? filter[index] : portfolio.idAt(index);
+    }
+
+    public void pagesAdded(int firstPosition, int lastPosition) {
+        if (filter == null && lastPosition >= firstPosition) {
+            fireIntervalAdded(this, firstPosition, lastPosition);
+        }
+    }
+
+    public void pageRemoved(int position) {
+        if (filter == null) {
+            fireIntervalRemoved(this, position, position);
+        }
+    }
+
+    /** After pages were added and removed at arbitrary positions, e.g. by an undo. */
+    public void pagesReplaced(int oldSize) {
+        if (filter == null) {
+            refresh(oldSize);
+        }
+    }
+
+    public void pagesChanged(int firstPosition, int lastPosition) {
+        if (filter != null) {
+            fireContentsChanged(this, 0, Math.max(0, getSize() - 1));
+        } else if (lastPosition >= firstPosition) {
+            fireContentsChanged(this, firstPosition, lastPosition);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package portfolio;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.metrics.Metrics;
+import portfolio.pdf.PdfDocument;
+import portfolio.pdf.PdfDocumentRegistry;
+import portfolio.pdf.PdfPageRenderer;
+import portfolio.pdf.PdfTextCache;
+import portfolio.recipe.MenuPlanner;
+import portfolio.thumbnail.ThumbnailCache;
+import portfolio.viewer.PdfViewerPanel;
+import portfolio.viewer.TileCache;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+
+public class PageViewFactory {
+
+    public static final int HEADER_THUMBNAIL_SIZE = 96;
+
+    private static final Metrics.Counter TAB_SWITCHES = Metrics.global().counter("tab.switch");
+
+    private final PdfStore pdfStore;
+    private final PdfDocumentRegistry documents;
+    private final ThumbnailCache thumbnails;
+    private final TileCache tiles;
+    private final PdfTextCache texts;
+    private final Executor previewExecutor;
+    private final IntSupplier totalPages;
+
+    /**
+     * {@code previewExecutor} must run tasks one at a time and in order: each PDF
+     * view's document handle is only touched from it.
+     */
+    public PageViewFactory(PdfStore pdfStore, PdfDocumentRegistry documents, ThumbnailCache thumbnails,
+                           TileCache tiles, PdfTextCache texts, Executor previewExecutor, IntSupplier totalPages) {
+        this.pdfStore = pdfStore;
+        this.documents = documents;
+        this.thumbnails = thumbnails;
+        this.tiles = tiles;
+        this.texts = texts;
+        this.previewExecutor = previewExecutor;
+        this.totalPages = totalPages;
+    }
+
+    public JPanel createPageContent(int pageNumber, String pageName, Path thumbnailSource) {
+        JPanel pagePanel = new JPanel(new BorderLayout());
+        pagePanel.setBackground(Color.WHITE);
+        pagePanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPanel pageHeader = new JPanel(new BorderLayout());
+        pageHeader.setOpaque(false);
+
+        JLabel pageTitle = new JLabel(pageName);
+        pageTitle.setFont(Theme.font(Font.BOLD, 16));
+        pageTitle.setForeground(Theme.color(Constants.PRIMARY_COLOR));
+        pageTitle.setIconTextGap(12);
+        showThumbnail(pageTitle, thumbnailSource);
+
+        JLabel pageInfo = new JLabel("Page " + pageNumber + " of " + totalPages.getAsInt());
+        pageInfo.setFont(Theme.font(Font.PLAIN, 11));
+        pageInfo.setForeground(Color.GRAY);
+
+        pageHeader.add(pageTitle, BorderLayout.WEST);
+        pageHeader.add(pageInfo, BorderLayout.EAST);
+
+        JPanel contentArea = new JPanel();
+        contentArea.setBackground(Theme.color(Constants.BACKGROUND_COLOR));
+        contentArea.setBorder(BorderFactory.createLoweredBevelBorder());
+
+        JLabel contentLabel = new JLabel("<html><center>Click to add content...<br><br>" +
+                "This page can contain:<br>" +
+                "• Recipes<br>" +
+                "• Photos<br>" +
+                "• Cooking notes<br>" +
+                "• Techniques<br>" +
+                "• PDFs</center></html>");
+        contentLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        contentLabel.setFont(Theme.font(Font.PLAIN, 12));
+        contentLabel.setForeground(Color.GRAY);
+
+        contentArea.add(contentLabel);
+
+        pagePanel.add(pageHeader, BorderLayout.NORTH);
+        pagePanel.add(Box.createVerticalStrut(15), BorderLayout.WEST);
+        pagePanel.add(contentArea, BorderLayout.CENTER);
+
+        return pagePanel;
+    }
+
+    public JPanel createMenuPlanningContent(int pageNumber, String pageName, String notes, MenuPlanner planner,
+            MenuPlanningPanel.Host host) {
+        JPanel pagePanel = new JPanel(new BorderLayout());
+        pagePanel.setBackground(Color.WHITE);
+        pagePanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPanel pageHeader = new JPanel(new BorderLayout());
+        pageHeader.setOpaque(false);
+        pageHeader.setBorder(BorderFactory.createEmptyBorder(0, 0, 15, 0));
+
+        JLabel pageTitle = new JLabel(pageName);
+        pageTitle.setFont(Theme.font(Font.BOLD, 16));
+        pageTitle.setForeground(Theme.color(Constants.PRIMARY_COLOR));
+
+        JLabel pageInfo = new JLabel("Page " + pageNumber + " of " + totalPages.getAsInt());
+        pageInfo.setFont(Theme.font(Font.PLAIN, 11));
+        pageInfo.setForeground(Color.GRAY);
+
+        pageHeader.add(pageTitle, BorderLayout.WEST);
+        pageHeader.add(pageInfo, BorderLayout.EAST);
+
+        pagePanel.add(pageHeader, BorderLayout.NORTH);
+        pagePanel.add(new MenuPlanningPanel(planner, host, notes), BorderLayout.CENTER);
+
+        return pagePanel;
+    }
+
+    public JPanel createPdfPageContent(int pageNumber, String pageName, String pdfFileName, String recipe,
+            Runnable openPdf) {
+        JPanel pdfPanel = new JPanel(new BorderLayout());
+        pdfPanel.setBackground(Color.WHITE);
+        pdfPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        JPanel pageHeader = new JPanel(new BorderLayout());
+        pageHeader.setOpaque(false);
+
+        JLabel pageTitle = new JLabel(pageName);
+        pageTitle.setFont(Theme.font(Font.BOLD, 16));
+        pageTitle.setForeground(Theme.color(Constants.PRIMARY_COLOR));
+        pageTitle.setIconTextGap(12);
+        showThumbnail(pageTitle, pdfStore.resolve(pdfFileName));
+
+        JLabel pageInfo = new JLabel("Page " + pageNumber + " of " + totalPages.getAsInt());
+        pageInfo.setFont(Theme.font(Font.PLAIN, 11));
+        pageInfo.setForeground(Color.GRAY);
+
+        pageHeader.add(pageTitle, BorderLayout.WEST);
+        pageHeader.add(pageInfo, BorderLayout.EAST);
+
+        JPanel pdfInfoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        pdfInfoPanel.setOpaque(false);
+
+        JLabel fileLabel = new JLabel("📄 " + pdfStore.displayName(pdfFileName));
+        fileLabel.setFont(Theme.font(Font.BOLD, 12));
+        fileLabel.setForeground(Theme.color(Constants.SECONDARY_COLOR));
+
+        JButton openPdfButton = new JButton("Open PDF");
+        openPdfButton.setFont(Theme.font(Font.PLAIN, 11));
+        openPdfButton.setBackground(Theme.color("#3498DB"));
+        openPdfButton.setForeground(Color.WHITE);
+        openPdfButton.setFocusPainted(false);
+        openPdfButton.setBorderPainted(false);
+        openPdfButton.setCursor(Theme.HAND_CURSOR);
+
+        openPdfButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openPdf.run();
+            }
+        });
+
+        pdfInfoPanel.add(fileLabel);
+        pdfInfoPanel.add(Box.createHorizontalStrut(20));
+        pdfInfoPanel.add(openPdfButton);
+
+        JPanel pdfContentArea = new JPanel(new BorderLayout());
+        pdfContentArea.setBackground(Theme.color(Constants.BACKGROUND_COLOR));
+        pdfContentArea.setBorder(BorderFactory.createLoweredBevelBorder());
+
+        JTextArea pdfPreview = new JTextArea();
+        pdfPreview.setEditable(false);
+        pdfPreview.setBackground(Color.WHITE);
+        pdfPreview.setFont(Theme.font(Font.PLAIN, 11));
+        pdfPreview.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        pdfPreview.setLineWrap(true);
+        pdfPreview.setWrapStyleWord(true);
+
+        String placeholder = "📄 PDF File: " + pdfStore.displayName(pdfFileName) + "\n\n" +
+                "Location: " + Constants.PDFS_FOLDER + pdfFileName + "\n\n" +
+                "Click 'Open PDF' button above to view the full document in your default PDF viewer.\n\n" +
+                "This is a PDF page in your cooking portfolio. You can:\n" +
+                "• View the PDF externally\n" +
+                "• Add notes about this recipe\n" +
+                "• Reference it in other pages\n" +
+                "• Save it as part of your portfolio\n\n" +
+                "PDF files are automatically organized in your pdfs/ folder for easy access.";
+        pdfPreview.setText("📄 PDF File: " + pdfStore.displayName(pdfFileName) + "\n\nLoading preview...");
+
+        PdfViewerPanel viewer = new PdfViewerPanel(tiles);
+        DocumentBinding binding = new DocumentBinding(pdfStore.resolve(pdfFileName), viewer);
+        pdfPanel.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) == 0) {
+                    return;
+                }
+                if (pdfPanel.isShowing()) {
+                    previewExecutor.execute(() -> binding.bind(pdfPreview, pdfFileName, placeholder));
+                } else {
+                    previewExecutor.execute(binding::unbind);
+                }
+            }
+        });
+
+        JScrollPane viewerScrollPane = new JScrollPane(viewer);
+        viewerScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        viewerScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        viewerScrollPane.getViewport().setBackground(viewer.getBackground());
+
+        JScrollPane scrollPane = new JScrollPane(pdfPreview);
+        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+
+        JTabbedPane contentTabs = new JTabbedPane();
+        contentTabs.setFont(Theme.font(Font.PLAIN, 11));
+        contentTabs.addTab("Pages", viewerScrollPane);
+        contentTabs.addTab("Text", scrollPane);
+        if (!recipe.isBlank()) {
+            JTextArea recipeText = new JTextArea(recipe);
+            recipeText.setEditable(false);
+            recipeText.setFont(Theme.font(Font.PLAIN, 12));
+            recipeText.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+            recipeText.setLineWrap(true);
+            recipeText.setWrapStyleWord(true);
+            recipeText.setCaretPosition(0);
+            contentTabs.insertTab("Recipe", null, new JScrollPane(recipeText), null, 0);
+            contentTabs.setSelectedIndex(0);
+        }
+        contentTabs.addChangeListener(e -> TAB_SWITCHES.increment());
+        pdfContentArea.add(contentTabs, BorderLayout.CENTER);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.setOpaque(false);
+        topPanel.add(pageHeader, BorderLayout.NORTH);
+        topPanel.add(pdfInfoPanel, BorderLayout.SOUTH);
+
+        pdfPanel.add(topPanel, BorderLayout.NORTH);
+        pdfPanel.add(pdfContentArea, BorderLayout.CENTER);
+
+        return pdfPanel;
+    }
+
+    /**
+     * Holds a PDF view's reference into the document registry while the view is
+     * showing, and lends the document to the view's page viewer for that time.
+     * Only used from the preview executor.
+     */
+    private final class DocumentBinding {
+        private final Path pdfPath;
+        private final PdfViewerPanel viewer;
+        private PdfDocumentRegistry.Handle handle;
+        private String documentKey;
+        private boolean previewLoaded;
+
+        private DocumentBinding(Path pdfPath, PdfViewerPanel viewer) {
+            this.pdfPath = pdfPath;
+            this.viewer = viewer;
+        }
+
+        private void bind(JTextArea pdfPreview, String pdfFileName, String placeholder) {
+            if (handle == null) {
+                try {
+                    handle = documents.acquire(pdfPath);
+                    attachViewer();
+                } catch (IOException | RuntimeException e) {
+                    unbind();
+                }
+            }
+            if (previewLoaded) {
+                return;
+            }
+            previewLoaded = true;
+
+            String text;
+            try {
+                text = handle == null ? "" : texts.text(handle.getPath(), handle.getDocument());
+            } catch (IOException | RuntimeException e) {
+                text = "";
+            }
+            String preview = text.isBlank() ? placeholder
+                    : "📄 PDF File: " + pdfStore.displayName(pdfFileName) + "\n\n" + text;
+            SwingUtilities.invokeLater(() -> {
+                pdfPreview.setText(preview);
+                pdfPreview.setCaretPosition(0);
+            });
+        }
+
+        private void attachViewer() throws IOException {
+            PdfDocument document = handle.getDocument();
+            String key = PdfViewerPanel.documentKey(handle.getPath(), handle.getLastModified());
+            if (!key.equals(documentKey)) {
+                List<Map<String, Object>> pages = document.getPages();
+                float[][] sizes = new float[pages.size()][];
+                for (int i = 0; i < sizes.length; i++) {
+                    sizes[i] = PdfPageRenderer.pageSize(document, pages.get(i));
+                }
+                documentKey = key;
+                SwingUtilities.invokeLater(() -> viewer.setPages(key, pages, sizes));
+            }
+            SwingUtilities.invokeLater(() -> viewer.setDocument(document));
+        }
+
+        private void unbind() {
+            if (handle != null) {
+                SwingUtilities.invokeLater(() -> viewer.setDocument(null));
+                handle.close();
+                handle = null;
+            }
+        }
+    }
+
+    private void showThumbnail(JLabel label, Path source) {
+        if (source == null) {
+            return;
+        }
+        BufferedImage cached = thumbnails.getIfPresent(ThumbnailCache.keyFor(source), HEADER_THUMBNAIL_SIZE);
+        if (cached != null) {
+            label.setIcon(new ImageIcon(cached));
+            return;
+        }
+        thumbnails.request(source, HEADER_THUMBNAIL_SIZE, image -> {
+            label.setIcon(new ImageIcon(image));
+            label.revalidate();
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package portfolio;
+
+import portfolio.input.Constants;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Theme {
+
+    private static final Map<String, Color> COLORS = new ConcurrentHashMap<>();
+    private static final Map<Integer, Font> FONTS = new ConcurrentHashMap<>();
+
+    public static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+
+    private Theme() {
+    }
+
+    public static Color color(String hex) {
+        return COLORS.computeIfAbsent(hex, Color::decode);
+    }
+
+    public static Font font(int style, int size) {
+        return FONTS.computeIfAbsent((style << 16) | size, key -> new Font(Constants.FONT_FAMILY, style, size));
+    }
+}
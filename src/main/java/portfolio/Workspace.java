@@ -0,0 +1,176 @@
+package portfolio;
+
+import portfolio.input.PdfStore;
+import portfolio.metrics.EdtWatchdog;
+import portfolio.metrics.Metrics;
+import portfolio.page.Portfolio;
+import portfolio.pdf.PdfDocumentRegistry;
+import portfolio.pdf.PdfTextCache;
+import portfolio.recipe.MenuPlanner;
+import portfolio.recipe.RecipeExtractor;
+import portfolio.thumbnail.ThumbnailCache;
+import portfolio.viewer.TileCache;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The portfolios open in this process. Each has its own {@link Client} window with its own session,
+ * history and indexes, so switching between them only brings a window to the front. The PDF store,
+ * document registry, thumbnail, tile, text and recipe caches and the menu planner are created once
+ * here and shared: a PDF that several portfolios use is stored, parsed, rendered and extracted once.
+ * The open portfolios are listed in {@value #WORKSPACE_FILE} and reopened on the next start.
+ *
+ * <p>Confined to the UI thread.
+ */
+public final class Workspace {
+
+    public static final String WORKSPACE_FILE = "workspace.properties";
+
+    private static final int DOCUMENT_SWEEP_MILLIS = 30_000;
+    private static final String PORTFOLIO_KEY = "portfolio.";
+
+    private final Path file;
+    private final PdfStore pdfStore = PdfStore.openDefault();
+    private final PdfDocumentRegistry documents = new PdfDocumentRegistry();
+    private final ThumbnailCache thumbnails = ThumbnailCache.openDefault(SwingUtilities::invokeLater);
+    private final TileCache tiles = TileCache.openDefault(SwingUtilities::invokeLater);
+    private final PdfTextCache texts = new PdfTextCache();
+    private final RecipeExtractor recipeExtractor = RecipeExtractor.openDefault();
+    private final MenuPlanner menuPlanner = new MenuPlanner(MenuPlanner.DEFAULT_PARALLELISM);
+    private final List<Client> clients = new ArrayList<>();
+
+    public Workspace(Path file) {
+        this.file = file;
+        EdtWatchdog.install(Metrics.global(), EdtWatchdog.DEFAULT_THRESHOLD_MILLIS);
+        pdfStore.addUnreferencedListener(storedName -> texts.evict(pdfStore.resolve(storedName)));
+        new Timer(DOCUMENT_SWEEP_MILLIS, e -> documents.sweep()).start();
+    }
+
+    /** The portfolios open when the workspace was last saved, or just the default one. */
+    public List<Path> remembered() {
+        List<Path> paths = new ArrayList<>();
+        if (Files.exists(file)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                properties.clear();
+            }
+            for (int i = 0; properties.containsKey(PORTFOLIO_KEY + i); i++) {
+                paths.add(Paths.get(properties.getProperty(PORTFOLIO_KEY + i)));
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add(Portfolio.defaultPath());
+        }
+        return paths;
+    }
+
+    /** Opens each portfolio in its own window; the first one opened ends up in front. */
+    public void openAll(List<Path> paths) {
+        for (int i = paths.size() - 1; i >= 0; i--) {
+            open(paths.get(i));
+        }
+    }
+
+    /** Brings the portfolio's window to the front, opening it first if needed; a missing file starts a new one. */
+    public Client open(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        for (Client client : clients) {
+            if (client.getPortfolioPath().equals(normalized)) {
+                client.activate();
+                return client;
+            }
+        }
+        Client client = new Client(this, normalized);
+        clients.add(client);
+        save();
+        client.show();
+        return client;
+    }
+
+    /**
+     * Called once a window has closed. Closing the last one exits, leaving the list as it was for next time;
+     * otherwise folder sync passes to the next window if the closed one had it.
+     */
+    void closed(Client client) {
+        boolean syncing = ownsFolderSync(client);
+        clients.remove(client);
+        if (clients.isEmpty()) {
+            System.exit(0);
+        }
+        if (syncing) {
+            clients.get(0).folderSyncHandedOver();
+        }
+        save();
+    }
+
+    public List<Client> getClients() {
+        return Collections.unmodifiableList(clients);
+    }
+
+    /**
+     * True for the earliest opened window still open: PDFs dropped into the shared folder become pages of
+     * that portfolio, whichever window happens to finish starting first.
+     */
+    boolean ownsFolderSync(Client client) {
+        return !clients.isEmpty() && clients.get(0) == client;
+    }
+
+    public PdfStore getPdfStore() {
+        return pdfStore;
+    }
+
+    public PdfDocumentRegistry getDocuments() {
+        return documents;
+    }
+
+    public ThumbnailCache getThumbnails() {
+        return thumbnails;
+    }
+
+    public TileCache getTiles() {
+        return tiles;
+    }
+
+    public PdfTextCache getTexts() {
+        return texts;
+    }
+
+    public RecipeExtractor getRecipeExtractor() {
+        return recipeExtractor;
+    }
+
+    public MenuPlanner getMenuPlanner() {
+        return menuPlanner;
+    }
+
+    private void save() {
+        Properties properties = new Properties();
+        for (int i = 0; i < clients.size(); i++) {
+            properties.setProperty(PORTFOLIO_KEY + i, clients.get(i).getPortfolioPath().toString());
+        }
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            properties.store(out, "Portfolios open in the workspace");
+        } catch (IOException e) {
+            return;
+        }
+        try {
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Only the list of portfolios to reopen is lost.
+        }
+    }
+}
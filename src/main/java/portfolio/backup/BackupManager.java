@@ -0,0 +1,686 @@
+package portfolio.backup;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.metrics.Metrics;
+import portfolio.page.Portfolio;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Point-in-time snapshots of the saved portfolio and the folders its pages point into.
+ *
+ * <p>A snapshot is assembled in a {@code .partial-} folder: the portfolio file is copied under the save
+ * lock, then gzipped; PDFs and photos are hard-linked, either to the identical file in the previous
+ * snapshot or, for content-addressed PDFs, which are never rewritten, to the store itself, and copied
+ * only when neither applies. Everything is fsynced, the manifest written last, and the folder renamed
+ * into place, so a snapshot either exists whole or not at all. The manifest records each file's size
+ * and CRC-32. Restoring decompresses the portfolio, links missing content-addressed PDFs back and copies
+ * everything else, so that a file edited in place later can never change a snapshot that shares it.
+ *
+ * <p>Backups run on a single daemon thread; callers never wait for one.
+ */
+public class BackupManager {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 30 * 60_000L;
+    public static final String SNAPSHOT_PREFIX = "snapshot-";
+    public static final String MANIFEST = "MANIFEST";
+    public static final String PORTFOLIO_ENTRY = "portfolio.ckp.gz";
+    public static final String PDFS_ENTRY = "pdfs";
+    public static final String IMAGES_ENTRY = "images";
+
+    private static final String PARTIAL_PREFIX = ".partial-";
+    private static final String DELETING_PREFIX = ".deleting-";
+    private static final String HEADER = "# portfolio backup v2";
+    /** Manifests before per-file checksums; their files are only checked by size. */
+    private static final String HEADER_V1 = "# portfolio backup v1";
+    private static final long NO_CRC = -1;
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final Metrics.Histogram BACKUP_TIMES = Metrics.global().histogram("backup.time");
+    private static final Metrics.Counter BACKUPS = Metrics.global().counter("backup.count");
+    private static final Metrics.Counter BACKUP_FAILURES = Metrics.global().counter("backup.failed");
+    private static final Metrics.Counter LINKED_BYTES = Metrics.global().counter("backup.linked-bytes");
+    private static final Metrics.Counter COPIED_BYTES = Metrics.global().counter("backup.copied-bytes");
+
+    private final Path folder;
+    private final Path pdfFolder;
+    private final Path imagesFolder;
+    private final Retention retention;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "backup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public BackupManager(Path folder, Path pdfFolder, Path imagesFolder, Retention retention) {
+        this.folder = folder;
+        this.pdfFolder = pdfFolder;
+        this.imagesFolder = imagesFolder;
+        this.retention = retention;
+    }
+
+    public static BackupManager openDefault(Path portfolioPath) {
+        return new BackupManager(folderFor(portfolioPath), Paths.get(Constants.PDFS_FOLDER),
+                Paths.get(Constants.IMAGES_FOLDER), Retention.DEFAULT);
+    }
+
+    /**
+     * backups/ next to the default portfolio. Other portfolios, which share that folder in a workspace,
+     * get a subfolder named after their file so that restoring never picks up another one's snapshot.
+     */
+    public static Path folderFor(Path portfolioPath) {
+        Path folder = portfolioPath.toAbsolutePath().resolveSibling(Constants.BACKUP_FOLDER);
+        String name = portfolioPath.getFileName().toString();
+        if (name.endsWith(Constants.DEFAULT_SAVE_EXTENSION)) {
+            name = name.substring(0, name.length() - Constants.DEFAULT_SAVE_EXTENSION.length());
+        }
+        return name.equals(Constants.DEFAULT_PORTFOLIO_NAME) ? folder : folder.resolve(name);
+    }
+
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Backs up on the backup thread. Completes with the new snapshot, or null when the newest snapshot
+     * already holds the portfolio as last saved.
+     */
+    public CompletableFuture<Snapshot> backupAsync(Portfolio portfolio) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return backupIfChanged(portfolio);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    public Snapshot backupIfChanged(Portfolio portfolio) throws IOException {
+        Snapshot newest = newest();
+        if (newest != null && portfolio.getSavedAtMillis() != 0 && newest.savedAt == portfolio.getSavedAtMillis()) {
+            return null;
+        }
+        return backup(portfolio);
+    }
+
+    /** Takes a snapshot now on the calling thread, then applies the retention policy. */
+    public Snapshot backup(Portfolio portfolio) throws IOException {
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(folder);
+            removeLeftovers();
+            Snapshot previous = newest();
+            String name = SNAPSHOT_PREFIX + STAMP.format(LocalDateTime.now(ZoneOffset.UTC));
+            Path partial = folder.resolve(PARTIAL_PREFIX + name);
+            Files.createDirectories(partial);
+
+            Path raw = partial.resolve(PORTFOLIO_ENTRY + ".raw");
+            long savedAt = portfolio.copySavedTo(raw);
+            if (savedAt == 0) {
+                deleteTree(partial);
+                throw new IOException("The portfolio has not been saved yet");
+            }
+            long[] crcAndLength = compress(raw, partial.resolve(PORTFOLIO_ENTRY));
+            Files.delete(raw);
+
+            Map<String, FileEntry> files = new LinkedHashMap<>();
+            Counts counts = new Counts();
+            mirror(pdfFolder, partial.resolve(PDFS_ENTRY), previous, PDFS_ENTRY, true, files, counts);
+            mirror(imagesFolder, partial.resolve(IMAGES_ENTRY), previous, IMAGES_ENTRY, false, files, counts);
+
+            writeManifest(partial.resolve(MANIFEST), savedAt, crcAndLength, files);
+            syncDirectory(partial);
+            Path target = folder.resolve(name);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(folder);
+
+            LINKED_BYTES.add(counts.linkedBytes);
+            COPIED_BYTES.add(counts.copiedBytes);
+            BACKUPS.increment();
+            Snapshot snapshot = read(target);
+            prune();
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            BACKUP_FAILURES.increment();
+            throw e;
+        } finally {
+            BACKUP_TIMES.recordSince(started);
+        }
+    }
+
+    /** Complete snapshots, newest first. Partial and half-deleted ones are never listed. */
+    public List<Snapshot> list() throws IOException {
+        List<Snapshot> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(folder)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder, SNAPSHOT_PREFIX + "*")) {
+            for (Path entry : entries) {
+                Snapshot snapshot = read(entry);
+                if (snapshot != null) {
+                    snapshots.add(snapshot);
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparing((Snapshot snapshot) -> snapshot.name).reversed());
+        return snapshots;
+    }
+
+    public Snapshot newest() throws IOException {
+        List<Snapshot> snapshots = list();
+        return snapshots.isEmpty() ? null : snapshots.get(0);
+    }
+
+    /** The newest snapshot that passes {@link #verify}, or null. */
+    public Snapshot newestGood() throws IOException {
+        for (Snapshot snapshot : list()) {
+            if (verify(snapshot) == null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /** Checks the portfolio's and every file's size and checksum; returns what is wrong, or null if nothing is. */
+    public String verify(Snapshot snapshot) {
+        try (CheckedInputStream in = new CheckedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshot.path.resolve(PORTFOLIO_ENTRY)), BUFFER_SIZE),
+                new CRC32())) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long length = 0;
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                length += read;
+            }
+            if (length != snapshot.portfolioLength || in.getChecksum().getValue() != snapshot.portfolioCrc) {
+                return "portfolio checksum mismatch";
+            }
+        } catch (IOException e) {
+            return "portfolio unreadable: " + e.getMessage();
+        }
+        for (Map.Entry<String, FileEntry> file : snapshot.files.entrySet()) {
+            Path path = snapshot.path.resolve(file.getKey());
+            FileEntry expected = file.getValue();
+            try {
+                if (Files.size(path) != expected.size) {
+                    return file.getKey() + " has the wrong size";
+                }
+                if (expected.crc != NO_CRC && crc(path) != expected.crc) {
+                    return file.getKey() + " checksum mismatch";
+                }
+            } catch (IOException e) {
+                return file.getKey() + " is missing";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the portfolio with the snapshot's and puts back every PDF and photo that is missing or
+     * differs in size; files added since the snapshot are left alone. Only content-addressed PDFs are
+     * hard-linked back; photos and other PDFs may be rewritten in place, so they are copied. The replaced portfolio file is kept
+     * next to it with a {@code .before-restore} suffix.
+     */
+    public RestoreResult restore(Snapshot snapshot, Path portfolioPath) throws IOException {
+        String problem = verify(snapshot);
+        if (problem != null) {
+            throw new IOException("Snapshot " + snapshot.name + " is damaged: " + problem);
+        }
+        long started = System.nanoTime();
+        Path partial = portfolioPath.resolveSibling(portfolioPath.getFileName() + ".restore.part");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot.path.resolve(PORTFOLIO_ENTRY)),
+                BUFFER_SIZE);
+             FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            in.transferTo(Channels.newOutputStream(out));
+            out.force(true);
+        }
+        if (Files.exists(portfolioPath)) {
+            Files.move(portfolioPath, portfolioPath.resolveSibling(portfolioPath.getFileName() + ".before-restore"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(partial, portfolioPath, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(portfolioPath.toAbsolutePath().getParent());
+
+        int restored = 0;
+        long bytes = 0;
+        for (Map.Entry<String, FileEntry> file : snapshot.files.entrySet()) {
+            String entry = file.getKey();
+            boolean pdf = entry.startsWith(PDFS_ENTRY + "/");
+            Path targetFolder = pdf ? pdfFolder : imagesFolder;
+            String name = entry.substring(entry.indexOf('/') + 1);
+            Path target = targetFolder.resolve(name);
+            long size = file.getValue().size;
+            if (Files.exists(target) && Files.size(target) == size) {
+                continue;
+            }
+            Files.createDirectories(targetFolder);
+            Path part = target.resolveSibling(target.getFileName() + ".restore.part");
+            Files.deleteIfExists(part);
+            if (pdf && isContentAddressed(name)) {
+                linkOrCopy(snapshot.path.resolve(entry), part);
+            } else {
+                copy(snapshot.path.resolve(entry), part);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            restored++;
+            bytes += size;
+        }
+        return new RestoreResult(snapshot, restored, bytes, System.nanoTime() - started);
+    }
+
+    /** Deletes snapshots the retention policy no longer wants. Returns how many went. */
+    public int prune() throws IOException {
+        List<Snapshot> snapshots = list();
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (int i = retention.keepNewest; i < snapshots.size(); i++) {
+            Snapshot snapshot = snapshots.get(i);
+            if (i >= retention.maxCount || now - snapshot.createdAt > retention.maxAgeMillis) {
+                Path doomed = folder.resolve(DELETING_PREFIX + snapshot.name);
+                Files.move(snapshot.path, doomed, StandardCopyOption.ATOMIC_MOVE);
+                deleteTree(doomed);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /** Leftovers of a backup or prune that a crash interrupted. */
+    private void removeLeftovers() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder, ".{partial,deleting}-*")) {
+            for (Path entry : entries) {
+                deleteTree(entry);
+            }
+        }
+    }
+
+    private static long[] compress(Path source, Path target) throws IOException {
+        CRC32 crc = new CRC32();
+        long length = 0;
+        try (InputStream in = Files.newInputStream(source);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                length += read;
+            }
+            out.finish();
+            out.flush();
+            channel.force(true);
+        }
+        return new long[]{crc.getValue(), length};
+    }
+
+    /**
+     * Links every regular file of {@code source} into {@code target}: to the previous snapshot's copy when
+     * size and modification time match, else to the source itself when it is immutable, else copies it.
+     * Checksums are taken from the previous manifest for unchanged files and read from the new link otherwise.
+     */
+    private static void mirror(Path source, Path target, Snapshot previous, String entry, boolean contentAddressed,
+                               Map<String, FileEntry> files, Counts counts) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return;
+        }
+        Files.createDirectories(target);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+            for (Path file : entries) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".") || name.endsWith(".part") || name.endsWith(".tmp")) {
+                    continue;
+                }
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue; // Deleted while listing.
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                Path link = target.resolve(name);
+                String key = entry + "/" + name;
+                Path earlier = previous == null ? null : previous.path.resolve(key);
+                long crc = NO_CRC;
+                if (earlier != null && sameFile(earlier, attributes)) {
+                    linkOrCopy(earlier, link, counts, attributes.size());
+                    FileEntry known = previous.files.get(key);
+                    crc = known == null ? NO_CRC : known.crc;
+                } else if (contentAddressed && isContentAddressed(name)) {
+                    linkOrCopy(file, link, counts, attributes.size());
+                } else {
+                    copy(file, link);
+                    counts.copiedBytes += attributes.size();
+                }
+                files.put(key, new FileEntry(attributes.size(), crc == NO_CRC ? crc(link) : crc));
+            }
+        }
+        syncDirectory(target);
+    }
+
+    private static boolean sameFile(Path earlier, BasicFileAttributes current) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(earlier, BasicFileAttributes.class);
+            return attributes.size() == current.size()
+                    && attributes.lastModifiedTime().equals(current.lastModifiedTime());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Stored PDFs are named by the SHA-256 of their content, so the bytes under a name never change. */
+    static boolean isContentAddressed(String name) {
+        return PdfStore.isStoredName(name);
+    }
+
+    private static void linkOrCopy(Path existing, Path link, Counts counts, long size) throws IOException {
+        if (linkOrCopy(existing, link)) {
+            counts.linkedBytes += size;
+        } else {
+            counts.copiedBytes += size;
+        }
+    }
+
+    /** Returns true if a hard link was made, false if the filesystem refused and the file was copied. */
+    private static boolean linkOrCopy(Path existing, Path link) throws IOException {
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | IOException e) {
+            copy(existing, link);
+            return false;
+        }
+    }
+
+    private static long crc(Path file) throws IOException {
+        try (CheckedInputStream in = new CheckedInputStream(Files.newInputStream(file), new CRC32())) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (in.read(buffer) != -1) {
+                // The checksum is all that is wanted.
+            }
+            return in.getChecksum().getValue();
+        }
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static void writeManifest(Path manifest, long savedAt, long[] crcAndLength, Map<String, FileEntry> files)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(manifest, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                     Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write("savedAt\t" + savedAt);
+            writer.newLine();
+            writer.write("portfolio\t" + crcAndLength[0] + "\t" + crcAndLength[1]);
+            writer.newLine();
+            for (Map.Entry<String, FileEntry> file : files.entrySet()) {
+                writer.write("file\t" + file.getValue().size + "\t" + file.getValue().crc + "\t" + file.getKey());
+                writer.newLine();
+            }
+            writer.flush();
+            channel.force(true);
+        }
+    }
+
+    /** Reads a snapshot's manifest; null if the folder is not a complete snapshot. */
+    private static Snapshot read(Path path) {
+        String name = path.getFileName().toString();
+        long createdAt;
+        try {
+            createdAt = LocalDateTime.parse(name.substring(SNAPSHOT_PREFIX.length()), STAMP)
+                    .toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            boolean checksummed = HEADER.equals(header);
+            if (!checksummed && !HEADER_V1.equals(header)) {
+                return null;
+            }
+            long savedAt = 0;
+            long crc = -1;
+            long length = -1;
+            Map<String, FileEntry> files = new LinkedHashMap<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] fields = line.split("\t", line.startsWith("file\t") && checksummed ? 4 : 3);
+                switch (fields[0]) {
+                    case "savedAt":
+                        savedAt = Long.parseLong(fields[1]);
+                        break;
+                    case "portfolio":
+                        crc = Long.parseLong(fields[1]);
+                        length = Long.parseLong(fields[2]);
+                        break;
+                    case "file":
+                        if (checksummed) {
+                            files.put(fields[3], new FileEntry(Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                        } else {
+                            files.put(fields[2], new FileEntry(Long.parseLong(fields[1]), NO_CRC));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (length < 0) {
+                return null;
+            }
+            return new Snapshot(name, path, createdAt, savedAt, crc, length, files);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Makes a rename or a new entry in {@code directory} durable; not every platform can. */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows cannot open a directory as a channel; NTFS journals the rename anyway.
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> doomed = new ArrayList<>();
+            paths.forEach(doomed::add);
+            for (int i = doomed.size() - 1; i >= 0; i--) {
+                Files.deleteIfExists(doomed.get(i));
+            }
+        }
+    }
+
+    private static final class Counts {
+        long linkedBytes;
+        long copiedBytes;
+    }
+
+    private static final class FileEntry {
+        private final long size;
+        private final long crc;
+
+        private FileEntry(long size, long crc) {
+            this.size = size;
+            this.crc = crc;
+        }
+    }
+
+    /**
+     * Keeps the {@code keepNewest} newest snapshots whatever their age; beyond those, drops any older than
+     * {@code maxAgeMillis} and any past the {@code maxCount} newest.
+     */
+    public static final class Retention {
+
+        public static final Retention DEFAULT = new Retention(3, 20, TimeUnit.DAYS.toMillis(30));
+
+        private final int keepNewest;
+        private final int maxCount;
+        private final long maxAgeMillis;
+
+        public Retention(int keepNewest, int maxCount, long maxAgeMillis) {
+            if (keepNewest < 1 || maxCount < keepNewest) {
+                throw new IllegalArgumentException("Need 1 <= keepNewest <= maxCount: " + keepNewest + ", " + maxCount);
+            }
+            this.keepNewest = keepNewest;
+            this.maxCount = maxCount;
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        public int getKeepNewest() {
+            return keepNewest;
+        }
+
+        public int getMaxCount() {
+            return maxCount;
+        }
+
+        public long getMaxAgeMillis() {
+            return maxAgeMillis;
+        }
+    }
+
+    public static final class Snapshot {
+        private final String name;
+        private final Path path;
+        private final long createdAt;
+        private final long savedAt;
+        private final long portfolioCrc;
+        private final long portfolioLength;
+        private final Map<String, FileEntry> files;
+
+        private Snapshot(String name, Path path, long createdAt, long savedAt, long portfolioCrc,
+                         long portfolioLength, Map<String, FileEntry> files) {
+            this.name = name;
+            this.path = path;
+            this.createdAt = createdAt;
+            this.savedAt = savedAt;
+            this.portfolioCrc = portfolioCrc;
+            this.portfolioLength = portfolioLength;
+            this.files = files;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public Instant getCreatedInstant() {
+            return Instant.ofEpochMilli(createdAt);
+        }
+
+        /** When the portfolio in this snapshot was saved. */
+        public long getSavedAt() {
+            return savedAt;
+        }
+
+        public int getFileCount() {
+            return files.size();
+        }
+
+        public long getFileBytes() {
+            long total = 0;
+            for (FileEntry file : files.values()) {
+                total += file.size;
+            }
+            return total;
+        }
+    }
+
+    public static final class RestoreResult {
+        private final Snapshot snapshot;
+        private final int filesRestored;
+        private final long bytesRestored;
+        private final long nanos;
+
+        private RestoreResult(Snapshot snapshot, int filesRestored, long bytesRestored, long nanos) {
+            this.snapshot = snapshot;
+            this.filesRestored = filesRestored;
+            this.bytesRestored = bytesRestored;
+            this.nanos = nanos;
+        }
+
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public int getFilesRestored() {
+            return filesRestored;
+        }
+
+        public long getBytesRestored() {
+            return bytesRestored;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
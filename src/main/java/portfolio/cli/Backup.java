@@ -0,0 +1,181 @@
+package portfolio.cli;
+
+import portfolio.backup.BackupManager;
+import portfolio.input.Constants;
+import portfolio.page.Portfolio;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Takes, lists, checks and restores portfolio backups without the UI.
+ *
+ * <pre>
+ * java -cp build/classes/java/main portfolio.cli.Backup [options] (backup | list | verify | prune | restore [snapshot])
+ *   --portfolio &lt;file.ckp&gt;   portfolio to back up or restore (default portfolio.ckp)
+ *   --store &lt;folder&gt;         content-addressed PDF folder (default pdfs/)
+ *   --images &lt;folder&gt;        photo folder (default images/)
+ *   --backups &lt;folder&gt;       snapshot folder (default backups/ next to the portfolio, or
+ *                            backups/&lt;name&gt;/ for portfolios not named portfolio.ckp)
+ * </pre>
+ *
+ * {@code restore} without a snapshot name picks the newest one that verifies.
+ */
+public final class Backup {
+
+    private static final int EXIT_USAGE = 2;
+    private static final int EXIT_FAILURE = 1;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private Path portfolioPath = Portfolio.defaultPath();
+    private Path storeFolder = Paths.get(Constants.PDFS_FOLDER);
+    private Path imagesFolder = Paths.get(Constants.IMAGES_FOLDER);
+    private Path backupsFolder;
+    private String command;
+    private String snapshotName;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private Backup(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new Backup(System.out, System.err).run(args));
+    }
+
+    int run(String[] args) {
+        if (!parse(args)) {
+            err.println("usage: Backup [--portfolio file.ckp] [--store folder] [--images folder] [--backups folder]"
+                    + " (backup | list | verify | prune | restore [snapshot])");
+            return EXIT_USAGE;
+        }
+        if (backupsFolder == null) {
+            backupsFolder = BackupManager.folderFor(portfolioPath);
+        }
+        BackupManager backups = new BackupManager(backupsFolder, storeFolder, imagesFolder,
+                BackupManager.Retention.DEFAULT);
+        try {
+            switch (command) {
+                case "backup":
+                    return backup(backups);
+                case "list":
+                    return list(backups, false);
+                case "verify":
+                    return list(backups, true);
+                case "prune":
+                    out.println("Removed " + backups.prune() + " snapshots");
+                    return 0;
+                default:
+                    return restore(backups);
+            }
+        } catch (IOException e) {
+            err.println("error: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                if (command == null) {
+                    command = arg;
+                } else if ("restore".equals(command) && snapshotName == null) {
+                    snapshotName = arg;
+                } else {
+                    return false;
+                }
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                return false;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--portfolio":
+                    portfolioPath = Paths.get(value);
+                    break;
+                case "--store":
+                    storeFolder = Paths.get(value);
+                    break;
+                case "--images":
+                    imagesFolder = Paths.get(value);
+                    break;
+                case "--backups":
+                    backupsFolder = Paths.get(value);
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return command != null && List.of("backup", "list", "verify", "prune", "restore").contains(command);
+    }
+
+    private int backup(BackupManager backups) throws IOException {
+        if (!Files.exists(portfolioPath)) {
+            err.println("error: no portfolio at " + portfolioPath);
+            return EXIT_FAILURE;
+        }
+        long started = System.nanoTime();
+        Portfolio portfolio = Portfolio.open(portfolioPath);
+        BackupManager.Snapshot snapshot = backups.backup(portfolio);
+        out.printf(Locale.ROOT, "Backed up to %s: %d files, %.1f MB, in %.2f s%n", snapshot.getPath(),
+                snapshot.getFileCount(), snapshot.getFileBytes() / 1048576.0, (System.nanoTime() - started) / 1e9);
+        return 0;
+    }
+
+    private int list(BackupManager backups, boolean verify) throws IOException {
+        List<BackupManager.Snapshot> snapshots = backups.list();
+        if (snapshots.isEmpty()) {
+            out.println("No backups in " + backups.getFolder());
+            return verify ? EXIT_FAILURE : 0;
+        }
+        int damaged = 0;
+        for (BackupManager.Snapshot snapshot : snapshots) {
+            String status = "";
+            if (verify) {
+                String problem = backups.verify(snapshot);
+                status = problem == null ? "  ok" : "  DAMAGED: " + problem;
+                if (problem != null) {
+                    damaged++;
+                }
+            }
+            out.printf(Locale.ROOT, "%s  %s  %6d files  %9.1f MB%s%n", snapshot.getName(),
+                    TIME_FORMAT.format(snapshot.getCreatedInstant().atZone(ZoneId.systemDefault())),
+                    snapshot.getFileCount(), snapshot.getFileBytes() / 1048576.0, status);
+        }
+        return damaged == 0 ? 0 : EXIT_FAILURE;
+    }
+
+    private int restore(BackupManager backups) throws IOException {
+        BackupManager.Snapshot snapshot = null;
+        if (snapshotName == null) {
+            snapshot = backups.newestGood();
+        } else {
+            for (BackupManager.Snapshot candidate : backups.list()) {
+                if (candidate.getName().equals(snapshotName)) {
+                    snapshot = candidate;
+                }
+            }
+        }
+        if (snapshot == null) {
+            err.println("error: " + (snapshotName == null ? "no good backup in " + backups.getFolder()
+                    : "no snapshot " + snapshotName));
+            return EXIT_FAILURE;
+        }
+        BackupManager.RestoreResult result = backups.restore(snapshot, portfolioPath);
+        out.printf(Locale.ROOT, "Restored %s from %s; %d files (%.1f MB) linked back in %.2f s%n", portfolioPath,
+                snapshot.getName(), result.getFilesRestored(), result.getBytesRestored() / 1048576.0,
+                result.getNanos() / 1e9);
+        return 0;
+    }
+}
@@ -0,0 +1,251 @@
+package portfolio.cli;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfImportPipeline;
+import portfolio.input.PdfImporter;
+import portfolio.input.PdfStore;
+import portfolio.page.Page;
+import portfolio.page.Portfolio;
+import portfolio.recipe.Recipe;
+import portfolio.recipe.RecipeExtractor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Headless portfolio builder for scripted jobs; uses no Swing or AWT classes.
+ *
+ * <pre>
+ * java -cp build/classes/java/main portfolio.cli.BatchImport [options] &lt;folder-or-pdf&gt;...
+ *   --portfolio &lt;file.ckp&gt;   portfolio to create or extend (default portfolio.ckp)
+ *   --store &lt;folder&gt;         content-addressed PDF folder (default pdfs/)
+ *   --workers &lt;n&gt;           parallel copy workers (default PdfImportPipeline.DEFAULT_WORKERS)
+ *   --recipes                parse each new PDF into a recipe and store it as the page's notes
+ * </pre>
+ */
+public final class BatchImport {
+
+    private static final int EXIT_USAGE = 2;
+    private static final int EXIT_FAILURE = 1;
+
+    private Path portfolioPath = Portfolio.defaultPath();
+    private Path storeFolder = Paths.get(Constants.PDFS_FOLDER);
+    private int workers = PdfImportPipeline.DEFAULT_WORKERS;
+    private boolean recipes;
+    private final List<File> sources = new ArrayList<>();
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private BatchImport(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new BatchImport(System.out, System.err).run(args));
+    }
+
+    int run(String[] args) {
+        if (!parse(args)) {
+            err.println("usage: BatchImport [--portfolio file.ckp] [--store folder] [--workers n] [--recipes] <folder-or-pdf>...");
+            return EXIT_USAGE;
+        }
+        try {
+            return runImport();
+        } catch (IOException | ExecutionException e) {
+            err.println("error: " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("interrupted");
+            return EXIT_FAILURE;
+        }
+    }
+
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            boolean hasValue = i + 1 < args.length;
+            switch (arg) {
+                case "--portfolio":
+                    if (!hasValue) {
+                        return false;
+                    }
+                    portfolioPath = Paths.get(args[++i]);
+                    break;
+                case "--store":
+                    if (!hasValue) {
+                        return false;
+                    }
+                    storeFolder = Paths.get(args[++i]);
+                    break;
+                case "--workers":
+                    if (!hasValue) {
+                        return false;
+                    }
+                    try {
+                        workers = Math.max(1, Integer.parseInt(args[++i]));
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    break;
+                case "--recipes":
+                    recipes = true;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        return false;
+                    }
+                    sources.add(new File(arg));
+            }
+        }
+        return !sources.isEmpty();
+    }
+
+    private int runImport() throws IOException, InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        List<File> files = PdfImporter.collectPdfFiles(sources.toArray(new File[0]));
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        out.printf(Locale.ROOT, "Found %d PDFs (%s)%n", files.size(), megabytes(totalBytes));
+
+        Portfolio portfolio = Files.exists(portfolioPath) ? Portfolio.open(portfolioPath) : new Portfolio();
+        Constants.setTotalPages(portfolio.size());
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < portfolio.size(); i++) {
+            int id = portfolio.idAt(i);
+            if (Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id))) {
+                existing.add(portfolio.getFile(id));
+            }
+        }
+
+        Files.createDirectories(storeFolder);
+        PdfImportPipeline pipeline = new PdfImportPipeline(new PdfStore(storeFolder), workers,
+                PdfImportPipeline.DEFAULT_QUEUE_CAPACITY, Runnable::run);
+        List<PdfImportPipeline.ImportResult> results;
+        try {
+            results = importAll(pipeline, files);
+        } finally {
+            pipeline.shutdown();
+        }
+        long imported = System.nanoTime();
+
+        int created = 0;
+        List<Page> newPages = new ArrayList<>();
+        for (PdfImportPipeline.ImportResult result : results) {
+            if (result.isFailed() || !existing.add(result.getStoredName())) {
+                continue;
+            }
+            Page page = portfolio.addPdfPage(result.getOriginalName(), result.getStoredName());
+            if (page == null) {
+                err.println("Page limit of " + Constants.MAX_PAGES + " reached; remaining PDFs were not added");
+                break;
+            }
+            newPages.add(page);
+            created++;
+        }
+        int parsed = recipes ? fillRecipes(portfolio, newPages) : 0;
+        long extracted = System.nanoTime();
+
+        portfolio.save(portfolioPath);
+        long saved = System.nanoTime();
+
+        PdfImporter.Summary summary = PdfImporter.summarize(results);
+        for (PdfImportPipeline.ImportResult failure : summary.getFailures()) {
+            err.println("failed: " + failure.getOriginalName() + ": " + failure.getError().getMessage());
+        }
+        double importSeconds = seconds(started, imported);
+        out.printf(Locale.ROOT, "Imported %d, already present %d, failed %d%n",
+                summary.getImported(), summary.getDuplicates(), summary.getFailures().size());
+        out.printf(Locale.ROOT, "Import: %.2f s, %.1f files/s, %.1f MB/s (%d workers)%n",
+                importSeconds, files.size() / importSeconds, totalBytes / 1048576.0 / importSeconds, workers);
+        if (recipes) {
+            out.printf(Locale.ROOT, "Recipes: %d of %d pages in %.2f s (%d threads)%n",
+                    parsed, newPages.size(), seconds(imported, extracted), RecipeExtractor.DEFAULT_PARALLELISM);
+        }
+        out.printf(Locale.ROOT, "Pages: %d created, %d total; saved %s in %.0f ms%n",
+                created, portfolio.size(), portfolioPath, seconds(extracted, saved) * 1000);
+        out.printf(Locale.ROOT, "Total: %.2f s%n", seconds(started, saved));
+        return summary.getFailures().isEmpty() ? 0 : EXIT_FAILURE;
+    }
+
+    private int fillRecipes(Portfolio portfolio, List<Page> pages) {
+        List<Path> files = new ArrayList<>();
+        for (Page page : pages) {
+            files.add(storeFolder.resolve(page.getFile()));
+        }
+        RecipeExtractor extractor = RecipeExtractor.openDefault();
+        Map<Path, Recipe> found;
+        try {
+            found = extractor.extractAll(files);
+        } finally {
+            extractor.shutdown();
+        }
+        int filled = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            Recipe recipe = found.get(files.get(i));
+            Page page = pages.get(i);
+            Page withRecipe = recipe == null ? null : RecipeExtractor.fill(page, page.getTitle(), recipe);
+            if (withRecipe != null) {
+                portfolio.updatePage(withRecipe);
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    private List<PdfImportPipeline.ImportResult> importAll(PdfImportPipeline pipeline, List<File> files)
+            throws InterruptedException, ExecutionException {
+        CompletableFuture<List<PdfImportPipeline.ImportResult>> done = new CompletableFuture<>();
+        pipeline.submit(files, new PdfImportPipeline.ImportListener() {
+            private int lastTenth = 0;
+
+            @Override
+            public synchronized void onProgress(int filesDone, int fileCount, long bytesDone, long totalBytes) {
+                int tenth = totalBytes == 0 ? 10 : (int) (bytesDone * 10 / totalBytes);
+                if (tenth > lastTenth) {
+                    lastTenth = tenth;
+                    err.printf(Locale.ROOT, "  %d%% (%d/%d files)%n", tenth * 10, filesDone, fileCount);
+                }
+            }
+
+            @Override
+            public void onComplete(List<PdfImportPipeline.ImportResult> results) {
+                done.complete(results);
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                done.completeExceptionally(error);
+            }
+
+            @Override
+            public void onCancelled(List<PdfImportPipeline.ImportResult> results) {
+                done.complete(results);
+            }
+        });
+        return done.get();
+    }
+
+    private static double seconds(long from, long to) {
+        return Math.max(1e-9, (to - from) / 1e9);
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / 1048576.0);
+    }
+}
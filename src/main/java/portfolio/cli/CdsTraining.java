@@ -0,0 +1,88 @@
+package portfolio.cli;
+
+import portfolio.Client;
+import portfolio.PageListModel;
+import portfolio.PageViewFactory;
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.page.Portfolio;
+import portfolio.pdf.PdfDocumentRegistry;
+import portfolio.pdf.PdfTextCache;
+import portfolio.search.SearchIndex;
+import portfolio.thumbnail.ThumbnailCache;
+import portfolio.viewer.TileCache;
+
+import javax.swing.*;
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Training run for the AppCDS archive ({@code gradle cdsArchive}). With a
+ * display it starts the app, which exits once startup is done. Without one
+ * it loads the same classes by building the page views off screen and
+ * opening the portfolio and its search index.
+ */
+public final class CdsTraining {
+
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!GraphicsEnvironment.isHeadless()) {
+            System.setProperty(Client.EXIT_AFTER_STARTUP_PROPERTY, "true");
+            Client.main(args);
+            return;
+        }
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                buildOffscreen();
+            } catch (Exception e) {
+                System.err.println("training run incomplete: " + e);
+            }
+        });
+        System.exit(0);
+    }
+
+    private static void buildOffscreen() throws Exception {
+        UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        Path portfolioPath = Portfolio.defaultPath();
+        Portfolio portfolio = Files.exists(portfolioPath) ? Portfolio.open(portfolioPath) : new Portfolio();
+        try {
+            SearchIndex.load(SearchIndex.pathFor(portfolioPath));
+        } catch (IOException e) {
+            // No index yet; the classes are loaded all the same.
+        }
+
+        ExecutorService previews = Executors.newSingleThreadExecutor();
+        TileCache tiles = TileCache.openDefault(SwingUtilities::invokeLater);
+        try {
+            PdfStore store = PdfStore.openDefault();
+            PageViewFactory views = new PageViewFactory(store, new PdfDocumentRegistry(),
+                    ThumbnailCache.openDefault(SwingUtilities::invokeLater), tiles, new PdfTextCache(), previews,
+                    portfolio::size);
+            JList<Integer> list = new JList<>(new PageListModel(portfolio));
+            JPanel container = new JPanel();
+            container.add(new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(list),
+                    views.createPageContent(1, Constants.getPageName(1), null)));
+            for (int i = 0; i < portfolio.size(); i++) {
+                int id = portfolio.idAt(i);
+                if (Constants.PAGE_TYPE_PDF.equals(portfolio.getType(id))) {
+                    container.add(views.createPdfPageContent(i + 1, portfolio.getTitle(id), portfolio.getFile(id),
+                            portfolio.getNotes(id), () -> {
+                            }));
+                    break;
+                }
+            }
+            new JTextField().setText(Constants.APP_NAME);
+            new JOptionPane(Constants.APP_NAME);
+            container.doLayout();
+        } finally {
+            tiles.shutdown();
+            previews.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package portfolio.cli;
+
+import portfolio.export.PortfolioExporter;
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.page.Page;
+import portfolio.page.Portfolio;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Headless export of a portfolio into one merged PDF or a static HTML site.
+ *
+ * <pre>
+ * java -cp build/classes/java/main portfolio.cli.Export [options] (--pdf &lt;file.pdf&gt; | --site &lt;folder&gt;)
+ *   --portfolio &lt;file.ckp&gt;   portfolio to export (default portfolio.ckp)
+ *   --store &lt;folder&gt;         content-addressed PDF folder (default pdfs/)
+ *   --images &lt;folder&gt;        photo folder (default images/)
+ *   --threads &lt;n&gt;           page workers (default PortfolioExporter.DEFAULT_THREADS)
+ * </pre>
+ */
+public final class Export {
+
+    private static final int EXIT_USAGE = 2;
+    private static final int EXIT_FAILURE = 1;
+
+    private Path portfolioPath = Portfolio.defaultPath();
+    private Path storeFolder = Paths.get(Constants.PDFS_FOLDER);
+    private Path imagesFolder = Paths.get(Constants.IMAGES_FOLDER);
+    private int threads = PortfolioExporter.DEFAULT_THREADS;
+    private Path pdfTarget;
+    private Path siteTarget;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private Export(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new Export(System.out, System.err).run(args));
+    }
+
+    int run(String[] args) {
+        if (!parse(args)) {
+            err.println("usage: Export [--portfolio file.ckp] [--store folder] [--images folder] [--threads n]"
+                    + " (--pdf file.pdf | --site folder)");
+            return EXIT_USAGE;
+        }
+        try {
+            return runExport();
+        } catch (IOException e) {
+            err.println("error: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                return false;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--portfolio":
+                    portfolioPath = Paths.get(value);
+                    break;
+                case "--store":
+                    storeFolder = Paths.get(value);
+                    break;
+                case "--images":
+                    imagesFolder = Paths.get(value);
+                    break;
+                case "--pdf":
+                    pdfTarget = Paths.get(value);
+                    break;
+                case "--site":
+                    siteTarget = Paths.get(value);
+                    break;
+                case "--threads":
+                    try {
+                        threads = Math.max(1, Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return (pdfTarget == null) != (siteTarget == null);
+    }
+
+    private int runExport() throws IOException {
+        if (!Files.exists(portfolioPath)) {
+            err.println("error: no portfolio at " + portfolioPath);
+            return EXIT_FAILURE;
+        }
+        long started = System.nanoTime();
+        Portfolio portfolio = Portfolio.open(portfolioPath);
+        int[] ids = new int[portfolio.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = portfolio.idAt(i);
+        }
+        PortfolioExporter exporter = new PortfolioExporter(new PdfStore(storeFolder), imagesFolder, threads);
+        PortfolioExporter.Listener progress = (done, total) -> {
+            if (done == total || done % 500 == 0) {
+                out.printf(Locale.ROOT, "  %d/%d pages%n", done, total);
+            }
+        };
+        IntFunction<Page> pages = id -> {
+            synchronized (portfolio) {
+                return portfolio.getPage(id);
+            }
+        };
+
+        String written;
+        if (pdfTarget != null) {
+            long size = exporter.exportPdf(ids, pages, pdfTarget, progress);
+            written = pdfTarget + " (" + String.format(Locale.ROOT, "%.1f MB", size / 1048576.0) + ")";
+        } else {
+            exporter.exportSite(ids, pages, siteTarget, progress);
+            written = siteTarget.resolve("index.html").toString();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Runtime runtime = Runtime.getRuntime();
+        out.printf(Locale.ROOT, "Exported %d pages to %s in %.2f s (%.0f pages/s, %d threads, heap %d MB)%n",
+                ids.length, written, seconds, ids.length / seconds, threads,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+        return 0;
+    }
+}
@@ -0,0 +1,464 @@
+package portfolio.export;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.page.Page;
+import portfolio.pdf.PdfDocument;
+import portfolio.pdf.PdfName;
+import portfolio.pdf.PdfWriter;
+import portfolio.thumbnail.ThumbnailRenderer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * The merged-PDF format. Imported PDFs are copied page by page through
+ * {@link PdfWriter#copyPages}. Every other page is typeset as Helvetica text
+ * on Letter pages, with its photo placed under the title. Each portfolio
+ * page gets a bookmark.
+ */
+final class PdfExport implements PortfolioExporter.Sink<PdfExport.Part>, Closeable {
+
+    private static final int PAGE_WIDTH = 612;
+    private static final int PAGE_HEIGHT = 792;
+    private static final int MARGIN = 50;
+    private static final int TITLE_SIZE = 18;
+    private static final int BODY_SIZE = 11;
+    private static final int LEADING = 14;
+    private static final int CHARS_PER_LINE = 88;
+    private static final int IMAGE_MAX_HEIGHT = 450;
+    private static final int MAX_IMAGE_PIXELS = 2000;
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    private final PdfStore pdfStore;
+    private final Path imagesFolder;
+    private final PdfWriter writer;
+    private final int pagesRoot;
+    private final int outlinesRoot;
+    private final int fontResources;
+    private final int bodyFont;
+    private final int titleFont;
+
+    private int[] kids = new int[256];
+    private int kidCount;
+    private int firstItem;
+    private int itemCount;
+    private int pendingItem;
+    private int pendingPrevious;
+    private int pendingDestination;
+    private String pendingTitle;
+
+    PdfExport(Path target, PdfStore pdfStore, Path imagesFolder) throws IOException {
+        this.pdfStore = pdfStore;
+        this.imagesFolder = imagesFolder;
+        this.writer = new PdfWriter(target);
+        pagesRoot = writer.reserve();
+        outlinesRoot = writer.reserve();
+        bodyFont = writer.reserve();
+        titleFont = writer.reserve();
+        fontResources = writer.reserve();
+        writer.writeObject(bodyFont, font("Helvetica"));
+        writer.writeObject(titleFont, font("Helvetica-Bold"));
+        writer.writeObject(fontResources, dictionary("Font", fonts()));
+    }
+
+    static final class Part {
+        private final String title;
+        private final PdfDocument document;
+        private final List<byte[]> contents;
+        private final Image image;
+
+        private Part(String title, PdfDocument document, List<byte[]> contents, Image image) {
+            this.title = title;
+            this.document = document;
+            this.contents = contents;
+            this.image = image;
+        }
+    }
+
+    private static final class Image {
+        private final Map<String, Object> dictionary;
+        private final Path file;
+        private final byte[] data;
+        private final int width;
+        private final int height;
+
+        private Image(Map<String, Object> dictionary, Path file, byte[] data, int width, int height) {
+            this.dictionary = dictionary;
+            this.file = file;
+            this.data = data;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    @Override
+    public Part render(Page page, int position) throws IOException {
+        String file = page.getFile();
+        String subtitle = typeLabel(page.getType());
+        if (page.isPdf() && !file.isEmpty()) {
+            Path pdf = pdfStore.resolve(file);
+            try {
+                return new Part(page.getTitle(), PdfDocument.open(pdf), null, null);
+            } catch (IOException | RuntimeException e) {
+                subtitle += " - " + pdfStore.displayName(file) + " could not be read";
+            }
+        }
+        Image image = null;
+        if (Constants.PAGE_TYPE_PHOTO.equals(page.getType()) && !file.isEmpty()) {
+            image = loadImage(imagesFolder.resolve(file));
+            if (image == null) {
+                subtitle += " - " + file + " could not be read";
+            }
+        }
+        return new Part(page.getTitle(), null, layout(page.getTitle(), subtitle, wrap(page.getNotes()), image), image);
+    }
+
+    @Override
+    public void write(Part part, int position) throws IOException {
+        int first;
+        if (part.document != null) {
+            int[] copied = writer.copyPages(part.document, pagesRoot);
+            for (int number : copied) {
+                addKid(number);
+            }
+            first = copied.length == 0 ? 0 : copied[0];
+        } else {
+            int image = 0;
+            if (part.image != null) {
+                image = writer.reserve();
+                if (part.image.file != null) {
+                    writer.writeStream(image, part.image.dictionary, part.image.file);
+                } else {
+                    writer.writeStream(image, part.image.dictionary, part.image.data);
+                }
+            }
+            first = 0;
+            for (int i = 0; i < part.contents.size(); i++) {
+                int content = writer.reserve();
+                Map<String, Object> streamDictionary = dictionary("Filter", new PdfName("FlateDecode"));
+                writer.writeStream(content, streamDictionary, part.contents.get(i));
+
+                Object resources = PdfWriter.reference(fontResources);
+                if (i == 0 && image != 0) {
+                    Map<String, Object> withImage = dictionary("Font", fonts());
+                    withImage.put("XObject", dictionary("Im1", PdfWriter.reference(image)));
+                    resources = withImage;
+                }
+                Map<String, Object> pageDictionary = dictionary("Type", new PdfName("Page"));
+                pageDictionary.put("Parent", PdfWriter.reference(pagesRoot));
+                pageDictionary.put("MediaBox", Arrays.asList(0, 0, PAGE_WIDTH, PAGE_HEIGHT));
+                pageDictionary.put("Resources", resources);
+                pageDictionary.put("Contents", PdfWriter.reference(content));
+                int pageNumber = writer.reserve();
+                writer.writeObject(pageNumber, pageDictionary);
+                addKid(pageNumber);
+                if (first == 0) {
+                    first = pageNumber;
+                }
+            }
+        }
+        if (first != 0) {
+            addBookmark(part.title, first);
+        }
+    }
+
+    /** Writes the page tree, bookmarks and catalog; returns the file size. */
+    long finish() throws IOException {
+        writePendingBookmark(0);
+        Map<String, Object> outlines = dictionary("Type", new PdfName("Outlines"));
+        if (itemCount > 0) {
+            outlines.put("First", PdfWriter.reference(firstItem));
+            outlines.put("Last", PdfWriter.reference(pendingItem));
+            outlines.put("Count", itemCount);
+        }
+        writer.writeObject(outlinesRoot, outlines);
+
+        List<Object> kidReferences = new ArrayList<>(kidCount);
+        for (int i = 0; i < kidCount; i++) {
+            kidReferences.add(PdfWriter.reference(kids[i]));
+        }
+        Map<String, Object> pages = dictionary("Type", new PdfName("Pages"));
+        pages.put("Kids", kidReferences);
+        pages.put("Count", kidCount);
+        writer.writeObject(pagesRoot, pages);
+
+        int catalog = writer.reserve();
+        Map<String, Object> root = dictionary("Type", new PdfName("Catalog"));
+        root.put("Pages", PdfWriter.reference(pagesRoot));
+        root.put("Outlines", PdfWriter.reference(outlinesRoot));
+        root.put("PageMode", new PdfName("UseOutlines"));
+        writer.writeObject(catalog, root);
+
+        int info = writer.reserve();
+        Map<String, Object> infoDictionary = dictionary("Producer",
+                PdfWriter.textString(Constants.APP_NAME + " " + Constants.APP_VERSION));
+        infoDictionary.put("Title", PdfWriter.textString(Constants.APP_NAME));
+        infoDictionary.put("CreationDate", PdfWriter.textString("D:"
+                + ZonedDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss", Locale.ROOT))));
+        writer.writeObject(info, infoDictionary);
+
+        long size = writer.getPosition();
+        writer.finish(catalog, info);
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void addKid(int number) {
+        if (kidCount == kids.length) {
+            kids = Arrays.copyOf(kids, kidCount * 2);
+        }
+        kids[kidCount++] = number;
+    }
+
+    /** Bookmarks are written one behind, once the next one's number is known. */
+    private void addBookmark(String title, int destination) throws IOException {
+        int item = writer.reserve();
+        writePendingBookmark(item);
+        if (itemCount == 0) {
+            firstItem = item;
+        }
+        pendingPrevious = pendingItem;
+        pendingItem = item;
+        pendingTitle = title;
+        pendingDestination = destination;
+        itemCount++;
+    }
+
+    private void writePendingBookmark(int next) throws IOException {
+        if (pendingTitle == null) {
+            return;
+        }
+        Map<String, Object> item = dictionary("Title", PdfWriter.textString(pendingTitle));
+        item.put("Parent", PdfWriter.reference(outlinesRoot));
+        item.put("Dest", Arrays.asList(PdfWriter.reference(pendingDestination), new PdfName("Fit")));
+        if (pendingPrevious != 0) {
+            item.put("Prev", PdfWriter.reference(pendingPrevious));
+        }
+        if (next != 0) {
+            item.put("Next", PdfWriter.reference(next));
+        }
+        writer.writeObject(pendingItem, item);
+        pendingTitle = null;
+    }
+
+    private Map<String, Object> fonts() {
+        Map<String, Object> fonts = dictionary("F1", PdfWriter.reference(bodyFont));
+        fonts.put("F2", PdfWriter.reference(titleFont));
+        return fonts;
+    }
+
+    private static Map<String, Object> font(String baseFont) {
+        Map<String, Object> font = dictionary("Type", new PdfName("Font"));
+        font.put("Subtype", new PdfName("Type1"));
+        font.put("BaseFont", new PdfName(baseFont));
+        font.put("Encoding", new PdfName("WinAnsiEncoding"));
+        return font;
+    }
+
+    private static Map<String, Object> dictionary(String key, Object value) {
+        Map<String, Object> dictionary = new HashMap<>();
+        dictionary.put(key, value);
+        return dictionary;
+    }
+
+    static String typeLabel(String type) {
+        if (Constants.PAGE_TYPE_PDF.equals(type)) {
+            return "PDF";
+        }
+        String words = type.replace('_', ' ').toLowerCase(Locale.ROOT);
+        return words.isEmpty() ? "" : Character.toUpperCase(words.charAt(0)) + words.substring(1);
+    }
+
+    /**
+     * JPEGs are embedded as they are, under {@code /DCTDecode}; other formats
+     * are decoded once and stored as deflated RGB.
+     */
+    private static Image loadImage(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            Image jpeg = jpegImage(file);
+            if (jpeg != null) {
+                return jpeg;
+            }
+        }
+        try {
+            BufferedImage photo = ImageIO.read(file.toFile());
+            if (photo == null) {
+                return null;
+            }
+            photo = ThumbnailRenderer.downscale(photo, MAX_IMAGE_PIXELS);
+            int width = photo.getWidth();
+            int height = photo.getHeight();
+            byte[] rgb = new byte[width * height * 3];
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                photo.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int at = (y * width + x) * 3;
+                    rgb[at] = (byte) (row[x] >> 16);
+                    rgb[at + 1] = (byte) (row[x] >> 8);
+                    rgb[at + 2] = (byte) row[x];
+                }
+            }
+            Map<String, Object> dictionary = imageDictionary(width, height, "DeviceRGB", "FlateDecode");
+            return new Image(dictionary, null, deflate(rgb), width, height);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Image jpegImage(Path file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (in == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int bands = reader.getImageTypes(0).next().getNumBands();
+                String colorSpace = bands == 1 ? "DeviceGray" : bands == 3 ? "DeviceRGB" : null;
+                if (colorSpace == null) {
+                    return null;
+                }
+                return new Image(imageDictionary(width, height, colorSpace, "DCTDecode"), file, null, width, height);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> imageDictionary(int width, int height, String colorSpace, String filter) {
+        Map<String, Object> dictionary = dictionary("Type", new PdfName("XObject"));
+        dictionary.put("Subtype", new PdfName("Image"));
+        dictionary.put("Width", width);
+        dictionary.put("Height", height);
+        dictionary.put("ColorSpace", new PdfName(colorSpace));
+        dictionary.put("BitsPerComponent", 8);
+        dictionary.put("Filter", new PdfName(filter));
+        return dictionary;
+    }
+
+    static List<String> wrap(String text) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.replace("\t", "    ").split("\\R", -1)) {
+            String rest = paragraph.stripTrailing();
+            while (rest.length() > CHARS_PER_LINE) {
+                int cut = rest.lastIndexOf(' ', CHARS_PER_LINE);
+                if (cut <= 0) {
+                    cut = CHARS_PER_LINE;
+                }
+                lines.add(rest.substring(0, cut));
+                rest = rest.substring(cut).stripLeading();
+            }
+            lines.add(rest);
+        }
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    /** One deflated content stream per output page; long notes run onto further pages. */
+    private static List<byte[]> layout(String title, String subtitle, List<String> lines, Image image) {
+        List<byte[]> pages = new ArrayList<>();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int top = PAGE_HEIGHT - MARGIN;
+        append(content, "BT /F2 " + TITLE_SIZE + " Tf " + MARGIN + " " + top + " Td ");
+        appendText(content, title);
+        append(content, " Tj ET\nBT /F1 9 Tf 0.4 g " + MARGIN + " " + (top - 16) + " Td ");
+        appendText(content, subtitle);
+        append(content, " Tj ET 0 g\n");
+
+        int y = top - 42;
+        if (image != null) {
+            double scale = Math.min((double) (PAGE_WIDTH - 2 * MARGIN) / image.width,
+                    (double) IMAGE_MAX_HEIGHT / image.height);
+            int width = Math.max(1, (int) Math.round(image.width * scale));
+            int height = Math.max(1, (int) Math.round(image.height * scale));
+            y -= height;
+            append(content, "q " + width + " 0 0 " + height + " " + MARGIN + " " + y + " cm /Im1 Do Q\n");
+            y -= 2 * LEADING;
+        }
+
+        append(content, "BT /F1 " + BODY_SIZE + " Tf " + LEADING + " TL " + MARGIN + " " + y + " Td\n");
+        for (String line : lines) {
+            if (y < MARGIN) {
+                append(content, "ET\n");
+                pages.add(deflate(content.toByteArray()));
+                content.reset();
+                y = top;
+                append(content, "BT /F1 " + BODY_SIZE + " Tf " + LEADING + " TL " + MARGIN + " " + y + " Td\n");
+            }
+            appendText(content, line);
+            append(content, " Tj T*\n");
+            y -= LEADING;
+        }
+        append(content, "ET\n");
+        pages.add(deflate(content.toByteArray()));
+        return pages;
+    }
+
+    private static void append(ByteArrayOutputStream out, String operators) {
+        byte[] bytes = operators.getBytes(WIN_ANSI);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void appendText(ByteArrayOutputStream out, String text) {
+        out.write('(');
+        for (byte b : text.getBytes(WIN_ANSI)) {
+            if (b == '(' || b == ')' || b == '\\') {
+                out.write('\\');
+            }
+            out.write(b);
+        }
+        out.write(')');
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                out.write(chunk, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
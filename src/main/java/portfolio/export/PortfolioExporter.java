@@ -0,0 +1,125 @@
+package portfolio.export;
+
+import portfolio.input.PdfStore;
+import portfolio.metrics.Metrics;
+import portfolio.page.Page;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Streams a whole portfolio into one output, either a merged PDF or a static
+ * HTML site. Pages are prepared on a worker pool but written strictly in
+ * order. At most two pages per worker are in flight, so memory depends on
+ * the thread count and never on the size of the portfolio.
+ */
+public final class PortfolioExporter {
+
+    public static final int DEFAULT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final Metrics.Histogram PAGE_TIMES = Metrics.global().histogram("export.page");
+    private static final Metrics.Counter PAGES_EXPORTED = Metrics.global().counter("export.pages");
+
+    public interface Listener {
+        void progress(int pagesDone, int pageCount);
+    }
+
+    /** One output format: {@code render} runs on the workers, {@code write} on the exporting thread. */
+    interface Sink<T> {
+        T render(Page page, int position) throws IOException;
+
+        void write(T part, int position) throws IOException;
+    }
+
+    private final PdfStore pdfStore;
+    private final Path imagesFolder;
+    private final int threads;
+
+    public PortfolioExporter(PdfStore pdfStore, Path imagesFolder, int threads) {
+        this.pdfStore = pdfStore;
+        this.imagesFolder = imagesFolder;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Writes the pages {@code ids}, in order, into one PDF. {@code pages} is
+     * called from worker threads and returns null for a page that is gone.
+     * Returns the size of the file written.
+     */
+    public long exportPdf(int[] ids, IntFunction<Page> pages, Path target, Listener listener) throws IOException {
+        try (PdfExport sink = new PdfExport(target, pdfStore, imagesFolder)) {
+            run(ids, pages, sink, listener);
+            return sink.finish();
+        }
+    }
+
+    /** Writes an index.html and one HTML file per page into {@code folder}, copying the PDFs and photos along. */
+    public void exportSite(int[] ids, IntFunction<Page> pages, Path folder, Listener listener) throws IOException {
+        try (SiteExport sink = new SiteExport(folder, pdfStore, imagesFolder, ids.length)) {
+            run(ids, pages, sink, listener);
+            sink.finish();
+        }
+    }
+
+    private <T> void run(int[] ids, IntFunction<Page> pages, Sink<T> sink, Listener listener) throws IOException {
+        AtomicInteger counter = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "export-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int lookahead = threads * 2;
+        ArrayDeque<Future<T>> window = new ArrayDeque<>(lookahead);
+        int next = 0;
+        try {
+            for (int position = 0; position < ids.length; position++) {
+                while (next < ids.length && window.size() < lookahead) {
+                    int id = ids[next];
+                    int at = next++;
+                    window.add(pool.submit(() -> {
+                        long started = System.nanoTime();
+                        Page page = pages.apply(id);
+                        T part = page == null ? null : sink.render(page, at);
+                        PAGE_TIMES.recordSince(started);
+                        return part;
+                    }));
+                }
+                T part = await(window.poll());
+                if (part != null) {
+                    sink.write(part, position);
+                    PAGES_EXPORTED.increment();
+                }
+                listener.progress(position + 1, ids.length);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package portfolio.export;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.page.Page;
+import portfolio.thumbnail.ThumbnailRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * The static-site format: {@code index.html} plus one file per page under
+ * {@code pages/}, with PDFs and photos copied next to them and a first-page
+ * preview rendered once per PDF. Pages are written by the workers; only the
+ * index, one line per page, is written in order.
+ */
+final class SiteExport implements PortfolioExporter.Sink<String>, Closeable {
+
+    private static final int PREVIEW_SIZE = 640;
+    private static final String STYLE = "body{font-family:sans-serif;max-width:52em;margin:2em auto;padding:0 1em;"
+            + "color:#2c3e50}a{color:#2980b9}nav{margin-bottom:1.5em}.type{color:#7f8c8d;font-size:.85em}"
+            + "pre{white-space:pre-wrap;font-family:inherit;line-height:1.45}img{max-width:100%;"
+            + "border:1px solid #ddd}ol li{margin:.25em 0}\n";
+
+    private final Path folder;
+    private final PdfStore pdfStore;
+    private final Path imagesFolder;
+    private final int pageCount;
+    private final BufferedWriter index;
+
+    SiteExport(Path folder, PdfStore pdfStore, Path imagesFolder, int pageCount) throws IOException {
+        this.folder = folder;
+        this.pdfStore = pdfStore;
+        this.imagesFolder = imagesFolder;
+        this.pageCount = pageCount;
+        for (String sub : new String[]{"pages", "pdfs", "images", "previews"}) {
+            Files.createDirectories(folder.resolve(sub));
+        }
+        Files.write(folder.resolve("style.css"), STYLE.getBytes(StandardCharsets.UTF_8));
+        index = Files.newBufferedWriter(folder.resolve("index.html"), StandardCharsets.UTF_8);
+        index.write(head(Constants.APP_NAME, "style.css"));
+        index.write("<h1>" + escape(Constants.APP_NAME) + "</h1>\n<p class=\"type\">by "
+                + escape(Constants.AUTHOR) + " - " + pageCount + " pages</p>\n<ol>\n");
+    }
+
+    @Override
+    public String render(Page page, int position) throws IOException {
+        String name = pageName(position);
+        StringBuilder html = new StringBuilder(2048);
+        html.append(head(page.getTitle(), "../style.css"));
+        html.append("<nav><a href=\"../index.html\">Contents</a>");
+        if (position > 0) {
+            html.append(" | <a href=\"").append(pageName(position - 1)).append("\">Previous</a>");
+        }
+        if (position + 1 < pageCount) {
+            html.append(" | <a href=\"").append(pageName(position + 1)).append("\">Next</a>");
+        }
+        html.append("</nav>\n<h1>").append(escape(page.getTitle())).append("</h1>\n<p class=\"type\">")
+                .append(escape(PdfExport.typeLabel(page.getType()))).append(" - page ").append(position + 1)
+                .append(" of ").append(pageCount).append("</p>\n");
+
+        String file = page.getFile();
+        if (page.isPdf() && !file.isEmpty()) {
+            Path pdf = pdfStore.resolve(file);
+            if (copy(pdf, folder.resolve("pdfs").resolve(file))) {
+                html.append("<p><a href=\"../pdfs/").append(urlEncode(file)).append("\">")
+                        .append(escape(pdfStore.displayName(file))).append("</a></p>\n");
+                String preview = file.replaceFirst("(?i)\\.pdf$", "") + ".png";
+                if (renderPreview(pdf, folder.resolve("previews").resolve(preview))) {
+                    html.append("<p><a href=\"../pdfs/").append(urlEncode(file)).append("\"><img src=\"../previews/")
+                            .append(urlEncode(preview)).append("\" alt=\"First page\"></a></p>\n");
+                }
+            }
+        } else if (Constants.PAGE_TYPE_PHOTO.equals(page.getType()) && !file.isEmpty()) {
+            if (copy(imagesFolder.resolve(file), folder.resolve("images").resolve(file))) {
+                html.append("<p><img src=\"../images/").append(urlEncode(file)).append("\" alt=\"")
+                        .append(escape(file)).append("\"></p>\n");
+            }
+        }
+        if (!page.getNotes().isBlank()) {
+            html.append("<pre>").append(escape(page.getNotes())).append("</pre>\n");
+        }
+        html.append("</body>\n</html>\n");
+        Files.write(folder.resolve("pages").resolve(name), html.toString().getBytes(StandardCharsets.UTF_8));
+
+        return "<li><a href=\"pages/" + name + "\">" + escape(page.getTitle()) + "</a> <span class=\"type\">"
+                + escape(PdfExport.typeLabel(page.getType())) + "</span></li>\n";
+    }
+
+    @Override
+    public void write(String entry, int position) throws IOException {
+        index.write(entry);
+    }
+
+    void finish() throws IOException {
+        index.write("</ol>\n</body>\n</html>\n");
+        index.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+
+    private static String pageName(int position) {
+        return String.format(Locale.ROOT, "%06d.html", position + 1);
+    }
+
+    private static boolean renderPreview(Path pdf, Path target) {
+        if (Files.exists(target)) {
+            return true;
+        }
+        try {
+            BufferedImage preview = ThumbnailRenderer.render(pdf, PREVIEW_SIZE);
+            Path partial = partialFor(target);
+            ImageIO.write(preview, "png", partial.toFile());
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Copies with {@link FileChannel#transferTo}, so the bytes go
+     * file-to-file. A file already there with the same size is kept, which
+     * makes re-exporting into the same folder cheap.
+     */
+    private static boolean copy(Path source, Path target) throws IOException {
+        if (!Files.isRegularFile(source)) {
+            return false;
+        }
+        if (Files.exists(target) && Files.size(target) == Files.size(source)) {
+            return true;
+        }
+        Path partial = partialFor(target);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long done = 0;
+            while (done < size) {
+                long moved = in.transferTo(done, size - done, out);
+                if (moved <= 0) {
+                    throw new IOException("Copy of " + source.getFileName() + " ended early");
+                }
+                done += moved;
+            }
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private static Path partialFor(Path target) {
+        return target.resolveSibling(target.getFileName() + "." + Thread.currentThread().getId() + ".part");
+    }
+
+    private static String head(String title, String stylesheet) {
+        return "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>" + escape(title)
+                + "</title>\n<link rel=\"stylesheet\" href=\"" + stylesheet + "\">\n</head>\n<body>\n";
+    }
+
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String urlEncode(String name) {
+        StringBuilder encoded = new StringBuilder(name.length() + 8);
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || "-._~".indexOf(c) >= 0) {
+                encoded.append((char) c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+}
@@ -7,7 +7,7 @@ public class Constants {
 
     public static final int NO_PAGES = 0;
     public static final int MIN_PAGES = 1;
-    public static final int MAX_PAGES = 112;
+    public static final int MAX_PAGES = 100_000;
     public static final int DEFAULT_START_PAGES = 5;
 
     public static final String APP_NAME = "The Slater Cooking Portfolio";
@@ -15,25 +15,17 @@ public class Constants {
     public static final String AUTHOR = "Chaz";
 
     public static final String DEFAULT_SAVE_EXTENSION = ".ckp";
+    public static final String DEFAULT_PORTFOLIO_NAME = "portfolio";
     public static final String BACKUP_FOLDER = "backups/";
     public static final String IMAGES_FOLDER = "images/";
+    public static final String THUMBS_FOLDER = IMAGES_FOLDER + ".thumbs/";
     public static final String RECIPES_FOLDER = "recipes/";
     public static final String PDFS_FOLDER = "pdfs/";
+    public static final String SYNC_FOLDER = ".sync/";
     public static final String PDF_EXTENSION = ".pdf";
+    public static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp"};
 
-    public static boolean clickedNewPage = false;
-    public static boolean createdNewPage = false;
-    public static boolean onHomeScreen = true;
-    public static boolean noPages = true;
-    public static boolean hasUnsavedChanges = false;
-    public static boolean isEditMode = false;
-
-    public static int currentPageNumber = 1;
-    public static int totalPages = NO_PAGES;
-    public static String currentRecipeTitle = "";
-    public static LocalDateTime lastSaved = null;
-    public static String lastUploadedPdf = "";
-    public static boolean pdfUploadInProgress = false;
+    private static final Session SESSION = new Session();
 
     public static final String PAGE_TYPE_RECIPE = "RECIPE";
     public static final String PAGE_TYPE_PHOTO = "PHOTO";
@@ -42,6 +34,18 @@ public class Constants {
     public static final String PAGE_TYPE_INGREDIENT_NOTES = "INGREDIENT_NOTES";
     public static final String PAGE_TYPE_MENU_PLANNING = "MENU_PLANNING";
     public static final String PAGE_TYPE_PDF = "PDF";
+    public static final String PAGE_TYPE_GENERAL = "GENERAL";
+
+    public static final String[] PAGE_TYPES = {
+            PAGE_TYPE_GENERAL,
+            PAGE_TYPE_RECIPE,
+            PAGE_TYPE_PHOTO,
+            PAGE_TYPE_STORY,
+            PAGE_TYPE_TECHNIQUE,
+            PAGE_TYPE_INGREDIENT_NOTES,
+            PAGE_TYPE_MENU_PLANNING,
+            PAGE_TYPE_PDF
+    };
 
     public static final String[] DEFAULT_PAGE_NAMES = {
             "Welcome to My Kitchen",
@@ -55,111 +59,126 @@ public class Constants {
     public static final int WINDOW_HEIGHT = 768;
     public static final String FONT_FAMILY = "Arial";
     public static final int DEFAULT_FONT_SIZE = 12;
+    public static final int MAX_MATERIALIZED_PAGES = 12;
 
     public static final String PRIMARY_COLOR = "#2C3E50";
     public static final String SECONDARY_COLOR = "#E67E22";
     public static final String BACKGROUND_COLOR = "#ECF0F1";
     public static final String TEXT_COLOR = "#2C3E50";
 
+    private static final DateTimeFormatter SAVED_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+    public static Session session() {
+        return SESSION;
+    }
+
     public static int getTotalPages() {
-        return totalPages;
+        return SESSION.getTotalPages();
     }
 
     public static void setTotalPages(int pages) {
-        totalPages = Math.max(NO_PAGES, Math.min(pages, MAX_PAGES));
-        noPages = (totalPages == NO_PAGES);
+        SESSION.setTotalPages(pages);
     }
 
     public static boolean hasNoPages() {
-        return totalPages == NO_PAGES;
+        return SESSION.hasNoPages();
     }
 
     public static boolean hasMaxPages() {
-        return totalPages >= MAX_PAGES;
+        return !SESSION.canAddPage();
     }
 
     public static boolean canAddPage() {
-        return totalPages < MAX_PAGES;
+        return SESSION.canAddPage();
     }
 
     public static void registerNewPageClick() {
-        clickedNewPage = true;
-        if (onHomeScreen && canAddPage()) {
+        SESSION.registerNewPageClick();
+    }
 
-            currentPageNumber = totalPages + 1;
-        }
+    public static boolean confirmPageCreation() {
+        return SESSION.confirmPageCreation();
     }
 
-    public static void confirmPageCreation() {
-        if (clickedNewPage && canAddPage()) {
-            setTotalPages(totalPages + 1);
-            createdNewPage = true;
-            clickedNewPage = false;
-            hasUnsavedChanges = true;
-        }
+    public static boolean addPage() {
+        return SESSION.addPage();
     }
 
     public static void navigateToPage(int pageNumber) {
-        if (pageNumber >= MIN_PAGES && pageNumber <= totalPages) {
-            currentPageNumber = pageNumber;
-            onHomeScreen = (pageNumber == 1);
-        }
+        SESSION.navigateToPage(pageNumber);
+    }
+
+    public static int getCurrentPageNumber() {
+        return SESSION.getCurrentPageNumber();
+    }
+
+    public static boolean hasUnsavedChanges() {
+        return SESSION.hasUnsavedChanges();
+    }
+
+    public static void markUnsaved() {
+        SESSION.markUnsaved();
     }
 
     public static void markSaved() {
-        hasUnsavedChanges = false;
-        lastSaved = LocalDateTime.now();
+        SESSION.markSaved();
+    }
+
+    public static void markSaved(LocalDateTime savedAt, boolean pendingChanges) {
+        SESSION.markSaved(savedAt, pendingChanges);
+    }
+
+    public static void restoreSaved(LocalDateTime savedAt) {
+        SESSION.restoreSaved(savedAt);
     }
 
     public static String getLastSavedTime() {
-        if (lastSaved == null) {
+        return SESSION.getLastSavedTime();
+    }
+
+    public static String formatSavedTime(LocalDateTime savedAt) {
+        if (savedAt == null) {
             return "Never saved";
         }
-        return lastSaved.format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
+        return savedAt.format(SAVED_TIME_FORMAT);
     }
 
+    /** Resets the default session only; portfolios open in a workspace keep theirs. */
     public static void resetSession() {
-        totalPages = NO_PAGES;
-        currentPageNumber = 1;
-        noPages = true;
-        onHomeScreen = true;
-        clickedNewPage = false;
-        createdNewPage = false;
-        hasUnsavedChanges = false;
-        isEditMode = false;
-        currentRecipeTitle = "";
-        lastSaved = null;
+        SESSION.reset();
     }
 
     public static String getPageName(int pageNumber) {
-        if (pageNumber <= 0 || pageNumber > totalPages) {
-            return "Invalid Page";
-        }
-        if (pageNumber <= DEFAULT_PAGE_NAMES.length) {
-            return DEFAULT_PAGE_NAMES[pageNumber - 1];
-        }
-        return "Page " + pageNumber;
+        return SESSION.getPageName(pageNumber);
+    }
+
+    public static boolean isEditMode() {
+        return SESSION.isEditMode();
     }
 
     public static void toggleEditMode() {
-        isEditMode = !isEditMode;
-        if (isEditMode) {
-            hasUnsavedChanges = true;
-        }
+        SESSION.toggleEditMode();
+    }
+
+    public static boolean registerPdfUpload(String pdfFileName) {
+        return SESSION.registerPdfUpload(pdfFileName);
+    }
+
+    public static boolean startPdfUpload() {
+        return SESSION.startPdfUpload();
     }
 
-    public static void registerPdfUpload(String pdfFileName) {
-        lastUploadedPdf = pdfFileName;
-        pdfUploadInProgress = false;
-        hasUnsavedChanges = true;
+    /** Ends the upload however it went; which files made it in is reported through {@link #registerPdfUpload}. */
+    public static void endPdfUpload() {
+        SESSION.endPdfUpload();
     }
 
-    public static void startPdfUpload() {
-        pdfUploadInProgress = true;
+    public static boolean isPdfUploadInProgress() {
+        return SESSION.isPdfUploadInProgress();
     }
 
     public static String getLastUploadedPdf() {
-        return lastUploadedPdf;
+        return SESSION.getLastUploadedPdf();
     }
 
-}
\ No newline at end of file
+}
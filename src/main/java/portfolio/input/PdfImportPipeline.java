@@ -0,0 +1,340 @@
+package portfolio.input;
+
+import portfolio.metrics.Metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class PdfImportPipeline {
+
+    public static final int DEFAULT_WORKERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final long CHUNK_SIZE = 1L << 20;
+
+    private static final Metrics.Histogram FILE_TIMES = Metrics.global().histogram("import.file");
+    private static final Metrics.Counter FILES_IMPORTED = Metrics.global().counter("import.files");
+    private static final Metrics.Counter FILES_DUPLICATE = Metrics.global().counter("import.duplicates");
+    private static final Metrics.Counter FILES_FAILED = Metrics.global().counter("import.failed");
+    private static final Metrics.Counter BYTES_COPIED = Metrics.global().counter("import.bytes");
+
+    public interface ImportListener {
+        void onProgress(int filesDone, int fileCount, long bytesDone, long totalBytes);
+
+        void onComplete(List<ImportResult> results);
+
+        void onFailure(Exception error);
+
+        void onCancelled(List<ImportResult> results);
+    }
+
+    public static final class ImportResult {
+        private final String originalName;
+        private final String storedName;
+        private final boolean duplicate;
+        private final Exception error;
+
+        private ImportResult(String originalName, String storedName, boolean duplicate, Exception error) {
+            this.originalName = originalName;
+            this.storedName = storedName;
+            this.duplicate = duplicate;
+            this.error = error;
+        }
+
+        public String getOriginalName() {
+            return originalName;
+        }
+
+        public String getStoredName() {
+            return storedName;
+        }
+
+        public boolean isDuplicate() {
+            return duplicate;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    public static final class ImportTask {
+        private final List<File> files;
+        private final ConcurrentLinkedQueue<Integer> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicReferenceArray<ImportResult> results;
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private final AtomicInteger filesDone = new AtomicInteger();
+        private final AtomicLong bytesDone = new AtomicLong();
+        private final AtomicInteger lastPercent = new AtomicInteger(-1);
+        private final long totalBytes;
+        private volatile boolean cancelled = false;
+
+        private ImportTask(List<File> files) {
+            this.files = files;
+            this.results = new AtomicReferenceArray<>(files.size());
+            long total = 0;
+            for (int i = 0; i < files.size(); i++) {
+                pending.add(i);
+                total += files.get(i).length();
+            }
+            this.totalBytes = total;
+        }
+
+        public int getFileCount() {
+            return files.size();
+        }
+
+        public String getFileName() {
+            return files.size() == 1 ? files.get(0).getName() : files.size() + " PDFs";
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return filesDone.get() == files.size() || (cancelled && activeWorkers.get() == 0);
+        }
+
+        private void throwIfCancelled() {
+            if (cancelled || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+
+        private List<ImportResult> collectResults() {
+            List<ImportResult> collected = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                ImportResult result = results.get(i);
+                if (result != null) {
+                    collected.add(result);
+                }
+            }
+            return Collections.unmodifiableList(collected);
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Executor callbackExecutor;
+    private final PdfStore store;
+    private final Session session;
+
+    public PdfImportPipeline(PdfStore store, Executor callbackExecutor) {
+        this(store, Constants.session(), DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY, callbackExecutor);
+    }
+
+    /** Reports upload state to {@code session} rather than the default one. */
+    public PdfImportPipeline(PdfStore store, Session session, Executor callbackExecutor) {
+        this(store, session, DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY, callbackExecutor);
+    }
+
+    public PdfImportPipeline(PdfStore store, int workers, int queueCapacity, Executor callbackExecutor) {
+        this(store, Constants.session(), workers, queueCapacity, callbackExecutor);
+    }
+
+    public PdfImportPipeline(PdfStore store, Session session, int workers, int queueCapacity,
+                             Executor callbackExecutor) {
+        this.store = store;
+        this.session = session;
+        this.callbackExecutor = callbackExecutor;
+        this.executor = new ThreadPoolExecutor(workers, workers, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public PdfStore getStore() {
+        return store;
+    }
+
+    public ImportTask submit(List<File> files, ImportListener listener) {
+        ImportTask task = new ImportTask(new ArrayList<>(files));
+
+        // Listeners always hear back through the callback executor, never from inside submit.
+        if (files.isEmpty()) {
+            callbackExecutor.execute(() -> listener.onComplete(Collections.emptyList()));
+            return task;
+        }
+        if (!session.startPdfUpload()) {
+            IllegalStateException busy = new IllegalStateException("Another PDF upload is already in progress");
+            callbackExecutor.execute(() -> listener.onFailure(busy));
+            return task;
+        }
+
+        int workers = Math.min(executor.getMaximumPoolSize(), files.size());
+        task.activeWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(() -> drain(task, listener));
+            } catch (RejectedExecutionException e) {
+                if (i == 0) {
+                    task.cancel();
+                    session.endPdfUpload();
+                    callbackExecutor.execute(() -> listener.onFailure(e));
+                } else if (task.activeWorkers.addAndGet(i - workers) == 0) {
+                    finish(task, listener);
+                }
+                break;
+            }
+        }
+        return task;
+    }
+
+    /** Imports files until none are left. A file that fails for any reason is recorded and the rest go on. */
+    private void drain(ImportTask task, ImportListener listener) {
+        try {
+            Integer index;
+            while (!task.isCancelled() && (index = task.pending.poll()) != null) {
+                File source = task.files.get(index);
+                ImportResult result;
+                long started = System.nanoTime();
+                try {
+                    result = importOne(task, source, listener);
+                } catch (CancellationException e) {
+                    break;
+                } catch (Exception e) {
+                    FILES_FAILED.increment();
+                    result = new ImportResult(source.getName(), null, false, e);
+                }
+                FILE_TIMES.recordSince(started);
+                task.results.set(index, result);
+                task.filesDone.incrementAndGet();
+            }
+        } finally {
+            if (task.activeWorkers.decrementAndGet() == 0) {
+                finish(task, listener);
+            }
+        }
+    }
+
+    private ImportResult importOne(ImportTask task, File source, ImportListener listener) throws IOException {
+        String hash = PdfStore.hash(source.toPath(), task::throwIfCancelled);
+        String storedName = PdfStore.storedName(hash);
+
+        if (!store.claim(hash)) {
+            // Another worker may still be copying the same content; only report it once it is stored.
+            store.awaitStored(hash);
+            reportProgress(task, source.length(), listener);
+            FILES_DUPLICATE.increment();
+            return new ImportResult(source.getName(), storedName, true, null);
+        }
+
+        try {
+            copyInChunks(task, source.toPath(), store.resolve(storedName), listener);
+        } catch (IOException | RuntimeException e) {
+            store.release(hash);
+            throw e;
+        }
+        store.register(hash, source.getName());
+        FILES_IMPORTED.increment();
+        BYTES_COPIED.add(source.length());
+        return new ImportResult(source.getName(), storedName, false, null);
+    }
+
+    private void copyInChunks(ImportTask task, Path source, Path target, ImportListener listener) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long total = in.size();
+            long position = 0;
+
+            while (position < total) {
+                task.throwIfCancelled();
+                long copied = in.transferTo(position, Math.min(CHUNK_SIZE, total - position), out);
+                position += copied;
+                reportProgress(task, copied, listener);
+            }
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void reportProgress(ImportTask task, long delta, ImportListener listener) {
+        long done = task.bytesDone.addAndGet(delta);
+        int percent = task.totalBytes == 0 ? 100 : (int) (done * 100 / task.totalBytes);
+        int last = task.lastPercent.get();
+        if (percent > last && task.lastPercent.compareAndSet(last, percent)) {
+            int filesDone = task.filesDone.get();
+            callbackExecutor.execute(() -> listener.onProgress(filesDone, task.files.size(), done, task.totalBytes));
+        }
+    }
+
+    /**
+     * Saves the store's index and reports the results. The copies are in place even if the index cannot be
+     * saved, so that failure is reported as one more failed result rather than failing the whole upload.
+     */
+    private void finish(ImportTask task, ImportListener listener) {
+        List<ImportResult> results = task.collectResults();
+        try {
+            store.save();
+        } catch (IOException e) {
+            List<ImportResult> withError = new ArrayList<>(results);
+            withError.add(new ImportResult(PdfStore.INDEX_FILE, null, false,
+                    new IOException("Could not save the PDF names: " + e.getMessage(), e)));
+            results = Collections.unmodifiableList(withError);
+        }
+
+        List<ImportResult> reported = results;
+        callbackExecutor.execute(() -> {
+            for (ImportResult result : reported) {
+                if (!result.isFailed()) {
+                    session.registerPdfUpload(result.getStoredName());
+                }
+            }
+            session.endPdfUpload();
+            if (task.isCancelled()) {
+                listener.onCancelled(reported);
+            } else {
+                listener.onComplete(reported);
+            }
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "pdf-import-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package portfolio.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public final class PdfImporter {
+
+    private PdfImporter() {
+    }
+
+    public static final class Summary {
+        private final int imported;
+        private final int duplicates;
+        private final List<PdfImportPipeline.ImportResult> failures;
+
+        private Summary(int imported, int duplicates, List<PdfImportPipeline.ImportResult> failures) {
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.failures = failures;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public List<PdfImportPipeline.ImportResult> getFailures() {
+            return failures;
+        }
+    }
+
+    public static List<File> collectPdfFiles(File[] selection) throws IOException {
+        List<File> pdfFiles = new ArrayList<>();
+        for (File selected : selection) {
+            if (selected.isDirectory()) {
+                try (Stream<Path> walk = Files.walk(selected.toPath())) {
+                    pdfFiles.addAll(walk
+                            .filter(Files::isRegularFile)
+                            .filter(PdfImporter::isPdf)
+                            .sorted()
+                            .map(Path::toFile)
+                            .collect(Collectors.toList()));
+                }
+            } else if (isPdf(selected.toPath())) {
+                pdfFiles.add(selected);
+            }
+        }
+        return pdfFiles;
+    }
+
+    public static boolean isPdf(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(Constants.PDF_EXTENSION);
+    }
+
+    public static Summary summarize(List<PdfImportPipeline.ImportResult> results) {
+        int imported = 0;
+        int duplicates = 0;
+        List<PdfImportPipeline.ImportResult> failures = new ArrayList<>();
+        for (PdfImportPipeline.ImportResult result : results) {
+            if (result.isFailed()) {
+                failures.add(result);
+            } else if (result.isDuplicate()) {
+                duplicates++;
+            } else {
+                imported++;
+            }
+        }
+        return new Summary(imported, duplicates, Collections.unmodifiableList(failures));
+    }
+}
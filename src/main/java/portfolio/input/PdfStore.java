@@ -0,0 +1,296 @@
+package portfolio.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+public class PdfStore {
+
+    public static final String INDEX_FILE = "index.properties";
+    public static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int HASH_HEX_LENGTH = 64;
+
+    private final Path folder;
+    private final Map<String, String> displayNames = new ConcurrentHashMap<>();
+    /** Copies in flight, by hash; each completes once its file is stored or fails if the copy is abandoned. */
+    private final Map<String, CompletableFuture<Void>> claimed = new ConcurrentHashMap<>();
+    private final Map<String, Integer> references = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Consumer<String>> unreferencedListeners = new CopyOnWriteArrayList<>();
+
+    public PdfStore(Path folder) {
+        this.folder = folder;
+        load();
+    }
+
+    public static PdfStore openDefault() {
+        return new PdfStore(Paths.get(Constants.PDFS_FOLDER));
+    }
+
+    public Path getFolder() {
+        return folder;
+    }
+
+    public Path resolve(String storedName) {
+        return folder.resolve(storedName);
+    }
+
+    public static String storedName(String hash) {
+        return hash + Constants.PDF_EXTENSION;
+    }
+
+    /** True for names of the form {@link #storedName}: the content hash in lower-case hex. */
+    public static boolean isStoredName(String name) {
+        if (!name.endsWith(Constants.PDF_EXTENSION) || name.length() != HASH_HEX_LENGTH + Constants.PDF_EXTENSION.length()) {
+            return false;
+        }
+        for (int i = 0; i < HASH_HEX_LENGTH; i++) {
+            char c = name.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(String hash) {
+        return claimed.containsKey(hash) || Files.exists(folder.resolve(storedName(hash)));
+    }
+
+    /**
+     * True if the caller should copy the file in, and must then {@link #register} or {@link #release} it.
+     * False if it is stored already or being copied; {@link #awaitStored} tells which way that copy went.
+     */
+    public boolean claim(String hash) {
+        if (Files.exists(folder.resolve(storedName(hash)))) {
+            return false;
+        }
+        return claimed.putIfAbsent(hash, new CompletableFuture<>()) == null;
+    }
+
+    /** Gives up a claim whose copy failed; anyone waiting on it fails too. */
+    public void release(String hash) {
+        CompletableFuture<Void> copy = claimed.remove(hash);
+        if (copy != null) {
+            copy.completeExceptionally(new IOException("Copying " + storedName(hash) + " failed"));
+        }
+    }
+
+    /** Records a copied file under its original name and completes its claim. */
+    public void register(String hash, String originalName) {
+        displayNames.putIfAbsent(storedName(hash), originalName);
+        CompletableFuture<Void> copy = claimed.remove(hash);
+        if (copy != null) {
+            copy.complete(null);
+        }
+    }
+
+    /** Waits for a copy of {@code hash} claimed by someone else; returns once the file is stored. */
+    public void awaitStored(String hash) throws IOException {
+        CompletableFuture<Void> copy = claimed.get(hash);
+        if (copy != null) {
+            try {
+                copy.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for " + storedName(hash), e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            }
+        }
+        if (!Files.exists(folder.resolve(storedName(hash)))) {
+            throw new IOException(storedName(hash) + " is not stored");
+        }
+    }
+
+    public boolean isManaged(String storedName) {
+        if (displayNames.containsKey(storedName)) {
+            return true;
+        }
+        return storedName.endsWith(Constants.PDF_EXTENSION)
+                && claimed.containsKey(storedName.substring(0, storedName.length() - Constants.PDF_EXTENSION.length()));
+    }
+
+    public String displayName(String storedName) {
+        return displayNames.getOrDefault(storedName, storedName);
+    }
+
+    /**
+     * A set of stored names held by one open portfolio. Every portfolio in a workspace shares this store,
+     * so a PDF used by several of them is kept and cached once; the store counts the sets holding each name.
+     */
+    public References references() {
+        return new References();
+    }
+
+    /** How many open portfolios hold {@code storedName}. */
+    public int referenceCount(String storedName) {
+        return references.getOrDefault(storedName, 0);
+    }
+
+    /** Called with a stored name once no open portfolio holds it, so caches of it can be dropped. */
+    public void addUnreferencedListener(Consumer<String> listener) {
+        unreferencedListeners.add(listener);
+    }
+
+    private void reference(String storedName) {
+        references.merge(storedName, 1, Integer::sum);
+    }
+
+    private void unreference(String storedName) {
+        if (references.computeIfPresent(storedName, (name, count) -> count == 1 ? null : count - 1) == null) {
+            for (Consumer<String> listener : unreferencedListeners) {
+                listener.accept(storedName);
+            }
+        }
+    }
+
+    /** Not thread-safe; like the portfolio it belongs to, a set is confined to one thread. */
+    public final class References extends AbstractSet<String> {
+        private final Set<String> names = new HashSet<>();
+
+        private References() {
+        }
+
+        @Override
+        public boolean add(String storedName) {
+            if (!names.add(storedName)) {
+                return false;
+            }
+            reference(storedName);
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object storedName) {
+            if (!names.remove(storedName)) {
+                return false;
+            }
+            unreference((String) storedName);
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object storedName) {
+            return names.contains(storedName);
+        }
+
+        @Override
+        public int size() {
+            return names.size();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<String> iterator = names.iterator();
+            return new Iterator<String>() {
+                private String current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    current = iterator.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    unreference(current);
+                }
+            };
+        }
+    }
+
+    public static String hash(Path file, CancellationCheck check) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                check.throwIfCancelled();
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    public interface CancellationCheck {
+        void throwIfCancelled();
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " not available", e);
+        }
+    }
+
+    private void load() {
+        Path index = folder.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(index)) {
+            properties.load(in);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        for (String storedName : properties.stringPropertyNames()) {
+            displayNames.put(storedName, properties.getProperty(storedName));
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        Files.createDirectories(folder);
+        Properties properties = new Properties();
+        properties.putAll(new TreeMap<>(displayNames));
+
+        Path index = folder.resolve(INDEX_FILE);
+        Path partial = folder.resolve(INDEX_FILE + ".part");
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            properties.store(out, "Original file names of content-addressed PDFs");
+        }
+        Files.move(partial, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -4,17 +4,17 @@ import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.List;
 
 public class PdfUploader {
 
-    public static boolean uploadPdf(JFrame parentFrame) {
+    public static PdfImportPipeline.ImportTask uploadPdf(JFrame parentFrame, PdfImportPipeline pipeline,
+                                                         PdfImportPipeline.ImportListener listener) {
 
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setDialogTitle("Select PDF to Upload");
+        fileChooser.setDialogTitle("Select PDFs or Folders to Upload");
+        fileChooser.setMultiSelectionEnabled(true);
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
 
         FileNameExtensionFilter filter = new FileNameExtensionFilter("PDF Files", "pdf");
         fileChooser.setFileFilter(filter);
@@ -23,38 +23,84 @@ public class PdfUploader {
         int result = fileChooser.showOpenDialog(parentFrame);
 
         if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            return copyPdfToFolder(selectedFile, parentFrame);
+            List<File> pdfFiles;
+            try {
+                pdfFiles = PdfImporter.collectPdfFiles(fileChooser.getSelectedFiles());
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(parentFrame,
+                        "Error reading folder: " + e.getMessage(),
+                        "Upload Error", JOptionPane.ERROR_MESSAGE);
+                return null;
+            }
+
+            if (pdfFiles.isEmpty()) {
+                JOptionPane.showMessageDialog(parentFrame,
+                        "No PDF files found in the selection.",
+                        "Nothing to Upload", JOptionPane.INFORMATION_MESSAGE);
+                return null;
+            }
+            return copyPdfsToFolder(pdfFiles, parentFrame, pipeline, listener);
         }
 
-        return false;
+        return null;
     }
 
-    private static boolean copyPdfToFolder(File pdfFile, JFrame parentFrame) {
-        try {
-            Constants.startPdfUpload();
+    private static PdfImportPipeline.ImportTask copyPdfsToFolder(List<File> pdfFiles, JFrame parentFrame,
+                                                                 PdfImportPipeline pipeline,
+                                                                 PdfImportPipeline.ImportListener listener) {
 
-            Path pdfsFolder = Paths.get(Constants.PDFS_FOLDER);
-            if (!Files.exists(pdfsFolder)) {
-                Files.createDirectories(pdfsFolder);
+        return pipeline.submit(pdfFiles, new PdfImportPipeline.ImportListener() {
+            @Override
+            public void onProgress(int filesDone, int fileCount, long bytesDone, long totalBytes) {
+                listener.onProgress(filesDone, fileCount, bytesDone, totalBytes);
             }
 
-            Path targetPath = pdfsFolder.resolve(pdfFile.getName());
-            Files.copy(pdfFile.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            @Override
+            public void onComplete(List<PdfImportPipeline.ImportResult> results) {
+                showSummary(parentFrame, results);
+                listener.onComplete(results);
+            }
 
-            Constants.registerPdfUpload(pdfFile.getName());
+            @Override
+            public void onFailure(Exception error) {
+                JOptionPane.showMessageDialog(parentFrame,
+                        "Error uploading PDF: " + error.getMessage(),
+                        "Upload Error", JOptionPane.ERROR_MESSAGE);
+                listener.onFailure(error);
+            }
 
+            @Override
+            public void onCancelled(List<PdfImportPipeline.ImportResult> results) {
+                listener.onCancelled(results);
+            }
+        });
+    }
+
+    private static void showSummary(JFrame parentFrame, List<PdfImportPipeline.ImportResult> results) {
+        PdfImporter.Summary summary = PdfImporter.summarize(results);
+        int duplicates = summary.getDuplicates();
+        StringBuilder failures = new StringBuilder();
+        for (PdfImportPipeline.ImportResult result : summary.getFailures()) {
+            failures.append("\n• ").append(result.getOriginalName())
+                    .append(": ").append(result.getError().getMessage());
+        }
+
+        if (results.size() == 1 && failures.length() == 0) {
             JOptionPane.showMessageDialog(parentFrame,
-                    "PDF uploaded successfully!\nFile: " + pdfFile.getName(),
+                    "PDF uploaded successfully!\nFile: " + results.get(0).getOriginalName()
+                            + (duplicates > 0 ? "\n(already in your pdfs/ folder)" : ""),
                     "Upload Complete", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
-            return true;
-
-        } catch (IOException e) {
+        String message = "Imported: " + summary.getImported() + "\nAlready present: " + duplicates;
+        if (failures.length() > 0) {
             JOptionPane.showMessageDialog(parentFrame,
-                    "Error uploading PDF: " + e.getMessage(),
-                    "Upload Error", JOptionPane.ERROR_MESSAGE);
-            return false;
+                    message + "\nFailed:" + failures,
+                    "Upload Finished With Errors", JOptionPane.WARNING_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(parentFrame, message,
+                    "Upload Complete", JOptionPane.INFORMATION_MESSAGE);
         }
     }
-}
\ No newline at end of file
+}
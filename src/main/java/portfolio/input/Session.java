@@ -0,0 +1,171 @@
+package portfolio.input;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The page count, save state and upload state of one open portfolio. {@link Constants} has a default
+ * session for the CLI tools and single-portfolio code; each portfolio in a workspace gets its own.
+ */
+public class Session {
+
+    private final AtomicReference<SessionState> state;
+    private final List<SessionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public Session() {
+        this(SessionState.INITIAL);
+    }
+
+    public Session(SessionState initial) {
+        this.state = new AtomicReference<>(initial);
+    }
+
+    public SessionState snapshot() {
+        return state.get();
+    }
+
+    public boolean compareAndSet(SessionState expected, SessionState next) {
+        if (expected == next) {
+            return state.get() == expected;
+        }
+        if (!state.compareAndSet(expected, next)) {
+            return false;
+        }
+        fireChanged(expected, next);
+        return true;
+    }
+
+    public boolean transition(UnaryOperator<SessionState> operation) {
+        while (true) {
+            SessionState previous = state.get();
+            SessionState next = operation.apply(previous);
+            if (next == previous) {
+                return false;
+            }
+            if (state.compareAndSet(previous, next)) {
+                fireChanged(previous, next);
+                return true;
+            }
+        }
+    }
+
+    public int getTotalPages() {
+        return snapshot().getTotalPages();
+    }
+
+    public void setTotalPages(int pages) {
+        transition(state -> state.withTotalPages(pages));
+    }
+
+    public boolean hasNoPages() {
+        return snapshot().hasNoPages();
+    }
+
+    public boolean canAddPage() {
+        return snapshot().canAddPage();
+    }
+
+    public void registerNewPageClick() {
+        transition(SessionState::registerNewPageClick);
+    }
+
+    public boolean confirmPageCreation() {
+        return transition(SessionState::confirmPageCreation);
+    }
+
+    public boolean addPage() {
+        return transition(state -> state.registerNewPageClick().confirmPageCreation());
+    }
+
+    public void navigateToPage(int pageNumber) {
+        transition(state -> state.navigateToPage(pageNumber));
+    }
+
+    public int getCurrentPageNumber() {
+        return snapshot().getCurrentPageNumber();
+    }
+
+    public boolean hasUnsavedChanges() {
+        return snapshot().hasUnsavedChanges();
+    }
+
+    public void markUnsaved() {
+        transition(SessionState::markUnsaved);
+    }
+
+    public void markSaved() {
+        LocalDateTime now = LocalDateTime.now();
+        transition(state -> state.markSaved(now));
+    }
+
+    public void markSaved(LocalDateTime savedAt, boolean pendingChanges) {
+        transition(state -> pendingChanges ? state.markSaved(savedAt).markUnsaved() : state.markSaved(savedAt));
+    }
+
+    public void restoreSaved(LocalDateTime savedAt) {
+        transition(state -> state.markSaved(savedAt));
+    }
+
+    public String getLastSavedTime() {
+        return Constants.formatSavedTime(snapshot().getLastSaved());
+    }
+
+    public void reset() {
+        transition(state -> SessionState.INITIAL);
+    }
+
+    public String getPageName(int pageNumber) {
+        if (pageNumber <= 0 || pageNumber > getTotalPages()) {
+            return "Invalid Page";
+        }
+        if (pageNumber <= Constants.DEFAULT_PAGE_NAMES.length) {
+            return Constants.DEFAULT_PAGE_NAMES[pageNumber - 1];
+        }
+        return "Page " + pageNumber;
+    }
+
+    public boolean isEditMode() {
+        return snapshot().isEditMode();
+    }
+
+    public void toggleEditMode() {
+        transition(SessionState::toggleEditMode);
+    }
+
+    public boolean registerPdfUpload(String pdfFileName) {
+        return transition(state -> state.registerPdfUpload(pdfFileName));
+    }
+
+    public boolean startPdfUpload() {
+        return transition(SessionState::startPdfUpload);
+    }
+
+    public void endPdfUpload() {
+        transition(SessionState::endPdfUpload);
+    }
+
+    public boolean isPdfUploadInProgress() {
+        return snapshot().isPdfUploadInProgress();
+    }
+
+    public String getLastUploadedPdf() {
+        return snapshot().getLastUploadedPdf();
+    }
+
+    public void addListener(SessionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SessionListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireChanged(SessionState previous, SessionState current) {
+        for (SessionListener listener : listeners) {
+            listener.sessionChanged(previous, current);
+        }
+    }
+}
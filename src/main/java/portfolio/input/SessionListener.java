@@ -0,0 +1,6 @@
+package portfolio.input;
+
+public interface SessionListener {
+
+    void sessionChanged(SessionState previous, SessionState current);
+}
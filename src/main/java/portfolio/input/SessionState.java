@@ -0,0 +1,182 @@
+package portfolio.input;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+public final class SessionState {
+
+    public static final SessionState INITIAL = new SessionState(
+            Constants.NO_PAGES, 1, true, false, false, false, false, "", null, "", false);
+
+    private final int totalPages;
+    private final int currentPageNumber;
+    private final boolean onHomeScreen;
+    private final boolean clickedNewPage;
+    private final boolean createdNewPage;
+    private final boolean unsavedChanges;
+    private final boolean editMode;
+    private final String currentRecipeTitle;
+    private final LocalDateTime lastSaved;
+    private final String lastUploadedPdf;
+    private final boolean pdfUploadInProgress;
+
+    private SessionState(int totalPages, int currentPageNumber, boolean onHomeScreen, boolean clickedNewPage,
+                         boolean createdNewPage, boolean unsavedChanges, boolean editMode, String currentRecipeTitle,
+                         LocalDateTime lastSaved, String lastUploadedPdf, boolean pdfUploadInProgress) {
+        this.totalPages = totalPages;
+        this.currentPageNumber = currentPageNumber;
+        this.onHomeScreen = onHomeScreen;
+        this.clickedNewPage = clickedNewPage;
+        this.createdNewPage = createdNewPage;
+        this.unsavedChanges = unsavedChanges;
+        this.editMode = editMode;
+        this.currentRecipeTitle = currentRecipeTitle;
+        this.lastSaved = lastSaved;
+        this.lastUploadedPdf = lastUploadedPdf;
+        this.pdfUploadInProgress = pdfUploadInProgress;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public int getCurrentPageNumber() {
+        return currentPageNumber;
+    }
+
+    public boolean isOnHomeScreen() {
+        return onHomeScreen;
+    }
+
+    public boolean hasClickedNewPage() {
+        return clickedNewPage;
+    }
+
+    public boolean hasCreatedNewPage() {
+        return createdNewPage;
+    }
+
+    public boolean hasUnsavedChanges() {
+        return unsavedChanges;
+    }
+
+    public boolean isEditMode() {
+        return editMode;
+    }
+
+    public String getCurrentRecipeTitle() {
+        return currentRecipeTitle;
+    }
+
+    public LocalDateTime getLastSaved() {
+        return lastSaved;
+    }
+
+    public String getLastUploadedPdf() {
+        return lastUploadedPdf;
+    }
+
+    public boolean isPdfUploadInProgress() {
+        return pdfUploadInProgress;
+    }
+
+    public boolean hasNoPages() {
+        return totalPages == Constants.NO_PAGES;
+    }
+
+    public boolean canAddPage() {
+        return totalPages < Constants.MAX_PAGES;
+    }
+
+    public SessionState withTotalPages(int pages) {
+        int clamped = Math.max(Constants.NO_PAGES, Math.min(pages, Constants.MAX_PAGES));
+        if (clamped == totalPages) {
+            return this;
+        }
+        return new SessionState(clamped, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                unsavedChanges, editMode, currentRecipeTitle, lastSaved, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState withCurrentRecipeTitle(String title) {
+        String value = title == null ? "" : title;
+        if (value.equals(currentRecipeTitle)) {
+            return this;
+        }
+        return new SessionState(totalPages, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                unsavedChanges, editMode, value, lastSaved, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState registerNewPageClick() {
+        int pageNumber = onHomeScreen && canAddPage() ? totalPages + 1 : currentPageNumber;
+        if (clickedNewPage && pageNumber == currentPageNumber) {
+            return this;
+        }
+        return new SessionState(totalPages, pageNumber, onHomeScreen, true, createdNewPage,
+                unsavedChanges, editMode, currentRecipeTitle, lastSaved, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState confirmPageCreation() {
+        if (!clickedNewPage || !canAddPage()) {
+            return this;
+        }
+        return new SessionState(totalPages + 1, currentPageNumber, onHomeScreen, false, true,
+                true, editMode, currentRecipeTitle, lastSaved, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState navigateToPage(int pageNumber) {
+        if (pageNumber < Constants.MIN_PAGES || pageNumber > totalPages || pageNumber == currentPageNumber) {
+            return this;
+        }
+        return new SessionState(totalPages, pageNumber, pageNumber == 1, clickedNewPage, createdNewPage,
+                unsavedChanges, editMode, currentRecipeTitle, lastSaved, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState markSaved(LocalDateTime savedAt) {
+        if (!unsavedChanges && Objects.equals(savedAt, lastSaved)) {
+            return this;
+        }
+        return new SessionState(totalPages, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                false, editMode, currentRecipeTitle, savedAt, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState markUnsaved() {
+        if (unsavedChanges) {
+            return this;
+        }
+        return new SessionState(totalPages, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                true, editMode, currentRecipeTitle, lastSaved, lastUploadedPdf, pdfUploadInProgress);
+    }
+
+    public SessionState toggleEditMode() {
+        return new SessionState(totalPages, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                unsavedChanges || !editMode, !editMode, currentRecipeTitle, lastSaved, lastUploadedPdf,
+                pdfUploadInProgress);
+    }
+
+    public SessionState startPdfUpload() {
+        if (pdfUploadInProgress) {
+            return this;
+        }
+        return withPdfUploadInProgress(true);
+    }
+
+    public SessionState registerPdfUpload(String pdfFileName) {
+        if (!pdfUploadInProgress) {
+            return this;
+        }
+        return new SessionState(totalPages, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                true, editMode, currentRecipeTitle, lastSaved, pdfFileName, true);
+    }
+
+    public SessionState endPdfUpload() {
+        if (!pdfUploadInProgress) {
+            return this;
+        }
+        return withPdfUploadInProgress(false);
+    }
+
+    private SessionState withPdfUploadInProgress(boolean inProgress) {
+        return new SessionState(totalPages, currentPageNumber, onHomeScreen, clickedNewPage, createdNewPage,
+                unsavedChanges, editMode, currentRecipeTitle, lastSaved, lastUploadedPdf, inProgress);
+    }
+}
@@ -0,0 +1,112 @@
+package portfolio.metrics;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+/**
+ * Times every event the EDT dispatches and, when one runs past the threshold,
+ * samples the EDT's stack from a separate thread while it is still stuck, so
+ * the report shows what was blocking rather than where the event began.
+ * Nested loops (modal dialogs) restart the outer event's clock, so time spent
+ * waiting on the user is not counted as a stall.
+ */
+public final class EdtWatchdog extends EventQueue {
+
+    public static final long DEFAULT_THRESHOLD_MILLIS = 200;
+
+    private final Metrics metrics;
+    private final long thresholdNanos;
+    private final Metrics.Histogram eventTimes;
+    private final Metrics.Counter stallCount;
+
+    private volatile Thread dispatchThread;
+    private volatile long eventStart;
+    private volatile long eventSequence;
+    private volatile AWTEvent currentEvent;
+    private volatile Metrics.Stall pendingStall;
+    private volatile long pendingSequence = -1;
+
+    private EdtWatchdog(Metrics metrics, long thresholdMillis) {
+        this.metrics = metrics;
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+        this.eventTimes = metrics.histogram("edt.event");
+        this.stallCount = metrics.counter("edt.stalls");
+    }
+
+    /** Replaces the system event queue and starts the sampling thread. */
+    public static EdtWatchdog install(Metrics metrics, long thresholdMillis) {
+        EdtWatchdog watchdog = new EdtWatchdog(metrics, thresholdMillis);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        Thread sampler = new Thread(watchdog::sample, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+        return watchdog;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long outerStart = eventStart;
+        AWTEvent outerEvent = currentEvent;
+        long sequence = ++eventSequence;
+        long start = System.nanoTime();
+        dispatchThread = Thread.currentThread();
+        currentEvent = event;
+        eventStart = start;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            long elapsed = end - start;
+            eventTimes.record(elapsed);
+            Metrics.Stall stall = pendingStall;
+            if (stall != null && pendingSequence == sequence) {
+                stall.finish(elapsed);
+                pendingStall = null;
+            }
+            currentEvent = outerEvent;
+            eventStart = outerStart == 0 ? 0 : end;
+            eventSequence++;
+        }
+    }
+
+    private void sample() {
+        long pollMillis = Math.max(10, thresholdNanos / 4_000_000L);
+        long reported = -1;
+        while (true) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long sequence = eventSequence;
+            long start = eventStart;
+            Thread thread = dispatchThread;
+            if (start == 0 || thread == null || sequence == reported) {
+                continue;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (elapsed < thresholdNanos) {
+                continue;
+            }
+            StackTraceElement[] stack = thread.getStackTrace();
+            if (sequence != eventSequence) {
+                continue;
+            }
+            reported = sequence;
+            Metrics.Stall stall = new Metrics.Stall(System.currentTimeMillis(), describe(currentEvent), stack, elapsed);
+            pendingStall = stall;
+            pendingSequence = sequence;
+            stallCount.increment();
+            metrics.recordStall(stall);
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        if (event == null) {
+            return "unknown event";
+        }
+        String source = event.getSource() == null ? "" : " on " + event.getSource().getClass().getName();
+        return event.getClass().getSimpleName() + " " + event.getID() + source;
+    }
+}
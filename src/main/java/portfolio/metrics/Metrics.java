@@ -0,0 +1,317 @@
+package portfolio.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and latency histograms. Recording is lock-free and
+ * allocation-free, so call sites keep their {@link Counter} or
+ * {@link Histogram} in a static field and record from any thread. Names are
+ * dotted, e.g. {@code save.write}; histograms hold nanoseconds.
+ */
+public final class Metrics {
+
+    private static final Metrics GLOBAL = new Metrics();
+    private static final int MAX_STALLS = 32;
+
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final ArrayDeque<Stall> stalls = new ArrayDeque<>();
+
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /** Keeps the most recent stalls; older ones only remain in the {@code edt.stalls} count. */
+    public void recordStall(Stall stall) {
+        synchronized (stalls) {
+            if (stalls.size() == MAX_STALLS) {
+                stalls.removeFirst();
+            }
+            stalls.addLast(stall);
+        }
+    }
+
+    public List<Stall> getStalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    public long getUptimeMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    public String formatReport() {
+        StringBuilder report = new StringBuilder();
+        Runtime runtime = Runtime.getRuntime();
+        report.append(String.format(Locale.ROOT, "Uptime %.1f s, heap %d of %d MB%n%n",
+                getUptimeMillis() / 1000.0, usedHeap() >> 20, runtime.maxMemory() >> 20));
+        report.append("Counters\n");
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            report.append(String.format(Locale.ROOT, "  %-22s %,d%n", entry.getKey(), entry.getValue().get()));
+        }
+        report.append("\nLatency (ms)            count      p50      p90      p99      max\n");
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            report.append(String.format(Locale.ROOT, "  %-18s %9d %8.2f %8.2f %8.2f %8.2f%n", entry.getKey(),
+                    histogram.getCount(), millis(histogram.percentile(50)), millis(histogram.percentile(90)),
+                    millis(histogram.percentile(99)), millis(histogram.getMax())));
+        }
+        List<Stall> recent = getStalls();
+        report.append("\nEDT stalls (" + recent.size() + " most recent)\n");
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            Stall stall = recent.get(i);
+            report.append(String.format(Locale.ROOT, "  %s  %.0f ms  %s%n", Instant.ofEpochMilli(stall.getAt()),
+                    millis(stall.getDurationNanos()), stall.getEvent()));
+            StackTraceElement[] stack = stall.getStack();
+            for (int frame = 0; frame < Math.min(stack.length, 12); frame++) {
+                report.append("      at ").append(stack[frame]).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n  \"uptimeMillis\": ").append(getUptimeMillis());
+        json.append(",\n  \"heapUsedBytes\": ").append(usedHeap());
+        json.append(",\n  \"counters\": {");
+        String separator = "\n    ";
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            json.append(separator);
+            quote(json, entry.getKey()).append(": ").append(entry.getValue().get());
+            separator = ",\n    ";
+        }
+        json.append("\n  },\n  \"histograms\": {");
+        separator = "\n    ";
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            json.append(separator);
+            quote(json, entry.getKey()).append(": {\"count\": ").append(histogram.getCount())
+                    .append(", \"meanNanos\": ").append(histogram.getMean())
+                    .append(", \"p50Nanos\": ").append(histogram.percentile(50))
+                    .append(", \"p90Nanos\": ").append(histogram.percentile(90))
+                    .append(", \"p99Nanos\": ").append(histogram.percentile(99))
+                    .append(", \"maxNanos\": ").append(histogram.getMax()).append('}');
+            separator = ",\n    ";
+        }
+        json.append("\n  },\n  \"stalls\": [");
+        separator = "\n    ";
+        for (Stall stall : getStalls()) {
+            json.append(separator).append("{\"at\": ").append(stall.getAt())
+                    .append(", \"durationNanos\": ").append(stall.getDurationNanos())
+                    .append(", \"event\": ");
+            quote(json, stall.getEvent()).append(", \"stack\": [");
+            StackTraceElement[] stack = stall.getStack();
+            for (int frame = 0; frame < stack.length; frame++) {
+                if (frame > 0) {
+                    json.append(", ");
+                }
+                quote(json, stack[frame].toString());
+            }
+            json.append("]}");
+            separator = ",\n    ";
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    public void writeJson(Path path) throws IOException {
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static StringBuilder quote(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Log-linear buckets: eight per power of two, so any percentile is within
+     * about 12% of the true value across the whole nanosecond range.
+     */
+    public static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram() {
+        }
+
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(bucketOf(value));
+            count.increment();
+            sum.add(value);
+            long seen = max.get();
+            while (value > seen && !max.compareAndSet(seen, value)) {
+                seen = max.get();
+            }
+        }
+
+        /** Records the time since {@code startNanos}, a {@link System#nanoTime()} reading. */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : sum.sum() / n;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /** The upper bound of the bucket holding the given percentile, capped at the maximum seen. */
+        public long percentile(double percent) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(n * percent / 100.0));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets.get(bucket);
+                if (seen >= rank) {
+                    return Math.min(upperBound(bucket), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+            return lower + (1L << (exponent - SUB_BITS)) - 1;
+        }
+    }
+
+    public static final class Stall {
+        private final long at;
+        private final String event;
+        private final StackTraceElement[] stack;
+        private volatile long durationNanos;
+
+        public Stall(long at, String event, StackTraceElement[] stack, long durationNanos) {
+            this.at = at;
+            this.event = event;
+            this.stack = stack;
+            this.durationNanos = durationNanos;
+        }
+
+        public long getAt() {
+            return at;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public StackTraceElement[] getStack() {
+            return stack;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /** Called once the stalled event finishes, replacing the time seen when the stack was taken. */
+        void finish(long nanos) {
+            durationNanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package portfolio.metrics;
+
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongConsumer;
+
+/**
+ * Startup timeline: {@code main()} entry, the frame's first paint and the
+ * end of deferred initialization. First paint is caught by a transparent
+ * glass pane that removes itself once it has painted.
+ */
+public final class Startup {
+
+    private static final Metrics.Histogram FIRST_PAINT = Metrics.global().histogram("startup.first-paint");
+    private static final Metrics.Histogram SERVICES = Metrics.global().histogram("startup.services");
+
+    private static volatile long mainNanos;
+    private static volatile long mainMillis;
+    private static volatile long firstPaintMillis = -1;
+
+    private Startup() {
+    }
+
+    public static void mainStarted() {
+        mainNanos = System.nanoTime();
+        mainMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Runs {@code action} on the EDT right after {@code frame} first paints,
+     * passing the milliseconds since {@link #mainStarted()}.
+     */
+    public static void afterFirstPaint(JFrame frame, LongConsumer action) {
+        if (mainNanos == 0) {
+            mainStarted();
+        }
+        JComponent probe = new JComponent() {
+            private boolean painted;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                if (painted) {
+                    return;
+                }
+                painted = true;
+                long elapsed = System.nanoTime() - mainNanos;
+                FIRST_PAINT.record(elapsed);
+                firstPaintMillis = elapsed / 1_000_000;
+                SwingUtilities.invokeLater(() -> {
+                    setVisible(false);
+                    action.accept(firstPaintMillis);
+                });
+            }
+        };
+        probe.setOpaque(false);
+        frame.setGlassPane(probe);
+        probe.setVisible(true);
+    }
+
+    public static void servicesStarted(long startNanos) {
+        SERVICES.recordSince(startNanos);
+    }
+
+    /** Milliseconds from main() to first paint, or -1 before it. */
+    public static long getFirstPaintMillis() {
+        return firstPaintMillis;
+    }
+
+    /** Milliseconds the JVM spent before main(); asks the management bean, so only call it after startup. */
+    public static long getJvmStartMillis() {
+        if (mainMillis == 0) {
+            return -1;
+        }
+        return Math.max(0, mainMillis - ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+}
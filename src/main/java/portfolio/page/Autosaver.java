@@ -0,0 +1,158 @@
+package portfolio.page;
+
+import portfolio.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Debounced background saver. Changes are captured on the UI executor, which owns the portfolio, and
+ * written in capture order on a single writer thread, so an autosave and an explicit save never reorder.
+ */
+public class Autosaver {
+
+    public static final long DEBOUNCE_MILLIS = 2_000;
+    public static final long TYPING_QUIET_MILLIS = 1_500;
+    public static final long MAX_DELAY_MILLIS = 30_000;
+
+    private static final Metrics.Histogram CAPTURE_TIMES = Metrics.global().histogram("save.capture");
+    private static final Metrics.Histogram WRITE_TIMES = Metrics.global().histogram("save.write");
+    private static final Metrics.Counter SAVES = Metrics.global().counter("save.count");
+    private static final Metrics.Counter SAVE_FAILURES = Metrics.global().counter("save.failed");
+
+    public interface Listener {
+        void saved(long savedAt, boolean explicit);
+
+        void failed(IOException error, boolean explicit);
+    }
+
+    private final Supplier<Portfolio> portfolio;
+    private final Path path;
+    private final Executor uiExecutor;
+    private final Listener listener;
+    private final ScheduledExecutorService writer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long firstChangeAt = 0;
+    private volatile long lastChangeAt = 0;
+    private volatile long lastTypingAt = 0;
+
+    public Autosaver(Supplier<Portfolio> portfolio, Path path, Executor uiExecutor, Listener listener) {
+        this.portfolio = portfolio;
+        this.path = path;
+        this.uiExecutor = uiExecutor;
+        this.listener = listener;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.writer = executor;
+    }
+
+    public void changed() {
+        long now = System.currentTimeMillis();
+        lastChangeAt = now;
+        if (firstChangeAt == 0) {
+            firstChangeAt = now;
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            schedule(DEBOUNCE_MILLIS);
+        }
+    }
+
+    public void typing() {
+        lastTypingAt = System.currentTimeMillis();
+    }
+
+    public void saveNow() {
+        capture(true);
+    }
+
+    public void flush() throws IOException {
+        Portfolio.ChangeSet changes = portfolio.get().captureChanges(path);
+        if (changes == null) {
+            return;
+        }
+        Future<Long> written = writer.submit(() -> portfolio.get().writeChanges(changes));
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving", e);
+        } catch (ExecutionException e) {
+            portfolio.get().restoreChanges(changes);
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    private void schedule(long delayMillis) {
+        try {
+            writer.schedule(this::check, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+        }
+    }
+
+    private void check() {
+        long now = System.currentTimeMillis();
+        long due = Math.max(lastChangeAt + DEBOUNCE_MILLIS, lastTypingAt + TYPING_QUIET_MILLIS);
+        long deadline = firstChangeAt + MAX_DELAY_MILLIS;
+        if (now < due && now < deadline) {
+            schedule(Math.min(due, deadline) - now);
+            return;
+        }
+        firstChangeAt = 0;
+        scheduled.set(false);
+        uiExecutor.execute(() -> capture(false));
+    }
+
+    private void capture(boolean explicit) {
+        Portfolio target = portfolio.get();
+        long started = System.nanoTime();
+        Portfolio.ChangeSet changes = target.captureChanges(path);
+        CAPTURE_TIMES.recordSince(started);
+        if (changes == null) {
+            if (explicit) {
+                listener.saved(target.getSavedAtMillis(), true);
+            }
+            return;
+        }
+        try {
+            writer.execute(() -> write(target, changes, explicit));
+        } catch (RejectedExecutionException e) {
+            target.restoreChanges(changes);
+        }
+    }
+
+    private void write(Portfolio target, Portfolio.ChangeSet changes, boolean explicit) {
+        long started = System.nanoTime();
+        try {
+            long savedAt = target.writeChanges(changes);
+            WRITE_TIMES.recordSince(started);
+            SAVES.increment();
+            uiExecutor.execute(() -> listener.saved(savedAt, explicit));
+        } catch (IOException e) {
+            SAVE_FAILURES.increment();
+            uiExecutor.execute(() -> {
+                target.restoreChanges(changes);
+                listener.failed(e, explicit);
+                changed();
+            });
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package portfolio.page;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Undo/redo log for page edits. Each step records the immutable {@link Page} values it replaced and
+ * produced, so unchanged pages, and the notes of changed ones, are shared with the live portfolio
+ * rather than copied; a step costs a few dozen bytes however large the portfolio is. Undo and redo
+ * pop one step and replay its edits in reverse or forward order.
+ *
+ * <p>Like the portfolio, a history is confined to the UI thread.
+ */
+public final class History {
+
+    public static final int DEFAULT_LIMIT = 10_000;
+
+    private final Portfolio portfolio;
+    private final int limit;
+    private final Deque<Step> undo = new ArrayDeque<>();
+    private final Deque<Step> redo = new ArrayDeque<>();
+    private List<Edit> batch;
+    private String batchLabel;
+
+    public History(Portfolio portfolio) {
+        this(portfolio, DEFAULT_LIMIT);
+    }
+
+    public History(Portfolio portfolio, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("History limit must be positive: " + limit);
+        }
+        this.portfolio = portfolio;
+        this.limit = limit;
+    }
+
+    /** Records a page just added to the portfolio. */
+    public void added(Page page) {
+        record(new Edit(portfolio.positionOf(page.getId()), null, page));
+    }
+
+    /** Records a page just removed from {@code position}; capture it with {@link Portfolio#getPage} first. */
+    public void removed(int position, Page page) {
+        record(new Edit(position, page, null));
+    }
+
+    /** Records an update that replaced {@code before} with {@code after}. */
+    public void updated(Page before, Page after) {
+        if (before.getId() != after.getId()) {
+            throw new IllegalArgumentException("Page ids differ: " + before.getId() + " and " + after.getId());
+        }
+        record(new Edit(-1, before, after));
+    }
+
+    /**
+     * Swaps {@code after} in for {@code before} wherever the log holds it, without recording a step. For
+     * changes the user did not make, such as notes filled in from a page's PDF: undoing the step that created
+     * the page removes the filled page, and redoing it brings the filled page back.
+     */
+    public void amended(Page before, Page after) {
+        if (before.getId() != after.getId()) {
+            throw new IllegalArgumentException("Page ids differ: " + before.getId() + " and " + after.getId());
+        }
+        if (batch != null) {
+            for (Edit edit : batch) {
+                edit.replace(before, after);
+            }
+        }
+        for (Deque<Step> steps : List.of(undo, redo)) {
+            for (Step step : steps) {
+                for (Edit edit : step.edits) {
+                    edit.replace(before, after);
+                }
+            }
+        }
+    }
+
+    /** Groups the edits recorded until {@link #endBatch()} into one step, e.g. the pages of one import. */
+    public void beginBatch(String label) {
+        if (batch != null) {
+            throw new IllegalStateException("Batch already open: " + batchLabel);
+        }
+        batch = new ArrayList<>();
+        batchLabel = label;
+    }
+
+    public void endBatch() {
+        if (batch == null) {
+            throw new IllegalStateException("No batch open");
+        }
+        List<Edit> edits = batch;
+        batch = null;
+        if (!edits.isEmpty()) {
+            push(new Step(batchLabel, edits.toArray(new Edit[0])));
+        }
+    }
+
+    public boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    public String undoLabel() {
+        return undo.isEmpty() ? null : undo.peek().getLabel();
+    }
+
+    public String redoLabel() {
+        return redo.isEmpty() ? null : redo.peek().getLabel();
+    }
+
+    public int undoDepth() {
+        return undo.size();
+    }
+
+    public int redoDepth() {
+        return redo.size();
+    }
+
+    /** Reverts the most recent step and returns it, or null if there is nothing to undo. */
+    public Step undo() {
+        Step step = undo.poll();
+        if (step == null) {
+            return null;
+        }
+        for (int i = step.edits.length - 1; i >= 0; i--) {
+            step.edits[i].revert(portfolio);
+        }
+        redo.push(step);
+        return step;
+    }
+
+    /** Re-applies the most recently undone step and returns it, or null if there is nothing to redo. */
+    public Step redo() {
+        Step step = redo.poll();
+        if (step == null) {
+            return null;
+        }
+        for (Edit edit : step.edits) {
+            edit.apply(portfolio);
+        }
+        undo.push(step);
+        return step;
+    }
+
+    public void clear() {
+        undo.clear();
+        redo.clear();
+    }
+
+    private void record(Edit edit) {
+        if (batch != null) {
+            batch.add(edit);
+        } else {
+            push(new Step(null, new Edit[]{edit}));
+        }
+    }
+
+    private void push(Step step) {
+        redo.clear();
+        undo.push(step);
+        if (undo.size() > limit) {
+            undo.removeLast();
+        }
+    }
+
+    /** One undoable action: the edits it made, in the order they were made. */
+    public static final class Step {
+        // Null for a single edit, which describes itself; building the text up front would double a step's size.
+        private final String label;
+        private final Edit[] edits;
+
+        private Step(String label, Edit[] edits) {
+            this.label = label;
+            this.edits = edits;
+        }
+
+        public String getLabel() {
+            return label != null ? label : edits[0].label();
+        }
+
+        /** The pages the step touched, so views of them can be refreshed; ids and files never change. */
+        public Page[] pages() {
+            Page[] pages = new Page[edits.length];
+            for (int i = 0; i < edits.length; i++) {
+                pages[i] = edits[i].after != null ? edits[i].after : edits[i].before;
+            }
+            return pages;
+        }
+    }
+
+    /** A page going from {@code before} to {@code after}; null on one side for an add or a removal. */
+    private static final class Edit {
+        private final int position;
+        private Page before;
+        private Page after;
+
+        private Edit(int position, Page before, Page after) {
+            this.position = position;
+            this.before = before;
+            this.after = after;
+        }
+
+        String label() {
+            if (before == null) {
+                return "Add " + after.getTitle();
+            }
+            if (after == null) {
+                return "Delete " + before.getTitle();
+            }
+            return "Edit " + after.getTitle();
+        }
+
+        void replace(Page page, Page amended) {
+            if (before == page) {
+                before = amended;
+            }
+            if (after == page) {
+                after = amended;
+            }
+        }
+
+        void apply(Portfolio portfolio) {
+            change(portfolio, before, after);
+        }
+
+        void revert(Portfolio portfolio) {
+            change(portfolio, after, before);
+        }
+
+        private void change(Portfolio portfolio, Page from, Page to) {
+            if (to == null) {
+                portfolio.removePage(from.getId());
+            } else if (from == null) {
+                portfolio.restorePage(position, to);
+            } else {
+                portfolio.updatePage(to);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package portfolio.page;
+
+import portfolio.input.Constants;
+
+public final class Page {
+
+    private final int id;
+    private final String type;
+    private final String title;
+    private final String file;
+    private final String notes;
+
+    public Page(int id, String type, String title, String file, String notes) {
+        this.id = id;
+        this.type = type;
+        this.title = title;
+        this.file = file == null ? "" : file;
+        this.notes = notes == null ? "" : notes;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public boolean isPdf() {
+        return Constants.PAGE_TYPE_PDF.equals(type);
+    }
+
+    public Page withTitle(String newTitle) {
+        return new Page(id, type, newTitle, file, notes);
+    }
+
+    public Page withFile(String newFile) {
+        return new Page(id, type, title, newFile, notes);
+    }
+
+    public Page withNotes(String newNotes) {
+        return new Page(id, type, title, file, newNotes);
+    }
+
+    public static byte typeCode(String type) {
+        for (int i = 0; i < Constants.PAGE_TYPES.length; i++) {
+            if (Constants.PAGE_TYPES[i].equals(type)) {
+                return (byte) i;
+            }
+        }
+        return 0;
+    }
+
+    public static String typeName(int code) {
+        if (code < 0 || code >= Constants.PAGE_TYPES.length) {
+            return Constants.PAGE_TYPE_GENERAL;
+        }
+        return Constants.PAGE_TYPES[code];
+    }
+}
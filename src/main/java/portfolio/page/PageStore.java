@@ -0,0 +1,182 @@
+package portfolio.page;
+
+import java.util.Arrays;
+
+public final class PageStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_SLOT = -1;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private String[] files = new String[INITIAL_CAPACITY];
+    private int[] positions = new int[INITIAL_CAPACITY];
+
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int[] slotById = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int slotCount = 0;
+    private int size = 0;
+
+    public PageStore() {
+        Arrays.fill(slotById, NO_SLOT);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return slotOf(id) != NO_SLOT;
+    }
+
+    public int idAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Page position " + position + " of " + size);
+        }
+        return ids[order[position]];
+    }
+
+    public int positionOf(int id) {
+        int slot = slotOf(id);
+        return slot == NO_SLOT ? -1 : positions[slot];
+    }
+
+    public String getType(int id) {
+        return Page.typeName(types[requireSlot(id)]);
+    }
+
+    public String getTitle(int id) {
+        return titles[requireSlot(id)];
+    }
+
+    public String getFile(int id) {
+        return files[requireSlot(id)];
+    }
+
+    public void add(int id, String type, String title, String file) {
+        insert(size, id, type, title, file);
+    }
+
+    public void insert(int position, int id, String type, String title, String file) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("Duplicate page id " + id);
+        }
+        position = Math.max(0, Math.min(position, size));
+        int slot = allocateSlot();
+        ids[slot] = id;
+        types[slot] = Page.typeCode(type);
+        titles[slot] = title;
+        files[slot] = file == null ? "" : file;
+
+        ensureIdCapacity(id);
+        slotById[id] = slot;
+
+        ensureOrderCapacity(size + 1);
+        System.arraycopy(order, position, order, position + 1, size - position);
+        order[position] = slot;
+        size++;
+        renumber(position, size);
+    }
+
+    public void update(int id, String title, String file) {
+        int slot = requireSlot(id);
+        titles[slot] = title;
+        files[slot] = file == null ? "" : file;
+    }
+
+    public void remove(int id) {
+        int slot = slotOf(id);
+        if (slot == NO_SLOT) {
+            return;
+        }
+        int position = positions[slot];
+        System.arraycopy(order, position + 1, order, position, size - position - 1);
+        size--;
+        renumber(position, size);
+
+        slotById[id] = NO_SLOT;
+        titles[slot] = null;
+        files[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    public void move(int id, int newPosition) {
+        int slot = requireSlot(id);
+        int from = positions[slot];
+        int to = Math.max(0, Math.min(newPosition, size - 1));
+        if (from == to) {
+            return;
+        }
+        if (from < to) {
+            System.arraycopy(order, from + 1, order, from, to - from);
+        } else {
+            System.arraycopy(order, to, order, to + 1, from - to);
+        }
+        order[to] = slot;
+        renumber(Math.min(from, to), Math.max(from, to) + 1);
+    }
+
+    public int[] idsInOrder() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = ids[order[i]];
+        }
+        return result;
+    }
+
+    private void renumber(int from, int to) {
+        for (int i = from; i < to; i++) {
+            positions[order[i]] = i;
+        }
+    }
+
+    private int slotOf(int id) {
+        return id >= 0 && id < slotById.length ? slotById[id] : NO_SLOT;
+    }
+
+    private int requireSlot(int id) {
+        int slot = slotOf(id);
+        if (slot == NO_SLOT) {
+            throw new IllegalArgumentException("Unknown page id " + id);
+        }
+        return slot;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            files = Arrays.copyOf(files, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative page id " + id);
+        }
+        if (id >= slotById.length) {
+            int old = slotById.length;
+            slotById = Arrays.copyOf(slotById, Math.max(id + 1, old * 2));
+            Arrays.fill(slotById, old, slotById.length, NO_SLOT);
+        }
+    }
+
+    private void ensureOrderCapacity(int capacity) {
+        if (capacity > order.length) {
+            order = Arrays.copyOf(order, Math.max(capacity, order.length * 2));
+        }
+    }
+}
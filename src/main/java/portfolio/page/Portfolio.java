@@ -0,0 +1,336 @@
+package portfolio.page;
+
+import portfolio.input.Constants;
+import portfolio.storage.PortfolioFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class Portfolio {
+
+    private final PageStore pages = new PageStore();
+    private final Map<Integer, String> notes = new HashMap<>();
+    private final Set<Integer> dirty = new LinkedHashSet<>();
+    private final Set<Integer> deleted = new LinkedHashSet<>();
+    private boolean orderChanged = false;
+    private int nextId = 1;
+    private final Object writeLock = new Object();
+    private volatile PortfolioFile file;
+
+    public static Path defaultPath() {
+        return Paths.get(Constants.DEFAULT_PORTFOLIO_NAME + Constants.DEFAULT_SAVE_EXTENSION);
+    }
+
+    public static Portfolio open(Path path) throws IOException {
+        Portfolio portfolio = new Portfolio();
+        portfolio.file = PortfolioFile.open(path);
+        for (int id : portfolio.file.getOrder()) {
+            PortfolioFile.Entry entry = portfolio.file.getEntry(id);
+            portfolio.pages.add(id, entry.getType(), entry.getTitle(), entry.getFile());
+            portfolio.nextId = Math.max(portfolio.nextId, id + 1);
+        }
+        return portfolio;
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    public boolean contains(int id) {
+        return pages.contains(id);
+    }
+
+    public int idAt(int position) {
+        return pages.idAt(position);
+    }
+
+    public int positionOf(int id) {
+        return pages.positionOf(id);
+    }
+
+    public String getTitle(int id) {
+        return pages.getTitle(id);
+    }
+
+    public String getType(int id) {
+        return pages.getType(id);
+    }
+
+    public String getFile(int id) {
+        return pages.getFile(id);
+    }
+
+    public String getNotes(int id) {
+        String text = notes.get(id);
+        if (text == null && file != null && pages.contains(id)) {
+            try {
+                text = file.readNotes(id);
+            } catch (ClosedChannelException e) {
+                // A background save swapped in a compacted file; read from the new one.
+                try {
+                    text = file.readNotes(id);
+                } catch (IOException retry) {
+                    throw new UncheckedIOException(retry);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (text != null) {
+                notes.put(id, text);
+            }
+        }
+        return text == null ? "" : text;
+    }
+
+    public Page getPage(int id) {
+        if (!pages.contains(id)) {
+            return null;
+        }
+        return new Page(id, pages.getType(id), pages.getTitle(id), pages.getFile(id), getNotes(id));
+    }
+
+    public Page addPage(String type, String title, String pdfFile) {
+        return insertPage(pages.size(), type, title, pdfFile);
+    }
+
+    public Page addPdfPage(String originalName, String storedName) {
+        if (!Constants.addPage()) {
+            return null;
+        }
+        return addPage(Constants.PAGE_TYPE_PDF, pdfPageTitle(originalName), storedName);
+    }
+
+    public static String pdfPageTitle(String originalName) {
+        return "PDF: " + originalName.substring(0, Math.min(originalName.length(), 15));
+    }
+
+    public Page insertPage(int position, String type, String title, String pdfFile) {
+        Page page = new Page(nextId++, type, title, pdfFile, "");
+        boolean append = position >= pages.size();
+        pages.insert(position, page.getId(), page.getType(), page.getTitle(), page.getFile());
+        notes.put(page.getId(), page.getNotes());
+        dirty.add(page.getId());
+        if (!append) {
+            orderChanged = true;
+        }
+        return page;
+    }
+
+    /** Puts a removed page back under its old id, as undo does; a no-op if the id is already present. */
+    public void restorePage(int position, Page page) {
+        if (pages.contains(page.getId())) {
+            return;
+        }
+        pages.insert(position, page.getId(), page.getType(), page.getTitle(), page.getFile());
+        notes.put(page.getId(), page.getNotes());
+        nextId = Math.max(nextId, page.getId() + 1);
+        deleted.remove(page.getId());
+        dirty.add(page.getId());
+        orderChanged = true;
+    }
+
+    public void updatePage(Page page) {
+        if (!pages.contains(page.getId())) {
+            return;
+        }
+        pages.update(page.getId(), page.getTitle(), page.getFile());
+        notes.put(page.getId(), page.getNotes());
+        dirty.add(page.getId());
+    }
+
+    public void removePage(int id) {
+        if (pages.contains(id)) {
+            pages.remove(id);
+            notes.remove(id);
+            dirty.remove(id);
+            deleted.add(id);
+        }
+    }
+
+    public void movePage(int id, int newPosition) {
+        if (pages.contains(id) && pages.positionOf(id) != newPosition) {
+            pages.move(id, newPosition);
+            orderChanged = true;
+        }
+    }
+
+    public boolean hasChanges() {
+        return !dirty.isEmpty() || !deleted.isEmpty() || orderChanged;
+    }
+
+    public LocalDateTime getSavedAt() {
+        long savedAt = getSavedAtMillis();
+        if (savedAt == 0) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(savedAt), ZoneId.systemDefault());
+    }
+
+    public long getSavedAtMillis() {
+        PortfolioFile current = file;
+        return current == null ? 0 : current.getSavedAt();
+    }
+
+    public void save(Path path) throws IOException {
+        ChangeSet changes = captureChanges(path);
+        if (changes != null) {
+            writeChanges(changes);
+        }
+    }
+
+    public ChangeSet captureChanges(Path path) {
+        PortfolioFile current = file;
+        if (current == null || !current.getPath().equals(path) || !Files.exists(path)) {
+            List<Page> snapshot = new ArrayList<>(pages.size());
+            for (int id : pages.idsInOrder()) {
+                snapshot.add(getPage(id));
+            }
+            clearChanges();
+            return new ChangeSet(path, true, snapshot, new ArrayList<>(), null);
+        }
+        if (!hasChanges()) {
+            return null;
+        }
+
+        List<Page> puts = new ArrayList<>(dirty.size());
+        for (int id : dirty) {
+            puts.add(getPage(id));
+        }
+        List<Integer> deletes = new ArrayList<>(deleted);
+        List<Integer> newOrder = null;
+        if (orderChanged) {
+            newOrder = new ArrayList<>(pages.size());
+            for (int id : pages.idsInOrder()) {
+                newOrder.add(id);
+            }
+        }
+        clearChanges();
+        return new ChangeSet(path, false, puts, deletes, newOrder);
+    }
+
+    public long writeChanges(ChangeSet changes) throws IOException {
+        synchronized (writeLock) {
+            long now = System.currentTimeMillis();
+            PortfolioFile current = file;
+            if (changes.snapshot || current == null || !current.getPath().equals(changes.path)) {
+                long generation = current == null ? 0 : current.getGeneration();
+                PortfolioFile.writeSnapshot(changes.path, changes.pages, generation, now);
+                replaceFile(changes.path);
+                return now;
+            }
+
+            List<Integer> deletes = new ArrayList<>();
+            for (int id : changes.deletes) {
+                if (current.getEntry(id) != null) {
+                    deletes.add(id);
+                }
+            }
+            current.append(changes.pages, deletes, changes.order, now);
+            if (current.needsCompaction()) {
+                compact(now);
+            }
+            return now;
+        }
+    }
+
+    /**
+     * Puts back what a failed write took. Pages changed since are already marked; a delete is only put back
+     * if the page has not returned meanwhile, since writing it after the page's put would lose the page.
+     */
+    public void restoreChanges(ChangeSet changes) {
+        for (Page page : changes.pages) {
+            if (pages.contains(page.getId())) {
+                dirty.add(page.getId());
+            }
+        }
+        for (int id : changes.deletes) {
+            if (!pages.contains(id)) {
+                deleted.add(id);
+            }
+        }
+        if (changes.order != null || changes.snapshot) {
+            orderChanged = true;
+        }
+        if (changes.snapshot) {
+            for (int id : pages.idsInOrder()) {
+                dirty.add(id);
+            }
+        }
+    }
+
+    public void compact(long savedAt) throws IOException {
+        synchronized (writeLock) {
+            Path path = file.getPath();
+            long generation = file.getGeneration() + 1;
+            PortfolioFile.writeSnapshot(path, file.readPages(), generation, savedAt);
+            replaceFile(path);
+        }
+    }
+
+    /**
+     * Copies the saved file as of the last commit to {@code target} and returns its save time, or 0 if
+     * the portfolio has never been saved. Saves wait for the copy, so it is never torn.
+     */
+    public long copySavedTo(Path target) throws IOException {
+        synchronized (writeLock) {
+            PortfolioFile current = file;
+            if (current == null) {
+                return 0;
+            }
+            Files.copy(current.getPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            return current.getSavedAt();
+        }
+    }
+
+    private void replaceFile(Path path) throws IOException {
+        PortfolioFile previous = file;
+        file = PortfolioFile.open(path);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    private void clearChanges() {
+        dirty.clear();
+        deleted.clear();
+        orderChanged = false;
+    }
+
+    public static final class ChangeSet {
+        private final Path path;
+        private final boolean snapshot;
+        private final List<Page> pages;
+        private final List<Integer> deletes;
+        private final List<Integer> order;
+
+        private ChangeSet(Path path, boolean snapshot, List<Page> pages, List<Integer> deletes, List<Integer> order) {
+            this.path = path;
+            this.snapshot = snapshot;
+            this.pages = pages;
+            this.deletes = deletes;
+            this.order = order;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public int getPageCount() {
+            return pages.size();
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package portfolio.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+
+public final class PdfDocument {
+
+    private static final int STARTXREF_WINDOW = 2048;
+    private static final int XREF_ENTRY_BYTES = 20;
+    private static final byte TYPE_UNSET = 0;
+    private static final byte TYPE_FREE = 1;
+    private static final byte TYPE_IN_FILE = 2;
+    private static final byte TYPE_COMPRESSED = 3;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final Map<Integer, Object> objectCache = new HashMap<>();
+    private final Map<Integer, ObjectStream> objectStreams = new HashMap<>();
+    private final Set<Integer> resolving = new HashSet<>();
+
+    private byte[] entryTypes = new byte[0];
+    private long[] entryOffsets = new long[0];
+    private int[] entryIndexes = new int[0];
+    private Map<String, Object> trailer;
+
+    private PdfDocument(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    public static PdfDocument open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("PDF too large to map: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        PdfDocument document = new PdfDocument(path, buffer);
+        try {
+            document.readCrossReferences();
+        } catch (IOException | RuntimeException e) {
+            document.reconstructCrossReferences();
+        }
+        if (document.trailer == null || !(document.resolve(document.trailer.get("Root")) instanceof Map)) {
+            document.reconstructCrossReferences();
+        }
+        return document;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Map<String, Object> getTrailer() {
+        return trailer;
+    }
+
+    public Object resolve(Object value) throws IOException {
+        if (value instanceof PdfReference) {
+            return getObject(((PdfReference) value).getNumber());
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> resolveDictionary(Object value) throws IOException {
+        Object resolved = resolve(value);
+        if (resolved instanceof PdfStream) {
+            return ((PdfStream) resolved).getDictionary();
+        }
+        return resolved instanceof Map ? (Map<String, Object>) resolved : Collections.emptyMap();
+    }
+
+    public synchronized Object getObject(int number) throws IOException {
+        if (objectCache.containsKey(number)) {
+            return objectCache.get(number);
+        }
+        if (!resolving.add(number)) {
+            throw new IOException("Object " + number + " refers to itself in " + path.getFileName());
+        }
+        Object value = null;
+        try {
+            if (number >= 0 && number < entryTypes.length) {
+                if (entryTypes[number] == TYPE_IN_FILE) {
+                    value = readObjectAt(entryOffsets[number]);
+                } else if (entryTypes[number] == TYPE_COMPRESSED) {
+                    value = loadObjectStream((int) entryOffsets[number]).read(entryIndexes[number], number);
+                }
+            }
+        } finally {
+            resolving.remove(number);
+        }
+        objectCache.put(number, value);
+        return value;
+    }
+
+    public List<Map<String, Object>> getPages() throws IOException {
+        List<Map<String, Object>> pages = new ArrayList<>();
+        Map<String, Object> root = resolveDictionary(trailer.get("Root"));
+        Map<String, Object> pagesNode = resolveDictionary(root.get("Pages"));
+
+        ArrayDeque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{pagesNode, pagesNode.get("Resources")});
+        Set<Map<String, Object>> visited = Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+
+        while (!stack.isEmpty()) {
+            Object[] entry = stack.pop();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> node = (Map<String, Object>) entry[0];
+            if (!visited.add(node)) {
+                continue;
+            }
+            Object resources = node.containsKey("Resources") ? node.get("Resources") : entry[1];
+            Object kids = resolve(node.get("Kids"));
+
+            if (kids instanceof List) {
+                List<?> children = (List<?>) kids;
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(new Object[]{resolveDictionary(children.get(i)), resources});
+                }
+            } else if (!node.isEmpty()) {
+                Map<String, Object> page = new HashMap<>(node);
+                page.put("Resources", resources);
+                pages.add(page);
+            }
+        }
+        return pages;
+    }
+
+    public InputStream openStream(PdfStream stream) throws IOException {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int) stream.getOffset());
+        slice.limit((int) (stream.getOffset() + stream.getLength()));
+        InputStream in = new ByteBufferInputStream(slice);
+
+        for (PdfName filter : filters(stream.getDictionary().get("Filter"))) {
+            if (filter.is("FlateDecode") || filter.is("Fl")) {
+                in = new InflaterInputStream(in);
+            } else {
+                throw new IOException("Unsupported stream filter " + filter + " in " + path.getFileName());
+            }
+        }
+        return in;
+    }
+
+    public InputStream openJpegStream(PdfStream stream) throws IOException {
+        List<PdfName> filters = filters(stream.getDictionary().get("Filter"));
+        if (filters.isEmpty() || !filters.get(filters.size() - 1).is("DCTDecode")) {
+            return null;
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int) stream.getOffset());
+        slice.limit((int) (stream.getOffset() + stream.getLength()));
+        InputStream in = new ByteBufferInputStream(slice);
+
+        for (PdfName filter : filters.subList(0, filters.size() - 1)) {
+            if (filter.is("FlateDecode") || filter.is("Fl")) {
+                in = new InflaterInputStream(in);
+            } else {
+                return null;
+            }
+        }
+        return in;
+    }
+
+    private List<PdfName> filters(Object filter) throws IOException {
+        Object resolved = resolve(filter);
+        if (resolved instanceof PdfName) {
+            return Collections.singletonList((PdfName) resolved);
+        }
+        List<PdfName> names = new ArrayList<>();
+        if (resolved instanceof List) {
+            for (Object element : (List<?>) resolved) {
+                Object name = resolve(element);
+                if (name instanceof PdfName) {
+                    names.add((PdfName) name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private Object readObjectAt(long offset) throws IOException {
+        PdfParser parser = parserAt(offset);
+        parser.nextToken();
+        parser.nextToken();
+        if (!"obj".equals(parser.nextToken())) {
+            throw new IOException("No object at offset " + offset + " in " + path.getFileName());
+        }
+        Object value = parser.nextObject();
+        if (value instanceof Map && "stream".equals(parser.nextToken())) {
+            parser.skipStreamEol();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> dictionary = (Map<String, Object>) value;
+            long dataOffset = offset + parser.position();
+            return new PdfStream(dictionary, dataOffset, streamLength(dictionary, dataOffset));
+        }
+        return value == PdfParser.NULL ? null : value;
+    }
+
+    private long streamLength(Map<String, Object> dictionary, long dataOffset) throws IOException {
+        Object length = dictionary.get("Length");
+        if (length instanceof PdfReference && resolving.contains(((PdfReference) length).getNumber())) {
+            // A length stored in the stream's own object cannot be read before the stream; scan for its end.
+            length = null;
+        }
+        length = resolve(length);
+        if (length instanceof Number) {
+            long declared = ((Number) length).longValue();
+            if (declared >= 0 && dataOffset + declared <= buffer.capacity()) {
+                return declared;
+            }
+        }
+        int end = indexOf("endstream".getBytes(StandardCharsets.US_ASCII), (int) dataOffset);
+        return end < 0 ? buffer.capacity() - dataOffset : end - dataOffset;
+    }
+
+    private PdfParser parserAt(long offset) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int) offset);
+        return new PdfParser(new ByteBufferInputStream(slice), true);
+    }
+
+    private void readCrossReferences() throws IOException {
+        long offset = findStartXref();
+        Set<Long> visited = new HashSet<>();
+
+        while (offset >= 0 && visited.add(offset)) {
+            Map<String, Object> section;
+            if (startsWith(offset, "xref")) {
+                section = readXrefTable(offset);
+            } else {
+                section = readXrefStream(offset);
+            }
+            if (trailer == null) {
+                trailer = section;
+            }
+            Object hybrid = section.get("XRefStm");
+            if (hybrid instanceof Number && visited.add(((Number) hybrid).longValue())) {
+                readXrefStream(((Number) hybrid).longValue());
+            }
+            Object previous = section.get("Prev");
+            offset = previous instanceof Number ? ((Number) previous).longValue() : -1;
+        }
+        if (trailer == null) {
+            throw new IOException("No trailer in " + path.getFileName());
+        }
+    }
+
+    private long findStartXref() throws IOException {
+        byte[] marker = "startxref".getBytes(StandardCharsets.US_ASCII);
+        int from = Math.max(0, buffer.capacity() - STARTXREF_WINDOW);
+        int found = -1;
+        for (int at = indexOf(marker, from); at >= 0; at = indexOf(marker, at + 1)) {
+            found = at;
+        }
+        if (found < 0) {
+            throw new IOException("No startxref in " + path.getFileName());
+        }
+        Object offset = parserAt(found + marker.length).nextToken();
+        if (!(offset instanceof Long)) {
+            throw new IOException("Malformed startxref in " + path.getFileName());
+        }
+        return (Long) offset;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readXrefTable(long offset) throws IOException {
+        PdfParser parser = parserAt(offset + 4);
+        while (true) {
+            Object token = parser.nextToken();
+            if ("trailer".equals(token)) {
+                Object dictionary = parser.nextObject();
+                if (!(dictionary instanceof Map)) {
+                    throw new IOException("Malformed trailer in " + path.getFileName());
+                }
+                return (Map<String, Object>) dictionary;
+            }
+            Object count = parser.nextToken();
+            if (!(token instanceof Long) || !(count instanceof Long)) {
+                throw new IOException("Malformed xref table in " + path.getFileName());
+            }
+            long first = (Long) token;
+            long entries = (Long) count;
+            long remaining = buffer.capacity() - offset - 4 - parser.position();
+            if (first < 0 || entries < 0 || entries > remaining / XREF_ENTRY_BYTES || first + entries > Integer.MAX_VALUE) {
+                throw new IOException("Malformed xref section " + first + " " + entries + " in " + path.getFileName());
+            }
+            int start = (int) first;
+            ensureCapacity((int) (first + entries));
+
+            for (int i = 0; i < entries; i++) {
+                Object entryOffset = parser.nextToken();
+                parser.nextToken();
+                Object kind = parser.nextToken();
+                int number = start + i;
+                if (entryTypes[number] != TYPE_UNSET || !(entryOffset instanceof Long)) {
+                    continue;
+                }
+                if ("n".equals(kind)) {
+                    entryTypes[number] = TYPE_IN_FILE;
+                    entryOffsets[number] = (Long) entryOffset;
+                } else {
+                    entryTypes[number] = TYPE_FREE;
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> readXrefStream(long offset) throws IOException {
+        Object value = readObjectAt(offset);
+        if (!(value instanceof PdfStream)) {
+            throw new IOException("No xref stream at offset " + offset + " in " + path.getFileName());
+        }
+        PdfStream stream = (PdfStream) value;
+        Map<String, Object> dictionary = stream.getDictionary();
+
+        int[] widths = toIntArray(resolve(dictionary.get("W")));
+        if (widths.length != 3) {
+            throw new IOException("Malformed xref stream /W in " + path.getFileName());
+        }
+        int size = ((Number) resolve(dictionary.get("Size"))).intValue();
+        int[] index = dictionary.containsKey("Index") ? toIntArray(resolve(dictionary.get("Index"))) : new int[]{0, size};
+        int rowLength = widths[0] + widths[1] + widths[2];
+
+        Map<String, Object> parameters = resolveDictionary(dictionary.get("DecodeParms"));
+        int predictor = parameters.get("Predictor") instanceof Number ? ((Number) parameters.get("Predictor")).intValue() : 1;
+
+        try (InputStream in = openStream(stream)) {
+            PngRowReader rows = new PngRowReader(in, rowLength, predictor >= 10);
+            for (int section = 0; section + 1 < index.length; section += 2) {
+                int start = index[section];
+                int count = index[section + 1];
+                if (start < 0 || count < 0 || (long) start + count > Integer.MAX_VALUE) {
+                    throw new IOException("Malformed xref stream /Index in " + path.getFileName());
+                }
+
+                for (int i = 0; i < count; i++) {
+                    byte[] row = rows.next();
+                    if (row == null) {
+                        return dictionary;
+                    }
+                    int number = start + i;
+                    // Grown per row, as the declared count may be far more than the stream holds.
+                    ensureCapacity(number + 1);
+                    if (entryTypes[number] != TYPE_UNSET) {
+                        continue;
+                    }
+                    long type = widths[0] == 0 ? 1 : field(row, 0, widths[0]);
+                    long second = field(row, widths[0], widths[1]);
+                    long third = field(row, widths[0] + widths[1], widths[2]);
+                    if (type == 1) {
+                        entryTypes[number] = TYPE_IN_FILE;
+                        entryOffsets[number] = second;
+                    } else if (type == 2) {
+                        entryTypes[number] = TYPE_COMPRESSED;
+                        entryOffsets[number] = second;
+                        entryIndexes[number] = (int) third;
+                    } else {
+                        entryTypes[number] = TYPE_FREE;
+                    }
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    private void reconstructCrossReferences() throws IOException {
+        entryTypes = new byte[0];
+        entryOffsets = new long[0];
+        entryIndexes = new int[0];
+        objectCache.clear();
+        objectStreams.clear();
+
+        Map<String, Object> rebuilt = null;
+        int limit = buffer.capacity();
+        int lineStart = 0;
+
+        for (int i = 0; i < limit; i++) {
+            byte c = buffer.get(i);
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            int start = lineStart;
+            lineStart = i + 1;
+            if (start >= i || buffer.get(start) < '0' || buffer.get(start) > '9') {
+                if (startsWith(start, "trailer")) {
+                    Object dictionary = parserAt(start + 7).nextObject();
+                    if (dictionary instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> candidate = (Map<String, Object>) dictionary;
+                        if (candidate.containsKey("Root")) {
+                            rebuilt = candidate;
+                        }
+                    }
+                }
+                continue;
+            }
+            PdfParser parser = parserAt(start);
+            Object number = parser.nextToken();
+            Object generation = parser.nextToken();
+            // An object number beyond the file size is garbage, not a reason to allocate that many entries.
+            if (number instanceof Long && (Long) number < limit && generation instanceof Long && "obj".equals(parser.nextToken())) {
+                int objectNumber = ((Long) number).intValue();
+                ensureCapacity(objectNumber + 1);
+                entryTypes[objectNumber] = TYPE_IN_FILE;
+                entryOffsets[objectNumber] = start;
+            }
+        }
+
+        if (rebuilt == null) {
+            for (int number = 0; number < entryTypes.length; number++) {
+                if (entryTypes[number] != TYPE_IN_FILE) {
+                    continue;
+                }
+                Map<String, Object> dictionary = resolveDictionary(getObject(number));
+                Object type = dictionary.get("Type");
+                if (type instanceof PdfName && ((PdfName) type).is("Catalog")) {
+                    rebuilt = new HashMap<>();
+                    rebuilt.put("Root", new PdfReference(number, 0));
+                }
+            }
+        }
+        if (rebuilt == null) {
+            throw new IOException("Cannot locate document catalog in " + path.getFileName());
+        }
+        trailer = rebuilt;
+    }
+
+    private ObjectStream loadObjectStream(int number) throws IOException {
+        ObjectStream stream = objectStreams.get(number);
+        if (stream == null) {
+            Object value = getObject(number);
+            if (!(value instanceof PdfStream)) {
+                throw new IOException("Object " + number + " is not an object stream in " + path.getFileName());
+            }
+            stream = new ObjectStream((PdfStream) value);
+            objectStreams.put(number, stream);
+        }
+        return stream;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= entryTypes.length) {
+            return;
+        }
+        int capacity = Math.max(size, entryTypes.length * 2);
+        entryTypes = Arrays.copyOf(entryTypes, capacity);
+        entryOffsets = Arrays.copyOf(entryOffsets, capacity);
+        entryIndexes = Arrays.copyOf(entryIndexes, capacity);
+    }
+
+    private boolean startsWith(long offset, String text) {
+        if (offset + text.length() > buffer.capacity()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.get((int) offset + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        int last = buffer.capacity() - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static long field(byte[] row, int start, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            value = (value << 8) | (row[start + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int[] toIntArray(Object value) {
+        if (!(value instanceof List)) {
+            return new int[0];
+        }
+        List<?> list = (List<?>) value;
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object element = list.get(i);
+            result[i] = element instanceof Number ? ((Number) element).intValue() : 0;
+        }
+        return result;
+    }
+
+    private static final class PngRowReader {
+        private final InputStream in;
+        private final boolean predicted;
+        private byte[] previous;
+
+        PngRowReader(InputStream in, int rowLength, boolean predicted) {
+            this.in = in;
+            this.predicted = predicted;
+            this.previous = new byte[rowLength];
+        }
+
+        byte[] next() throws IOException {
+            int filter = predicted ? in.read() : 0;
+            if (filter < 0) {
+                return null;
+            }
+            byte[] row = new byte[previous.length];
+            int read = 0;
+            while (read < row.length) {
+                int count = in.read(row, read, row.length - read);
+                if (count < 0) {
+                    return null;
+                }
+                read += count;
+            }
+            for (int i = 0; i < row.length; i++) {
+                int left = i > 0 ? row[i - 1] & 0xFF : 0;
+                int up = previous[i] & 0xFF;
+                int upperLeft = i > 0 ? previous[i - 1] & 0xFF : 0;
+                int raw = row[i] & 0xFF;
+                switch (filter) {
+                    case 1:
+                        raw += left;
+                        break;
+                    case 2:
+                        raw += up;
+                        break;
+                    case 3:
+                        raw += (left + up) / 2;
+                        break;
+                    case 4:
+                        raw += paeth(left, up, upperLeft);
+                        break;
+                    default:
+                        break;
+                }
+                row[i] = (byte) raw;
+            }
+            previous = row;
+            return row;
+        }
+
+        private static int paeth(int left, int up, int upperLeft) {
+            int estimate = left + up - upperLeft;
+            int distanceLeft = Math.abs(estimate - left);
+            int distanceUp = Math.abs(estimate - up);
+            int distanceUpperLeft = Math.abs(estimate - upperLeft);
+            if (distanceLeft <= distanceUp && distanceLeft <= distanceUpperLeft) {
+                return left;
+            }
+            return distanceUp <= distanceUpperLeft ? up : upperLeft;
+        }
+    }
+
+    private final class ObjectStream {
+        private final byte[] data;
+        private final int[] offsets;
+        private final int first;
+
+        ObjectStream(PdfStream stream) throws IOException {
+            try (InputStream in = openStream(stream)) {
+                data = in.readAllBytes();
+            }
+            Map<String, Object> dictionary = stream.getDictionary();
+            int count = ((Number) resolve(dictionary.get("N"))).intValue();
+            first = ((Number) resolve(dictionary.get("First"))).intValue();
+            if (count < 0 || first < 0 || first > data.length || count > first) {
+                throw new IOException("Malformed object stream header in " + path.getFileName());
+            }
+            offsets = new int[count];
+
+            PdfParser header = new PdfParser(new ByteArrayInputStream(data, 0, first), false);
+            for (int i = 0; i < count; i++) {
+                header.nextToken();
+                Object objectOffset = header.nextToken();
+                offsets[i] = objectOffset instanceof Long ? ((Long) objectOffset).intValue() : -1;
+            }
+        }
+
+        Object read(int index, int number) throws IOException {
+            if (index < 0 || index >= offsets.length || offsets[index] < 0) {
+                throw new IOException("Object " + number + " missing from object stream in " + path.getFileName());
+            }
+            int start = first + offsets[index];
+            Object value = new PdfParser(new ByteArrayInputStream(data, start, data.length - start), true).nextObject();
+            return value == PdfParser.NULL ? null : value;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package portfolio.pdf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares open {@link PdfDocument}s between everything that reads the same file.
+ * Each {@link #acquire} takes a reference that must be closed. A document whose
+ * last reference is closed stays mapped on an idle list, so reopening it is
+ * immediate. It is released once it has been idle too long or once more than
+ * the configured number of documents are idle.
+ */
+public class PdfDocumentRegistry {
+
+    public static final int DEFAULT_MAX_IDLE = 8;
+    public static final long DEFAULT_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final int maxIdle;
+    private final long idleMillis;
+    private final LongSupplier clock;
+    private final Map<Path, Entry> open = new HashMap<>();
+    // Insertion order is release order, so the eldest idle document comes first.
+    private final LinkedHashMap<Path, Entry> idle = new LinkedHashMap<>();
+
+    public PdfDocumentRegistry() {
+        this(DEFAULT_MAX_IDLE, DEFAULT_IDLE_MILLIS, System::currentTimeMillis);
+    }
+
+    public PdfDocumentRegistry(int maxIdle, long idleMillis, LongSupplier clock) {
+        this.maxIdle = maxIdle;
+        this.idleMillis = idleMillis;
+        this.clock = clock;
+    }
+
+    public Handle acquire(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (this) {
+            sweep();
+            Entry entry = open.get(key);
+            if (entry != null && entry.matches(size, modified)) {
+                return entry.retain();
+            }
+            if (entry != null) {
+                // The file changed on disk; existing handles keep the old mapping.
+                open.remove(key);
+                idle.remove(key);
+            }
+        }
+
+        PdfDocument document = PdfDocument.open(key);
+        synchronized (this) {
+            Entry entry = open.get(key);
+            if (entry == null || !entry.matches(size, modified)) {
+                idle.remove(key);
+                entry = new Entry(key, document, size, modified);
+                open.put(key, entry);
+            }
+            return entry.retain();
+        }
+    }
+
+    public synchronized void sweep() {
+        long now = clock.getAsLong();
+        Iterator<Entry> eldest = idle.values().iterator();
+        while (eldest.hasNext()) {
+            Entry entry = eldest.next();
+            if (idle.size() <= maxIdle && now - entry.idleSince < idleMillis) {
+                break;
+            }
+            eldest.remove();
+            open.remove(entry.path);
+        }
+    }
+
+    public synchronized void clear() {
+        idle.clear();
+        open.values().removeIf(entry -> entry.references == 0);
+    }
+
+    public synchronized int getOpenCount() {
+        return open.size();
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.references--;
+        if (entry.references == 0 && open.get(entry.path) == entry) {
+            entry.idleSince = clock.getAsLong();
+            idle.put(entry.path, entry);
+            sweep();
+        }
+    }
+
+    private final class Entry {
+        private final Path path;
+        private final PdfDocument document;
+        private final long size;
+        private final long modified;
+        private int references;
+        private long idleSince;
+
+        private Entry(Path path, PdfDocument document, long size, long modified) {
+            this.path = path;
+            this.document = document;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        private boolean matches(long size, long modified) {
+            return this.size == size && this.modified == modified;
+        }
+
+        private Handle retain() {
+            if (references++ == 0) {
+                idle.remove(path);
+            }
+            return new Handle(this);
+        }
+    }
+
+    public final class Handle implements AutoCloseable {
+        private final Entry entry;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        public PdfDocument getDocument() {
+            if (closed.get()) {
+                throw new IllegalStateException("Handle closed: " + entry.path.getFileName());
+            }
+            return entry.document;
+        }
+
+        public Path getPath() {
+            return entry.path;
+        }
+
+        public long getLastModified() {
+            return entry.modified;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(entry);
+            }
+        }
+    }
+}
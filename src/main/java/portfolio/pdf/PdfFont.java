@@ -0,0 +1,228 @@
+package portfolio.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class PdfFont {
+
+    private static final int MAX_CODE = 0xFFFF;
+    private static final String[] WIN_ANSI_HIGH = {
+            "€", "", "‚", "ƒ", "„", "…", "†", "‡", "ˆ", "‰", "Š", "‹", "Œ", "", "Ž", "",
+            "", "‘", "’", "“", "”", "•", "–", "—", "˜", "™", "š", "›", "œ", "", "ž", "Ÿ"
+    };
+
+    private final boolean composite;
+    private final Map<Integer, String> toUnicode;
+    private final float[] widths;
+    private final float defaultWidth;
+
+    private PdfFont(boolean composite, Map<Integer, String> toUnicode, float[] widths, float defaultWidth) {
+        this.composite = composite;
+        this.toUnicode = toUnicode;
+        this.widths = widths;
+        this.defaultWidth = defaultWidth;
+    }
+
+    static PdfFont load(PdfDocument document, Map<String, Object> dictionary) throws IOException {
+        Object subtype = dictionary.get("Subtype");
+        boolean composite = subtype instanceof PdfName && ((PdfName) subtype).is("Type0");
+
+        Map<Integer, String> toUnicode = new HashMap<>();
+        Object cmap = document.resolve(dictionary.get("ToUnicode"));
+        if (cmap instanceof PdfStream) {
+            try (InputStream in = document.openStream((PdfStream) cmap)) {
+                parseCMap(in, toUnicode);
+            } catch (IOException e) {
+                toUnicode.clear();
+            }
+        }
+
+        if (composite) {
+            Map<String, Object> descendant = null;
+            Object descendants = document.resolve(dictionary.get("DescendantFonts"));
+            if (descendants instanceof List && !((List<?>) descendants).isEmpty()) {
+                descendant = document.resolveDictionary(((List<?>) descendants).get(0));
+            }
+            float defaultWidth = 1000f;
+            float[] widths = new float[0];
+            if (descendant != null) {
+                Object dw = document.resolve(descendant.get("DW"));
+                if (dw instanceof Number) {
+                    defaultWidth = ((Number) dw).floatValue();
+                }
+                widths = compositeWidths(document, document.resolve(descendant.get("W")), defaultWidth);
+            }
+            return new PdfFont(true, toUnicode, widths, defaultWidth);
+        }
+
+        float[] widths = new float[256];
+        Object firstChar = document.resolve(dictionary.get("FirstChar"));
+        Object widthList = document.resolve(dictionary.get("Widths"));
+        float missing = 500f;
+        Arrays.fill(widths, missing);
+        if (firstChar instanceof Number && widthList instanceof List) {
+            int first = ((Number) firstChar).intValue();
+            List<?> list = (List<?>) widthList;
+            for (int i = 0; i < list.size() && first + i < widths.length; i++) {
+                Object width = document.resolve(list.get(i));
+                if (width instanceof Number && first + i >= 0) {
+                    widths[first + i] = ((Number) width).floatValue();
+                }
+            }
+        }
+        return new PdfFont(false, toUnicode, widths, missing);
+    }
+
+    static PdfFont fallback() {
+        float[] widths = new float[256];
+        Arrays.fill(widths, 500f);
+        return new PdfFont(false, new HashMap<>(), widths, 500f);
+    }
+
+    interface GlyphSink {
+        void glyph(String text, float width, boolean space);
+    }
+
+    void decode(byte[] bytes, GlyphSink sink) {
+        int step = composite ? 2 : 1;
+        for (int i = 0; i + step <= bytes.length; i += step) {
+            int code = composite ? ((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF) : bytes[i] & 0xFF;
+            String text = toUnicode.get(code);
+            if (text == null) {
+                text = composite ? "" : simpleChar(code);
+            }
+            float width = code < widths.length ? widths[code] : defaultWidth;
+            sink.glyph(text, width / 1000f, step == 1 && code == 32);
+        }
+    }
+
+    private static String simpleChar(int code) {
+        if (code >= 0x80 && code < 0xA0) {
+            return WIN_ANSI_HIGH[code - 0x80];
+        }
+        if (code < 32) {
+            return "";
+        }
+        return String.valueOf((char) code);
+    }
+
+    private static float[] compositeWidths(PdfDocument document, Object value, float defaultWidth) throws IOException {
+        if (!(value instanceof List)) {
+            return new float[0];
+        }
+        List<?> list = (List<?>) value;
+        Map<Integer, Float> explicit = new HashMap<>();
+        int maxCode = -1;
+
+        for (int i = 0; i < list.size(); ) {
+            Object start = document.resolve(list.get(i));
+            Object next = i + 1 < list.size() ? document.resolve(list.get(i + 1)) : null;
+            if (!(start instanceof Number)) {
+                i++;
+                continue;
+            }
+            int first = ((Number) start).intValue();
+            if (next instanceof List) {
+                List<?> run = (List<?>) next;
+                for (int j = 0; j < run.size() && first + j <= MAX_CODE; j++) {
+                    Object width = document.resolve(run.get(j));
+                    if (width instanceof Number) {
+                        explicit.put(first + j, ((Number) width).floatValue());
+                        maxCode = Math.max(maxCode, first + j);
+                    }
+                }
+                i += 2;
+            } else if (next instanceof Number && i + 2 < list.size()) {
+                int last = Math.min(((Number) next).intValue(), MAX_CODE);
+                Object width = document.resolve(list.get(i + 2));
+                if (width instanceof Number) {
+                    for (int code = first; code <= last; code++) {
+                        explicit.put(code, ((Number) width).floatValue());
+                    }
+                    maxCode = Math.max(maxCode, last);
+                }
+                i += 3;
+            } else {
+                i++;
+            }
+        }
+
+        float[] widths = new float[maxCode + 1];
+        Arrays.fill(widths, defaultWidth);
+        for (Map.Entry<Integer, Float> entry : explicit.entrySet()) {
+            if (entry.getKey() >= 0) {
+                widths[entry.getKey()] = entry.getValue();
+            }
+        }
+        return widths;
+    }
+
+    private static void parseCMap(InputStream in, Map<Integer, String> toUnicode) throws IOException {
+        PdfParser parser = new PdfParser(in, false);
+        while (true) {
+            Object token = parser.nextToken();
+            if (token == PdfParser.EOF) {
+                return;
+            }
+            if ("beginbfchar".equals(token)) {
+                while (true) {
+                    Object source = parser.nextObject();
+                    if (!(source instanceof byte[])) {
+                        break;
+                    }
+                    Object target = parser.nextObject();
+                    if (target instanceof byte[]) {
+                        toUnicode.put(code((byte[]) source), utf16((byte[]) target));
+                    }
+                }
+            } else if ("beginbfrange".equals(token)) {
+                while (true) {
+                    Object low = parser.nextObject();
+                    if (!(low instanceof byte[])) {
+                        break;
+                    }
+                    Object high = parser.nextObject();
+                    Object target = parser.nextObject();
+                    if (!(high instanceof byte[])) {
+                        continue;
+                    }
+                    int first = code((byte[]) low);
+                    int last = Math.min(code((byte[]) high), first + MAX_CODE);
+                    if (target instanceof byte[]) {
+                        char[] base = utf16((byte[]) target).toCharArray();
+                        for (int code = first; code <= last && base.length > 0; code++) {
+                            char[] chars = base.clone();
+                            chars[chars.length - 1] += (char) (code - first);
+                            toUnicode.put(code, new String(chars));
+                        }
+                    } else if (target instanceof List) {
+                        List<?> targets = (List<?>) target;
+                        for (int code = first; code <= last && code - first < targets.size(); code++) {
+                            Object entry = targets.get(code - first);
+                            if (entry instanceof byte[]) {
+                                toUnicode.put(code, utf16((byte[]) entry));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int code(byte[] bytes) {
+        int value = 0;
+        for (byte b : bytes) {
+            value = (value << 8) | (b & 0xFF);
+        }
+        return value;
+    }
+
+    private static String utf16(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_16BE);
+    }
+}
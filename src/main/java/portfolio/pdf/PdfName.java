@@ -0,0 +1,33 @@
+package portfolio.pdf;
+
+public final class PdfName {
+
+    private final String value;
+
+    public PdfName(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean is(String name) {
+        return value.equals(name);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PdfName && ((PdfName) other).value.equals(value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "/" + value;
+    }
+}
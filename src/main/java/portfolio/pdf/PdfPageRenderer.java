@@ -0,0 +1,215 @@
+package portfolio.pdf;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class PdfPageRenderer {
+
+    private static final float DEFAULT_WIDTH = 612f;
+    private static final float DEFAULT_HEIGHT = 792f;
+    private static final int MIN_IMAGE_PIXELS = 64 * 64;
+
+    private PdfPageRenderer() {
+    }
+
+    public static BufferedImage renderFirstPage(Path file, int maxSize) throws IOException {
+        return renderFirstPage(PdfDocument.open(file), maxSize);
+    }
+
+    public static BufferedImage renderFirstPage(PdfDocument document, int maxSize) throws IOException {
+        List<Map<String, Object>> pages = document.getPages();
+        if (pages.isEmpty()) {
+            throw new IOException("PDF has no pages: " + document.getPath().getFileName());
+        }
+        PreparedPage page = prepare(document, pages.get(0));
+
+        float scale = maxSize / Math.max(page.getWidth(), page.getHeight());
+        int width = Math.max(1, Math.round(page.getWidth() * scale));
+        int height = Math.max(1, Math.round(page.getHeight() * scale));
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            page.paint(g, width, height);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Decodes everything a page needs for drawing, so that it can then be painted
+     * repeatedly (once per tile, at any size) without touching the document again.
+     */
+    public static PreparedPage prepare(PdfDocument document, Map<String, Object> page) throws IOException {
+        float[] box = mediaBox(document, page);
+        return new PreparedPage(box[0], box[1], largestJpeg(document, page), PdfTextExtractor.extractText(document, page));
+    }
+
+    public static float[] pageSize(PdfDocument document, Map<String, Object> page) throws IOException {
+        return mediaBox(document, page);
+    }
+
+    private static float[] mediaBox(PdfDocument document, Map<String, Object> page) throws IOException {
+        Object box = document.resolve(page.get("MediaBox"));
+        if (box instanceof List && ((List<?>) box).size() == 4) {
+            List<?> values = (List<?>) box;
+            float[] numbers = new float[4];
+            for (int i = 0; i < 4; i++) {
+                Object value = document.resolve(values.get(i));
+                numbers[i] = value instanceof Number ? ((Number) value).floatValue() : 0f;
+            }
+            float width = Math.abs(numbers[2] - numbers[0]);
+            float height = Math.abs(numbers[3] - numbers[1]);
+            if (width > 0 && height > 0) {
+                return new float[]{width, height};
+            }
+        }
+        return new float[]{DEFAULT_WIDTH, DEFAULT_HEIGHT};
+    }
+
+    private static BufferedImage largestJpeg(PdfDocument document, Map<String, Object> page) throws IOException {
+        Map<String, Object> resources = document.resolveDictionary(page.get("Resources"));
+        Map<String, Object> xObjects = document.resolveDictionary(resources.get("XObject"));
+
+        PdfStream best = null;
+        long bestPixels = MIN_IMAGE_PIXELS - 1;
+        for (Object value : xObjects.values()) {
+            Object resolved = document.resolve(value);
+            if (!(resolved instanceof PdfStream)) {
+                continue;
+            }
+            PdfStream stream = (PdfStream) resolved;
+            Map<String, Object> dictionary = stream.getDictionary();
+            Object subtype = document.resolve(dictionary.get("Subtype"));
+            if (!(subtype instanceof PdfName) || !((PdfName) subtype).is("Image")) {
+                continue;
+            }
+            Object width = document.resolve(dictionary.get("Width"));
+            Object height = document.resolve(dictionary.get("Height"));
+            if (width instanceof Number && height instanceof Number) {
+                long pixels = ((Number) width).longValue() * ((Number) height).longValue();
+                if (pixels > bestPixels) {
+                    try (InputStream probe = document.openJpegStream(stream)) {
+                        if (probe != null) {
+                            best = stream;
+                            bestPixels = pixels;
+                        }
+                    }
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        try (InputStream in = document.openJpegStream(best)) {
+            return ImageIO.read(in);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static List<String> wrap(String text, FontMetrics metrics, int width) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\n")) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split(" ")) {
+                if (line.length() > 0 && metrics.stringWidth(line + " " + word) > width) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                if (line.length() > 0) {
+                    line.append(' ');
+                }
+                line.append(word);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    public static final class PreparedPage {
+        private final float width;
+        private final float height;
+        private final BufferedImage picture;
+        private final String text;
+        private int wrappedWidth = -1;
+        private List<String> wrappedLines;
+
+        private PreparedPage(float width, float height, BufferedImage picture, String text) {
+            this.width = width;
+            this.height = height;
+            this.picture = picture;
+            this.text = text;
+        }
+
+        public float getWidth() {
+            return width;
+        }
+
+        public float getHeight() {
+            return height;
+        }
+
+        public long getMemoryBytes() {
+            long bytes = 2L * text.length();
+            return picture == null ? bytes : bytes + 4L * picture.getWidth() * picture.getHeight();
+        }
+
+        /**
+         * Paints the page scaled to {@code pixelWidth} x {@code pixelHeight}. A tile
+         * is painted by translating {@code g} to the tile's origin first.
+         */
+        public void paint(Graphics2D g, int pixelWidth, int pixelHeight) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, pixelWidth, pixelHeight);
+
+            int margin = Math.max(2, pixelWidth / 14);
+            int y = margin;
+            if (picture != null) {
+                int pictureWidth = pixelWidth - 2 * margin;
+                int pictureHeight = Math.min(pixelHeight / 2, picture.getHeight() * pictureWidth / picture.getWidth());
+                g.drawImage(picture, margin, y, pictureWidth, pictureHeight, null);
+                y += pictureHeight + margin / 2;
+            }
+
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(3, pixelWidth / 28)));
+            g.setColor(Color.DARK_GRAY);
+            FontMetrics metrics = g.getFontMetrics();
+            Rectangle clip = g.getClipBounds();
+            int bottom = pixelHeight - margin;
+            y += metrics.getAscent();
+            for (String line : linesFor(metrics, pixelWidth - 2 * margin)) {
+                if (y > bottom || clip != null && y - metrics.getAscent() > clip.y + clip.height) {
+                    return;
+                }
+                if (clip == null || y + metrics.getDescent() >= clip.y) {
+                    g.drawString(line, margin, y);
+                }
+                y += metrics.getHeight();
+            }
+        }
+
+        private synchronized List<String> linesFor(FontMetrics metrics, int width) {
+            if (width != wrappedWidth) {
+                wrappedLines = wrap(text, metrics, width);
+                wrappedWidth = width;
+            }
+            return wrappedLines;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package portfolio.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class PdfParser {
+
+    static final Object EOF = new Object();
+    static final Object NULL = new Object();
+
+    private static final int NONE = -2;
+
+    private final InputStream in;
+    private final boolean references;
+    private final ArrayDeque<Object> pushback = new ArrayDeque<>();
+    private final StringBuilder scratch = new StringBuilder();
+    private int peeked = NONE;
+    private long position;
+
+    PdfParser(InputStream in, boolean references) {
+        this.in = in;
+        this.references = references;
+    }
+
+    long position() {
+        return position;
+    }
+
+    int read() throws IOException {
+        int c;
+        if (peeked != NONE) {
+            c = peeked;
+            peeked = NONE;
+        } else {
+            c = in.read();
+        }
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    int peek() throws IOException {
+        if (peeked == NONE) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    void unread(Object token) {
+        pushback.push(token);
+    }
+
+    Object nextObject() throws IOException {
+        Object token = nextToken();
+
+        if ("[".equals(token)) {
+            List<Object> array = new ArrayList<>();
+            while (true) {
+                Object element = nextObject();
+                if ("]".equals(element) || element == EOF) {
+                    return array;
+                }
+                array.add(element);
+            }
+        }
+
+        if ("<<".equals(token)) {
+            Map<String, Object> dictionary = new HashMap<>();
+            while (true) {
+                Object key = nextToken();
+                if (">>".equals(key) || key == EOF) {
+                    return dictionary;
+                }
+                if (!(key instanceof PdfName)) {
+                    continue;
+                }
+                Object value = nextObject();
+                if (">>".equals(value)) {
+                    return dictionary;
+                }
+                dictionary.put(((PdfName) key).getValue(), value == NULL ? null : value);
+            }
+        }
+
+        if (references && token instanceof Long) {
+            Object generation = nextToken();
+            if (generation instanceof Long) {
+                Object marker = nextToken();
+                if ("R".equals(marker)) {
+                    return new PdfReference(((Long) token).intValue(), ((Long) generation).intValue());
+                }
+                pushback.push(marker);
+            }
+            pushback.push(generation);
+        }
+        return token;
+    }
+
+    Object nextToken() throws IOException {
+        if (!pushback.isEmpty()) {
+            return pushback.pop();
+        }
+        int c = skipWhitespace();
+        if (c == -1) {
+            return EOF;
+        }
+
+        switch (c) {
+            case '/':
+                return readName();
+            case '(':
+                return readLiteralString();
+            case '<':
+                if (peek() == '<') {
+                    read();
+                    return "<<";
+                }
+                return readHexString();
+            case '>':
+                if (peek() == '>') {
+                    read();
+                }
+                return ">>";
+            case '[':
+                return "[";
+            case ']':
+                return "]";
+            case '{':
+                return "{";
+            case '}':
+                return "}";
+            default:
+                break;
+        }
+
+        if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.') {
+            return readNumber(c);
+        }
+
+        scratch.setLength(0);
+        scratch.append((char) c);
+        while (isRegular(peek())) {
+            scratch.append((char) read());
+        }
+        String keyword = scratch.toString();
+        switch (keyword) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+                return NULL;
+            default:
+                return keyword;
+        }
+    }
+
+    void skipStreamEol() throws IOException {
+        int c = peek();
+        if (c == '\r') {
+            read();
+            c = peek();
+        }
+        if (c == '\n') {
+            read();
+        }
+    }
+
+    void skipInlineImageData() throws IOException {
+        int previous = ' ';
+        int c = read();
+        while (c != -1) {
+            if (c == 'E' && isWhitespace(previous) && peek() == 'I') {
+                read();
+                int after = peek();
+                if (after == -1 || isWhitespace(after)) {
+                    return;
+                }
+            }
+            previous = c;
+            c = read();
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c != -1) {
+            if (c == '%') {
+                while (c != -1 && c != '\n' && c != '\r') {
+                    c = read();
+                }
+            } else if (!isWhitespace(c)) {
+                return c;
+            }
+            c = read();
+        }
+        return -1;
+    }
+
+    private PdfName readName() throws IOException {
+        scratch.setLength(0);
+        while (isRegular(peek())) {
+            int c = read();
+            if (c == '#') {
+                int high = Character.digit(peek(), 16);
+                if (high >= 0) {
+                    read();
+                    int low = Character.digit(peek(), 16);
+                    if (low >= 0) {
+                        read();
+                        c = (high << 4) | low;
+                    } else {
+                        c = high;
+                    }
+                }
+            }
+            scratch.append((char) c);
+        }
+        return new PdfName(scratch.toString());
+    }
+
+    private Object readNumber(int first) throws IOException {
+        scratch.setLength(0);
+        scratch.append((char) first);
+        boolean real = first == '.';
+        while (true) {
+            int c = peek();
+            if (c >= '0' && c <= '9') {
+                scratch.append((char) read());
+            } else if (c == '.') {
+                real = true;
+                scratch.append((char) read());
+            } else if (c == '-' && scratch.length() == 1 && first == '-') {
+                read();
+            } else {
+                break;
+            }
+        }
+        try {
+            if (real) {
+                return Double.parseDouble(scratch.toString());
+            }
+            return Long.parseLong(scratch.toString());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private byte[] readLiteralString() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int depth = 1;
+        int c = read();
+        while (c != -1) {
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'n':
+                        out.write('\n');
+                        break;
+                    case 'r':
+                        out.write('\r');
+                        break;
+                    case 't':
+                        out.write('\t');
+                        break;
+                    case 'b':
+                        out.write('\b');
+                        break;
+                    case 'f':
+                        out.write('\f');
+                        break;
+                    case '\r':
+                        if (peek() == '\n') {
+                            read();
+                        }
+                        break;
+                    case '\n':
+                        break;
+                    default:
+                        if (c >= '0' && c <= '7') {
+                            int value = c - '0';
+                            for (int i = 0; i < 2 && peek() >= '0' && peek() <= '7'; i++) {
+                                value = value * 8 + (read() - '0');
+                            }
+                            out.write(value);
+                        } else if (c != -1) {
+                            out.write(c);
+                        }
+                        break;
+                }
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    break;
+                }
+                out.write(c);
+            }
+            c = read();
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] readHexString() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int high = -1;
+        int c = read();
+        while (c != -1 && c != '>') {
+            int digit = Character.digit(c, 16);
+            if (digit >= 0) {
+                if (high < 0) {
+                    high = digit;
+                } else {
+                    out.write((high << 4) | digit);
+                    high = -1;
+                }
+            }
+            c = read();
+        }
+        if (high >= 0) {
+            out.write(high << 4);
+        }
+        return out.toByteArray();
+    }
+
+    static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0;
+    }
+
+    static boolean isDelimiter(int c) {
+        return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']'
+                || c == '{' || c == '}' || c == '/' || c == '%';
+    }
+
+    private static boolean isRegular(int c) {
+        return c != -1 && !isWhitespace(c) && !isDelimiter(c);
+    }
+}
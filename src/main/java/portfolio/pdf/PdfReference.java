@@ -0,0 +1,39 @@
+package portfolio.pdf;
+
+public final class PdfReference {
+
+    private final int number;
+    private final int generation;
+
+    public PdfReference(int number, int generation) {
+        this.number = number;
+        this.generation = generation;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PdfReference)) {
+            return false;
+        }
+        PdfReference reference = (PdfReference) other;
+        return reference.number == number && reference.generation == generation;
+    }
+
+    @Override
+    public int hashCode() {
+        return number * 31 + generation;
+    }
+
+    @Override
+    public String toString() {
+        return number + " " + generation + " R";
+    }
+}
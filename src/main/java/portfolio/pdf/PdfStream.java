@@ -0,0 +1,28 @@
+package portfolio.pdf;
+
+import java.util.Map;
+
+public final class PdfStream {
+
+    private final Map<String, Object> dictionary;
+    private final long offset;
+    private final long length;
+
+    PdfStream(Map<String, Object> dictionary, long offset, long length) {
+        this.dictionary = dictionary;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public Map<String, Object> getDictionary() {
+        return dictionary;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,95 @@
+package portfolio.pdf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Extracted text of PDFs, shared by the search indexes and previews of every open portfolio so that a
+ * document they have in common is extracted once. Entries are dropped when the file changes on disk,
+ * least recently used first once more than the configured number of characters are held, or on
+ * {@link #evict}.
+ */
+public class PdfTextCache {
+
+    public static final long DEFAULT_MAX_CHARS = 16L << 20;
+
+    private final long maxChars;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long chars;
+
+    private static final class Entry {
+        private final String text;
+        private final long size;
+        private final long modified;
+
+        private Entry(String text, long size, long modified) {
+            this.text = text;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    public PdfTextCache() {
+        this(DEFAULT_MAX_CHARS);
+    }
+
+    public PdfTextCache(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public String text(Path file) throws IOException {
+        return text(file, null);
+    }
+
+    /** As {@link #text(Path)}, extracting from {@code document} if it is not cached; null opens the file. */
+    public String text(Path file, PdfDocument document) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.size == size && entry.modified == modified) {
+                return entry.text;
+            }
+        }
+
+        String text = document == null ? PdfTextExtractor.extractText(key)
+                : PdfTextExtractor.extractText(document, Integer.MAX_VALUE);
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(text, size, modified));
+            if (previous != null) {
+                chars -= previous.text.length();
+            }
+            chars += text.length();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (chars > maxChars && eldest.hasNext()) {
+                Entry entry = eldest.next();
+                if (entry.text != text) {
+                    chars -= entry.text.length();
+                    eldest.remove();
+                }
+            }
+        }
+        return text;
+    }
+
+    public synchronized void evict(Path file) {
+        Entry entry = entries.remove(file.toAbsolutePath().normalize());
+        if (entry != null) {
+            chars -= entry.text.length();
+        }
+    }
+
+    public synchronized long getCharCount() {
+        return chars;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
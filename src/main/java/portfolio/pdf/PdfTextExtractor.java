@@ -0,0 +1,369 @@
+package portfolio.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class PdfTextExtractor {
+
+    private static final int MAX_FORM_DEPTH = 8;
+    private static final float WORD_GAP = 0.2f;
+    private static final float LINE_GAP = 0.5f;
+    private static final float PARAGRAPH_GAP = 1.9f;
+
+    private final PdfDocument document;
+    private final Map<PdfReference, PdfFont> fontCache = new HashMap<>();
+
+    private PdfTextExtractor(PdfDocument document) {
+        this.document = document;
+    }
+
+    public static String extractText(Path file) throws IOException {
+        return extractText(file, Integer.MAX_VALUE);
+    }
+
+    public static String extractText(Path file, int maxPages) throws IOException {
+        return extractText(PdfDocument.open(file), maxPages);
+    }
+
+    public static String extractText(PdfDocument document, int maxPages) throws IOException {
+        PdfTextExtractor extractor = new PdfTextExtractor(document);
+        List<Map<String, Object>> pages = document.getPages();
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pages.size() && i < maxPages; i++) {
+            String pageText = extractor.extractPage(pages.get(i));
+            if (!pageText.isEmpty()) {
+                if (text.length() > 0) {
+                    text.append("\n\n");
+                }
+                text.append(pageText);
+            }
+        }
+        return text.toString();
+    }
+
+    public static String extractText(PdfDocument document, Map<String, Object> page) throws IOException {
+        return new PdfTextExtractor(document).extractPage(page);
+    }
+
+    private String extractPage(Map<String, Object> page) throws IOException {
+        List<InputStream> streams = new ArrayList<>();
+        Object contents = document.resolve(page.get("Contents"));
+        if (contents instanceof PdfStream) {
+            streams.add(document.openStream((PdfStream) contents));
+        } else if (contents instanceof List) {
+            for (Object element : (List<?>) contents) {
+                Object stream = document.resolve(element);
+                if (stream instanceof PdfStream) {
+                    streams.add(document.openStream((PdfStream) stream));
+                }
+            }
+        }
+        if (streams.isEmpty()) {
+            return "";
+        }
+
+        TextState state = new TextState();
+        try (InputStream in = new SequenceInputStream(Collections.enumeration(streams))) {
+            interpret(in, document.resolveDictionary(page.get("Resources")), state, 0, new HashSet<>());
+        }
+        return tidy(state.out);
+    }
+
+    private void interpret(InputStream in, Map<String, Object> resources, TextState state,
+                           int depth, Set<PdfReference> activeForms) throws IOException {
+        PdfParser parser = new PdfParser(in, false);
+        Map<String, Object> fonts = document.resolveDictionary(resources.get("Font"));
+        List<Object> operands = new ArrayList<>();
+
+        while (true) {
+            Object token = parser.nextObject();
+            if (token == PdfParser.EOF) {
+                return;
+            }
+            if (!(token instanceof String) || "]".equals(token) || ">>".equals(token)) {
+                operands.add(token);
+                continue;
+            }
+
+            switch ((String) token) {
+                case "BT":
+                    state.beginText();
+                    break;
+                case "Tf":
+                    if (operands.size() >= 2 && operands.get(0) instanceof PdfName) {
+                        state.font = font(fonts.get(((PdfName) operands.get(0)).getValue()));
+                        state.fontSize = number(operands.get(1));
+                    }
+                    break;
+                case "Tc":
+                    state.charSpacing = lastNumber(operands);
+                    break;
+                case "Tw":
+                    state.wordSpacing = lastNumber(operands);
+                    break;
+                case "Tz":
+                    state.horizontalScale = lastNumber(operands) / 100f;
+                    break;
+                case "TL":
+                    state.leading = lastNumber(operands);
+                    break;
+                case "Td":
+                    if (operands.size() >= 2) {
+                        state.moveText(number(operands.get(0)), number(operands.get(1)));
+                    }
+                    break;
+                case "TD":
+                    if (operands.size() >= 2) {
+                        state.leading = -number(operands.get(1));
+                        state.moveText(number(operands.get(0)), number(operands.get(1)));
+                    }
+                    break;
+                case "Tm":
+                    if (operands.size() >= 6) {
+                        float[] matrix = new float[6];
+                        for (int i = 0; i < 6; i++) {
+                            matrix[i] = number(operands.get(i));
+                        }
+                        state.setMatrix(matrix);
+                    }
+                    break;
+                case "T*":
+                    state.moveText(0, -state.leading);
+                    break;
+                case "Tj":
+                    if (!operands.isEmpty() && operands.get(0) instanceof byte[]) {
+                        state.show((byte[]) operands.get(0));
+                    }
+                    break;
+                case "'":
+                    state.moveText(0, -state.leading);
+                    if (!operands.isEmpty() && operands.get(0) instanceof byte[]) {
+                        state.show((byte[]) operands.get(0));
+                    }
+                    break;
+                case "\"":
+                    if (operands.size() >= 3) {
+                        state.wordSpacing = number(operands.get(0));
+                        state.charSpacing = number(operands.get(1));
+                        state.moveText(0, -state.leading);
+                        if (operands.get(2) instanceof byte[]) {
+                            state.show((byte[]) operands.get(2));
+                        }
+                    }
+                    break;
+                case "TJ":
+                    if (!operands.isEmpty() && operands.get(0) instanceof List) {
+                        for (Object element : (List<?>) operands.get(0)) {
+                            if (element instanceof byte[]) {
+                                state.show((byte[]) element);
+                            } else if (element instanceof Number) {
+                                state.adjust(((Number) element).floatValue());
+                            }
+                        }
+                    }
+                    break;
+                case "Do":
+                    if (!operands.isEmpty() && operands.get(0) instanceof PdfName && depth < MAX_FORM_DEPTH) {
+                        drawForm(resources, ((PdfName) operands.get(0)).getValue(), state, depth, activeForms);
+                    }
+                    break;
+                case "ID":
+                    parser.skipInlineImageData();
+                    break;
+                default:
+                    break;
+            }
+            operands.clear();
+        }
+    }
+
+    private void drawForm(Map<String, Object> resources, String name, TextState state,
+                          int depth, Set<PdfReference> activeForms) throws IOException {
+        Object reference = document.resolveDictionary(resources.get("XObject")).get(name);
+        if (!(reference instanceof PdfReference) || !activeForms.add((PdfReference) reference)) {
+            return;
+        }
+        try {
+            Object form = document.resolve(reference);
+            if (!(form instanceof PdfStream)) {
+                return;
+            }
+            Map<String, Object> dictionary = ((PdfStream) form).getDictionary();
+            Object subtype = dictionary.get("Subtype");
+            if (!(subtype instanceof PdfName) || !((PdfName) subtype).is("Form")) {
+                return;
+            }
+            Map<String, Object> formResources = dictionary.containsKey("Resources")
+                    ? document.resolveDictionary(dictionary.get("Resources")) : resources;
+
+            TextState saved = state.saveText();
+            try (InputStream in = document.openStream((PdfStream) form)) {
+                interpret(in, formResources, state, depth + 1, activeForms);
+            }
+            state.restoreText(saved);
+        } finally {
+            activeForms.remove(reference);
+        }
+    }
+
+    private PdfFont font(Object reference) throws IOException {
+        if (reference instanceof PdfReference) {
+            PdfFont cached = fontCache.get(reference);
+            if (cached == null) {
+                cached = PdfFont.load(document, document.resolveDictionary(reference));
+                fontCache.put((PdfReference) reference, cached);
+            }
+            return cached;
+        }
+        if (reference instanceof Map) {
+            return PdfFont.load(document, document.resolveDictionary(reference));
+        }
+        return PdfFont.fallback();
+    }
+
+    private static float number(Object value) {
+        return value instanceof Number ? ((Number) value).floatValue() : 0f;
+    }
+
+    private static float lastNumber(List<Object> operands) {
+        return operands.isEmpty() ? 0f : number(operands.get(operands.size() - 1));
+    }
+
+    private static String tidy(StringBuilder raw) {
+        StringBuilder text = new StringBuilder(raw.length());
+        int blankLines = 0;
+        for (String line : raw.toString().split("\n", -1)) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty()) {
+                blankLines++;
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(blankLines > 0 ? "\n\n" : "\n");
+            }
+            text.append(trimmed);
+            blankLines = 0;
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC);
+    }
+
+    private static final class TextState {
+        private final StringBuilder out = new StringBuilder();
+        private PdfFont font = PdfFont.fallback();
+        private float fontSize = 12f;
+        private float charSpacing;
+        private float wordSpacing;
+        private float horizontalScale = 1f;
+        private float leading;
+        private float[] textMatrix = identity();
+        private float[] lineMatrix = identity();
+        private boolean hasPosition;
+        private float lastY;
+        private float lastEndX;
+        private float lastHeight;
+
+        void beginText() {
+            textMatrix = identity();
+            lineMatrix = identity();
+        }
+
+        void setMatrix(float[] matrix) {
+            textMatrix = matrix;
+            lineMatrix = matrix.clone();
+        }
+
+        void moveText(float tx, float ty) {
+            float[] m = lineMatrix;
+            lineMatrix = new float[]{m[0], m[1], m[2], m[3],
+                    tx * m[0] + ty * m[2] + m[4],
+                    tx * m[1] + ty * m[3] + m[5]};
+            textMatrix = lineMatrix.clone();
+        }
+
+        void adjust(float thousandths) {
+            float shift = -thousandths / 1000f * fontSize * horizontalScale;
+            translate(shift);
+        }
+
+        void show(byte[] bytes) {
+            float x = textMatrix[4];
+            float y = textMatrix[5];
+            float height = Math.abs(fontSize * (textMatrix[3] != 0 ? textMatrix[3] : textMatrix[1]));
+            if (height == 0) {
+                height = Math.abs(fontSize);
+            }
+
+            if (hasPosition) {
+                float dy = Math.abs(y - lastY);
+                float reference = Math.max(height, lastHeight);
+                if (dy > reference * PARAGRAPH_GAP) {
+                    out.append("\n\n");
+                } else if (dy > reference * LINE_GAP) {
+                    out.append('\n');
+                } else if (x - lastEndX > reference * WORD_GAP && !endsWithSpace()) {
+                    out.append(' ');
+                }
+            }
+
+            font.decode(bytes, (text, width, space) -> {
+                out.append(text);
+                float advance = (width * fontSize + charSpacing + (space ? wordSpacing : 0f)) * horizontalScale;
+                translate(advance);
+            });
+
+            hasPosition = true;
+            lastY = y;
+            lastEndX = textMatrix[4];
+            lastHeight = height;
+        }
+
+        TextState saveText() {
+            TextState saved = new TextState();
+            saved.font = font;
+            saved.fontSize = fontSize;
+            saved.charSpacing = charSpacing;
+            saved.wordSpacing = wordSpacing;
+            saved.horizontalScale = horizontalScale;
+            saved.leading = leading;
+            saved.textMatrix = textMatrix.clone();
+            saved.lineMatrix = lineMatrix.clone();
+            return saved;
+        }
+
+        void restoreText(TextState saved) {
+            font = saved.font;
+            fontSize = saved.fontSize;
+            charSpacing = saved.charSpacing;
+            wordSpacing = saved.wordSpacing;
+            horizontalScale = saved.horizontalScale;
+            leading = saved.leading;
+            textMatrix = saved.textMatrix;
+            lineMatrix = saved.lineMatrix;
+        }
+
+        private void translate(float tx) {
+            textMatrix[4] += tx * textMatrix[0];
+            textMatrix[5] += tx * textMatrix[1];
+        }
+
+        private boolean endsWithSpace() {
+            int length = out.length();
+            return length == 0 || Character.isWhitespace(out.charAt(length - 1));
+        }
+
+        private static float[] identity() {
+            return new float[]{1, 0, 0, 1, 0, 0};
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package portfolio.pdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a PDF front to back straight to disk. Apart from a 64 KiB buffer it
+ * keeps only one offset per object, so memory stays flat however large the
+ * output grows. Pages from other PDFs are copied with their objects
+ * renumbered. Their stream data moves file-to-file with
+ * {@link FileChannel#transferTo} and is never decoded or re-encoded.
+ */
+public final class PdfWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] INHERITED = {"Resources", "MediaBox", "CropBox", "Rotate"};
+    private static final byte[] HEADER = {'%', 'P', 'D', 'F', '-', '1', '.', '7', '\n',
+            '%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'};
+
+    private final FileChannel out;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long position;
+    private long[] offsets = new long[1024];
+    private int nextNumber = 1;
+
+    public PdfWriter(Path path) throws IOException {
+        out = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        write(HEADER);
+    }
+
+    /** Allocates an object number to be written later, so objects can refer forward. */
+    public int reserve() {
+        if (nextNumber == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        return nextNumber++;
+    }
+
+    public static PdfReference reference(int number) {
+        return new PdfReference(number, 0);
+    }
+
+    /**
+     * Writes a direct value as object {@code number}. Values are what
+     * {@link PdfDocument} hands out: maps, lists, names, numbers, booleans,
+     * byte-array strings and references.
+     */
+    public void writeObject(int number, Object value) throws IOException {
+        beginObject(number);
+        writeValue(value, null, null);
+        write("\nendobj\n");
+    }
+
+    public void writeStream(int number, Map<String, Object> dictionary, byte[] data) throws IOException {
+        beginStream(number, dictionary, data.length, null, null);
+        write(data);
+        write("\nendstream\nendobj\n");
+    }
+
+    /** Writes a whole file as the stream data, e.g. a JPEG under {@code /DCTDecode}. */
+    public void writeStream(int number, Map<String, Object> dictionary, Path data) throws IOException {
+        try (FileChannel source = FileChannel.open(data, StandardOpenOption.READ)) {
+            long length = source.size();
+            beginStream(number, dictionary, length, null, null);
+            transfer(source, 0, length);
+        }
+        write("\nendstream\nendobj\n");
+    }
+
+    /**
+     * Copies every page of {@code source} under the page tree node
+     * {@code parent} and returns their new object numbers in reading order.
+     * Only objects reachable from the pages are copied. References to the
+     * source's own page tree are pointed at {@code parent} instead, so an
+     * annotation's back-link cannot drag in the rest of the document.
+     */
+    public int[] copyPages(PdfDocument source, int parent) throws IOException {
+        Map<Integer, Integer> numbers = new HashMap<>();
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        List<Map<String, Object>> pages = new ArrayList<>();
+        List<Integer> pageNumbers = new ArrayList<>();
+        collectPages(source, parent, numbers, pages, pageNumbers);
+
+        try (FileChannel data = FileChannel.open(source.getPath(), StandardOpenOption.READ)) {
+            int[] copied = new int[pages.size()];
+            for (int i = 0; i < pages.size(); i++) {
+                Map<String, Object> page = pages.get(i);
+                page.remove("Parent");
+                copied[i] = pageNumbers.get(i);
+                beginObject(copied[i]);
+                write("<< /Parent " + parent + " 0 R");
+                writeEntries(page, numbers, pending);
+                write(" >>\nendobj\n");
+            }
+            while (!pending.isEmpty()) {
+                int original = pending.poll();
+                int number = numbers.get(original);
+                Object value = source.getObject(original);
+                if (value instanceof PdfStream) {
+                    PdfStream stream = (PdfStream) value;
+                    beginStream(number, stream.getDictionary(), stream.getLength(), numbers, pending);
+                    transfer(data, stream.getOffset(), stream.getLength());
+                    write("\nendstream\nendobj\n");
+                } else {
+                    beginObject(number);
+                    writeValue(value, numbers, pending);
+                    write("\nendobj\n");
+                }
+            }
+            return copied;
+        }
+    }
+
+    private void collectPages(PdfDocument source, int parent, Map<Integer, Integer> numbers,
+                              List<Map<String, Object>> pages, List<Integer> pageNumbers) throws IOException {
+        Map<String, Object> root = source.resolveDictionary(source.getTrailer().get("Root"));
+        ArrayDeque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{root.get("Pages"), new HashMap<String, Object>()});
+        Set<Integer> visited = new HashSet<>();
+
+        while (!stack.isEmpty()) {
+            Object[] entry = stack.pop();
+            Object node = entry[0];
+            @SuppressWarnings("unchecked")
+            Map<String, Object> inherited = (Map<String, Object>) entry[1];
+            Integer original = null;
+            if (node instanceof PdfReference) {
+                original = ((PdfReference) node).getNumber();
+                if (!visited.add(original)) {
+                    continue;
+                }
+            }
+            Map<String, Object> dictionary = source.resolveDictionary(node);
+            Object kids = source.resolve(dictionary.get("Kids"));
+            if (kids instanceof List) {
+                if (original != null) {
+                    numbers.put(original, parent);
+                }
+                Map<String, Object> passed = new HashMap<>(inherited);
+                for (String key : INHERITED) {
+                    if (dictionary.containsKey(key)) {
+                        passed.put(key, dictionary.get(key));
+                    }
+                }
+                List<?> children = (List<?>) kids;
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(new Object[]{children.get(i), passed});
+                }
+            } else if (!dictionary.isEmpty()) {
+                Map<String, Object> page = new HashMap<>(dictionary);
+                for (String key : INHERITED) {
+                    if (!page.containsKey(key) && inherited.containsKey(key)) {
+                        page.put(key, inherited.get(key));
+                    }
+                }
+                int number = reserve();
+                if (original != null) {
+                    numbers.put(original, number);
+                }
+                pages.add(page);
+                pageNumbers.add(number);
+            }
+        }
+    }
+
+    /**
+     * Writes the page tree root, catalog and any other objects first, then
+     * call this to write the cross-reference table and trailer and close the
+     * file.
+     */
+    public void finish(int catalog, int info) throws IOException {
+        long xref = position;
+        StringBuilder line = new StringBuilder(32);
+        write("xref\n0 " + nextNumber + "\n0000000000 65535 f \n");
+        for (int number = 1; number < nextNumber; number++) {
+            line.setLength(0);
+            long offset = offsets[number];
+            String digits = Long.toString(offset);
+            for (int pad = digits.length(); pad < 10; pad++) {
+                line.append('0');
+            }
+            line.append(digits).append(offset == 0 ? " 00000 f \n" : " 00000 n \n");
+            write(line.toString());
+        }
+        write("trailer\n<< /Size " + nextNumber + " /Root " + catalog + " 0 R"
+                + (info > 0 ? " /Info " + info + " 0 R" : "") + " >>\nstartxref\n" + xref + "\n%%EOF\n");
+        close();
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out.isOpen()) {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /** A PDF text string that survives any characters: UTF-16BE with a byte order mark. */
+    public static byte[] textString(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_16BE);
+        byte[] bytes = new byte[encoded.length + 2];
+        bytes[0] = (byte) 0xFE;
+        bytes[1] = (byte) 0xFF;
+        System.arraycopy(encoded, 0, bytes, 2, encoded.length);
+        return bytes;
+    }
+
+    private void beginObject(int number) throws IOException {
+        offsets[number] = position;
+        write(number + " 0 obj\n");
+    }
+
+    private void beginStream(int number, Map<String, Object> dictionary, long length,
+                             Map<Integer, Integer> numbers, ArrayDeque<Integer> pending) throws IOException {
+        Map<String, Object> withLength = new HashMap<>(dictionary);
+        withLength.put("Length", length);
+        beginObject(number);
+        writeValue(withLength, numbers, pending);
+        write("\nstream\n");
+    }
+
+    private void writeValue(Object value, Map<Integer, Integer> numbers, ArrayDeque<Integer> pending)
+            throws IOException {
+        if (value == null || value == PdfParser.NULL) {
+            write("null");
+        } else if (value instanceof PdfReference) {
+            int number = ((PdfReference) value).getNumber();
+            if (numbers != null) {
+                Integer mapped = numbers.get(number);
+                if (mapped == null) {
+                    mapped = reserve();
+                    numbers.put(number, mapped);
+                    pending.add(number);
+                }
+                number = mapped;
+            }
+            write(number + " 0 R");
+        } else if (value instanceof Map) {
+            write("<<");
+            writeEntries((Map<?, ?>) value, numbers, pending);
+            write(" >>");
+        } else if (value instanceof List) {
+            write("[");
+            boolean first = true;
+            for (Object element : (List<?>) value) {
+                if (!first) {
+                    write(" ");
+                }
+                writeValue(element, numbers, pending);
+                first = false;
+            }
+            write("]");
+        } else if (value instanceof PdfName) {
+            writeName(((PdfName) value).getValue());
+        } else if (value instanceof byte[]) {
+            writeHex((byte[]) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double real = ((Number) value).doubleValue();
+            write(Double.isFinite(real) ? BigDecimal.valueOf(real).stripTrailingZeros().toPlainString() : "0");
+        } else {
+            write(value.toString());
+        }
+    }
+
+    private void writeEntries(Map<?, ?> dictionary, Map<Integer, Integer> numbers, ArrayDeque<Integer> pending)
+            throws IOException {
+        for (Map.Entry<?, ?> entry : dictionary.entrySet()) {
+            write(" ");
+            writeName(entry.getKey().toString());
+            write(" ");
+            writeValue(entry.getValue(), numbers, pending);
+        }
+    }
+
+    private void writeName(String name) throws IOException {
+        StringBuilder escaped = new StringBuilder(name.length() + 1).append('/');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < 0x21 || c > 0x7E || "#()<>[]{}/%".indexOf(c) >= 0) {
+                escaped.append('#').append(Character.forDigit((c >> 4) & 0xF, 16))
+                        .append(Character.forDigit(c & 0xF, 16));
+            } else {
+                escaped.append(c);
+            }
+        }
+        write(escaped.toString());
+    }
+
+    private void writeHex(byte[] bytes) throws IOException {
+        ensureSpace(1);
+        buffer.put((byte) '<');
+        for (byte b : bytes) {
+            ensureSpace(2);
+            buffer.put((byte) Character.forDigit((b >> 4) & 0xF, 16));
+            buffer.put((byte) Character.forDigit(b & 0xF, 16));
+        }
+        ensureSpace(1);
+        buffer.put((byte) '>');
+        position += bytes.length * 2L + 2;
+    }
+
+    private void transfer(FileChannel source, long offset, long length) throws IOException {
+        flush();
+        long done = 0;
+        while (done < length) {
+            long moved = source.transferTo(offset + done, length - done, out);
+            if (moved <= 0) {
+                throw new IOException("Source ended early while copying stream data");
+            }
+            done += moved;
+        }
+        position += length;
+    }
+
+    private void write(String text) throws IOException {
+        write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        position += bytes.length;
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                out.write(wrapped);
+            }
+            return;
+        }
+        ensureSpace(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensureSpace(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
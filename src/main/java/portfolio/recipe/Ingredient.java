@@ -0,0 +1,53 @@
+package portfolio.recipe;
+
+/**
+ * One ingredient line of a recipe. A quantity of zero means the line gives no
+ * amount, as in "salt to taste"; such lines scale to themselves.
+ */
+public final class Ingredient {
+
+    private final double quantity;
+    private final Unit unit;
+    private final String name;
+    private final String note;
+
+    public Ingredient(double quantity, Unit unit, String name, String note) {
+        this.quantity = quantity;
+        this.unit = unit == null ? Unit.PIECE : unit;
+        this.name = name;
+        this.note = note == null ? "" : note;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public boolean hasQuantity() {
+        return quantity > 0;
+    }
+
+    public Ingredient scaled(double factor) {
+        return new Ingredient(quantity * factor, unit, name, note);
+    }
+
+    public Ingredient convertedTo(Unit target) {
+        return new Ingredient(unit.convert(quantity, target), target, name, note);
+    }
+
+    @Override
+    public String toString() {
+        return RecipeText.formatIngredient(this);
+    }
+}
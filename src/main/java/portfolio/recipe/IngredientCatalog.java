@@ -0,0 +1,225 @@
+package portfolio.recipe;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interns ingredient names to dense ids and holds, per id, the density,
+ * weight per piece and nutrients per 100 g in flat arrays. Names the catalog
+ * has no data for still get an id; their values are NaN. The built-in table
+ * covers common staples with rounded USDA reference values. Not thread-safe.
+ */
+public final class IngredientCatalog {
+
+    public static final int KCAL = 0;
+    public static final int PROTEIN = 1;
+    public static final int FAT = 2;
+    public static final int CARBS = 3;
+    public static final int NUTRIENT_COUNT = 4;
+    public static final String[] NUTRIENT_NAMES = {"Energy (kcal)", "Protein (g)", "Fat (g)", "Carbohydrate (g)"};
+
+    private static final Set<String> DESCRIPTORS = new HashSet<>(Arrays.asList(
+            "large", "medium", "small", "fresh", "freshly", "chopped", "minced", "diced", "sliced", "grated",
+            "ground", "finely", "roughly", "coarsely", "warm", "lukewarm", "cold", "hot", "softened", "melted",
+            "room", "temperature", "unsalted", "salted", "organic", "extra", "virgin", "packed", "heaping",
+            "level", "of", "about", "approximately"));
+
+    private static final Set<String> PIECE_WORDS = new HashSet<>(Arrays.asList(
+            "clove", "stick", "packet", "package", "head", "sprig", "bunch", "can", "jar", "slice", "leaf", "stalk"));
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[64];
+    private double[] densities = new double[64];
+    private double[] pieceGrams = new double[64];
+    private double[] nutrients = new double[64 * NUTRIENT_COUNT];
+    private int size;
+
+    public static IngredientCatalog withDefaults() {
+        IngredientCatalog catalog = new IngredientCatalog();
+        catalog.define("flour", 0.53, Double.NaN, 364, 10.3, 1.0, 76.3,
+                "bread flour", "all purpose flour", "plain flour", "white flour", "wheat flour", "00 flour");
+        catalog.define("whole wheat flour", 0.51, Double.NaN, 340, 13.2, 2.5, 72.0, "wholemeal flour");
+        catalog.define("cornmeal", 0.65, Double.NaN, 370, 8.1, 3.6, 79.0, "polenta", "semolina");
+        catalog.define("water", 1.0, Double.NaN, 0, 0, 0, 0);
+        catalog.define("salt", 1.2, Double.NaN, 0, 0, 0, 0, "sea salt", "kosher salt", "table salt");
+        catalog.define("yeast", 0.6, 7, 325, 40.4, 7.6, 41.2,
+                "instant yeast", "dry yeast", "active dry yeast", "rapid rise yeast", "yeast packet");
+        catalog.define("sugar", 0.85, Double.NaN, 387, 0, 0, 100, "granulated sugar", "white sugar", "caster sugar");
+        catalog.define("brown sugar", 0.93, Double.NaN, 380, 0.1, 0, 98.1);
+        catalog.define("honey", 1.42, Double.NaN, 304, 0.3, 0, 82.4);
+        catalog.define("butter", 0.911, 113, 717, 0.9, 81.1, 0.1, "butter stick");
+        catalog.define("olive oil", 0.91, Double.NaN, 884, 0, 100, 0, "oil", "vegetable oil", "canola oil");
+        catalog.define("egg", 1.03, 50, 143, 12.6, 9.5, 0.7);
+        catalog.define("milk", 1.03, Double.NaN, 42, 3.4, 1.0, 5.0, "whole milk");
+        catalog.define("cream", 1.0, Double.NaN, 340, 2.8, 36.1, 2.8, "heavy cream", "double cream");
+        catalog.define("parmesan", 0.4, Double.NaN, 431, 38.5, 28.6, 4.1, "parmesan cheese");
+        catalog.define("baking powder", 0.9, Double.NaN, 53, 0, 0, 27.7);
+        catalog.define("baking soda", 1.1, Double.NaN, 0, 0, 0, 0, "bicarbonate of soda");
+        catalog.define("vanilla extract", 0.88, Double.NaN, 288, 0.1, 0.1, 12.7, "vanilla");
+        catalog.define("black pepper", 0.46, Double.NaN, 251, 10.4, 3.3, 64.0, "pepper");
+        catalog.define("tomato", 0.95, 123, 18, 0.9, 0.2, 3.9);
+        catalog.define("onion", 0.64, 110, 40, 1.1, 0.1, 9.3);
+        catalog.define("garlic", 0.6, 3, 149, 6.4, 0.5, 33.1, "garlic clove");
+        catalog.define("carrot", 0.55, 61, 41, 0.9, 0.2, 9.6);
+        catalog.define("potato", 0.65, 213, 77, 2.0, 0.1, 17.5);
+        catalog.define("lemon", 1.0, 58, 29, 1.1, 0.3, 9.3);
+        catalog.define("lemon juice", 1.03, Double.NaN, 22, 0.4, 0.2, 6.9);
+        catalog.define("rice", 0.85, Double.NaN, 365, 7.1, 0.7, 80.0);
+        catalog.define("pasta", 0.45, Double.NaN, 371, 13.0, 1.5, 74.7, "spaghetti");
+        catalog.define("chicken breast", 1.0, 174, 165, 31.0, 3.6, 0, "chicken");
+        catalog.define("ground beef", 1.0, Double.NaN, 250, 25.9, 15.0, 0, "beef", "minced beef");
+        return catalog;
+    }
+
+    /**
+     * Adds an ingredient with its density in g/ml, grams per piece and
+     * nutrients per 100 g; pass NaN for anything unknown.
+     */
+    public int define(String name, double density, double gramsPerPiece,
+                      double kcal, double protein, double fat, double carbs, String... aliases) {
+        int id = intern(canonicalName(name));
+        densities[id] = density;
+        pieceGrams[id] = gramsPerPiece;
+        int base = id * NUTRIENT_COUNT;
+        nutrients[base + KCAL] = kcal;
+        nutrients[base + PROTEIN] = protein;
+        nutrients[base + FAT] = fat;
+        nutrients[base + CARBS] = carbs;
+        for (String alias : aliases) {
+            ids.put(canonicalName(alias), id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id for an ingredient as written in a recipe. "2 large eggs,
+     * beaten" and "egg" share an id: descriptors are dropped, the last word is
+     * made singular, and the longest known trailing phrase wins. Unknown names
+     * get a new id.
+     */
+    public int idOf(String ingredientName) {
+        String canonical = canonicalName(ingredientName);
+        Integer id = ids.get(canonical);
+        if (id != null) {
+            return id;
+        }
+        int space = canonical.indexOf(' ');
+        while (space >= 0) {
+            id = ids.get(canonical.substring(space + 1));
+            if (id != null) {
+                ids.put(canonical, id);
+                return id;
+            }
+            space = canonical.indexOf(' ', space + 1);
+        }
+        // "garlic clove", "butter stick": a known name followed by the word for one piece of it.
+        space = canonical.lastIndexOf(' ');
+        if (space > 0 && PIECE_WORDS.contains(canonical.substring(space + 1))) {
+            id = ids.get(canonical.substring(0, space));
+            if (id != null) {
+                ids.put(canonical, id);
+                return id;
+            }
+        }
+        return intern(canonical);
+    }
+
+    public static String canonicalName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        int cut = lower.length();
+        for (char stop : new char[]{',', '(', ';'}) {
+            int at = lower.indexOf(stop);
+            if (at >= 0 && at < cut) {
+                cut = at;
+            }
+        }
+        StringBuilder canonical = new StringBuilder();
+        for (String word : lower.substring(0, cut).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty() || DESCRIPTORS.contains(word)) {
+                continue;
+            }
+            if (canonical.length() > 0) {
+                canonical.append(' ');
+            }
+            canonical.append(word);
+        }
+        return singular(canonical.toString());
+    }
+
+    private static String singular(String phrase) {
+        int last = phrase.lastIndexOf(' ') + 1;
+        String word = phrase.substring(last);
+        String head = phrase.substring(0, last);
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return head + word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() > 4 && word.endsWith("oes")) {
+            return head + word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return head + word.substring(0, word.length() - 1);
+        }
+        return phrase;
+    }
+
+    private int intern(String canonical) {
+        Integer existing = ids.get(canonical);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == names.length) {
+            int capacity = size * 2;
+            names = Arrays.copyOf(names, capacity);
+            densities = Arrays.copyOf(densities, capacity);
+            pieceGrams = Arrays.copyOf(pieceGrams, capacity);
+            nutrients = Arrays.copyOf(nutrients, capacity * NUTRIENT_COUNT);
+        }
+        int id = size++;
+        names[id] = canonical;
+        densities[id] = Double.NaN;
+        pieceGrams[id] = Double.NaN;
+        Arrays.fill(nutrients, id * NUTRIENT_COUNT, (id + 1) * NUTRIENT_COUNT, Double.NaN);
+        ids.put(canonical, id);
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /** Grams per millilitre, or NaN. */
+    public double getDensity(int id) {
+        return densities[id];
+    }
+
+    /** Grams per piece, or NaN. */
+    public double getPieceGrams(int id) {
+        return pieceGrams[id];
+    }
+
+    /** Amount of {@code nutrient} per 100 g, or NaN. */
+    public double getNutrient(int id, int nutrient) {
+        return nutrients[id * NUTRIENT_COUNT + nutrient];
+    }
+
+    // The engine reads these directly; they are replaced, not resized, when the catalog grows.
+    double[] densities() {
+        return densities;
+    }
+
+    double[] pieceGrams() {
+        return pieceGrams;
+    }
+
+    double[] nutrients() {
+        return nutrients;
+    }
+}
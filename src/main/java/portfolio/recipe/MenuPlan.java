@@ -0,0 +1,114 @@
+package portfolio.recipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The recipes a menu-planning page refers to, one per line:
+ * <pre>
+ * Monday dinner: Rustic Italian Crusty Bread x2
+ * Tuesday: Tomato Soup for 6
+ * </pre>
+ * The label before the colon is optional. "x2" cooks two batches. "for 6"
+ * scales the recipe to six servings. Lines starting with '#' are comments.
+ */
+public final class MenuPlan {
+
+    private static final Pattern ENTRY = Pattern.compile(
+            "^(?:([^:]{1,40}):\\s*)?(.+?)(?:\\s+(?:[x\u00d7]\\s*(\\d+(?:[.,]\\d+)?)|for\\s+(\\d+(?:[.,]\\d+)?)))?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    private final List<Entry> entries;
+
+    public MenuPlan(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static MenuPlan parse(String text) {
+        List<Entry> entries = new ArrayList<>();
+        for (String rawLine : text.split("\\R")) {
+            String line = rawLine.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Matcher match = ENTRY.matcher(line);
+            if (!match.matches()) {
+                continue;
+            }
+            String label = match.group(1) == null ? "" : match.group(1).strip();
+            double batches = match.group(3) == null ? 1 : Double.parseDouble(match.group(3).replace(',', '.'));
+            double servings = match.group(4) == null ? 0 : Double.parseDouble(match.group(4).replace(',', '.'));
+            if (batches > 0) {
+                entries.add(new Entry(label, match.group(2).strip(), servings, batches));
+            }
+        }
+        return new MenuPlan(entries);
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        for (Entry entry : entries) {
+            if (!entry.getLabel().isEmpty()) {
+                text.append(entry.getLabel()).append(": ");
+            }
+            text.append(entry.getRecipeTitle());
+            if (entry.getServings() > 0) {
+                text.append(" for ").append(number(entry.getServings()));
+            } else if (entry.getBatches() != 1) {
+                text.append(" x").append(number(entry.getBatches()));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.2f", value).replaceAll("0+$", "");
+    }
+
+    public static final class Entry {
+        private final String label;
+        private final String recipeTitle;
+        private final double servings;
+        private final double batches;
+
+        public Entry(String label, String recipeTitle, double servings, double batches) {
+            this.label = label == null ? "" : label;
+            this.recipeTitle = recipeTitle;
+            this.servings = servings;
+            this.batches = batches;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getRecipeTitle() {
+            return recipeTitle;
+        }
+
+        /** Servings to scale to, or 0 to use {@link #getBatches()}. */
+        public double getServings() {
+            return servings;
+        }
+
+        public double getBatches() {
+            return batches;
+        }
+
+        String titleKey() {
+            return recipeTitle.toLowerCase(Locale.ROOT);
+        }
+    }
+}
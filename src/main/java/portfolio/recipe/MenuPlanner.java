@@ -0,0 +1,692 @@
+package portfolio.recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Picks a week of meals from a recipe library. No recipe is used twice; the rest are soft goals: keep each
+ * day's calories per person inside a range, keep the week's total cooking time under a budget, and reuse
+ * ingredients already bought for other meals. A plan scores one point per ingredient it reuses and loses
+ * points for every 100 kcal outside the range, every meal of unknown calories and every 10 minutes over
+ * budget, so the search always has an answer and a plan that meets every constraint says so.
+ *
+ * <p>The search is a restarting local search, one worker per core on a fork-join pool, until the time
+ * budget runs out. Moves swap one meal for a recipe that shares an ingredient with the others about half
+ * the time, which is what finds reuse in a large library. A plan is scored from flat per-recipe arrays
+ * compiled once per search, so a worker evaluates millions of plans a second and allocates nothing;
+ * every improvement on the best plan so far is published to the listener as it is found.
+ */
+public final class MenuPlanner {
+
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    /** Cooking time assumed for a recipe that does not state one. */
+    public static final int DEFAULT_RECIPE_MINUTES = 45;
+
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    private static final String[][] MEALS = {{"dinner"}, {"lunch", "dinner"}, {"breakfast", "lunch", "dinner"}};
+    // Bought once and always in the cupboard, so sharing them is no saving.
+    private static final String[] STAPLES = {"water", "salt", "black pepper", "olive oil"};
+
+    private static final double CALORIE_PENALTY_PER_100_KCAL = 4;
+    private static final double UNKNOWN_CALORIES_PENALTY = 1;
+    private static final double TIME_PENALTY_PER_10_MINUTES = 2;
+    private static final int RESTART_AFTER_STALE_MOVES = 4_000;
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+
+    public MenuPlanner(int parallelism) {
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism, new WorkerThreadFactory(), null, false);
+    }
+
+    public interface Listener {
+        /** A better plan was found. Called on a search thread, never twice at once. */
+        void improved(Plan plan);
+    }
+
+    /**
+     * Starts a search over {@code recipes} and returns at once. The result completes with the best plan
+     * found when the time budget runs out or the search is cancelled, or null if no recipe has ingredients.
+     */
+    public Search plan(List<Recipe> recipes, Constraints constraints, Listener listener) {
+        Search search = new Search(constraints, listener);
+        pool.execute(() -> {
+            try {
+                search.library = Library.compile(recipes);
+                if (search.library.size() > 0) {
+                    List<Worker> workers = new ArrayList<>(parallelism);
+                    for (int i = 0; i < parallelism; i++) {
+                        workers.add(new Worker(search, new SplittableRandom(System.nanoTime() * 31 + i)));
+                    }
+                    ForkJoinTask.invokeAll(workers);
+                }
+                search.result.complete(search.best);
+            } catch (RuntimeException e) {
+                search.result.completeExceptionally(e);
+            }
+        });
+        return search;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** What a plan has to cover and the limits it should keep to. */
+    public static final class Constraints {
+
+        public static final Constraints DEFAULT = new Constraints(7, 1, 2, 400, 900, 7 * 60, 1_000);
+
+        private final int days;
+        private final int mealsPerDay;
+        private final int people;
+        private final double minCaloriesPerDay;
+        private final double maxCaloriesPerDay;
+        private final int maxTotalMinutes;
+        private final long budgetMillis;
+
+        /**
+         * Calories are per person per day over the planned meals only, so with one meal a day they bound
+         * that meal. A max of 0 turns the calorie or time goal off.
+         */
+        public Constraints(int days, int mealsPerDay, int people, double minCaloriesPerDay, double maxCaloriesPerDay,
+                           int maxTotalMinutes, long budgetMillis) {
+            if (days < 1 || days > DAYS.length || mealsPerDay < 1 || mealsPerDay > MEALS.length || people < 1) {
+                throw new IllegalArgumentException("Need 1-" + DAYS.length + " days, 1-" + MEALS.length
+                        + " meals a day and at least one person");
+            }
+            this.days = days;
+            this.mealsPerDay = mealsPerDay;
+            this.people = people;
+            this.minCaloriesPerDay = Math.max(0, minCaloriesPerDay);
+            this.maxCaloriesPerDay = Math.max(0, maxCaloriesPerDay);
+            this.maxTotalMinutes = Math.max(0, maxTotalMinutes);
+            this.budgetMillis = Math.max(1, budgetMillis);
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public int getMealsPerDay() {
+            return mealsPerDay;
+        }
+
+        public int getPeople() {
+            return people;
+        }
+
+        public double getMinCaloriesPerDay() {
+            return minCaloriesPerDay;
+        }
+
+        public double getMaxCaloriesPerDay() {
+            return maxCaloriesPerDay;
+        }
+
+        public int getMaxTotalMinutes() {
+            return maxTotalMinutes;
+        }
+
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+
+        int slots() {
+            return days * mealsPerDay;
+        }
+
+        boolean limitsCalories() {
+            return maxCaloriesPerDay > 0;
+        }
+
+        String label(int slot) {
+            String meal = MEALS[mealsPerDay - 1][slot % mealsPerDay];
+            return DAYS[slot / mealsPerDay] + " " + meal;
+        }
+    }
+
+    /** A running search. */
+    public static final class Search {
+        private final Constraints constraints;
+        private final Listener listener;
+        private final long startedAt = System.nanoTime();
+        private final long deadline;
+        private final CompletableFuture<Plan> result = new CompletableFuture<>();
+        private final LongAdder evaluations = new LongAdder();
+        private volatile boolean cancelled;
+        private volatile double bestScore = Double.NEGATIVE_INFINITY;
+        private volatile Plan best;
+        private volatile Library library;
+
+        private Search(Constraints constraints, Listener listener) {
+            this.constraints = constraints;
+            this.listener = listener;
+            this.deadline = startedAt + constraints.budgetMillis * 1_000_000;
+        }
+
+        public CompletableFuture<Plan> getResult() {
+            return result;
+        }
+
+        public Plan getBest() {
+            return best;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Plans scored so far, across all workers. */
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        private boolean running() {
+            return !cancelled && System.nanoTime() < deadline;
+        }
+
+        private void offer(int[] meals, double score, Worker scorer) {
+            if (score <= bestScore) {
+                return;
+            }
+            synchronized (this) {
+                if (score <= bestScore) {
+                    return;
+                }
+                bestScore = score;
+                best = scorer.describe(meals.clone(), score);
+                if (listener != null) {
+                    listener.improved(best);
+                }
+            }
+        }
+    }
+
+    /** Per-recipe facts the search reads, in flat arrays. */
+    private static final class Library {
+        private final List<Recipe> recipes;
+        private final double[] calories;
+        private final int[] minutes;
+        private final int[][] ingredients;
+        private final int[][] recipesWith;
+        private final int[] withinRange;
+        private final int ingredientCount;
+        private final IngredientCatalog catalog;
+
+        private Library(List<Recipe> recipes, double[] calories, int[] minutes, int[][] ingredients,
+                        int[][] recipesWith, int ingredientCount, IngredientCatalog catalog) {
+            this.recipes = recipes;
+            this.calories = calories;
+            this.minutes = minutes;
+            this.ingredients = ingredients;
+            this.recipesWith = recipesWith;
+            this.ingredientCount = ingredientCount;
+            this.catalog = catalog;
+            this.withinRange = null;
+        }
+
+        private Library(Library library, int[] withinRange) {
+            this.recipes = library.recipes;
+            this.calories = library.calories;
+            this.minutes = library.minutes;
+            this.ingredients = library.ingredients;
+            this.recipesWith = library.recipesWith;
+            this.ingredientCount = library.ingredientCount;
+            this.catalog = library.catalog;
+            this.withinRange = withinRange;
+        }
+
+        int size() {
+            return recipes.size();
+        }
+
+        /**
+         * Keeps recipes with at least one ingredient. Calories not stated are worked out from the catalog's
+         * nutrition when the recipe says how many it serves and every ingredient is known.
+         */
+        static Library compile(List<Recipe> all) {
+            IngredientCatalog catalog = IngredientCatalog.withDefaults();
+            RecipeEngine engine = new RecipeEngine(catalog);
+            ShoppingList scratch = new ShoppingList();
+            boolean[] staple = new boolean[catalog.size()];
+            for (String name : STAPLES) {
+                staple[catalog.idOf(name)] = true;
+            }
+
+            List<Recipe> recipes = new ArrayList<>();
+            List<int[]> ingredientLists = new ArrayList<>();
+            double[] calories = new double[all.size()];
+            int[] minutes = new int[all.size()];
+            int[] ids = new int[16];
+            for (Recipe recipe : all) {
+                if (recipe.getIngredients().isEmpty()) {
+                    continue;
+                }
+                int index = recipes.size();
+                recipes.add(recipe);
+                int count = 0;
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    int id = catalog.idOf(ingredient.getName());
+                    if (id < staple.length && staple[id]) {
+                        continue;
+                    }
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = id;
+                }
+                int[] distinct = Arrays.copyOf(ids, count);
+                Arrays.sort(distinct);
+                int unique = 0;
+                for (int i = 0; i < distinct.length; i++) {
+                    if (i == 0 || distinct[i] != distinct[i - 1]) {
+                        distinct[unique++] = distinct[i];
+                    }
+                }
+                ingredientLists.add(Arrays.copyOf(distinct, unique));
+
+                calories[index] = recipe.getCaloriesPerServing();
+                if (calories[index] == 0 && recipe.getServings() > 0) {
+                    int engineIndex = engine.add(recipe);
+                    engine.aggregate(new int[]{engineIndex}, new double[]{1 / recipe.getServings()}, 1, scratch);
+                    if (scratch.getLinesWithoutNutrition() == 0) {
+                        calories[index] = scratch.getNutrient(IngredientCatalog.KCAL);
+                    }
+                }
+                minutes[index] = recipe.getTotalMinutes() > 0 ? recipe.getTotalMinutes() : DEFAULT_RECIPE_MINUTES;
+            }
+
+            int ingredientCount = catalog.size();
+            int[] uses = new int[ingredientCount];
+            for (int[] list : ingredientLists) {
+                for (int id : list) {
+                    uses[id]++;
+                }
+            }
+            int[][] recipesWith = new int[ingredientCount][];
+            for (int id = 0; id < ingredientCount; id++) {
+                recipesWith[id] = new int[uses[id]];
+                uses[id] = 0;
+            }
+            for (int r = 0; r < ingredientLists.size(); r++) {
+                for (int id : ingredientLists.get(r)) {
+                    recipesWith[id][uses[id]++] = r;
+                }
+            }
+            return new Library(Collections.unmodifiableList(recipes), Arrays.copyOf(calories, recipes.size()),
+                    Arrays.copyOf(minutes, recipes.size()), ingredientLists.toArray(new int[0][]), recipesWith,
+                    ingredientCount, catalog);
+        }
+
+        /** The same library, remembering which recipes fit one meal's share of the calorie range. */
+        Library forConstraints(Constraints constraints) {
+            if (!constraints.limitsCalories()) {
+                return this;
+            }
+            double low = constraints.minCaloriesPerDay / constraints.mealsPerDay;
+            double high = constraints.maxCaloriesPerDay / constraints.mealsPerDay;
+            int[] fitting = new int[size()];
+            int count = 0;
+            for (int r = 0; r < size(); r++) {
+                if (calories[r] >= low && calories[r] <= high) {
+                    fitting[count++] = r;
+                }
+            }
+            return new Library(this, Arrays.copyOf(fitting, count));
+        }
+    }
+
+    /** One restarting local search; all its scratch space is its own. */
+    private static final class Worker extends RecursiveAction {
+        private final Search search;
+        private final SplittableRandom random;
+        private Library library;
+        private Constraints constraints;
+        private int[] seen;
+        private int generation;
+
+        private Worker(Search search, SplittableRandom random) {
+            this.search = search;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            library = search.library.forConstraints(search.constraints);
+            constraints = search.constraints;
+            seen = new int[library.ingredientCount];
+            int slots = Math.min(constraints.slots(), library.size());
+            int[] meals = new int[slots];
+            long iterations = 0;
+
+            while (search.running()) {
+                start(meals);
+                double score = score(meals);
+                search.offer(meals, score, this);
+                int stale = 0;
+                while (stale < RESTART_AFTER_STALE_MOVES) {
+                    if (++iterations % CLOCK_CHECK_INTERVAL == 0) {
+                        search.evaluations.add(CLOCK_CHECK_INTERVAL);
+                        if (!search.running()) {
+                            return;
+                        }
+                    }
+                    int slot = random.nextInt(slots);
+                    int candidate = propose(meals, slot);
+                    if (candidate < 0 || contains(meals, candidate)) {
+                        stale++;
+                        continue;
+                    }
+                    int previous = meals[slot];
+                    meals[slot] = candidate;
+                    double moved = score(meals);
+                    if (moved > score) {
+                        score = moved;
+                        stale = 0;
+                        search.offer(meals, score, this);
+                    } else if (moved == score) {
+                        stale++;
+                    } else {
+                        meals[slot] = previous;
+                        stale++;
+                    }
+                }
+            }
+        }
+
+        /** A random plan of distinct recipes, drawn from those that fit the calorie range when there are enough. */
+        private void start(int[] meals) {
+            for (int slot = 0; slot < meals.length; slot++) {
+                int candidate;
+                do {
+                    candidate = randomRecipe();
+                } while (contains(meals, slot, candidate));
+                meals[slot] = candidate;
+            }
+        }
+
+        private int randomRecipe() {
+            int[] fitting = library.withinRange;
+            if (fitting != null && fitting.length >= constraints.slots() && random.nextInt(4) != 0) {
+                return fitting[random.nextInt(fitting.length)];
+            }
+            return random.nextInt(library.size());
+        }
+
+        /** Half the time, a recipe sharing an ingredient with another meal in the plan. */
+        private int propose(int[] meals, int slot) {
+            if (meals.length > 1 && random.nextBoolean()) {
+                int other = meals[(slot + 1 + random.nextInt(meals.length - 1)) % meals.length];
+                int[] ingredients = library.ingredients[other];
+                if (ingredients.length > 0) {
+                    int[] sharing = library.recipesWith[ingredients[random.nextInt(ingredients.length)]];
+                    return sharing[random.nextInt(sharing.length)];
+                }
+            }
+            return randomRecipe();
+        }
+
+        private static boolean contains(int[] meals, int recipe) {
+            return contains(meals, meals.length, recipe);
+        }
+
+        private static boolean contains(int[] meals, int length, int recipe) {
+            for (int i = 0; i < length; i++) {
+                if (meals[i] == recipe) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private double score(int[] meals) {
+            if (++generation == 0) {
+                Arrays.fill(seen, 0);
+                generation = 1;
+            }
+            int reused = 0;
+            int totalMinutes = 0;
+            for (int meal : meals) {
+                for (int id : library.ingredients[meal]) {
+                    if (seen[id] == generation) {
+                        reused++;
+                    } else {
+                        seen[id] = generation;
+                    }
+                }
+                totalMinutes += library.minutes[meal];
+            }
+            double score = reused;
+            if (constraints.maxTotalMinutes > 0 && totalMinutes > constraints.maxTotalMinutes) {
+                score -= TIME_PENALTY_PER_10_MINUTES * (totalMinutes - constraints.maxTotalMinutes) / 10.0;
+            }
+            if (constraints.limitsCalories()) {
+                score -= CALORIE_PENALTY_PER_100_KCAL * caloriesOutOfRange(meals) / 100
+                        + UNKNOWN_CALORIES_PENALTY * unknownCalories(meals);
+            }
+            return score;
+        }
+
+        /** Kcal per person by which the days miss the range, summed over the days. */
+        private double caloriesOutOfRange(int[] meals) {
+            double missed = 0;
+            int perDay = constraints.mealsPerDay;
+            for (int day = 0; day * perDay < meals.length; day++) {
+                double total = 0;
+                boolean known = true;
+                for (int slot = day * perDay; slot < Math.min(meals.length, (day + 1) * perDay); slot++) {
+                    double kcal = library.calories[meals[slot]];
+                    known &= kcal > 0;
+                    total += kcal;
+                }
+                if (known) {
+                    missed += Math.max(0, constraints.minCaloriesPerDay - total)
+                            + Math.max(0, total - constraints.maxCaloriesPerDay);
+                }
+            }
+            return missed;
+        }
+
+        private int unknownCalories(int[] meals) {
+            int unknown = 0;
+            for (int meal : meals) {
+                if (library.calories[meal] <= 0) {
+                    unknown++;
+                }
+            }
+            return unknown;
+        }
+
+        private Plan describe(int[] meals, double score) {
+            int reused = 0;
+            int distinct = 0;
+            int totalMinutes = 0;
+            if (++generation == 0) {
+                Arrays.fill(seen, 0);
+                generation = 1;
+            }
+            List<Recipe> recipes = new ArrayList<>(meals.length);
+            double[] calories = new double[meals.length];
+            for (int i = 0; i < meals.length; i++) {
+                recipes.add(library.recipes.get(meals[i]));
+                calories[i] = library.calories[meals[i]];
+                totalMinutes += library.minutes[meals[i]];
+                for (int id : library.ingredients[meals[i]]) {
+                    if (seen[id] == generation) {
+                        reused++;
+                    } else {
+                        seen[id] = generation;
+                        distinct++;
+                    }
+                }
+            }
+            double outOfRange = constraints.limitsCalories() ? caloriesOutOfRange(meals) : 0;
+            int unknown = constraints.limitsCalories() ? unknownCalories(meals) : 0;
+            return new Plan(constraints, recipes, calories, score, reused, distinct, totalMinutes, outOfRange,
+                    unknown, search.evaluations.sum(), System.nanoTime() - search.startedAt, library.size());
+        }
+    }
+
+    public static final class Plan {
+        private final Constraints constraints;
+        private final List<Recipe> meals;
+        private final double[] calories;
+        private final double score;
+        private final int reusedIngredients;
+        private final int distinctIngredients;
+        private final int totalMinutes;
+        private final double caloriesOutOfRange;
+        private final int unknownCalories;
+        private final long evaluations;
+        private final long foundAfterNanos;
+        private final int librarySize;
+
+        private Plan(Constraints constraints, List<Recipe> meals, double[] calories, double score,
+                     int reusedIngredients, int distinctIngredients, int totalMinutes, double caloriesOutOfRange,
+                     int unknownCalories, long evaluations, long foundAfterNanos, int librarySize) {
+            this.constraints = constraints;
+            this.meals = Collections.unmodifiableList(meals);
+            this.calories = calories;
+            this.score = score;
+            this.reusedIngredients = reusedIngredients;
+            this.distinctIngredients = distinctIngredients;
+            this.totalMinutes = totalMinutes;
+            this.caloriesOutOfRange = caloriesOutOfRange;
+            this.unknownCalories = unknownCalories;
+            this.evaluations = evaluations;
+            this.foundAfterNanos = foundAfterNanos;
+            this.librarySize = librarySize;
+        }
+
+        public List<Recipe> getMeals() {
+            return meals;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public int getReusedIngredients() {
+            return reusedIngredients;
+        }
+
+        /** Ingredients to buy, not counting staples. */
+        public int getDistinctIngredients() {
+            return distinctIngredients;
+        }
+
+        public int getTotalMinutes() {
+            return totalMinutes;
+        }
+
+        public double getCaloriesOutOfRange() {
+            return caloriesOutOfRange;
+        }
+
+        public int getUnknownCalories() {
+            return unknownCalories;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        public long getFoundAfterNanos() {
+            return foundAfterNanos;
+        }
+
+        public int getLibrarySize() {
+            return librarySize;
+        }
+
+        /** True when the plan fills every meal and keeps to the calorie range and time budget. */
+        public boolean meetsConstraints() {
+            return meals.size() == constraints.slots() && caloriesOutOfRange == 0 && unknownCalories == 0
+                    && (constraints.maxTotalMinutes == 0 || totalMinutes <= constraints.maxTotalMinutes);
+        }
+
+        /** The plan as menu-page text, each meal scaled to the number of people. */
+        public MenuPlan toMenuPlan() {
+            List<MenuPlan.Entry> entries = new ArrayList<>(meals.size());
+            for (int slot = 0; slot < meals.size(); slot++) {
+                entries.add(new MenuPlan.Entry(constraints.label(slot), meals.get(slot).getTitle(),
+                        constraints.people, 1));
+            }
+            return new MenuPlan(entries);
+        }
+
+        /** "1.2 kg flour" and so on for every meal at the plan's head count, staples included. */
+        public List<String> shoppingList() {
+            IngredientCatalog catalog = IngredientCatalog.withDefaults();
+            RecipeEngine engine = new RecipeEngine(catalog);
+            for (Recipe meal : meals) {
+                engine.add(meal);
+            }
+            return engine.aggregate(toMenuPlan(), new ShoppingList()).format(catalog);
+        }
+
+        /** One line per meal with its calories and time, then a summary. */
+        public String describe() {
+            StringBuilder text = new StringBuilder();
+            for (int slot = 0; slot < meals.size(); slot++) {
+                Recipe recipe = meals.get(slot);
+                text.append(String.format(Locale.ROOT, "%-18s %s", constraints.label(slot) + ":", recipe.getTitle()));
+                List<String> facts = new ArrayList<>(2);
+                if (calories[slot] > 0) {
+                    facts.add(Math.round(calories[slot]) + " kcal");
+                }
+                facts.add(recipe.getTotalMinutes() > 0 ? recipe.getTotalMinutes() + " min"
+                        : "~" + DEFAULT_RECIPE_MINUTES + " min");
+                text.append("  (").append(String.join(", ", facts)).append(")\n");
+            }
+            text.append('\n').append(String.format(Locale.ROOT,
+                    "%d ingredients to buy, %d reused across meals; %d min cooking in total%n",
+                    distinctIngredients, reusedIngredients, totalMinutes));
+            if (caloriesOutOfRange > 0) {
+                text.append(String.format(Locale.ROOT, "Calories miss the daily range by %.0f kcal in total%n",
+                        caloriesOutOfRange));
+            }
+            if (unknownCalories > 0) {
+                text.append(unknownCalories).append(unknownCalories == 1 ? " meal does" : " meals do")
+                        .append(" not state calories\n");
+            }
+            if (constraints.maxTotalMinutes > 0 && totalMinutes > constraints.maxTotalMinutes) {
+                text.append(totalMinutes - constraints.maxTotalMinutes).append(" min over the cooking-time budget\n");
+            }
+            if (meals.size() < constraints.slots()) {
+                text.append("Only ").append(meals.size()).append(" recipes to choose from\n");
+            }
+            return text.toString();
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("menu-" + counter.getAndIncrement());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
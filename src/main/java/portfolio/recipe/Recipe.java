@@ -0,0 +1,83 @@
+package portfolio.recipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recipe page's structured content. Servings of zero means the recipe does
+ * not say how many it serves; {@link #getYield()} keeps the free-text yield
+ * ("1 loaf", "12 rolls") either way. Likewise zero minutes or calories means
+ * the recipe does not state them.
+ */
+public final class Recipe {
+
+    private final String title;
+    private final double servings;
+    private final String yield;
+    private final List<Ingredient> ingredients;
+    private final List<String> steps;
+    private final int totalMinutes;
+    private final double caloriesPerServing;
+
+    public Recipe(String title, double servings, String yield, List<Ingredient> ingredients, List<String> steps) {
+        this(title, servings, yield, ingredients, steps, 0, 0);
+    }
+
+    public Recipe(String title, double servings, String yield, List<Ingredient> ingredients, List<String> steps,
+                  int totalMinutes, double caloriesPerServing) {
+        this.title = title == null ? "" : title;
+        this.servings = servings;
+        this.yield = yield == null ? "" : yield;
+        this.ingredients = Collections.unmodifiableList(new ArrayList<>(ingredients));
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+        this.totalMinutes = Math.max(0, totalMinutes);
+        this.caloriesPerServing = Math.max(0, caloriesPerServing);
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public double getServings() {
+        return servings;
+    }
+
+    public String getYield() {
+        return yield;
+    }
+
+    public List<Ingredient> getIngredients() {
+        return ingredients;
+    }
+
+    public List<String> getSteps() {
+        return steps;
+    }
+
+    /** Prep plus cook time as the recipe states it, or 0. */
+    public int getTotalMinutes() {
+        return totalMinutes;
+    }
+
+    /** Stated energy per serving in kcal, or 0. */
+    public double getCaloriesPerServing() {
+        return caloriesPerServing;
+    }
+
+    public Recipe scaled(double factor) {
+        if (!(factor > 0)) {
+            throw new IllegalArgumentException("Scale factor must be positive: " + factor);
+        }
+        List<Ingredient> scaled = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            scaled.add(ingredient.scaled(factor));
+        }
+        return new Recipe(title, servings * factor, yield, scaled, steps, totalMinutes, caloriesPerServing);
+    }
+
+    /** Scales to {@code targetServings}; a recipe without servings is treated as serving one. */
+    public Recipe scaledToServings(double targetServings) {
+        return scaled(targetServings / (servings > 0 ? servings : 1));
+    }
+}
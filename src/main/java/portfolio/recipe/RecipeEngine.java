@@ -0,0 +1,233 @@
+package portfolio.recipe;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles recipes into flat arrays and aggregates shopping lists and
+ * nutrition over any number of them. Each recipe's ingredients occupy the
+ * range {@code offsets[r]..offsets[r + 1]} of parallel id, dimension and
+ * amount arrays. Amounts are held in base units, and volumes are converted to
+ * grams when the catalog knows the density. Aggregation adds into a scratch
+ * array indexed by ingredient and dimension. Slots are stamped with a
+ * generation instead of being cleared, so a call costs time in proportion to
+ * the ingredient lines it reads and allocates nothing.
+ * Not thread-safe.
+ */
+public final class RecipeEngine {
+
+    private static final int DIMENSIONS = Unit.Dimension.values().length;
+    private static final int MASS = Unit.Dimension.MASS.ordinal();
+    private static final int VOLUME = Unit.Dimension.VOLUME.ordinal();
+    private static final int COUNT = Unit.Dimension.COUNT.ordinal();
+
+    private final IngredientCatalog catalog;
+    private final Map<String, Integer> recipesByTitle = new HashMap<>();
+
+    private int recipeCount;
+    private double[] servings = new double[16];
+    private int[] offsets = new int[17];
+    private int lineCount;
+    private int[] ingredientIds = new int[128];
+    private byte[] dimensions = new byte[128];
+    private double[] amounts = new double[128];
+
+    private double[] totals = new double[0];
+    private int[] stamps = new int[0];
+    private int[] touched = new int[0];
+    private int generation;
+    private int[] planRecipes = new int[16];
+    private double[] planFactors = new double[16];
+
+    public RecipeEngine(IngredientCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public IngredientCatalog getCatalog() {
+        return catalog;
+    }
+
+    /** Compiles {@code recipe} and returns its index. A later recipe with the same title wins lookups by title. */
+    public int add(Recipe recipe) {
+        if (recipeCount == servings.length) {
+            servings = Arrays.copyOf(servings, servings.length * 2);
+            offsets = Arrays.copyOf(offsets, servings.length + 1);
+        }
+        int needed = lineCount + recipe.getIngredients().size();
+        if (needed > ingredientIds.length) {
+            int capacity = Math.max(needed, ingredientIds.length * 2);
+            ingredientIds = Arrays.copyOf(ingredientIds, capacity);
+            dimensions = Arrays.copyOf(dimensions, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            int id = catalog.idOf(ingredient.getName());
+            Unit unit = ingredient.getUnit();
+            int dimension = unit.getDimension().ordinal();
+            double amount = ingredient.getQuantity() * unit.getBaseAmount();
+            double density = catalog.getDensity(id);
+            if (dimension == VOLUME && !Double.isNaN(density)) {
+                dimension = MASS;
+                amount *= density;
+            }
+            ingredientIds[lineCount] = id;
+            dimensions[lineCount] = (byte) dimension;
+            amounts[lineCount] = amount;
+            lineCount++;
+        }
+        int index = recipeCount++;
+        servings[index] = recipe.getServings();
+        offsets[index + 1] = lineCount;
+        recipesByTitle.put(recipe.getTitle().toLowerCase(Locale.ROOT), index);
+        return index;
+    }
+
+    public int getRecipeCount() {
+        return recipeCount;
+    }
+
+    /** Returns the recipe index for a title, ignoring case, or -1. */
+    public int indexOf(String title) {
+        Integer index = recipesByTitle.get(title.toLowerCase(Locale.ROOT));
+        return index == null ? -1 : index;
+    }
+
+    /** The batch multiplier that makes {@code recipe} serve {@code targetServings}. */
+    public double factorFor(int recipe, double targetServings) {
+        double own = servings[recipe];
+        return own > 0 ? targetServings / own : 1;
+    }
+
+    /**
+     * Sums {@code count} recipes, each multiplied by its factor, into {@code out}.
+     */
+    public ShoppingList aggregate(int[] recipes, double[] factors, int count, ShoppingList out) {
+        int slots = catalog.size() * DIMENSIONS;
+        if (totals.length < slots) {
+            int capacity = Math.max(slots, totals.length * 2);
+            totals = new double[capacity];
+            stamps = new int[capacity];
+            touched = new int[capacity];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+
+        int touchedCount = 0;
+        for (int entry = 0; entry < count; entry++) {
+            int recipe = recipes[entry];
+            double factor = factors[entry];
+            for (int line = offsets[recipe], end = offsets[recipe + 1]; line < end; line++) {
+                int slot = ingredientIds[line] * DIMENSIONS + dimensions[line];
+                if (stamps[slot] != generation) {
+                    stamps[slot] = generation;
+                    totals[slot] = 0;
+                    touched[touchedCount++] = slot;
+                }
+                totals[slot] += amounts[line] * factor;
+            }
+        }
+        Arrays.sort(touched, 0, touchedCount);
+
+        out.reset(touchedCount);
+        double[] densities = catalog.densities();
+        double[] pieceGrams = catalog.pieceGrams();
+        double[] nutrients = catalog.nutrients();
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            int id = slot / DIMENSIONS;
+            int dimension = slot % DIMENSIONS;
+            double amount = totals[slot];
+            out.add(id, dimension, amount);
+
+            double grams = dimension == MASS ? amount
+                    : dimension == COUNT ? amount * pieceGrams[id]
+                    : amount * densities[id];
+            int offset = id * IngredientCatalog.NUTRIENT_COUNT;
+            if (Double.isNaN(grams) || Double.isNaN(nutrients[offset])) {
+                if (amount > 0) {
+                    out.countWithoutNutrition();
+                }
+            } else {
+                out.addNutrition(nutrients, offset, grams);
+            }
+        }
+        return out;
+    }
+
+    /** Resolves the plan's recipe titles and aggregates them; unknown titles are listed on the result. */
+    public ShoppingList aggregate(MenuPlan plan, ShoppingList out) {
+        int size = plan.getEntries().size();
+        if (planRecipes.length < size) {
+            planRecipes = new int[Math.max(size, planRecipes.length * 2)];
+            planFactors = new double[planRecipes.length];
+        }
+        int count = 0;
+        for (MenuPlan.Entry entry : plan.getEntries()) {
+            Integer recipe = recipesByTitle.get(entry.titleKey());
+            if (recipe == null) {
+                continue;
+            }
+            planRecipes[count] = recipe;
+            planFactors[count] = entry.getServings() > 0 ? factorFor(recipe, entry.getServings()) : entry.getBatches();
+            count++;
+        }
+        aggregate(planRecipes, planFactors, count, out);
+        for (MenuPlan.Entry entry : plan.getEntries()) {
+            if (!recipesByTitle.containsKey(entry.titleKey())) {
+                out.addMissingRecipe(entry.getRecipeTitle());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Converts between any two units for a given ingredient, crossing between
+     * mass, volume and pieces through the catalog's density and piece weight.
+     */
+    public double convert(double amount, Unit from, Unit to, String ingredientName) {
+        if (from.getDimension() == to.getDimension()) {
+            return from.convert(amount, to);
+        }
+        int id = catalog.idOf(ingredientName);
+        double grams = toGrams(amount * from.getBaseAmount(), from.getDimension(), id);
+        double result = fromGrams(grams, to.getDimension(), id) / to.getBaseAmount();
+        if (Double.isNaN(result)) {
+            throw new IllegalArgumentException("No conversion from " + from.name() + " to " + to.name()
+                    + " for " + catalog.nameOf(id));
+        }
+        return result;
+    }
+
+    public Ingredient convert(Ingredient ingredient, Unit target) {
+        return new Ingredient(convert(ingredient.getQuantity(), ingredient.getUnit(), target, ingredient.getName()),
+                target, ingredient.getName(), ingredient.getNote());
+    }
+
+    private double toGrams(double base, Unit.Dimension dimension, int id) {
+        switch (dimension) {
+            case MASS:
+                return base;
+            case VOLUME:
+                return base * catalog.getDensity(id);
+            default:
+                return base * catalog.getPieceGrams(id);
+        }
+    }
+
+    private double fromGrams(double grams, Unit.Dimension dimension, int id) {
+        switch (dimension) {
+            case MASS:
+                return grams;
+            case VOLUME:
+                return grams / catalog.getDensity(id);
+            default:
+                return grams / catalog.getPieceGrams(id);
+        }
+    }
+}
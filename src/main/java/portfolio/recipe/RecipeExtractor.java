@@ -0,0 +1,195 @@
+package portfolio.recipe;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+import portfolio.page.Page;
+import portfolio.pdf.PdfTextExtractor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Turns imported PDFs into {@link Recipe}s on a fork-join pool, one task per
+ * PDF. Results are keyed by the file's SHA-256 and kept both in memory and as
+ * recipe text under {@code recipes/}, so no file is parsed twice, even across
+ * runs. Files in the PDF store are named by their hash, so for them the key
+ * costs nothing. Any other file is hashed first, on the pool.
+ */
+public class RecipeExtractor {
+
+    public static final int DEFAULT_PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final String HEADER = "# portfolio recipe v2";
+    private static final String TITLE_PREFIX = "Title: ";
+    private static final String CACHE_EXTENSION = ".recipe";
+    private static final Pattern HASH_NAME = Pattern.compile("[0-9a-f]{64}\\" + Constants.PDF_EXTENSION);
+    private static final int MAX_TITLE_LENGTH = 80;
+
+    private final Path cacheFolder;
+    private final ForkJoinPool pool;
+    private final Map<String, CompletableFuture<Recipe>> recipes = new ConcurrentHashMap<>();
+
+    public RecipeExtractor(Path cacheFolder, int parallelism) {
+        this.cacheFolder = cacheFolder;
+        this.pool = new ForkJoinPool(parallelism, new WorkerThreadFactory(), null, false);
+    }
+
+    public static RecipeExtractor openDefault() {
+        return new RecipeExtractor(Paths.get(Constants.RECIPES_FOLDER), DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Returns the recipe in {@code pdf}. The future completes on a pool thread;
+     * a PDF that holds no recipe gives a recipe without ingredients or steps.
+     */
+    public CompletableFuture<Recipe> extract(Path pdf) {
+        String name = pdf.getFileName().toString();
+        if (HASH_NAME.matcher(name).matches()) {
+            return extract(name.substring(0, name.length() - Constants.PDF_EXTENSION.length()), pdf);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return PdfStore.hash(pdf, () -> {
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, pool).thenCompose(hash -> extract(hash, pdf));
+    }
+
+    public CompletableFuture<Recipe> extract(String hash, Path pdf) {
+        return recipes.computeIfAbsent(hash, key -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadOrParse(key, pdf);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, pool));
+    }
+
+    /** Extracts every file in parallel and waits for all of them; failed files map to no entry. */
+    public Map<Path, Recipe> extractAll(List<Path> pdfs) {
+        Map<Path, CompletableFuture<Recipe>> futures = new LinkedHashMap<>();
+        for (Path pdf : pdfs) {
+            futures.put(pdf, extract(pdf));
+        }
+        Map<Path, Recipe> results = new LinkedHashMap<>();
+        for (Map.Entry<Path, CompletableFuture<Recipe>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().join());
+            } catch (RuntimeException e) {
+                // Not a readable PDF; the page keeps just its file name.
+            }
+        }
+        return results;
+    }
+
+    public static boolean isEmpty(Recipe recipe) {
+        return recipe.getIngredients().isEmpty() && recipe.getSteps().isEmpty();
+    }
+
+    /**
+     * Returns {@code page} with its notes set to the recipe, and its title too if
+     * it is still the one derived from the file name, or null when the page
+     * already has notes or there is no recipe to fill in.
+     */
+    public static Page fill(Page page, String fileNameTitle, Recipe recipe) {
+        if (!page.getNotes().isEmpty() || isEmpty(recipe)) {
+            return null;
+        }
+        if (page.getTitle().equals(fileNameTitle) && !recipe.getTitle().isEmpty()) {
+            page = page.withTitle(recipe.getTitle());
+        }
+        return page.withNotes(RecipeText.format(recipe));
+    }
+
+    private Recipe loadOrParse(String hash, Path pdf) throws IOException {
+        Path cached = cacheFolder.resolve(hash + CACHE_EXTENSION);
+        Recipe recipe = load(cached);
+        if (recipe != null) {
+            return recipe;
+        }
+        String text = PdfTextExtractor.extractText(pdf);
+        recipe = RecipeText.parse(guessTitle(text), text);
+        store(cached, recipe);
+        return recipe;
+    }
+
+    /** The first line of the text, without a trailing "Recipe". */
+    static String guessTitle(String text) {
+        for (String line : text.split("\\R")) {
+            String title = line.strip();
+            if (title.isEmpty()) {
+                continue;
+            }
+            if (title.toLowerCase().endsWith(" recipe")) {
+                title = title.substring(0, title.length() - " recipe".length()).strip();
+            }
+            return title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH).strip() : title;
+        }
+        return "";
+    }
+
+    private static Recipe load(Path cached) {
+        if (!Files.exists(cached)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(cached, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            String title = reader.readLine();
+            if (!HEADER.equals(header) || title == null || !title.startsWith(TITLE_PREFIX)) {
+                return null;
+            }
+            StringBuilder body = new StringBuilder();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                body.append(line).append('\n');
+            }
+            return RecipeText.parse(title.substring(TITLE_PREFIX.length()), body.toString());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void store(Path cached, Recipe recipe) throws IOException {
+        Files.createDirectories(cacheFolder);
+        String content = HEADER + "\n" + TITLE_PREFIX + recipe.getTitle() + "\n" + RecipeText.format(recipe);
+        Path partial = cached.resolveSibling(cached.getFileName() + "." + Thread.currentThread().getId() + ".part");
+        Files.write(partial, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(partial, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        return pool.awaitQuiescence(timeout, unit);
+    }
+
+    private static final class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("recipe-" + counter.getAndIncrement());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package portfolio.recipe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes the plain-text form of a recipe: a yield line, an
+ * "Ingredients" section with one ingredient per line and a "Steps" section.
+ * Recipe pages keep this text in their notes. The reader also accepts the
+ * looser layout of recipe text extracted from PDFs, with bullets, numbered
+ * steps and headings such as "Directions" or "Method".
+ */
+public final class RecipeText {
+
+    private static final Pattern INGREDIENT_HEADING = Pattern.compile(
+            "(?i)^\\W*ingredients?\\b.{0,40}$");
+    private static final Pattern STEP_HEADING = Pattern.compile(
+            "(?i)^\\W*(instructions?|directions?|method|steps|preparation|how to make it)\\b.{0,40}$");
+    private static final Pattern OTHER_HEADING = Pattern.compile(
+            "(?i)^\\W*(notes?|tips?|nutrition( facts| information)?|equipment|storage)\\W*$");
+    private static final Pattern SERVINGS = Pattern.compile(
+            "(?i)^\\W*(?:serves|servings|serving size|portions)\\s*:?\\s*(\\d+(?:[.,]\\d+)?)(?:\\s*(?:-|\u2013|to)\\s*\\d+)?\\b.*$");
+    private static final Pattern YIELD = Pattern.compile("(?i)^\\W*(?:yield|yields|makes)\\s*:?\\s*(.+)$");
+    private static final Pattern TIME = Pattern.compile(
+            "(?i)^\\W*(total|prep(?:aration)?|cook(?:ing)?|bak(?:e|ing)|active)?\\s*time\\s*:?\\s*(.{1,40})$");
+    private static final Pattern DURATION = Pattern.compile(
+            "(?i)(\\d+(?:[.,]\\d+)?)\\s*(days?|d|hours?|hrs?|h|minutes?|mins?|m)\\b");
+    private static final Pattern CALORIES = Pattern.compile(
+            "(?i)^\\W*(?:calories|energy)\\s*:?\\s*(\\d+(?:[.,]\\d+)?)\\s*(?:kcal|cal|calories)?\\b.*$");
+    private static final Pattern BULLET = Pattern.compile("^\\s*(?:[-*\u2022\u00b7\u25a2\u25a1\u25e6\u2023]|\\u2022)\\s*");
+    private static final Pattern STEP_NUMBER = Pattern.compile("(?i)^\\s*(?:step\\s*)?(\\d{1,2})\\s*[.):]\\s+");
+
+    private static final int PREAMBLE = 0;
+    private static final int INGREDIENTS = 1;
+    private static final int STEPS = 2;
+    private static final int IGNORED = 3;
+
+    private static final String[] NUMBER_WORDS = {
+            "zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten", "eleven", "twelve"};
+    private static final String VULGAR_FRACTIONS = "\u00bc\u00bd\u00be\u2153\u2154\u215b\u215c\u215d\u215e";
+    private static final double[] VULGAR_VALUES = {0.25, 0.5, 0.75, 1 / 3.0, 2 / 3.0, 0.125, 0.375, 0.625, 0.875};
+    private static final int[][] FRACTIONS = {{1, 8}, {1, 4}, {1, 3}, {3, 8}, {1, 2}, {5, 8}, {2, 3}, {3, 4}, {7, 8}};
+
+    private RecipeText() {
+    }
+
+    public static Recipe parse(String title, String text) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        List<String> steps = new ArrayList<>();
+        double servings = 0;
+        String yield = "";
+        int totalMinutes = 0;
+        int partMinutes = 0;
+        double calories = 0;
+
+        int section = PREAMBLE;
+        boolean numberedSteps = false;
+        for (String rawLine : text.split("\\R")) {
+            String line = rawLine.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            Matcher servingsMatch = SERVINGS.matcher(line);
+            if (servings == 0 && servingsMatch.matches()) {
+                servings = Double.parseDouble(servingsMatch.group(1).replace(',', '.'));
+                continue;
+            }
+            Matcher timeMatch = TIME.matcher(line);
+            if (section != STEPS && timeMatch.matches()) {
+                int minutes = parseMinutes(timeMatch.group(2));
+                if (minutes > 0) {
+                    if (timeMatch.group(1) == null || timeMatch.group(1).equalsIgnoreCase("total")) {
+                        totalMinutes = totalMinutes == 0 ? minutes : totalMinutes;
+                    } else {
+                        partMinutes += minutes;
+                    }
+                    continue;
+                }
+            }
+            Matcher caloriesMatch = CALORIES.matcher(line);
+            if (caloriesMatch.matches()) {
+                if (calories == 0) {
+                    calories = Double.parseDouble(caloriesMatch.group(1).replace(',', '.'));
+                }
+                continue;
+            }
+            Matcher yieldMatch = YIELD.matcher(line);
+            if (yield.isEmpty() && section != STEPS && yieldMatch.matches()) {
+                yield = yieldMatch.group(1).strip();
+                continue;
+            }
+            if (INGREDIENT_HEADING.matcher(line).matches() && !BULLET.matcher(rawLine).lookingAt()) {
+                // A second ingredient list belongs to a variant of the recipe.
+                section = ingredients.isEmpty() ? INGREDIENTS : IGNORED;
+                continue;
+            }
+            if (STEP_HEADING.matcher(line).matches()) {
+                // Two-column layouts put both headings before either list.
+                if (section != INGREDIENTS || !ingredients.isEmpty()) {
+                    section = steps.isEmpty() ? STEPS : IGNORED;
+                }
+                continue;
+            }
+            if (OTHER_HEADING.matcher(line).matches()) {
+                section = IGNORED;
+                continue;
+            }
+
+            Matcher numbered = STEP_NUMBER.matcher(line);
+            boolean isNumbered = numbered.lookingAt();
+            if (section == INGREDIENTS) {
+                if (!isNumbered || ingredients.isEmpty()) {
+                    Ingredient ingredient = line.endsWith(":") ? null : parseIngredient(line);
+                    if (ingredient != null) {
+                        ingredients.add(ingredient);
+                    }
+                    continue;
+                }
+                section = STEPS;
+            }
+            if (section != STEPS) {
+                continue;
+            }
+
+            String body = isNumbered ? line.substring(numbered.end()).strip() : BULLET.matcher(line).replaceFirst("");
+            if (isNumbered) {
+                if (Integer.parseInt(numbered.group(1)) == 1 && numberedSteps) {
+                    // Numbering restarts for an alternative method; keep the main one.
+                    section = IGNORED;
+                    continue;
+                }
+                numberedSteps = true;
+                steps.add(body);
+            } else if (!numberedSteps || steps.isEmpty()) {
+                steps.add(body);
+            } else if (!endsSentence(steps.get(steps.size() - 1))) {
+                steps.set(steps.size() - 1, steps.get(steps.size() - 1) + " " + body);
+            } else if (!isIngredientReminder(body) && (body.length() >= 50 || endsSentence(body))) {
+                steps.set(steps.size() - 1, steps.get(steps.size() - 1) + " " + body);
+            }
+        }
+        if (servings == 0 && !yield.isEmpty()) {
+            servings = leadingNumber(yield);
+        }
+        return new Recipe(title, servings, yield, ingredients, steps,
+                totalMinutes > 0 ? totalMinutes : partMinutes, calories);
+    }
+
+    /** Reads "1 hour 30 minutes", "45 mins", "1h15m" and the like; 0 if there is no duration. */
+    static int parseMinutes(String text) {
+        Matcher duration = DURATION.matcher(text);
+        double minutes = 0;
+        while (duration.find()) {
+            double value = Double.parseDouble(duration.group(1).replace(',', '.'));
+            char unit = Character.toLowerCase(duration.group(2).charAt(0));
+            minutes += unit == 'd' ? value * 1440 : unit == 'h' ? value * 60 : value;
+        }
+        return (int) Math.round(minutes);
+    }
+
+    public static String format(Recipe recipe) {
+        StringBuilder text = new StringBuilder();
+        if (recipe.getServings() > 0) {
+            text.append("Serves ").append(formatQuantity(recipe.getServings())).append('\n');
+        }
+        if (!recipe.getYield().isEmpty()) {
+            text.append("Yield: ").append(recipe.getYield()).append('\n');
+        }
+        if (recipe.getTotalMinutes() > 0) {
+            text.append("Total time: ").append(recipe.getTotalMinutes()).append(" minutes\n");
+        }
+        if (recipe.getCaloriesPerServing() > 0) {
+            text.append("Calories: ").append(Math.round(recipe.getCaloriesPerServing())).append(" kcal per serving\n");
+        }
+        if (text.length() > 0) {
+            text.append('\n');
+        }
+        text.append("Ingredients\n");
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            text.append("- ").append(formatIngredient(ingredient)).append('\n');
+        }
+        text.append("\nSteps\n");
+        for (int i = 0; i < recipe.getSteps().size(); i++) {
+            text.append(i + 1).append(". ").append(recipe.getSteps().get(i)).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parses "1 1/2 cups bread flour, sifted" and the like. A quantity range
+     * such as "1-2 tbsp" uses its midpoint. Returns null for blank lines.
+     */
+    public static Ingredient parseIngredient(String line) {
+        String rest = BULLET.matcher(line).replaceFirst("").strip();
+        if (rest.isEmpty()) {
+            return null;
+        }
+
+        int[] position = {0};
+        double quantity = readQuantity(rest, position);
+        if (quantity > 0) {
+            int afterFirst = position[0];
+            String between = rest.substring(afterFirst).stripLeading();
+            String separator = between.startsWith("-") || between.startsWith("\u2013") ? between.substring(0, 1)
+                    : between.toLowerCase(Locale.ROOT).startsWith("to ") ? "to" : null;
+            if (separator != null) {
+                int[] upperPosition = {rest.length() - between.length() + separator.length()};
+                double upper = readQuantity(rest, upperPosition);
+                if (upper > quantity) {
+                    quantity = (quantity + upper) / 2;
+                    position[0] = upperPosition[0];
+                }
+            }
+            rest = rest.substring(position[0]).strip();
+        }
+
+        String note = "";
+        if (rest.startsWith("(")) {
+            int close = rest.indexOf(')');
+            if (close > 0) {
+                note = rest.substring(1, close).strip();
+                rest = rest.substring(close + 1).strip();
+            }
+        }
+
+        Unit unit = Unit.PIECE;
+        if (quantity > 0) {
+            String[] words = rest.split("\\s+", 3);
+            Unit two = words.length >= 2 ? Unit.parse(words[0] + " " + words[1]) : null;
+            Unit one = Unit.parse(words[0]);
+            if (two != null) {
+                unit = two;
+                rest = words.length == 3 ? words[2] : "";
+            } else if (one != null && one != Unit.PIECE || one == Unit.PIECE && words.length > 1) {
+                unit = one;
+                rest = rest.substring(words[0].length()).strip();
+            }
+            if (rest.toLowerCase(Locale.ROOT).startsWith("of ")) {
+                rest = rest.substring(3).strip();
+            }
+            if (rest.startsWith("(")) {
+                int close = rest.indexOf(')');
+                if (close > 0) {
+                    String inner = rest.substring(1, close).strip();
+                    note = note.isEmpty() ? inner : note + "; " + inner;
+                    rest = rest.substring(close + 1).strip();
+                }
+            }
+        }
+
+        String name = rest;
+        int cut = indexOfAny(name, ",(+");
+        if (cut > 0) {
+            String tail = name.substring(cut + 1).replace(")", "").strip();
+            note = note.isEmpty() ? tail : note + "; " + tail;
+            name = name.substring(0, cut).strip();
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String suffix : new String[]{" to taste", " as needed", " for dusting", " for greasing"}) {
+            if (lower.endsWith(suffix) && lower.length() > suffix.length()) {
+                String tail = name.substring(name.length() - suffix.length()).strip();
+                note = note.isEmpty() ? tail : note + "; " + tail;
+                name = name.substring(0, name.length() - suffix.length()).strip();
+                break;
+            }
+        }
+        if (name.isEmpty()) {
+            return null;
+        }
+        return new Ingredient(quantity, unit, name, note);
+    }
+
+    public static String formatIngredient(Ingredient ingredient) {
+        StringBuilder text = new StringBuilder();
+        if (ingredient.hasQuantity()) {
+            text.append(formatQuantity(ingredient.getQuantity())).append(' ');
+            String label = unitLabel(ingredient.getUnit(), ingredient.getQuantity());
+            if (!label.isEmpty()) {
+                text.append(label).append(' ');
+            }
+        }
+        text.append(ingredient.getName());
+        if (!ingredient.getNote().isEmpty()) {
+            text.append(", ").append(ingredient.getNote());
+        }
+        return text.toString();
+    }
+
+    /** Whole numbers, kitchen fractions ("1 1/2", "2/3") or up to two decimals. */
+    public static String formatQuantity(double quantity) {
+        long whole = (long) Math.floor(quantity);
+        double fraction = quantity - whole;
+        if (fraction < 0.02) {
+            return Long.toString(whole);
+        }
+        if (fraction > 0.98) {
+            return Long.toString(whole + 1);
+        }
+        if (whole < 100) {
+            for (int[] candidate : FRACTIONS) {
+                if (Math.abs(fraction - candidate[0] / (double) candidate[1]) < 0.02) {
+                    String fractionText = candidate[0] + "/" + candidate[1];
+                    return whole == 0 ? fractionText : whole + " " + fractionText;
+                }
+            }
+        }
+        String text = String.format(Locale.ROOT, "%.2f", quantity);
+        return text.replaceAll("0+$", "").replaceAll("\\.$", "");
+    }
+
+    static String unitLabel(Unit unit, double quantity) {
+        boolean plural = quantity > 1.02;
+        switch (unit) {
+            case CUP:
+                return plural ? "cups" : "cup";
+            case PINCH:
+                return plural ? "pinches" : "pinch";
+            default:
+                return unit.getSymbol();
+        }
+    }
+
+    /** Reads a quantity starting at {@code position[0]} and advances it; returns 0 if there is none. */
+    static double readQuantity(String text, int[] position) {
+        int i = position[0];
+        while (i < text.length() && text.charAt(i) == ' ') {
+            i++;
+        }
+
+        int wordEnd = i;
+        while (wordEnd < text.length() && Character.isLetter(text.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        if (wordEnd > i && wordEnd < text.length() && text.charAt(wordEnd) == ' ') {
+            String word = text.substring(i, wordEnd).toLowerCase(Locale.ROOT);
+            if (word.equals("a") || word.equals("an")) {
+                position[0] = wordEnd;
+                return 1;
+            }
+            for (int n = 1; n < NUMBER_WORDS.length; n++) {
+                if (NUMBER_WORDS[n].equals(word)) {
+                    position[0] = wordEnd;
+                    return n;
+                }
+            }
+        }
+
+        double value = 0;
+        int start = i;
+        while (i < text.length() && Character.isDigit(text.charAt(i))) {
+            value = value * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+        boolean hasWhole = i > start;
+        if (hasWhole && i + 1 < text.length() && (text.charAt(i) == '.' || text.charAt(i) == ',')
+                && Character.isDigit(text.charAt(i + 1))) {
+            double scale = 0.1;
+            i++;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                value += (text.charAt(i) - '0') * scale;
+                scale /= 10;
+                i++;
+            }
+            position[0] = i;
+            return value;
+        }
+
+        if (hasWhole) {
+            double fraction = readFraction(text, i, value, position);
+            if (fraction > 0) {
+                return fraction;
+            }
+        }
+        // "1 1/2", "1 ½", "1½" or a bare "½".
+        int next = i;
+        while (next < text.length() && text.charAt(next) == ' ') {
+            next++;
+        }
+        if (next < text.length()) {
+            int vulgar = VULGAR_FRACTIONS.indexOf(text.charAt(next));
+            if (vulgar >= 0) {
+                position[0] = next + 1;
+                return value + VULGAR_VALUES[vulgar];
+            }
+            if (hasWhole && next > i && Character.isDigit(text.charAt(next))) {
+                int numeratorEnd = next;
+                long numerator = 0;
+                while (numeratorEnd < text.length() && Character.isDigit(text.charAt(numeratorEnd))) {
+                    numerator = numerator * 10 + (text.charAt(numeratorEnd) - '0');
+                    numeratorEnd++;
+                }
+                double fraction = readFraction(text, numeratorEnd, numerator, position);
+                if (fraction > 0 && fraction < 1) {
+                    return value + fraction;
+                }
+            }
+        }
+        if (hasWhole) {
+            position[0] = i;
+        }
+        return value;
+    }
+
+    /** Reads "/d" at {@code slash} as {@code numerator}/d, or returns 0 and leaves {@code position} alone. */
+    private static double readFraction(String text, int slash, double numerator, int[] position) {
+        if (slash >= text.length() || text.charAt(slash) != '/' && text.charAt(slash) != '\u2044') {
+            return 0;
+        }
+        int end = slash + 1;
+        long denominator = 0;
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            denominator = denominator * 10 + (text.charAt(end) - '0');
+            end++;
+        }
+        if (end == slash + 1 || denominator == 0) {
+            return 0;
+        }
+        position[0] = end;
+        return numerator / denominator;
+    }
+
+    private static boolean endsSentence(String text) {
+        char last = text.charAt(text.length() - 1);
+        return last == '.' || last == '!' || last == '?';
+    }
+
+    /** Recipe cards repeat each step's ingredients on a line of their own under it. */
+    private static boolean isIngredientReminder(String line) {
+        Ingredient ingredient = parseIngredient(line);
+        return ingredient != null && ingredient.hasQuantity() && ingredient.getUnit() != Unit.PIECE;
+    }
+
+    private static double leadingNumber(String text) {
+        int[] position = {0};
+        double value = readQuantity(text, position);
+        return value > 0 && value < 1000 ? value : 0;
+    }
+
+    private static int indexOfAny(String text, String characters) {
+        for (int i = 0; i < text.length(); i++) {
+            if (characters.indexOf(text.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
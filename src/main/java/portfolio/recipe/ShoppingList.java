@@ -0,0 +1,119 @@
+package portfolio.recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The result of {@link RecipeEngine#aggregate}: one line per ingredient and
+ * dimension, with amounts in grams, millilitres or pieces, plus the summed
+ * nutrients. Its arrays are reused across aggregations, so keep one instance
+ * per caller.
+ */
+public final class ShoppingList {
+
+    private int size;
+    private int[] ingredientIds = new int[64];
+    private byte[] dimensions = new byte[64];
+    private double[] amounts = new double[64];
+    private final double[] nutrition = new double[IngredientCatalog.NUTRIENT_COUNT];
+    private int linesWithoutNutrition;
+    private final List<String> missingRecipes = new ArrayList<>();
+
+    void reset(int capacity) {
+        if (ingredientIds.length < capacity) {
+            int grown = Math.max(capacity, ingredientIds.length * 2);
+            ingredientIds = new int[grown];
+            dimensions = new byte[grown];
+            amounts = new double[grown];
+        }
+        size = 0;
+        Arrays.fill(nutrition, 0);
+        linesWithoutNutrition = 0;
+        missingRecipes.clear();
+    }
+
+    void add(int ingredientId, int dimension, double amount) {
+        ingredientIds[size] = ingredientId;
+        dimensions[size] = (byte) dimension;
+        amounts[size] = amount;
+        size++;
+    }
+
+    void addNutrition(double[] values, int offset, double grams) {
+        double hundreds = grams / 100;
+        for (int i = 0; i < nutrition.length; i++) {
+            nutrition[i] += values[offset + i] * hundreds;
+        }
+    }
+
+    void countWithoutNutrition() {
+        linesWithoutNutrition++;
+    }
+
+    void addMissingRecipe(String title) {
+        missingRecipes.add(title);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getIngredientId(int line) {
+        return ingredientIds[line];
+    }
+
+    public Unit.Dimension getDimension(int line) {
+        return Unit.Dimension.values()[dimensions[line]];
+    }
+
+    /** Amount in the dimension's base unit: grams, millilitres or pieces. */
+    public double getAmount(int line) {
+        return amounts[line];
+    }
+
+    public double getNutrient(int nutrient) {
+        return nutrition[nutrient];
+    }
+
+    /** Lines left out of the nutrient totals because their weight or nutrients are unknown. */
+    public int getLinesWithoutNutrition() {
+        return linesWithoutNutrition;
+    }
+
+    /** Menu entries whose recipe title matched no recipe. */
+    public List<String> getMissingRecipes() {
+        return Collections.unmodifiableList(missingRecipes);
+    }
+
+    /** Human-readable lines such as "1.25 kg flour", sorted by ingredient name. */
+    public List<String> format(IngredientCatalog catalog) {
+        List<String> lines = new ArrayList<>(size);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> catalog.nameOf(ingredientIds[a]).compareTo(catalog.nameOf(ingredientIds[b])));
+        for (int line : order) {
+            String name = catalog.nameOf(ingredientIds[line]);
+            double amount = amounts[line];
+            if (amount <= 0) {
+                lines.add(name);
+            } else if (dimensions[line] == Unit.Dimension.COUNT.ordinal()) {
+                lines.add(RecipeText.formatQuantity(amount) + " " + name);
+            } else {
+                boolean mass = dimensions[line] == Unit.Dimension.MASS.ordinal();
+                String unit = amount >= 1000 ? (mass ? "kg" : "l") : (mass ? "g" : "ml");
+                double shown = amount >= 1000 ? amount / 1000 : amount;
+                String number = String.format(Locale.ROOT, amount >= 1000 ? "%.2f" : amount < 10 ? "%.1f" : "%.0f", shown);
+                if (number.contains(".")) {
+                    number = number.replaceAll("0+$", "").replaceAll("\\.$", "");
+                }
+                lines.add(number + " " + unit + " " + name);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,98 @@
+package portfolio.recipe;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Kitchen units. Each unit is a multiple of its dimension's base unit: grams,
+ * millilitres or pieces.
+ */
+public enum Unit {
+
+    GRAM(Dimension.MASS, 1, "g", "g", "gr", "gram", "grams", "gramme", "grammes"),
+    KILOGRAM(Dimension.MASS, 1000, "kg", "kg", "kgs", "kilo", "kilos", "kilogram", "kilograms"),
+    OUNCE(Dimension.MASS, 28.349523125, "oz", "oz", "ounce", "ounces"),
+    POUND(Dimension.MASS, 453.59237, "lb", "lb", "lbs", "pound", "pounds"),
+    MILLILITER(Dimension.VOLUME, 1, "ml", "ml", "milliliter", "milliliters", "millilitre", "millilitres"),
+    LITER(Dimension.VOLUME, 1000, "l", "l", "L", "liter", "liters", "litre", "litres"),
+    PINCH(Dimension.VOLUME, 0.3, "pinch", "pinch", "pinches"),
+    TEASPOON(Dimension.VOLUME, 4.92892159375, "tsp", "tsp", "tsps", "teaspoon", "teaspoons", "t"),
+    TABLESPOON(Dimension.VOLUME, 14.78676478125, "tbsp", "tbsp", "tbsps", "tbs", "tablespoon", "tablespoons", "T"),
+    FLUID_OUNCE(Dimension.VOLUME, 29.5735295625, "fl oz", "fl oz", "floz", "fluid ounce", "fluid ounces"),
+    CUP(Dimension.VOLUME, 236.5882365, "cup", "cup", "cups", "c"),
+    PINT(Dimension.VOLUME, 473.176473, "pt", "pt", "pint", "pints"),
+    QUART(Dimension.VOLUME, 946.352946, "qt", "qt", "quart", "quarts"),
+    PIECE(Dimension.COUNT, 1, "", "piece", "pieces", "pc", "pcs", "whole");
+
+    public enum Dimension {
+        MASS, VOLUME, COUNT
+    }
+
+    private static final Map<String, Unit> EXACT = new HashMap<>();
+    private static final Map<String, Unit> LOWER = new HashMap<>();
+
+    static {
+        for (Unit unit : values()) {
+            for (String alias : unit.aliases) {
+                // "t" and "T" are teaspoon and tablespoon; only longer aliases ignore case.
+                if (alias.length() == 1) {
+                    EXACT.put(alias, unit);
+                } else {
+                    LOWER.put(alias.toLowerCase(Locale.ROOT), unit);
+                }
+            }
+        }
+    }
+
+    private final Dimension dimension;
+    private final double baseAmount;
+    private final String symbol;
+    private final String[] aliases;
+
+    Unit(Dimension dimension, double baseAmount, String symbol, String... aliases) {
+        this.dimension = dimension;
+        this.baseAmount = baseAmount;
+        this.symbol = symbol;
+        this.aliases = aliases;
+    }
+
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /** How many grams, millilitres or pieces one of this unit is. */
+    public double getBaseAmount() {
+        return baseAmount;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public static Unit base(Dimension dimension) {
+        switch (dimension) {
+            case MASS:
+                return GRAM;
+            case VOLUME:
+                return MILLILITER;
+            default:
+                return PIECE;
+        }
+    }
+
+    /** Returns the unit spelled {@code word} (trailing dots ignored), or null. */
+    public static Unit parse(String word) {
+        String trimmed = word.endsWith(".") ? word.substring(0, word.length() - 1) : word;
+        Unit unit = EXACT.get(trimmed);
+        return unit != null ? unit : LOWER.get(trimmed.toLowerCase(Locale.ROOT));
+    }
+
+    public double convert(double amount, Unit target) {
+        if (target.dimension != dimension) {
+            throw new IllegalArgumentException("Cannot convert " + name() + " to " + target.name()
+                    + " without a density");
+        }
+        return amount * baseAmount / target.baseAmount;
+    }
+}
@@ -0,0 +1,459 @@
+package portfolio.search;
+
+import portfolio.input.Constants;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+public class SearchIndex {
+
+    public static final String INDEX_EXTENSION = ".idx";
+    public static final int TITLE_WEIGHT = 3;
+    public static final int MAX_PREFIX_EXPANSIONS = 64;
+    public static final String INGREDIENT_FIELD = "i:";
+
+    private static final int MAGIC = 0x434B5049;
+    private static final short VERSION = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int ABSENT = -1;
+
+    private static final String[] INGREDIENT_HEADINGS = {"ingredients", "ingredient list", "you will need"};
+    private static final String[] SECTION_HEADINGS = {
+            "instructions", "directions", "method", "steps", "preparation", "notes", "nutrition", "equipment"};
+
+    private static final Pattern STEP_LINE = Pattern.compile("^(step\\s*)?\\d+[.)]\\s");
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private int[] docLengths = new int[0];
+    private long[] stamps = new long[0];
+    /** The terms each page was indexed under, so removing a page only touches its own postings. */
+    private String[][] docTerms = new String[0][];
+    private int docCount = 0;
+    private long totalLength = 0;
+    private long savedAt = 0;
+
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private int[] freqs = new int[2];
+        private int size = 0;
+
+        void add(int doc, int freq) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                freqs[at] += freq;
+                return;
+            }
+            at = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            System.arraycopy(freqs, at, freqs, at + 1, size - at);
+            docs[at] = doc;
+            freqs[at] = freq;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(freqs, at + 1, freqs, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+
+    public static Path pathFor(Path portfolioPath) {
+        String name = portfolioPath.getFileName().toString();
+        if (name.endsWith(Constants.DEFAULT_SAVE_EXTENSION)) {
+            name = name.substring(0, name.length() - Constants.DEFAULT_SAVE_EXTENSION.length());
+        }
+        return portfolioPath.resolveSibling(name + INDEX_EXTENSION);
+    }
+
+    /**
+     * Identifies what a page was indexed from, so a loaded index can tell which pages changed since. Notes
+     * are included because autosave writes them without saving the index.
+     */
+    public static long stamp(String type, String title, String file, String notes) {
+        long hash = 1125899906842597L;
+        for (String part : new String[]{type, title, file, notes}) {
+            String value = part == null ? "" : part;
+            for (int i = 0; i < value.length(); i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            hash = 31 * hash + 0x1F;
+        }
+        return hash;
+    }
+
+    public synchronized long getSavedAt() {
+        return savedAt;
+    }
+
+    public synchronized int getDocumentCount() {
+        return docCount;
+    }
+
+    public synchronized boolean isCurrent(int id, long stamp) {
+        return id >= 0 && id < docLengths.length && docLengths[id] != ABSENT && stamps[id] == stamp;
+    }
+
+    public synchronized boolean contains(int id) {
+        return id >= 0 && id < docLengths.length && docLengths[id] != ABSENT;
+    }
+
+    public synchronized int[] documentIds() {
+        int[] ids = new int[docCount];
+        int count = 0;
+        for (int id = 0; id < docLengths.length; id++) {
+            if (docLengths[id] != ABSENT) {
+                ids[count++] = id;
+            }
+        }
+        return ids;
+    }
+
+    public synchronized void indexPage(int id, String type, String title, String file, String notes, String pdfText) {
+        removePage(id);
+
+        Map<String, Integer> counts = new HashMap<>();
+        int length = 0;
+        for (String token : Tokenizer.tokenize(title)) {
+            counts.merge(token, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String token : Tokenizer.tokenize(notes)) {
+            counts.merge(token, 1, Integer::sum);
+            length++;
+        }
+        for (String token : Tokenizer.tokenize(pdfText)) {
+            counts.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        String ingredients = Constants.PAGE_TYPE_INGREDIENT_NOTES.equals(type) ? notes
+                : ingredientSection(notes) + ingredientSection(pdfText);
+        for (String token : Tokenizer.tokenize(ingredients)) {
+            counts.merge(INGREDIENT_FIELD + token, 1, Integer::sum);
+        }
+
+        String[] pageTerms = new String[counts.size()];
+        int t = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), key -> new Postings()).add(id, entry.getValue());
+            pageTerms[t++] = entry.getKey();
+        }
+
+        ensureDocCapacity(id);
+        docTerms[id] = pageTerms;
+        docLengths[id] = length;
+        stamps[id] = stamp(type, title, file, notes);
+        docCount++;
+        totalLength += length;
+    }
+
+    public synchronized void removePage(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        for (String term : docTerms[id]) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        docTerms[id] = null;
+        totalLength -= docLengths[id];
+        docLengths[id] = ABSENT;
+        docCount--;
+    }
+
+    /**
+     * Pages containing every term of the query, best BM25 score first. Each token of a query word is a
+     * required term ("gluten-free" needs both words); the last word, or one ending in *, also matches
+     * longer terms. Works on the matching postings only, so a keystroke costs no more than its matches.
+     */
+    public synchronized int[] search(String query, int limit) {
+        List<String> parts = List.of(query.trim().toLowerCase(Locale.ROOT).split("\\s+"));
+        boolean trailingPrefix = !query.endsWith(" ");
+        Match result = null;
+
+        for (int p = 0; p < parts.size(); p++) {
+            String part = parts.get(p);
+            String field = "";
+            if (part.startsWith("ingredient:") || part.startsWith("i:")) {
+                field = INGREDIENT_FIELD;
+                part = part.substring(part.indexOf(':') + 1);
+            }
+            boolean prefix = part.endsWith("*") || (trailingPrefix && p == parts.size() - 1);
+            List<String> tokens = Tokenizer.tokenize(part);
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = field + tokens.get(t);
+                Match match = prefix && t == tokens.size() - 1 ? matchPrefix(token) : matchTerm(token);
+                result = result == null ? match : intersect(result, match);
+                if (result.size == 0) {
+                    return new int[0];
+                }
+            }
+        }
+
+        if (result == null) {
+            return new int[0];
+        }
+        Match ranked = result;
+        Integer[] order = new Integer[ranked.size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(ranked.scores[b], ranked.scores[a]));
+
+        int[] results = new int[Math.min(limit, order.length)];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = ranked.docs[order[i]];
+        }
+        return results;
+    }
+
+    /** Pages matching one term, in id order, with their scores. */
+    private static final class Match {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        private Match(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        private void add(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+    }
+
+    private Match matchTerm(String token) {
+        Postings postings = terms.get(token);
+        return postings == null ? new Match(0) : score(postings, 1f);
+    }
+
+    private Match matchPrefix(String token) {
+        Match union = new Match(0);
+        int expansions = 0;
+        for (Map.Entry<String, Postings> entry : terms.subMap(token, token + Character.MAX_VALUE).entrySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            union = union(union, score(entry.getValue(), entry.getKey().equals(token) ? 1f : 0.8f));
+        }
+        return union;
+    }
+
+    private Match score(Postings postings, float boost) {
+        float averageLength = docCount == 0 ? 1f : Math.max(1f, (float) totalLength / docCount);
+        float idf = (float) Math.log(1 + (docCount - postings.size + 0.5) / (postings.size + 0.5));
+        Match match = new Match(postings.size);
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            float tf = postings.freqs[i];
+            float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+            match.add(doc, boost * idf * tf * (K1 + 1) / (tf + norm));
+        }
+        return match;
+    }
+
+    private static Match union(Match a, Match b) {
+        Match merged = new Match(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.docs[i] < b.docs[j])) {
+                merged.add(a.docs[i], a.scores[i]);
+                i++;
+            } else if (i == a.size || b.docs[j] < a.docs[i]) {
+                merged.add(b.docs[j], b.scores[j]);
+                j++;
+            } else {
+                merged.add(a.docs[i], a.scores[i] + b.scores[j]);
+                i++;
+                j++;
+            }
+        }
+        return merged;
+    }
+
+    private static Match intersect(Match a, Match b) {
+        Match common = new Match(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.docs[i] < b.docs[j]) {
+                i++;
+            } else if (b.docs[j] < a.docs[i]) {
+                j++;
+            } else {
+                common.add(a.docs[i], a.scores[i] + b.scores[j]);
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+
+    public synchronized void save(Path path, long portfolioSavedAt) throws IOException {
+        Path partial = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(portfolioSavedAt);
+
+            out.writeInt(docCount);
+            for (int id = 0; id < docLengths.length; id++) {
+                if (docLengths[id] != ABSENT) {
+                    out.writeInt(id);
+                    out.writeInt(docLengths[id]);
+                    out.writeLong(stamps[id]);
+                }
+            }
+
+            out.writeInt(terms.size());
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                Postings postings = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    out.writeInt(postings.docs[i]);
+                    out.writeInt(postings.freqs[i]);
+                }
+            }
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        savedAt = portfolioSavedAt;
+    }
+
+    public static SearchIndex load(Path path) throws IOException {
+        SearchIndex index = new SearchIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a search index: " + path);
+            }
+            index.savedAt = in.readLong();
+
+            int documents = in.readInt();
+            for (int i = 0; i < documents; i++) {
+                int id = in.readInt();
+                index.ensureDocCapacity(id);
+                index.docLengths[id] = in.readInt();
+                index.stamps[id] = in.readLong();
+                index.totalLength += index.docLengths[id];
+            }
+            index.docCount = documents;
+
+            int termCount = in.readInt();
+            for (int t = 0; t < termCount; t++) {
+                String term = in.readUTF();
+                Postings postings = new Postings();
+                postings.size = in.readInt();
+                postings.docs = new int[Math.max(2, postings.size)];
+                postings.freqs = new int[Math.max(2, postings.size)];
+                for (int i = 0; i < postings.size; i++) {
+                    postings.docs[i] = in.readInt();
+                    postings.freqs[i] = in.readInt();
+                }
+                index.terms.put(term, postings);
+            }
+        }
+        index.rebuildDocTerms();
+        return index;
+    }
+
+    private void rebuildDocTerms() throws IOException {
+        int[] termCounts = new int[docLengths.length];
+        for (Postings postings : terms.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (doc < 0 || doc >= docLengths.length || docLengths[doc] == ABSENT) {
+                    throw new IOException("Search index lists a page it does not hold: " + doc);
+                }
+                termCounts[doc]++;
+            }
+        }
+        for (int id = 0; id < docLengths.length; id++) {
+            docTerms[id] = docLengths[id] == ABSENT ? null : new String[termCounts[id]];
+        }
+        int[] filled = new int[docLengths.length];
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            Postings postings = entry.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                docTerms[doc][filled[doc]++] = entry.getKey();
+            }
+        }
+    }
+
+    private void ensureDocCapacity(int id) {
+        if (id < docLengths.length) {
+            return;
+        }
+        int old = docLengths.length;
+        int capacity = Math.max(id + 1, Math.max(64, old * 2));
+        docLengths = Arrays.copyOf(docLengths, capacity);
+        stamps = Arrays.copyOf(stamps, capacity);
+        docTerms = Arrays.copyOf(docTerms, capacity);
+        Arrays.fill(docLengths, old, capacity, ABSENT);
+    }
+
+    static String ingredientSection(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder section = new StringBuilder();
+        boolean inside = false;
+        int collected = 0;
+        for (String line : text.split("\n")) {
+            String heading = line.trim().toLowerCase(Locale.ROOT).replaceAll("[:\\s]+$", "");
+            if (heading.isEmpty()) {
+                continue;
+            }
+            boolean shortLine = heading.length() < 40;
+            if (shortLine && startsWithAny(heading, INGREDIENT_HEADINGS)) {
+                inside = true;
+            } else if (inside && collected > 0
+                    && ((shortLine && startsWithAny(heading, SECTION_HEADINGS)) || STEP_LINE.matcher(heading).find())) {
+                inside = false;
+            } else if (inside && !(shortLine && startsWithAny(heading, SECTION_HEADINGS))) {
+                section.append(line).append('\n');
+                collected++;
+            }
+        }
+        return section.toString();
+    }
+
+    private static boolean startsWithAny(String value, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (value.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
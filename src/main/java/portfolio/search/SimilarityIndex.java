@@ -0,0 +1,360 @@
+package portfolio.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Finds pages whose text is nearly the same. Each page's words are cut into overlapping
+ * {@value #SHINGLE_SIZE}-word shingles, and the shingle set is reduced to a MinHash signature:
+ * the minimum of each of {@value #SIGNATURE_SIZE} hash functions over the set. The share of
+ * positions where two signatures agree estimates the Jaccard similarity of the two sets.
+ *
+ * <p>Signatures are split into {@value #BANDS} bands of {@value #ROWS} rows and each band is
+ * hashed into a bucket, so pages that agree on a whole band become candidates without comparing
+ * every pair; with these sizes a pair at 0.7 similarity shares a bucket 97% of the time and a
+ * pair at 0.3 under 5%. Candidates are then checked against the full signature.
+ */
+public class SimilarityIndex {
+
+    public static final String INDEX_EXTENSION = ".sim";
+    public static final int SHINGLE_SIZE = 3;
+    public static final int BANDS = 20;
+    public static final int ROWS = 5;
+    public static final int SIGNATURE_SIZE = BANDS * ROWS;
+    public static final double DEFAULT_THRESHOLD = 0.7;
+    /** Pages with fewer shingles than this, e.g. blank or one-line pages, are never reported. */
+    public static final int MIN_SHINGLES = 8;
+
+    private static final int MAGIC = 0x434B5053;
+    private static final short VERSION = 1;
+    // Fixed so that saved signatures stay comparable with new ones.
+    private static final long SEED = 0x5EED_0F_CA11L;
+    private static final long[] MULTIPLIERS = new long[SIGNATURE_SIZE];
+    private static final long[] ADDENDS = new long[SIGNATURE_SIZE];
+    private static final int[] NO_SIGNATURE = new int[0];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            ADDENDS[i] = random.nextLong();
+        }
+    }
+
+    private int[][] signatures = new int[0][];
+    private long[] stamps = new long[0];
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+    private long savedAt = 0;
+
+    private static final class Bucket {
+        private int[] ids = new int[2];
+        private int size = 0;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Pages that are probably the same recipe. */
+    public static final class Cluster {
+        private final int[] ids;
+        private final double similarity;
+
+        private Cluster(int[] ids, double similarity) {
+            this.ids = ids;
+            this.similarity = similarity;
+        }
+
+        /** Page ids, lowest (oldest) first. */
+        public int[] getIds() {
+            return ids.clone();
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /** Estimated similarity of the least alike pair linked into the cluster. */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    public static Path pathFor(Path portfolioPath) {
+        Path indexPath = SearchIndex.pathFor(portfolioPath);
+        String name = indexPath.getFileName().toString();
+        return indexPath.resolveSibling(name.substring(0, name.length() - SearchIndex.INDEX_EXTENSION.length())
+                + INDEX_EXTENSION);
+    }
+
+    /** The MinHash signature of {@code text}, or an empty array if it is too short to compare. */
+    public static int[] signature(String text) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        int shingles = tokens.size() - SHINGLE_SIZE + 1;
+        if (shingles < MIN_SHINGLES) {
+            return NO_SIGNATURE;
+        }
+        long[] hashes = new long[tokens.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(tokens.get(i));
+        }
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = hashes[start];
+            for (int k = 1; k < SHINGLE_SIZE; k++) {
+                shingle = shingle * 0x9E3779B97F4A7C15L + hashes[start + k];
+            }
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int value = (int) ((MULTIPLIERS[i] * shingle + ADDENDS[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /** Share of positions where two signatures agree; 0 if either is empty. */
+    public static double similarity(int[] a, int[] b) {
+        if (a.length != SIGNATURE_SIZE || b.length != SIGNATURE_SIZE) {
+            return 0;
+        }
+        int same = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return same / (double) SIGNATURE_SIZE;
+    }
+
+    public synchronized long getSavedAt() {
+        return savedAt;
+    }
+
+    public synchronized boolean isCurrent(int id, long stamp) {
+        return contains(id) && stamps[id] == stamp;
+    }
+
+    public synchronized boolean contains(int id) {
+        return id >= 0 && id < signatures.length && signatures[id] != null;
+    }
+
+    public synchronized int[] documentIds() {
+        int count = 0;
+        int[] ids = new int[signatures.length];
+        for (int id = 0; id < signatures.length; id++) {
+            if (signatures[id] != null) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /** Replaces the page's signature. {@code stamp} is the {@link SearchIndex#stamp} it was taken at. */
+    public void indexPage(int id, long stamp, String text) {
+        int[] signature = signature(text);
+        synchronized (this) {
+            removePage(id);
+            put(id, stamp, signature);
+        }
+    }
+
+    public synchronized void removePage(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        int[] signature = signatures[id];
+        for (int band = 0; band < BANDS && signature.length > 0; band++) {
+            Long key = bandKey(signature, band);
+            Bucket bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.size == 0) {
+                    buckets.remove(key);
+                }
+            }
+        }
+        signatures[id] = null;
+    }
+
+    /** Pages at least {@code threshold} alike to {@code id}, most alike first, as {id, percent} pairs. */
+    public synchronized List<int[]> similarTo(int id, double threshold) {
+        List<int[]> matches = new ArrayList<>();
+        if (!contains(id) || signatures[id].length == 0) {
+            return matches;
+        }
+        int[] signature = signatures[id];
+        Set<Integer> seen = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Bucket bucket = buckets.get(bandKey(signature, band));
+            for (int i = 0; i < bucket.size; i++) {
+                int other = bucket.ids[i];
+                if (other == id || !seen.add(other)) {
+                    continue;
+                }
+                double similarity = similarity(signature, signatures[other]);
+                if (similarity >= threshold) {
+                    matches.add(new int[]{other, (int) Math.round(similarity * 100)});
+                }
+            }
+        }
+        matches.sort((a, b) -> Integer.compare(b[1], a[1]));
+        return matches;
+    }
+
+    /**
+     * Groups every page with its near duplicates, linking pairs at least {@code threshold} alike.
+     * Only pairs that share an LSH bucket are compared. Largest and most alike clusters come first.
+     */
+    public synchronized List<Cluster> clusters(double threshold) {
+        int[] parent = new int[signatures.length];
+        double[] weakest = new double[signatures.length];
+        for (int id = 0; id < parent.length; id++) {
+            parent[id] = id;
+            weakest[id] = 1;
+        }
+        for (Bucket bucket : buckets.values()) {
+            for (int i = 0; i < bucket.size; i++) {
+                for (int j = i + 1; j < bucket.size; j++) {
+                    int a = find(parent, bucket.ids[i]);
+                    int b = find(parent, bucket.ids[j]);
+                    if (a == b) {
+                        continue;
+                    }
+                    double similarity = similarity(signatures[bucket.ids[i]], signatures[bucket.ids[j]]);
+                    if (similarity >= threshold) {
+                        int root = Math.min(a, b);
+                        parent[Math.max(a, b)] = root;
+                        weakest[root] = Math.min(similarity, Math.min(weakest[a], weakest[b]));
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> members = new HashMap<>();
+        for (int id = 0; id < signatures.length; id++) {
+            if (signatures[id] != null && signatures[id].length > 0) {
+                members.computeIfAbsent(find(parent, id), root -> new ArrayList<>()).add(id);
+            }
+        }
+        List<Cluster> clusters = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : members.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                int[] ids = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                clusters.add(new Cluster(ids, weakest[entry.getKey()]));
+            }
+        }
+        clusters.sort((a, b) -> a.size() != b.size() ? Integer.compare(b.size(), a.size())
+                : Double.compare(b.similarity, a.similarity));
+        return clusters;
+    }
+
+    public synchronized void save(Path path, long portfolioSavedAt) throws IOException {
+        Path partial = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(portfolioSavedAt);
+
+            int[] ids = documentIds();
+            out.writeInt(ids.length);
+            for (int id : ids) {
+                out.writeInt(id);
+                out.writeLong(stamps[id]);
+                out.writeByte(signatures[id].length == 0 ? 0 : 1);
+                for (int value : signatures[id]) {
+                    out.writeInt(value);
+                }
+            }
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        savedAt = portfolioSavedAt;
+    }
+
+    public static SimilarityIndex load(Path path) throws IOException {
+        SimilarityIndex index = new SimilarityIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not a similarity index: " + path);
+            }
+            index.savedAt = in.readLong();
+
+            int documents = in.readInt();
+            for (int i = 0; i < documents; i++) {
+                int id = in.readInt();
+                long stamp = in.readLong();
+                int[] signature = in.readByte() == 0 ? NO_SIGNATURE : new int[SIGNATURE_SIZE];
+                for (int k = 0; k < signature.length; k++) {
+                    signature[k] = in.readInt();
+                }
+                index.put(id, stamp, signature);
+            }
+        }
+        return index;
+    }
+
+    private void put(int id, long stamp, int[] signature) {
+        if (id >= signatures.length) {
+            int capacity = Math.max(id + 1, Math.max(64, signatures.length * 2));
+            signatures = Arrays.copyOf(signatures, capacity);
+            stamps = Arrays.copyOf(stamps, capacity);
+        }
+        signatures[id] = signature;
+        stamps[id] = stamp;
+        for (int band = 0; band < BANDS && signature.length > 0; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), key -> new Bucket()).add(id);
+        }
+    }
+
+    private static Long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = key * 0x100000001B3L + signature[row];
+        }
+        return key;
+    }
+
+    private static long hash(String token) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash = (hash ^ token.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static int find(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+}
@@ -0,0 +1,420 @@
+package portfolio.storage;
+
+import portfolio.page.Page;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class PortfolioFile implements Closeable {
+
+    public static final int MAGIC = 0x434B5046;
+    public static final short VERSION = 2;
+    public static final int HEADER_SIZE = 64;
+    public static final int COMPACT_AFTER_RECORDS = 256;
+    public static final long COMPACT_AFTER_BYTES = 1L << 20;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_ORDER = 3;
+    private static final byte OP_COMMIT = 4;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int HEADER_CRC_OFFSET = 52;
+
+    public static final class Entry {
+        private final int id;
+        private final byte type;
+        private final String title;
+        private final String file;
+        private final long offset;
+        private final int length;
+
+        private Entry(int id, byte type, String title, String file, long offset, int length) {
+            this.id = id;
+            this.type = type;
+            this.title = title;
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getType() {
+            return Page.typeName(type);
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getFile() {
+            return file;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Integer> order = new ArrayList<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final long generation;
+    private final long snapshotSize;
+    private long savedAt;
+    private long journalEnd;
+    private int journalRecords;
+
+    private PortfolioFile(Path path, FileChannel channel, long generation, long savedAt, long snapshotSize) {
+        this.path = path;
+        this.channel = channel;
+        this.generation = generation;
+        this.savedAt = savedAt;
+        this.snapshotSize = snapshotSize;
+    }
+
+    public static PortfolioFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a portfolio file: " + path);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException("Unsupported portfolio version " + header.getShort(4) + ": " + path);
+            }
+            if (header.getInt(HEADER_CRC_OFFSET) != crc(header, 0, HEADER_CRC_OFFSET)) {
+                throw new IOException("Corrupt portfolio header: " + path);
+            }
+
+            int pageCount = header.getInt(8);
+            long indexOffset = header.getLong(16);
+            int indexLength = header.getInt(24);
+            long journalOffset = header.getLong(28);
+            long generation = header.getLong(36);
+            long savedAt = header.getLong(44);
+
+            PortfolioFile file = new PortfolioFile(path, channel, generation, savedAt, journalOffset);
+            file.readIndex(readFully(channel, indexOffset, indexLength), pageCount);
+            file.replayJournal(journalOffset);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (e instanceof IOException) {
+                throw e;
+            }
+            throw new IOException("Corrupt portfolio file: " + path, e);
+        }
+    }
+
+    public static void writeSnapshot(Path target, List<Page> pages, long generation, long savedAt) throws IOException {
+        List<byte[]> bodies = new ArrayList<>(pages.size());
+        long bodyBytes = 0;
+        long indexBytes = 0;
+        for (Page page : pages) {
+            byte[] body = encodeBody(page);
+            bodies.add(body);
+            bodyBytes += body.length;
+            indexBytes += 4 + 1 + 4 + utf8(page.getTitle()).length + 4 + utf8(page.getFile()).length + 8 + 4;
+        }
+        if (HEADER_SIZE + bodyBytes + indexBytes > Integer.MAX_VALUE) {
+            throw new IOException("Portfolio too large for a single snapshot");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_SIZE + bodyBytes + indexBytes));
+        buffer.position(HEADER_SIZE);
+        long[] offsets = new long[pages.size()];
+        for (int i = 0; i < bodies.size(); i++) {
+            offsets[i] = buffer.position();
+            buffer.put(bodies.get(i));
+        }
+
+        long indexOffset = buffer.position();
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            buffer.putInt(page.getId());
+            buffer.put(Page.typeCode(page.getType()));
+            putString(buffer, page.getTitle());
+            putString(buffer, page.getFile());
+            buffer.putLong(offsets[i]);
+            buffer.putInt(bodies.get(i).length);
+        }
+        long journalOffset = buffer.position();
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putInt(8, pages.size());
+        buffer.putLong(16, indexOffset);
+        buffer.putInt(24, (int) (journalOffset - indexOffset));
+        buffer.putLong(28, journalOffset);
+        buffer.putLong(36, generation);
+        buffer.putLong(44, savedAt);
+        buffer.putInt(HEADER_CRC_OFFSET, crc(buffer, 0, HEADER_CRC_OFFSET));
+        buffer.flip();
+
+        Path partial = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public synchronized long getSavedAt() {
+        return savedAt;
+    }
+
+    public synchronized List<Integer> getOrder() {
+        return Collections.unmodifiableList(new ArrayList<>(order));
+    }
+
+    public synchronized List<Page> readPages() throws IOException {
+        List<Page> pages = new ArrayList<>(order.size());
+        for (int id : order) {
+            Entry entry = entries.get(id);
+            pages.add(new Page(id, entry.getType(), entry.title, entry.file, readNotes(id)));
+        }
+        return pages;
+    }
+
+    public synchronized Entry getEntry(int id) {
+        return entries.get(id);
+    }
+
+    public synchronized String readNotes(int id) throws IOException {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        return getString(readFully(channel, entry.offset, entry.length));
+    }
+
+    public synchronized void append(List<Page> puts, List<Integer> deletes, List<Integer> newOrder, long saveTime) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        for (Page page : puts) {
+            records.add(putRecord(page));
+        }
+        for (int id : deletes) {
+            ByteBuffer payload = ByteBuffer.allocate(1 + 4);
+            payload.put(OP_DELETE).putInt(id);
+            records.add(payload.array());
+        }
+        if (records.isEmpty() && newOrder == null) {
+            return;
+        }
+        if (newOrder != null) {
+            ByteBuffer payload = ByteBuffer.allocate(1 + 4 + 4 * newOrder.size());
+            payload.put(OP_ORDER).putInt(newOrder.size());
+            for (int id : newOrder) {
+                payload.putInt(id);
+            }
+            records.add(payload.array());
+        }
+        // Closes the batch: on open, records without a commit after them are a torn save and are dropped.
+        ByteBuffer commit = ByteBuffer.allocate(1 + 8);
+        commit.put(OP_COMMIT).putLong(saveTime);
+        records.add(commit.array());
+
+        int total = 0;
+        for (byte[] record : records) {
+            total += RECORD_HEADER_SIZE + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (byte[] record : records) {
+            buffer.putInt(record.length);
+            buffer.putInt(crc(ByteBuffer.wrap(record), 0, record.length));
+            buffer.put(record);
+        }
+        buffer.flip();
+
+        channel.truncate(journalEnd);
+        long position = journalEnd;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.force(false);
+
+        long recordStart = journalEnd;
+        for (byte[] record : records) {
+            apply(ByteBuffer.wrap(record), recordStart + RECORD_HEADER_SIZE);
+            recordStart += RECORD_HEADER_SIZE + record.length;
+        }
+        journalEnd = position;
+        journalRecords += records.size();
+    }
+
+    public synchronized boolean needsCompaction() {
+        long journalBytes = journalEnd - snapshotSize;
+        return journalRecords >= COMPACT_AFTER_RECORDS
+                || journalBytes >= Math.max(COMPACT_AFTER_BYTES, snapshotSize);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void readIndex(ByteBuffer index, int pageCount) {
+        for (int i = 0; i < pageCount; i++) {
+            int id = index.getInt();
+            byte type = index.get();
+            String title = getString(index);
+            String file = getString(index);
+            long offset = index.getLong();
+            int length = index.getInt();
+            entries.put(id, new Entry(id, type, title, file, offset, length));
+            order.add(id);
+        }
+    }
+
+    /**
+     * Applies the journal one batch at a time: records are held back until the batch's commit record has
+     * been read intact, so a save torn by a crash is dropped whole and the next append overwrites it.
+     */
+    private void replayJournal(long journalOffset) throws IOException {
+        long size = channel.size();
+        journalEnd = journalOffset;
+        if (size <= journalOffset) {
+            return;
+        }
+        ByteBuffer journal = readFully(channel, journalOffset, (int) (size - journalOffset));
+
+        List<ByteBuffer> batch = new ArrayList<>();
+        List<Long> batchOffsets = new ArrayList<>();
+        while (journal.remaining() >= RECORD_HEADER_SIZE) {
+            int length = journal.getInt();
+            int checksum = journal.getInt();
+            if (length <= 0 || length > journal.remaining()
+                    || crc(journal, journal.position(), length) != checksum) {
+                break;
+            }
+            ByteBuffer payload = journal.slice();
+            payload.limit(length);
+            batch.add(payload);
+            batchOffsets.add(journalOffset + journal.position());
+            journal.position(journal.position() + length);
+            if (payload.get(0) != OP_COMMIT) {
+                continue;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                apply(batch.get(i), batchOffsets.get(i));
+            }
+            journalEnd = journalOffset + journal.position();
+            journalRecords += batch.size();
+            batch.clear();
+            batchOffsets.clear();
+        }
+    }
+
+    private void apply(ByteBuffer payload, long payloadOffset) {
+        byte op = payload.get();
+        if (op == OP_PUT) {
+            int id = payload.getInt();
+            byte type = payload.get();
+            String title = getString(payload);
+            String file = getString(payload);
+            int bodyStart = payload.position();
+            Entry entry = new Entry(id, type, title, file, payloadOffset + bodyStart, payload.limit() - bodyStart);
+            if (entries.put(id, entry) == null) {
+                order.add(id);
+            }
+        } else if (op == OP_DELETE) {
+            int id = payload.getInt();
+            if (entries.remove(id) != null) {
+                order.remove(Integer.valueOf(id));
+            }
+        } else if (op == OP_ORDER) {
+            int count = payload.getInt();
+            List<Integer> newOrder = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int id = payload.getInt();
+                if (entries.containsKey(id)) {
+                    newOrder.add(id);
+                }
+            }
+            if (newOrder.size() == entries.size()) {
+                order.clear();
+                order.addAll(newOrder);
+            }
+        } else if (op == OP_COMMIT) {
+            savedAt = payload.getLong();
+        }
+    }
+
+    private static byte[] putRecord(Page page) {
+        byte[] title = utf8(page.getTitle());
+        byte[] file = utf8(page.getFile());
+        byte[] body = encodeBody(page);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 + 1 + 4 + title.length + 4 + file.length + body.length);
+        payload.put(OP_PUT).putInt(page.getId()).put(Page.typeCode(page.getType()));
+        payload.putInt(title.length).put(title);
+        payload.putInt(file.length).put(file);
+        payload.put(body);
+        return payload.array();
+    }
+
+    private static byte[] encodeBody(Page page) {
+        byte[] notes = utf8(page.getNotes());
+        ByteBuffer body = ByteBuffer.allocate(4 + notes.length);
+        body.putInt(notes.length).put(notes);
+        return body.array();
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = utf8(value);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length).position(offset);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of portfolio file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
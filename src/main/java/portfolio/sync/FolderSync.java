@@ -0,0 +1,290 @@
+package portfolio.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Keeps a set of folders in step with the portfolio. Filesystem events are coalesced per file until the
+ * folders have been quiet for {@link #QUIET_MILLIS}, then delivered as one batch of changes. On start
+ * each folder is reconciled against its manifest; a folder whose modification time is unchanged is not
+ * listed at all.
+ *
+ * <p>The manifest only records a change once the listener has applied it. Anything it could not apply is
+ * offered again with the next batch, and the folder is listed again on the next start.
+ */
+public class FolderSync implements Closeable {
+
+    public static final long QUIET_MILLIS = 400;
+    public static final long MAX_BATCH_DELAY_MILLIS = 3_000;
+
+    public enum Kind { CREATED, CHANGED, DELETED }
+
+    public static final class Change {
+        private final Path folder;
+        private final String name;
+        private final Kind kind;
+        private final long size;
+        private final long modified;
+        private boolean applied;
+
+        private Change(Path folder, String name, Kind kind, long size, long modified) {
+            this.folder = folder;
+            this.name = name;
+            this.kind = kind;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        public Path getFolder() {
+            return folder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+    }
+
+    public interface Listener {
+        /** Applies what it can of {@code changes} and returns the ones it applied. */
+        List<Change> filesChanged(List<Change> changes);
+    }
+
+    private static final class Folder {
+        private final Path path;
+        private final Predicate<String> accept;
+        private final SyncManifest manifest;
+        private final Set<String> pending = new HashSet<>();
+        private long observedModified = -1;
+
+        private Folder(Path path, Predicate<String> accept, SyncManifest manifest) {
+            this.path = path;
+            this.accept = accept;
+            this.manifest = manifest;
+        }
+    }
+
+    private final Map<Path, Folder> folders = new LinkedHashMap<>();
+    private final Map<WatchKey, Folder> keys = new HashMap<>();
+    private final Queue<List<Change>> acknowledged = new ConcurrentLinkedQueue<>();
+    // Batches handed to the listener and not yet acknowledged; only touched by the sync thread.
+    private int awaiting;
+    private final Executor callbackExecutor;
+    private final Listener listener;
+    private WatchService watcher;
+    private Thread thread;
+    private volatile boolean closed = false;
+
+    public FolderSync(Executor callbackExecutor, Listener listener) {
+        this.callbackExecutor = callbackExecutor;
+        this.listener = listener;
+    }
+
+    public void addFolder(Path folder, Path manifestFile, Predicate<String> accept) {
+        Path path = folder.toAbsolutePath().normalize();
+        folders.put(path, new Folder(path, accept, SyncManifest.load(manifestFile)));
+    }
+
+    public void start() {
+        thread = new Thread(this::run, "folder-sync");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    private void run() {
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            for (Folder folder : folders.values()) {
+                Files.createDirectories(folder.path);
+                WatchKey key = folder.path.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                keys.put(key, folder);
+            }
+            // Register before reconciling so nothing written in between is missed.
+            for (Folder folder : folders.values()) {
+                reconcile(folder);
+            }
+            deliver();
+
+            while (!closed) {
+                // While batches are out, wake up now and then to record the ones that have come back.
+                WatchKey key = awaiting > 0 ? watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS) : watcher.take();
+                settle();
+                if (key == null) {
+                    continue;
+                }
+                long batchStart = System.currentTimeMillis();
+                // Folder times are sampled before draining, so anything later is rescanned on next start.
+                for (Folder folder : folders.values()) {
+                    folder.observedModified = Files.getLastModifiedTime(folder.path).toMillis();
+                }
+                while (key != null) {
+                    collect(key);
+                    long remaining = MAX_BATCH_DELAY_MILLIS - (System.currentTimeMillis() - batchStart);
+                    key = remaining <= 0 ? null : watcher.poll(Math.min(QUIET_MILLIS, remaining), TimeUnit.MILLISECONDS);
+                }
+                deliver();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void collect(WatchKey key) throws IOException {
+        Folder folder = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (folder == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                folder.manifest.setFolderModified(-1);
+                reconcile(folder);
+                continue;
+            }
+            String name = ((Path) event.context()).getFileName().toString();
+            if (folder.accept.test(name)) {
+                folder.pending.add(name);
+            }
+        }
+        key.reset();
+    }
+
+    private void reconcile(Folder folder) throws IOException {
+        long modified = Files.getLastModifiedTime(folder.path).toMillis();
+        folder.observedModified = modified;
+        if (modified == folder.manifest.getFolderModified()) {
+            return;
+        }
+        Set<String> present = new HashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder.path)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (folder.accept.test(name)) {
+                    present.add(name);
+                    if (!folder.manifest.contains(name)) {
+                        folder.pending.add(name);
+                    }
+                }
+            }
+        }
+        for (String known : folder.manifest.names()) {
+            if (!present.contains(known)) {
+                folder.pending.add(known);
+            }
+        }
+    }
+
+    private void deliver() throws IOException {
+        List<Change> changes = new ArrayList<>();
+        for (Folder folder : folders.values()) {
+            for (String name : folder.pending) {
+                Path file = folder.path.resolve(name);
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    attributes = null;
+                }
+
+                boolean known = folder.manifest.contains(name);
+                if (attributes == null || !attributes.isRegularFile()) {
+                    if (known) {
+                        changes.add(new Change(folder.path, name, Kind.DELETED, -1, -1));
+                    }
+                    continue;
+                }
+                long size = attributes.size();
+                long modified = attributes.lastModifiedTime().toMillis();
+                if (!known) {
+                    changes.add(new Change(folder.path, name, Kind.CREATED, size, modified));
+                } else if (!folder.manifest.matches(name, size, modified)) {
+                    changes.add(new Change(folder.path, name, Kind.CHANGED, size, modified));
+                }
+            }
+            folder.pending.clear();
+        }
+
+        if (!changes.isEmpty()) {
+            List<Change> batch = Collections.unmodifiableList(changes);
+            awaiting++;
+            callbackExecutor.execute(() -> {
+                try {
+                    for (Change change : listener.filesChanged(batch)) {
+                        change.applied = true;
+                    }
+                } finally {
+                    acknowledged.add(batch);
+                }
+            });
+        }
+        settle();
+    }
+
+    /**
+     * Records the changes the listener has applied and queues the rest to be offered again. Once no batch
+     * is out and nothing is left over, a folder's modification time is recorded so the next start can skip it.
+     */
+    private void settle() throws IOException {
+        List<Change> batch;
+        while ((batch = acknowledged.poll()) != null) {
+            awaiting--;
+            for (Change change : batch) {
+                Folder folder = folders.get(change.folder);
+                if (!change.applied) {
+                    folder.pending.add(change.name);
+                } else if (change.kind == Kind.DELETED) {
+                    folder.manifest.remove(change.name);
+                } else {
+                    folder.manifest.put(change.name, change.size, change.modified);
+                }
+            }
+        }
+        for (Folder folder : folders.values()) {
+            if (awaiting == 0 && folder.pending.isEmpty()) {
+                folder.manifest.setFolderModified(folder.observedModified);
+            }
+            folder.manifest.save();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package portfolio.sync;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Last known size and modification time of every synced file in one folder, plus the folder's own
+ * modification time so an untouched folder can be skipped without listing it.
+ */
+final class SyncManifest {
+
+    private static final String HEADER = "# portfolio folder sync v1";
+
+    private final Path file;
+    private final Map<String, long[]> entries = new HashMap<>();
+    private long folderModified = -1;
+    private boolean dirty = false;
+
+    private SyncManifest(Path file) {
+        this.file = file;
+    }
+
+    static SyncManifest load(Path file) {
+        SyncManifest manifest = new SyncManifest(file);
+        if (!Files.exists(file)) {
+            return manifest;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!HEADER.equals(line)) {
+                return manifest;
+            }
+            manifest.folderModified = Long.parseLong(reader.readLine());
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 3);
+                if (fields.length == 3) {
+                    manifest.entries.put(fields[2], new long[]{Long.parseLong(fields[0]), Long.parseLong(fields[1])});
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            manifest.entries.clear();
+            manifest.folderModified = -1;
+        }
+        return manifest;
+    }
+
+    long getFolderModified() {
+        return folderModified;
+    }
+
+    void setFolderModified(long modified) {
+        if (modified != folderModified) {
+            folderModified = modified;
+            dirty = true;
+        }
+    }
+
+    Set<String> names() {
+        return entries.keySet();
+    }
+
+    boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    boolean matches(String name, long size, long modified) {
+        long[] entry = entries.get(name);
+        return entry != null && entry[0] == size && entry[1] == modified;
+    }
+
+    void put(String name, long size, long modified) {
+        entries.put(name, new long[]{size, modified});
+        dirty = true;
+    }
+
+    void remove(String name) {
+        if (entries.remove(name) != null) {
+            dirty = true;
+        }
+    }
+
+    void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try (BufferedWriter writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write(Long.toString(folderModified));
+            writer.newLine();
+            for (Map.Entry<String, long[]> entry : entries.entrySet()) {
+                writer.write(entry.getValue()[0] + "\t" + entry.getValue()[1] + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+}
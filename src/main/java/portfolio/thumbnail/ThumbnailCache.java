@@ -0,0 +1,232 @@
+package portfolio.thumbnail;
+
+import portfolio.input.Constants;
+import portfolio.input.PdfStore;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class ThumbnailCache {
+
+    public static final int BASE_SIZE = 160;
+    public static final long DEFAULT_MEMORY_BYTES = 32L * 1024 * 1024;
+    public static final int DEFAULT_WORKERS = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+    private static final String THUMB_EXTENSION = ".png";
+
+    private final Path folder;
+    private final long maxMemoryBytes;
+    private final Executor callbackExecutor;
+    private final ThreadPoolExecutor executor;
+    private final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, List<Consumer<BufferedImage>>> pending = new HashMap<>();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private long memoryBytes = 0;
+
+    public ThumbnailCache(Path folder, long maxMemoryBytes, Executor callbackExecutor) {
+        this.folder = folder;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.callbackExecutor = callbackExecutor;
+        // LIFO queue: the most recently requested thumbnails are the ones on screen.
+        this.executor = new ThreadPoolExecutor(DEFAULT_WORKERS, DEFAULT_WORKERS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingDeque<Runnable>() {
+                    @Override
+                    public boolean offer(Runnable runnable) {
+                        return offerFirst(runnable);
+                    }
+                }, new WorkerThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ThumbnailCache openDefault(Executor callbackExecutor) {
+        return new ThumbnailCache(Paths.get(Constants.THUMBS_FOLDER), DEFAULT_MEMORY_BYTES, callbackExecutor);
+    }
+
+    public static String keyFor(Path source) {
+        String name = source.getFileName().toString();
+        // Only stored PDFs are named by their content; anything else is keyed by its path, as images are.
+        if (PdfStore.isStoredName(name) && source.getParent() != null
+                && source.getParent().endsWith(Paths.get(Constants.PDFS_FOLDER))) {
+            return "pdf-" + name.substring(0, Math.min(32, name.length() - Constants.PDF_EXTENSION.length()));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+            return "img-" + PdfStore.toHex(hash).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized BufferedImage getIfPresent(String key, int size) {
+        return memory.get(memoryKey(key, size));
+    }
+
+    public void request(Path source, int size, Consumer<BufferedImage> callback) {
+        String key = keyFor(source);
+        String memoryKey = memoryKey(key, size);
+        if (failed.contains(key)) {
+            return;
+        }
+        synchronized (this) {
+            BufferedImage cached = memory.get(memoryKey);
+            if (cached != null) {
+                callbackExecutor.execute(() -> callback.accept(cached));
+                return;
+            }
+            List<Consumer<BufferedImage>> waiting = pending.get(memoryKey);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            pending.put(memoryKey, waiting);
+        }
+        try {
+            executor.execute(() -> load(source, key, size));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                pending.remove(memoryKey);
+            }
+        }
+    }
+
+    private void load(Path source, String key, int size) {
+        BufferedImage image = null;
+        try {
+            BufferedImage base = loadBase(source, key);
+            image = size >= BASE_SIZE ? base : ThumbnailRenderer.downscale(base, size);
+        } catch (IOException | RuntimeException e) {
+            failed.add(key);
+        }
+
+        List<Consumer<BufferedImage>> callbacks;
+        synchronized (this) {
+            if (image != null) {
+                put(memoryKey(key, size), image);
+            }
+            callbacks = pending.remove(memoryKey(key, size));
+        }
+        if (image != null && callbacks != null) {
+            BufferedImage result = image;
+            callbackExecutor.execute(() -> {
+                for (Consumer<BufferedImage> callback : callbacks) {
+                    callback.accept(result);
+                }
+            });
+        }
+    }
+
+    private BufferedImage loadBase(Path source, String key) throws IOException {
+        BufferedImage base = getIfPresent(key, BASE_SIZE);
+        if (base != null) {
+            return base;
+        }
+
+        Path thumb = folder.resolve(key + THUMB_EXTENSION);
+        if (Files.exists(thumb) && (!Files.exists(source)
+                || !Files.getLastModifiedTime(thumb).toInstant()
+                .isBefore(Files.getLastModifiedTime(source).toInstant()))) {
+            base = ImageIO.read(thumb.toFile());
+        }
+        if (base == null) {
+            base = ThumbnailRenderer.render(source, BASE_SIZE);
+            store(thumb, base);
+        }
+        synchronized (this) {
+            put(memoryKey(key, BASE_SIZE), base);
+        }
+        return base;
+    }
+
+    private void store(Path thumb, BufferedImage image) throws IOException {
+        Files.createDirectories(folder);
+        Path partial = thumb.resolveSibling(thumb.getFileName() + ".part");
+        ImageIO.write(image, "png", partial.toFile());
+        Files.move(partial, thumb, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void put(String memoryKey, BufferedImage image) {
+        BufferedImage previous = memory.put(memoryKey, image);
+        if (previous != null) {
+            memoryBytes -= bytes(previous);
+        }
+        memoryBytes += bytes(image);
+
+        Iterator<Map.Entry<String, BufferedImage>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, BufferedImage> entry = eldest.next();
+            if (entry.getValue() != image) {
+                memoryBytes -= bytes(entry.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public void forget(Path source) {
+        String key = keyFor(source);
+        failed.remove(key);
+        synchronized (this) {
+            Iterator<Map.Entry<String, BufferedImage>> entries = memory.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, BufferedImage> entry = entries.next();
+                if (entry.getKey().startsWith(key + "@")) {
+                    memoryBytes -= bytes(entry.getValue());
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static String memoryKey(String key, int size) {
+        return key + "@" + size;
+    }
+
+    private static long bytes(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "thumbnail-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package portfolio.thumbnail;
+
+import portfolio.pdf.PdfPageRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public final class ThumbnailRenderer {
+
+    private ThumbnailRenderer() {
+    }
+
+    public static BufferedImage render(Path source, int maxSize) throws IOException {
+        String name = source.getFileName().toString().toLowerCase();
+        if (name.endsWith(".pdf")) {
+            return PdfPageRenderer.renderFirstPage(source, maxSize);
+        }
+        BufferedImage photo = ImageIO.read(source.toFile());
+        if (photo == null) {
+            throw new IOException("Unsupported image format: " + source.getFileName());
+        }
+        return downscale(photo, maxSize);
+    }
+
+    public static BufferedImage downscale(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (current != image && width == current.getWidth() && height == current.getHeight()) {
+                break;
+            }
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+}
@@ -0,0 +1,391 @@
+package portfolio.viewer;
+
+import portfolio.pdf.PdfDocument;
+import portfolio.pdf.PdfPageRenderer;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Shows every page of a PDF in a vertical strip, scaled to fit the width.
+ * Paint only draws tiles that are already cached. Missing tiles are requested
+ * from the {@link TileCache}. Until they arrive, the page's low-resolution
+ * preview is stretched over the gap. Pages next to the visible ones are
+ * prefetched at the back of the queue.
+ */
+public class PdfViewerPanel extends JComponent implements Scrollable {
+
+    public static final int TILE_SIZE = 256;
+    private static final float[] ZOOM_STEPS = {0.5f, 0.75f, 1f, 1.25f, 1.5f, 2f, 3f};
+    private static final float PREVIEW_SCALE = 0.25f;
+    private static final int GAP = 12;
+    private static final int PREFETCH_PAGES = 2;
+    private static final int MAX_PREPARED_PAGES = 4;
+
+    private final TileCache tiles;
+    private final Map<Integer, CompletableFuture<PdfPageRenderer.PreparedPage>> prepared =
+            new LinkedHashMap<>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<PdfPageRenderer.PreparedPage>> eldest) {
+                    return size() > MAX_PREPARED_PAGES;
+                }
+            };
+
+    private String documentKey = "";
+    private List<Map<String, Object>> pages = List.of();
+    private float[][] sizes = new float[0][];
+    private float scale = 1f;
+    private int[] pageTops = new int[0];
+    private int contentWidth;
+    private int contentHeight;
+
+    // Read by tile workers to drop work that scrolled away or was relaid out.
+    private volatile PdfDocument document;
+    private volatile float wantedScale;
+    private volatile int wantedFirst;
+    private volatile int wantedLast = -1;
+
+    public PdfViewerPanel(TileCache tiles) {
+        this.tiles = tiles;
+        setOpaque(true);
+        setBackground(Color.LIGHT_GRAY);
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        boolean resized = width != getWidth();
+        super.setBounds(x, y, width, height);
+        if (resized) {
+            relayout();
+        }
+    }
+
+    public static String keyPrefix(Path file) {
+        return file.toAbsolutePath().normalize() + "@";
+    }
+
+    public static String documentKey(Path file, long lastModified) {
+        return keyPrefix(file) + lastModified;
+    }
+
+    /**
+     * Sets the page list and page sizes in points. This layout survives
+     * {@link #setDocument(PdfDocument)} calls, so detaching and reattaching the
+     * document keeps the scroll position and the cached tiles.
+     */
+    public void setPages(String documentKey, List<Map<String, Object>> pages, float[][] sizes) {
+        this.documentKey = documentKey;
+        this.pages = pages;
+        this.sizes = sizes;
+        synchronized (prepared) {
+            prepared.clear();
+        }
+        pageTops = new int[0];
+        scale = 0f;
+        relayout();
+    }
+
+    public void setDocument(PdfDocument document) {
+        this.document = document;
+        if (document == null) {
+            synchronized (prepared) {
+                prepared.clear();
+            }
+        }
+        repaint();
+    }
+
+    public int getPageCount() {
+        return sizes.length;
+    }
+
+    private void relayout() {
+        float fitted = fitScale(getWidth());
+        if (fitted == scale && pageTops.length == sizes.length) {
+            return;
+        }
+        int anchorPage = pageAt(getVisibleRect().y);
+        float anchorFraction = anchorPage < 0 ? 0f
+                : (getVisibleRect().y - pageTops[anchorPage]) / (float) Math.max(1, pageHeight(anchorPage));
+
+        scale = fitted;
+        wantedScale = fitted;
+        pageTops = new int[sizes.length];
+        int y = GAP;
+        int widest = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            pageTops[i] = y;
+            y += pageHeight(i) + GAP;
+            widest = Math.max(widest, pageWidth(i));
+        }
+        contentWidth = widest + 2 * GAP;
+        contentHeight = y;
+        revalidate();
+        repaint();
+
+        if (anchorPage >= 0 && anchorPage < pageTops.length) {
+            Rectangle visible = getVisibleRect();
+            visible.y = pageTops[anchorPage] + Math.round(anchorFraction * pageHeight(anchorPage));
+            SwingUtilities.invokeLater(() -> scrollRectToVisible(visible));
+        }
+    }
+
+    private float fitScale(int width) {
+        float widest = 0f;
+        for (float[] size : sizes) {
+            widest = Math.max(widest, size[0]);
+        }
+        if (widest == 0f || width <= 0) {
+            return ZOOM_STEPS[0];
+        }
+        float fit = (width - 2f * GAP) / widest;
+        float chosen = ZOOM_STEPS[0];
+        for (float step : ZOOM_STEPS) {
+            if (step <= fit) {
+                chosen = step;
+            }
+        }
+        return chosen;
+    }
+
+    private int pageWidth(int index) {
+        return Math.max(1, Math.round(sizes[index][0] * scale));
+    }
+
+    private int pageHeight(int index) {
+        return Math.max(1, Math.round(sizes[index][1] * scale));
+    }
+
+    private int pageLeft(int index) {
+        return Math.max(GAP, (getWidth() - pageWidth(index)) / 2);
+    }
+
+    private int pageAt(int y) {
+        int low = 0;
+        int high = pageTops.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (pageTops[middle] <= y) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found < 0 && pageTops.length > 0 ? 0 : found;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (pageTops.length == 0) {
+            return;
+        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+        Rectangle visible = getVisibleRect();
+        int visibleFirst = pageAt(visible.y);
+        int visibleLast = Math.max(visibleFirst, pageAt(visible.y + visible.height));
+        wantedFirst = Math.max(0, visibleFirst - PREFETCH_PAGES);
+        wantedLast = Math.min(pageTops.length - 1, visibleLast + PREFETCH_PAGES);
+
+        for (int page = pageAt(clip.y); page < pageTops.length && pageTops[page] < clip.y + clip.height; page++) {
+            paintPage(g, page, clip);
+        }
+        prefetch(visibleFirst, visibleLast);
+    }
+
+    private void paintPage(Graphics2D g, int page, Rectangle clip) {
+        int left = pageLeft(page);
+        int top = pageTops[page];
+        int width = pageWidth(page);
+        int height = pageHeight(page);
+        g.setColor(Color.GRAY);
+        g.fillRect(left + 2, top + 2, width, height);
+        g.setColor(Color.WHITE);
+        g.fillRect(left, top, width, height);
+
+        BufferedImage preview = tiles.getIfPresent(previewKey(page));
+        boolean missing = false;
+        for (int row = 0; row * TILE_SIZE < height; row++) {
+            int tileTop = top + row * TILE_SIZE;
+            if (tileTop + TILE_SIZE <= clip.y || tileTop >= clip.y + clip.height) {
+                continue;
+            }
+            for (int column = 0; column * TILE_SIZE < width; column++) {
+                int tileLeft = left + column * TILE_SIZE;
+                if (tileLeft + TILE_SIZE <= clip.x || tileLeft >= clip.x + clip.width) {
+                    continue;
+                }
+                BufferedImage tile = tiles.getIfPresent(tileKey(page, column, row));
+                if (tile != null) {
+                    g.drawImage(tile, tileLeft, tileTop, null);
+                    continue;
+                }
+                missing = true;
+                if (preview != null) {
+                    int tileWidth = Math.min(TILE_SIZE, width - column * TILE_SIZE);
+                    int tileHeight = Math.min(TILE_SIZE, height - row * TILE_SIZE);
+                    float ratio = preview.getWidth() / (float) width;
+                    g.drawImage(preview, tileLeft, tileTop, tileLeft + tileWidth, tileTop + tileHeight,
+                            Math.round(column * TILE_SIZE * ratio), Math.round(row * TILE_SIZE * ratio),
+                            Math.round((column * TILE_SIZE + tileWidth) * ratio),
+                            Math.round((row * TILE_SIZE + tileHeight) * ratio), null);
+                }
+                requestTile(page, column, row, false);
+            }
+        }
+        if (missing && preview == null) {
+            requestPreview(page, false);
+        }
+    }
+
+    private void prefetch(int visibleFirst, int visibleLast) {
+        for (int distance = 1; distance <= PREFETCH_PAGES; distance++) {
+            for (int page : new int[]{visibleLast + distance, visibleFirst - distance}) {
+                if (page < 0 || page >= pageTops.length) {
+                    continue;
+                }
+                requestPreview(page, true);
+                if (distance == 1) {
+                    for (int row = 0; row * TILE_SIZE < pageHeight(page); row++) {
+                        for (int column = 0; column * TILE_SIZE < pageWidth(page); column++) {
+                            requestTile(page, column, row, true);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void requestTile(int page, int column, int row, boolean prefetch) {
+        PdfDocument source = document;
+        if (source == null) {
+            return;
+        }
+        List<Map<String, Object>> sourcePages = pages;
+        float tileScale = scale;
+        int width = pageWidth(page);
+        int height = pageHeight(page);
+        tiles.request(tileKey(page, column, row), () -> {
+            int tileWidth = Math.min(TILE_SIZE, width - column * TILE_SIZE);
+            int tileHeight = Math.min(TILE_SIZE, height - row * TILE_SIZE);
+            BufferedImage tile = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = tile.createGraphics();
+            try {
+                g.translate(-column * TILE_SIZE, -row * TILE_SIZE);
+                g.setClip(column * TILE_SIZE, row * TILE_SIZE, tileWidth, tileHeight);
+                preparedPage(source, sourcePages, page).paint(g, width, height);
+            } finally {
+                g.dispose();
+            }
+            return tile;
+        }, () -> isWanted(source, page, tileScale), prefetch, this::repaint);
+    }
+
+    private void requestPreview(int page, boolean prefetch) {
+        PdfDocument source = document;
+        if (source == null) {
+            return;
+        }
+        List<Map<String, Object>> sourcePages = pages;
+        int width = Math.max(1, Math.round(sizes[page][0] * PREVIEW_SCALE));
+        int height = Math.max(1, Math.round(sizes[page][1] * PREVIEW_SCALE));
+        tiles.request(previewKey(page), () -> {
+            BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = preview.createGraphics();
+            try {
+                preparedPage(source, sourcePages, page).paint(g, width, height);
+            } finally {
+                g.dispose();
+            }
+            return preview;
+        }, () -> isWanted(source, page, wantedScale), prefetch, this::repaint);
+    }
+
+    private boolean isWanted(PdfDocument source, int page, float tileScale) {
+        return document == source && wantedScale == tileScale && page >= wantedFirst && page <= wantedLast;
+    }
+
+    private PdfPageRenderer.PreparedPage preparedPage(PdfDocument source, List<Map<String, Object>> sourcePages,
+                                                     int page) throws IOException {
+        CompletableFuture<PdfPageRenderer.PreparedPage> future;
+        boolean owner = false;
+        synchronized (prepared) {
+            future = prepared.get(page);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                prepared.put(page, future);
+                owner = true;
+            }
+        }
+        if (owner) {
+            try {
+                future.complete(PdfPageRenderer.prepare(source, sourcePages.get(page)));
+            } catch (IOException | RuntimeException e) {
+                synchronized (prepared) {
+                    prepared.remove(page);
+                }
+                future.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Cannot render page " + (page + 1), e.getCause());
+        }
+    }
+
+    private String previewKey(int page) {
+        return documentKey + "#" + page + "@preview";
+    }
+
+    private String tileKey(int page, int column, int row) {
+        return documentKey + "#" + page + "@" + Math.round(scale * 100) + ":" + column + "," + row;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(contentWidth, contentHeight);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 32;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height - 32 : visibleRect.width - 32;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
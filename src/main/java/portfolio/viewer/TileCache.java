@@ -0,0 +1,197 @@
+package portfolio.viewer;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Rendered page tiles, kept in an LRU bounded by pixel memory and rendered by a
+ * small pool of background workers. Requests for what is on screen go to the
+ * front of the work queue; prefetches go to the back. A queued task is skipped
+ * if its requester no longer wants it by the time a worker reaches it.
+ */
+public class TileCache {
+
+    public static final long DEFAULT_MEMORY_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_WORKERS = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final long maxMemoryBytes;
+    private final Executor callbackExecutor;
+    private final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final LinkedBlockingDeque<Task> queue = new LinkedBlockingDeque<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private long memoryBytes = 0;
+
+    public TileCache(long maxMemoryBytes, int workerCount, Executor callbackExecutor) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.callbackExecutor = callbackExecutor;
+        for (int i = 1; i <= workerCount; i++) {
+            Thread worker = new Thread(this::work, "pdf-tile-" + i);
+            worker.setDaemon(true);
+            worker.setPriority(Thread.NORM_PRIORITY - 1);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    public static TileCache openDefault(Executor callbackExecutor) {
+        return new TileCache(DEFAULT_MEMORY_BYTES, DEFAULT_WORKERS, callbackExecutor);
+    }
+
+    public synchronized BufferedImage getIfPresent(String key) {
+        return memory.get(key);
+    }
+
+    /**
+     * Renders {@code key} in the background unless it is cached or already queued,
+     * then runs {@code onReady} on the callback executor. A visible request for a
+     * tile that is only queued as a prefetch moves it to the front.
+     */
+    public void request(String key, Renderer renderer, BooleanSupplier wanted, boolean prefetch, Runnable onReady) {
+        synchronized (this) {
+            if (memory.containsKey(key)) {
+                return;
+            }
+            Pending waiting = pending.get(key);
+            if (waiting != null) {
+                if (onReady != null) {
+                    waiting.callbacks.add(onReady);
+                }
+                if (prefetch || !waiting.prefetch) {
+                    return;
+                }
+                waiting.prefetch = false;
+            } else {
+                waiting = new Pending(prefetch);
+                if (onReady != null) {
+                    waiting.callbacks.add(onReady);
+                }
+                pending.put(key, waiting);
+            }
+        }
+        Task task = new Task(key, renderer, wanted);
+        if (prefetch) {
+            queue.offerLast(task);
+        } else {
+            queue.offerFirst(task);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            try {
+                task = queue.takeFirst();
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (memory.containsKey(task.key) || !pending.containsKey(task.key)) {
+                    continue;
+                }
+            }
+            BufferedImage image = null;
+            if (task.wanted.getAsBoolean()) {
+                try {
+                    image = task.renderer.render();
+                } catch (IOException | RuntimeException e) {
+                    image = null;
+                }
+            }
+
+            List<Runnable> callbacks;
+            synchronized (this) {
+                Pending done = pending.remove(task.key);
+                callbacks = done == null ? List.of() : done.callbacks;
+                if (image != null) {
+                    put(task.key, image);
+                }
+            }
+            if (image != null) {
+                for (Runnable callback : callbacks) {
+                    callbackExecutor.execute(callback);
+                }
+            }
+        }
+    }
+
+    private void put(String key, BufferedImage image) {
+        BufferedImage previous = memory.put(key, image);
+        if (previous != null) {
+            memoryBytes -= bytes(previous);
+        }
+        memoryBytes += bytes(image);
+
+        Iterator<Map.Entry<String, BufferedImage>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, BufferedImage> entry = eldest.next();
+            if (entry.getValue() != image) {
+                memoryBytes -= bytes(entry.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized void forget(String keyPrefix) {
+        Iterator<Map.Entry<String, BufferedImage>> entries = memory.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, BufferedImage> entry = entries.next();
+            if (entry.getKey().startsWith(keyPrefix)) {
+                memoryBytes -= bytes(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized int getTileCount() {
+        return memory.size();
+    }
+
+    public void shutdown() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private static long bytes(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    public interface Renderer {
+        BufferedImage render() throws IOException;
+    }
+
+    private static final class Pending {
+        private final List<Runnable> callbacks = new ArrayList<>(1);
+        private boolean prefetch;
+
+        private Pending(boolean prefetch) {
+            this.prefetch = prefetch;
+        }
+    }
+
+    private static final class Task {
+        private final String key;
+        private final Renderer renderer;
+        private final BooleanSupplier wanted;
+
+        private Task(String key, Renderer renderer, BooleanSupplier wanted) {
+            this.key = key;
+            this.renderer = renderer;
+            this.wanted = wanted;
+        }
+    }
+}